@@ -0,0 +1,30 @@
+package com.example.demo.actuator;
+
+import com.example.demo.services.TrendingPortfolioService;
+import com.example.demo.sketches.SpaceSaving;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/trending}: the raw heavy-hitter sketches of this node, private profiles and
+ * error bounds included. Exposed only when listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "trending")
+public class TrendingPortfoliosEndpoint {
+    private final TrendingPortfolioService trendingService;
+
+    public TrendingPortfoliosEndpoint(TrendingPortfolioService trendingService) {
+        this.trendingService = trendingService;
+    }
+
+    @ReadOperation
+    public Map<String, List<SpaceSaving.Entry>> trending(@Nullable Integer limit) {
+        return trendingService.snapshot(limit == null ? 20 : limit);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.collections;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Size cap for the concurrent lookup caches that only need "stay under N entries", not LRU:
+ * entries are dropped in iteration order, which for a {@code ConcurrentHashMap} is effectively
+ * arbitrary and costs no bookkeeping on reads.
+ */
+public final class BoundedMaps {
+
+    private BoundedMaps() {
+    }
+
+    /**
+     * Removes entries until there is room for one more below {@code maxEntries}.
+     */
+    public static void makeRoom(Map<?, ?> map, int maxEntries) {
+        if (map.size() < maxEntries) {
+            return;
+        }
+
+        Iterator<?> keys = map.keySet().iterator();
+        while (map.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
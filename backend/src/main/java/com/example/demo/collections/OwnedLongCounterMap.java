@@ -0,0 +1,115 @@
+package com.example.demo.collections;
+
+import com.example.demo.sketches.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Counters keyed by {@code (owner, long key)} in parallel arrays with linear probing: no boxed
+ * keys, no entry objects, and the owner string is stored by reference only. Grows at 60% load;
+ * there is no removal, callers drain the whole map with {@link #clear()}. Not thread-safe.
+ */
+public class OwnedLongCounterMap {
+
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(String owner, long key, long count);
+    }
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private String[] owners;
+    private long[] keys;
+    private long[] counts;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public OwnedLongCounterMap(int expectedSize) {
+        allocate(tableSizeFor(Math.max(4, (int) (expectedSize / LOAD_FACTOR) + 1)));
+    }
+
+    public long add(String owner, long key, long delta) {
+        int slot = slot(owner, key);
+        while (owners[slot] != null) {
+            if (keys[slot] == key && owners[slot].equals(owner)) {
+                return counts[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        owners[slot] = owner;
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return delta;
+    }
+
+    public long get(String owner, long key) {
+        int slot = slot(owner, key);
+        while (owners[slot] != null) {
+            if (keys[slot] == key && owners[slot].equals(owner)) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0L;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < owners.length; i++) {
+            if (owners[i] != null) {
+                visitor.accept(owners[i], keys[i], counts[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(owners, null);
+        size = 0;
+    }
+
+    private int slot(String owner, long key) {
+        return (int) Hashing.mix(owner.hashCode() * 0x9E3779B97F4A7C15L ^ key) & mask;
+    }
+
+    private void grow() {
+        String[] oldOwners = owners;
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        allocate(oldOwners.length * 2);
+        for (int i = 0; i < oldOwners.length; i++) {
+            if (oldOwners[i] == null) {
+                continue;
+            }
+            int slot = slot(oldOwners[i], oldKeys[i]);
+            while (owners[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            owners[slot] = oldOwners[i];
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        owners = new String[capacity];
+        keys = new long[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int minimum) {
+        return Integer.highestOneBit(minimum - 1) << 1;
+    }
+}
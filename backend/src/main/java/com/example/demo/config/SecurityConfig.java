@@ -29,8 +29,8 @@ public class SecurityConfig {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(origins);
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With", "X-Request-Id"));
-        config.setExposedHeaders(List.of("X-Request-Id"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With", "X-Request-Id", "If-None-Match", "Prefer"));
+        config.setExposedHeaders(List.of("X-Request-Id", "ETag", "Preference-Applied"));
         config.setAllowCredentials(false);
         config.setMaxAge(3600L);
 
@@ -51,6 +51,7 @@ public class SecurityConfig {
                     "/swagger-ui.html"
                 ).permitAll()
                 .requestMatchers("/api/public/**").permitAll()
+                .requestMatchers("/p/**").permitAll()
                 .requestMatchers("/api/analytics/public-view/**").permitAll()
                 .anyRequest().authenticated()
             )
@@ -1,20 +1,40 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.analytics.AnalyticsEventBatchRequest;
 import com.example.demo.dto.analytics.AnalyticsResponse;
+import com.example.demo.dto.analytics.AnalyticsSeriesResponse;
+import com.example.demo.dto.analytics.CountryBreakdownResponse;
+import com.example.demo.dto.analytics.TargetAnalyticsResponse;
+import com.example.demo.dto.analytics.UniqueVisitorsResponse;
 import com.example.demo.models.User;
+import com.example.demo.services.AnalyticsIngestionService;
+import com.example.demo.services.AnalyticsRollupService;
 import com.example.demo.services.AnalyticsService;
+import com.example.demo.services.CountryAnalyticsService;
 import com.example.demo.services.RateLimitService;
+import com.example.demo.services.TargetAnalyticsService;
+import com.example.demo.services.UserAgentClassifier;
 import com.example.demo.services.UserService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/analytics")
 public class AnalyticsController {
@@ -22,6 +42,11 @@ public class AnalyticsController {
     private final AnalyticsService analyticsService;
     private final UserService userService;
     private final RateLimitService rateLimitService;
+    private final AnalyticsRollupService rollupService;
+    private final AnalyticsIngestionService ingestionService;
+    private final TargetAnalyticsService targetAnalyticsService;
+    private final UserAgentClassifier userAgentClassifier;
+    private final CountryAnalyticsService countryAnalyticsService;
 
     @Value("${app.ratelimit.public-view.per-minute:120}")
     private int publicViewPerMinuteLimit;
@@ -29,11 +54,21 @@ public class AnalyticsController {
     public AnalyticsController(
         AnalyticsService analyticsService,
         UserService userService,
-        RateLimitService rateLimitService
+        RateLimitService rateLimitService,
+        AnalyticsRollupService rollupService,
+        AnalyticsIngestionService ingestionService,
+        TargetAnalyticsService targetAnalyticsService,
+        UserAgentClassifier userAgentClassifier,
+        CountryAnalyticsService countryAnalyticsService
     ) {
         this.analyticsService = analyticsService;
         this.userService = userService;
         this.rateLimitService = rateLimitService;
+        this.rollupService = rollupService;
+        this.ingestionService = ingestionService;
+        this.targetAnalyticsService = targetAnalyticsService;
+        this.userAgentClassifier = userAgentClassifier;
+        this.countryAnalyticsService = countryAnalyticsService;
     }
 
     @GetMapping("/me")
@@ -42,14 +77,87 @@ public class AnalyticsController {
         return analyticsService.getMyAnalytics(user);
     }
 
+    // from/to are UTC ISO date-times; the bucket containing "to" is included
+    @GetMapping("/me/series")
+    public AnalyticsSeriesResponse getMySeries(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @RequestParam(required = false) String granularity,
+        @AuthenticationPrincipal Jwt jwt
+    ) {
+        User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        return rollupService.series(user.getId(), from, to, granularity);
+    }
+
+    @GetMapping("/me/unique-visitors")
+    public UniqueVisitorsResponse getMyUniqueVisitors(
+        @RequestParam(required = false) YearMonth from,
+        @RequestParam(required = false) YearMonth to,
+        @AuthenticationPrincipal Jwt jwt
+    ) {
+        User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        return analyticsService.getMyUniqueVisitors(user, from, to);
+    }
+
+    // month is yyyy-MM (UTC), defaulting to the current month
+    @GetMapping("/me/countries")
+    public CountryBreakdownResponse getMyCountries(
+        @RequestParam(required = false) YearMonth month,
+        @AuthenticationPrincipal Jwt jwt
+    ) {
+        User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        return countryAnalyticsService.breakdown(user.getId(), month);
+    }
+
+    // ranked from the owner's in-memory sorted view; type narrows to "project" or "certificate"
+    @GetMapping("/me/targets")
+    public List<TargetAnalyticsResponse> getMyTopTargets(
+        @RequestParam(required = false) String type,
+        @RequestParam(defaultValue = "10") int limit,
+        @AuthenticationPrincipal Jwt jwt
+    ) {
+        User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        return targetAnalyticsService.mostViewed(user.getId(), type, limit);
+    }
+
+    // "Prefer: return=minimal" (RFC 7240) skips reading and serializing the analytics snapshot
     @PostMapping("/me/events/{eventKey}")
-    public AnalyticsResponse trackMyEvent(@PathVariable String eventKey, @AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<AnalyticsResponse> trackMyEvent(
+        @PathVariable String eventKey,
+        @RequestHeader(value = "Prefer", required = false) String prefer,
+        @AuthenticationPrincipal Jwt jwt
+    ) {
+        if (prefer != null && prefer.toLowerCase().contains("return=minimal")) {
+            if (ingestionService.isAsync()) {
+                // the user row is resolved by the ingestion consumer, not on the request thread
+                ingestionService.acceptMyEvent(jwt.getSubject(), jwt.getClaimAsString("email"), eventKey);
+                return ResponseEntity.accepted().header("Preference-Applied", "return=minimal").build();
+            }
+            User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+            analyticsService.recordMyEvent(user, eventKey);
+            return ResponseEntity.noContent().header("Preference-Applied", "return=minimal").build();
+        }
+        User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        return ResponseEntity.ok(analyticsService.incrementMyEvent(user, eventKey));
+    }
+
+    // one request for many owner events, e.g. flushed with fetch(keepalive) on page hide
+    @PostMapping("/me/events:batch")
+    public ResponseEntity<Void> trackMyEvents(
+        @RequestBody @Valid AnalyticsEventBatchRequest request,
+        @AuthenticationPrincipal Jwt jwt
+    ) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
-        return analyticsService.incrementMyEvent(user, eventKey);
+        analyticsService.recordMyEvents(user, request.getEvents());
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/public-view/{userId}")
-    public void trackPublicView(@PathVariable String userId, HttpServletRequest request) {
+    public ResponseEntity<Void> trackPublicView(@PathVariable String userId, HttpServletRequest request) {
+        // crawlers get the same answer as people but leave no rate-limit, dedupe or counter state behind
+        if (userAgentClassifier.isBot(request.getHeader("User-Agent"))) {
+            return ResponseEntity.ok().build();
+        }
         String fingerprint = buildPublicViewerFingerprint(request);
         rateLimitService.check(
             "analytics:public-view:" + fingerprint,
@@ -58,7 +166,12 @@ public class AnalyticsController {
             "PUBLIC_VIEW_RATE_LIMIT",
             "Public profile view rate limit exceeded. Please wait and retry."
         );
+        if (ingestionService.isAsync()) {
+            ingestionService.acceptPublicView(userId, fingerprint);
+            return ResponseEntity.accepted().build();
+        }
         analyticsService.incrementPublicView(userId, fingerprint);
+        return ResponseEntity.ok().build();
     }
 
     private String buildPublicViewerFingerprint(HttpServletRequest request) {
@@ -1,39 +1,46 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.cv.CVResponse;
 import com.example.demo.dto.cv.CVSaveRequest;
-import com.example.demo.models.CV;
 import com.example.demo.models.User;
 import com.example.demo.services.CVService;
+import com.example.demo.services.PortfolioVersionService;
 import com.example.demo.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/cv")
 public class CVController {
     private final CVService cvService;
     private final UserService userService;
+    private final PortfolioVersionService portfolioVersionService;
 
-    public CVController(CVService cvService, UserService userService) {
+    public CVController(CVService cvService, UserService userService, PortfolioVersionService portfolioVersionService) {
         this.cvService = cvService;
         this.userService = userService;
+        this.portfolioVersionService = portfolioVersionService;
     }
 
     @PostMapping
-    public CV saveMyCV(@RequestBody @Valid CVSaveRequest request, @AuthenticationPrincipal Jwt jwt) {
+    public CVResponse saveMyCV(@RequestBody @Valid CVSaveRequest request, @AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreateUser(
             jwt.getSubject(), 
             jwt.getClaimAsString("email"), 
             "User"
         );
-        return cvService.saveOrUpdateCV(user, request);
+        return CVResponse.from(cvService.saveOrUpdateCV(user, request));
     }
 
     @GetMapping
-    public CV getMyCV(@AuthenticationPrincipal Jwt jwt) {
+    public CVResponse getMyCV(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        if (webRequest.checkNotModified(portfolioVersionService.etag(user))) {
+            return null;
+        }
         return cvService.getCV(user);
     }
 
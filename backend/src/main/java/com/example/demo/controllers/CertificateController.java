@@ -1,14 +1,16 @@
 package com.example.demo.controllers;
 
 import com.example.demo.dto.CertificateRequest;
-import com.example.demo.models.Certificate;
+import com.example.demo.dto.CertificateResponse;
 import com.example.demo.models.User;
 import com.example.demo.services.CertificateService;
+import com.example.demo.services.PortfolioVersionService;
 import com.example.demo.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,28 +19,35 @@ import java.util.List;
 public class CertificateController {
     private final CertificateService certificateService;
     private final UserService userService;
+    private final PortfolioVersionService portfolioVersionService;
 
-    public CertificateController(CertificateService certificateService, UserService userService) {
+    public CertificateController(CertificateService certificateService,
+                                 UserService userService,
+                                 PortfolioVersionService portfolioVersionService) {
         this.certificateService = certificateService;
         this.userService = userService;
+        this.portfolioVersionService = portfolioVersionService;
     }
 
     @PostMapping
-    public Certificate add(@RequestBody @Valid CertificateRequest request, @AuthenticationPrincipal Jwt jwt) {
+    public CertificateResponse add(@RequestBody @Valid CertificateRequest request, @AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
-        return certificateService.addCertificate(user, request);
+        return CertificateResponse.from(certificateService.addCertificate(user, request));
     }
 
     @GetMapping
-    public List<Certificate> getAll(@AuthenticationPrincipal Jwt jwt) {
+    public List<CertificateResponse> getAll(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        if (webRequest.checkNotModified(portfolioVersionService.etag(user))) {
+            return null;
+        }
         return certificateService.getUserCertificates(user);
     }
 
     @PutMapping("/{id}")
-    public Certificate update(@PathVariable Long id, @RequestBody @Valid CertificateRequest request, @AuthenticationPrincipal Jwt jwt) {
+    public CertificateResponse update(@PathVariable Long id, @RequestBody @Valid CertificateRequest request, @AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
-        return certificateService.updateCertificate(id, request, user);
+        return CertificateResponse.from(certificateService.updateCertificate(id, request, user));
     }
 
     @DeleteMapping("/{id}")
@@ -1,12 +1,14 @@
 package com.example.demo.controllers;
 
-import com.example.demo.models.Notification;
+import com.example.demo.dto.NotificationResponse;
 import com.example.demo.models.User;
 import com.example.demo.services.NotificationService;
+import com.example.demo.services.PortfolioVersionService;
 import com.example.demo.services.UserService;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -17,15 +19,22 @@ public class NotificationController {
 
     private final NotificationService notificationService;
     private final UserService userService;
+    private final PortfolioVersionService portfolioVersionService;
 
-    public NotificationController(NotificationService notificationService, UserService userService) {
+    public NotificationController(NotificationService notificationService,
+                                  UserService userService,
+                                  PortfolioVersionService portfolioVersionService) {
         this.notificationService = notificationService;
         this.userService = userService;
+        this.portfolioVersionService = portfolioVersionService;
     }
 
     @GetMapping
-    public List<Notification> list(@AuthenticationPrincipal Jwt jwt) {
+    public List<NotificationResponse> list(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
+        if (webRequest.checkNotModified(portfolioVersionService.etag(user))) {
+            return null;
+        }
         return notificationService.getNotifications(user);
     }
 
@@ -36,9 +45,9 @@ public class NotificationController {
     }
 
     @PatchMapping("/{id}/read")
-    public Notification markAsRead(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
+    public NotificationResponse markAsRead(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
-        return notificationService.markAsRead(id, user);
+        return NotificationResponse.from(notificationService.markAsRead(id, user));
     }
 
     @PostMapping("/read-all")
@@ -1,14 +1,16 @@
 package com.example.demo.controllers;
 
 import com.example.demo.dto.ProjectDTO;
-import com.example.demo.models.Project;
+import com.example.demo.dto.ProjectResponse;
 import com.example.demo.models.User;
+import com.example.demo.services.PortfolioVersionService;
 import com.example.demo.services.ProjectService;
 import com.example.demo.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,14 +20,18 @@ public class ProjectController {
 
     private final ProjectService projectService;
     private final UserService userService;
+    private final PortfolioVersionService portfolioVersionService;
 
-    public ProjectController(ProjectService projectService, UserService userService) {
+    public ProjectController(ProjectService projectService,
+                             UserService userService,
+                             PortfolioVersionService portfolioVersionService) {
         this.projectService = projectService;
         this.userService = userService;
+        this.portfolioVersionService = portfolioVersionService;
     }
 
     @PostMapping
-    public Project createProject(@RequestBody @Valid ProjectDTO projectDTO, @AuthenticationPrincipal Jwt jwt) {
+    public ProjectResponse createProject(@RequestBody @Valid ProjectDTO projectDTO, @AuthenticationPrincipal Jwt jwt) {
         // get user from clerk token
         String clerkId = jwt.getSubject();
         String email = jwt.getClaimAsString("email"); 
@@ -33,24 +39,29 @@ public class ProjectController {
         User user = userService.getOrCreateUser(clerkId, email, "New User");
         
         // create project through service
-        return projectService.createProject(user, projectDTO);
+        return ProjectResponse.from(projectService.createProject(user, projectDTO));
     }
 
     @GetMapping
-    public List<Project> getMyProjects(@AuthenticationPrincipal Jwt jwt) {
+    public List<ProjectResponse> getMyProjects(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
         // get user
         String clerkId = jwt.getSubject();
         String email = jwt.getClaimAsString("email");
         User user = userService.getOrCreateUser(clerkId, email, "New User");
 
+        // unchanged since the client's copy: answer 304 without loading projects
+        if (webRequest.checkNotModified(portfolioVersionService.etag(user))) {
+            return null;
+        }
+
         // return only this user's projects
         return projectService.getUserProjects(user);
     }
 
     @PutMapping("/{id}")
-    public Project updateProject(@PathVariable Long id, @RequestBody @Valid ProjectDTO dto, @AuthenticationPrincipal Jwt jwt) {
+    public ProjectResponse updateProject(@PathVariable Long id, @RequestBody @Valid ProjectDTO dto, @AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreateUser(jwt.getSubject(), jwt.getClaimAsString("email"), "User");
-        return projectService.updateProject(id, dto, user);
+        return ProjectResponse.from(projectService.updateProject(id, dto, user));
     }
 
     @DeleteMapping("/{id}")
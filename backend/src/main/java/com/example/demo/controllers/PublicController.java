@@ -1,28 +1,69 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.PortfolioBatchRequest;
 import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.dto.PortfolioSummary;
+import com.example.demo.dto.analytics.TrendingPortfoliosResponse;
 import com.example.demo.enums.NotificationType;
 import com.example.demo.services.NotificationService;
+import com.example.demo.services.PortfolioCacheService;
+import com.example.demo.services.PortfolioVersionService;
+import com.example.demo.services.TrendingPortfolioService;
 import com.example.demo.services.UserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.OptionalLong;
 
 @RestController
 @RequestMapping("/api/public")
 public class PublicController {
 
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
     private final UserService userService;
     private final NotificationService notificationService;
+    private final PortfolioVersionService portfolioVersionService;
+    private final TrendingPortfolioService trendingService;
+
+    @Value("${app.portfolio.precompressed.enabled:true}")
+    private boolean precompressedEnabled;
 
-    public PublicController(UserService userService, NotificationService notificationService) {
+    public PublicController(
+        UserService userService,
+        NotificationService notificationService,
+        PortfolioVersionService portfolioVersionService,
+        TrendingPortfolioService trendingService
+    ) {
         this.userService = userService;
         this.notificationService = notificationService;
+        this.portfolioVersionService = portfolioVersionService;
+        this.trendingService = trendingService;
     }
 
     // userid access (id from clerk)
     @GetMapping("/portfolio/{userId}")
-    public PortfolioResponse getPortfolio(@PathVariable String userId) {
-        PortfolioResponse response = userService.getPublicPortfolio(userId);
-        notificationService.createOnceByUserId(
+    public ResponseEntity<?> getPortfolio(
+        @PathVariable String userId,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        WebRequest webRequest
+    ) {
+        boolean precompressed = precompressedEnabled && userService.canServeEncodedPublicPortfolio();
+        boolean gzip = precompressed && acceptsGzip(acceptEncoding);
+        ResponseEntity<?> response = notModified(userId, gzip, webRequest);
+        if (response == null) {
+            response = precompressed
+                ? encodedPortfolio(userId, gzip)
+                : plainPortfolio(userId);
+        }
+        notificationService.createOnceByUserIdAsync(
             userId,
             NotificationType.FIRST_PUBLIC_PROFILE_VIEW,
             "Public profile viewed",
@@ -30,4 +71,86 @@ public class PublicController {
         );
         return response;
     }
+
+    // cards for directory and embed pages; unknown and private ids are simply absent from the map
+    @PostMapping("/portfolios:batch")
+    public Map<String, PortfolioSummary> getPortfolioSummaries(@RequestBody @Valid PortfolioBatchRequest request) {
+        return userService.getPublicPortfolioSummaries(request.getUserIds());
+    }
+
+    // most viewed public portfolios over the last hour or day, from the in-memory heavy-hitter sketch
+    @GetMapping("/portfolios/trending")
+    public TrendingPortfoliosResponse getTrendingPortfolios(
+        @RequestParam(defaultValue = "hour") String window,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return trendingService.trending(window, limit);
+    }
+
+    // answers revalidation from the cached snapshot or a single version lookup, never from the entity graph
+    private ResponseEntity<?> notModified(String userId, boolean gzip, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return null;
+        }
+
+        OptionalLong version = portfolioVersionService.findPublicVersion(userId);
+        if (version.isEmpty()) {
+            return null;
+        }
+
+        String etag = publicEtag(userId, version.getAsLong(), gzip);
+        if (!webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+
+    private ResponseEntity<PortfolioResponse> plainPortfolio(String userId) {
+        PortfolioResponse portfolio = userService.getPublicPortfolio(userId);
+        return ResponseEntity.ok()
+            .eTag(publicEtag(userId, portfolio.getVersion(), false))
+            .body(portfolio);
+    }
+
+    // writes the cached JSON bytes as-is, so Jackson never walks the entity graph on a hit
+    private ResponseEntity<byte[]> encodedPortfolio(String userId, boolean gzip) {
+        PortfolioCacheService.EncodedPortfolio encoded = userService.getEncodedPublicPortfolio(userId);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(publicEtag(userId, encoded.version(), gzip))
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return builder.body(encoded.json());
+    }
+
+    private String publicEtag(String userId, long version, boolean gzip) {
+        return portfolioVersionService.etag(userId, version, gzip ? GZIP_ETAG_SUFFIX : "");
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.equals("q=0") || param.matches("q=0\\.0*")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,64 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.enums.NotificationType;
+import com.example.demo.services.NotificationService;
+import com.example.demo.services.PortfolioPageService;
+import com.example.demo.services.PortfolioVersionService;
+import com.example.demo.services.UserService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Crawler- and first-visit-friendly HTML rendering of the same data served by
+ * {@code /api/public/portfolio/{userId}}.
+ */
+@RestController
+public class PublicPageController {
+
+    private static final String HTML_ETAG_SUFFIX = "-html";
+
+    private final UserService userService;
+    private final PortfolioPageService portfolioPageService;
+    private final PortfolioVersionService portfolioVersionService;
+    private final NotificationService notificationService;
+
+    public PublicPageController(
+        UserService userService,
+        PortfolioPageService portfolioPageService,
+        PortfolioVersionService portfolioVersionService,
+        NotificationService notificationService
+    ) {
+        this.userService = userService;
+        this.portfolioPageService = portfolioPageService;
+        this.portfolioVersionService = portfolioVersionService;
+        this.notificationService = notificationService;
+    }
+
+    @GetMapping(value = "/p/{userId}", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> getPortfolioPage(@PathVariable String userId, WebRequest webRequest) {
+        long fragmentStamp = portfolioPageService.stamp(userId);
+        PortfolioResponse portfolio = userService.getPublicPortfolio(userId);
+        String etag = portfolioVersionService.etag(userId, portfolio.getVersion(), HTML_ETAG_SUFFIX);
+        notificationService.createOnceByUserIdAsync(
+            userId,
+            NotificationType.FIRST_PUBLIC_PROFILE_VIEW,
+            "Public profile viewed",
+            "Someone opened your public portfolio page for the first time."
+        );
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+            .body(portfolioPageService.render(userId, portfolio, fragmentStamp));
+    }
+}
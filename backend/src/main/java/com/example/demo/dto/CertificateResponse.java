@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import com.example.demo.models.Certificate;
+
+import java.time.LocalDateTime;
+
+public record CertificateResponse(
+    Long id,
+    String title,
+    String name,
+    String description,
+    String issuedBy,
+    String city,
+    String place,
+    String eventName,
+    String eventType,
+    String fileUrl,
+    String imageUrl,
+    String issueDate,
+    Integer importance,
+    boolean pinned,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+    public static CertificateResponse from(Certificate certificate) {
+        return new CertificateResponse(
+            certificate.getId(),
+            certificate.getTitle(),
+            certificate.getName(),
+            certificate.getDescription(),
+            certificate.getIssuedBy(),
+            certificate.getCity(),
+            certificate.getPlace(),
+            certificate.getEventName(),
+            certificate.getEventType(),
+            certificate.getFileUrl(),
+            certificate.getImageUrl(),
+            certificate.getIssueDate(),
+            certificate.getImportance(),
+            certificate.isPinned(),
+            certificate.getCreatedAt(),
+            certificate.getUpdatedAt()
+        );
+    }
+}
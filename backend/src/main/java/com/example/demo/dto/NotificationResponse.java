@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.NotificationType;
+import com.example.demo.models.Notification;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+public record NotificationResponse(
+    Long id,
+    NotificationType type,
+    String title,
+    String message,
+    @JsonProperty("isRead") boolean isRead,
+    LocalDateTime readAt,
+    LocalDateTime createdAt
+) {
+    public static NotificationResponse from(Notification notification) {
+        return new NotificationResponse(
+            notification.getId(),
+            notification.getType(),
+            notification.getTitle(),
+            notification.getMessage(),
+            notification.isRead(),
+            notification.getReadAt(),
+            notification.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PortfolioBatchRequest {
+    @NotEmpty(message = "userIds is required")
+    @Size(max = 100, message = "At most 100 userIds per request")
+    private List<String> userIds;
+}
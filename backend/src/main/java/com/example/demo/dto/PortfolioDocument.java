@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * A stored portfolio document joined with its owner's visibility and version,
+ * read through a constructor projection in {@code PortfolioReadModelRepository}.
+ */
+public record PortfolioDocument(String document, long version, boolean isPublic) {
+}
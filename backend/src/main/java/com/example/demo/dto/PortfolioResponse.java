@@ -1,6 +1,7 @@
 package com.example.demo.dto;
 
 import com.example.demo.models.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.util.List;
 
@@ -11,4 +12,7 @@ public class PortfolioResponse {
     private CV cv;
     private List<Project> projects;
     private List<Certificate> certificates;
+
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public record PortfolioSummary(
+    String userId,
+    String fullName,
+    String profession,
+    String city,
+    List<String> skills,
+    long projectCount,
+    long certificateCount
+) {}
@@ -0,0 +1,44 @@
+package com.example.demo.dto;
+
+import com.example.demo.models.Project;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ProjectResponse(
+    Long id,
+    String title,
+    String description,
+    String githubUrl,
+    String liveUrl,
+    String imageUrl,
+    String role,
+    String stackSummary,
+    String projectType,
+    String status,
+    LocalDate startedAt,
+    LocalDate finishedAt,
+    boolean pinned,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+    public static ProjectResponse from(Project project) {
+        return new ProjectResponse(
+            project.getId(),
+            project.getTitle(),
+            project.getDescription(),
+            project.getGithubUrl(),
+            project.getLiveUrl(),
+            project.getImageUrl(),
+            project.getRole(),
+            project.getStackSummary(),
+            project.getProjectType(),
+            project.getStatus(),
+            project.getStartedAt(),
+            project.getFinishedAt(),
+            project.isPinned(),
+            project.getCreatedAt(),
+            project.getUpdatedAt()
+        );
+    }
+}
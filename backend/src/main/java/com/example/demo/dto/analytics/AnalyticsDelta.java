@@ -0,0 +1,30 @@
+package com.example.demo.dto.analytics;
+
+import com.example.demo.enums.AnalyticsEventType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Counter increments for one user that have not been written yet: one total per
+ * {@link AnalyticsEventType} (indexed by ordinal), per-month activity, and per-hour counts
+ * by event type (UTC hour start to an ordinal-indexed array) that feed the rollups.
+ */
+public record AnalyticsDelta(long[] totals, Map<String, Long> monthly, Map<LocalDateTime, long[]> hourly) {
+
+    public AnalyticsDelta(long[] totals, Map<String, Long> monthly) {
+        this(totals, monthly, Map.of());
+    }
+
+    public long get(AnalyticsEventType type) {
+        return totals[type.ordinal()];
+    }
+
+    public long eventCount() {
+        long events = 0;
+        for (long total : totals) {
+            events += total;
+        }
+        return events;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.dto.analytics;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AnalyticsEventBatchRequest {
+    @NotEmpty(message = "events is required")
+    @Size(max = 100, message = "At most 100 events per request")
+    private List<@Valid Event> events;
+
+    @Data
+    public static class Event {
+        @NotBlank(message = "type is required")
+        private String type;
+
+        // project or certificate id the event refers to, if any
+        @Size(max = 128, message = "targetId is too long")
+        private String targetId;
+
+        // epoch milliseconds on the client; ignored when implausibly far from server time
+        private Long clientTimestamp;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto.analytics;
+
+import com.example.demo.enums.AnalyticsEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the append-only event log. {@code viewerHash} is a hash of the public viewer
+ * fingerprint (never the raw IP or user agent) and is null for owner events; {@code targetId}
+ * is the project or certificate an owner event refers to, if the client sent one.
+ */
+public record AnalyticsEventRecord(
+    LocalDateTime occurredAt,
+    String userId,
+    AnalyticsEventType type,
+    Long viewerHash,
+    String targetId
+) {}
@@ -16,4 +16,8 @@ public class AnalyticsResponse {
     private long cvDownloads;
     private LocalDateTime lastUpdated;
     private Map<String, Long> monthlyActivity;
+    // HyperLogLog estimate, about 1.6% standard error
+    private long uniqueVisitorsThisMonth;
+    // event key -> share of active portfolios (0-100) with fewer such events this month
+    private Map<String, Double> percentilesThisMonth;
 }
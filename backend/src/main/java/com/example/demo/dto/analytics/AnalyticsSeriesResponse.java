@@ -0,0 +1,14 @@
+package com.example.demo.dto.analytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense time series: one point per bucket in {@code [from, to)}, every event key present.
+ * Bucket starts are UTC.
+ */
+public record AnalyticsSeriesResponse(String granularity, LocalDateTime from, LocalDateTime to, List<Point> points) {
+
+    public record Point(LocalDateTime bucketStart, Map<String, Long> counts) {}
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto.analytics;
+
+import java.util.List;
+
+/**
+ * Counted public views of one month by viewer country, highest first. {@code ZZ} collects views
+ * whose address is not in the GeoIP database.
+ */
+public record CountryBreakdownResponse(String month, List<Country> countries) {
+
+    public record Country(String countryCode, long views) {}
+}
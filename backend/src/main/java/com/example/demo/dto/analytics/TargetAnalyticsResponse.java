@@ -0,0 +1,6 @@
+package com.example.demo.dto.analytics;
+
+/**
+ * One project or certificate with its attributed event count (detail views or file opens).
+ */
+public record TargetAnalyticsResponse(String targetType, long targetId, String title, long count) {}
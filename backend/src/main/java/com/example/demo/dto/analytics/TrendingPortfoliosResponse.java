@@ -0,0 +1,15 @@
+package com.example.demo.dto.analytics;
+
+import com.example.demo.dto.PortfolioSummary;
+
+import java.util.List;
+
+/**
+ * Public portfolios with the most counted views in the window, highest first. View counts are
+ * estimates from the in-memory heavy-hitter sketch of the serving node: they can include views
+ * from up to one slice before the window and overcount keys that took over an evicted counter.
+ */
+public record TrendingPortfoliosResponse(String window, List<Item> portfolios) {
+
+    public record Item(PortfolioSummary portfolio, long views) {}
+}
@@ -0,0 +1,3 @@
+package com.example.demo.dto.analytics;
+
+public record UniqueVisitorsResponse(String from, String to, long uniqueVisitors) {}
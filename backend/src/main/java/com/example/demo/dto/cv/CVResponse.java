@@ -0,0 +1,56 @@
+package com.example.demo.dto.cv;
+
+import com.example.demo.models.CV;
+
+import java.util.List;
+
+public record CVResponse(
+    Long id,
+    String profession,
+    Double expectedSalary,
+    String contactEmail,
+    String phone,
+    String city,
+    String citizenship,
+    String birthDate,
+    List<String> skills,
+    List<ExperienceResponse> experiences,
+    List<EducationResponse> educations
+) {
+    public static CVResponse of(
+        CVSummary summary,
+        List<String> skills,
+        List<ExperienceResponse> experiences,
+        List<EducationResponse> educations
+    ) {
+        return new CVResponse(
+            summary.id(),
+            summary.profession(),
+            summary.expectedSalary(),
+            summary.contactEmail(),
+            summary.phone(),
+            summary.city(),
+            summary.citizenship(),
+            summary.birthDate(),
+            skills,
+            experiences,
+            educations
+        );
+    }
+
+    public static CVResponse from(CV cv) {
+        return new CVResponse(
+            cv.getId(),
+            cv.getProfession(),
+            cv.getExpectedSalary(),
+            cv.getContactEmail(),
+            cv.getPhone(),
+            cv.getCity(),
+            cv.getCitizenship(),
+            cv.getBirthDate(),
+            cv.getSkills() == null ? null : cv.getSkills().stream().toList(),
+            cv.getExperiences() == null ? null : cv.getExperiences().stream().map(ExperienceResponse::from).toList(),
+            cv.getEducations() == null ? null : cv.getEducations().stream().map(EducationResponse::from).toList()
+        );
+    }
+}
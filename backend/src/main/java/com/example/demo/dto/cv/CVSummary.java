@@ -0,0 +1,16 @@
+package com.example.demo.dto.cv;
+
+/**
+ * Scalar columns of a CV, read through a constructor projection in {@code CVRepository}.
+ */
+public record CVSummary(
+    Long id,
+    String profession,
+    Double expectedSalary,
+    String contactEmail,
+    String phone,
+    String city,
+    String citizenship,
+    String birthDate
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto.cv;
+
+import com.example.demo.models.Education;
+
+public record EducationResponse(Long id, String institution, String profession, String degree, String year) {
+    public static EducationResponse from(Education education) {
+        return new EducationResponse(
+            education.getId(),
+            education.getInstitution(),
+            education.getProfession(),
+            education.getDegree(),
+            education.getYear()
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto.cv;
+
+import com.example.demo.models.Experience;
+
+public record ExperienceResponse(Long id, String company, String position, String period) {
+    public static ExperienceResponse from(Experience experience) {
+        return new ExperienceResponse(experience.getId(), experience.getCompany(), experience.getPosition(), experience.getPeriod());
+    }
+}
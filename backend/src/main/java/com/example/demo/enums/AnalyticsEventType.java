@@ -0,0 +1,31 @@
+package com.example.demo.enums;
+
+import java.util.Optional;
+
+public enum AnalyticsEventType {
+    PUBLIC_VIEWS("publicViews"),
+    SHARE_CLICKS("shareClicks"),
+    PROJECT_DETAIL_VIEWS("projectDetailViews"),
+    CERTIFICATE_FILE_OPENS("certificateFileOpens"),
+    CV_DOWNLOADS("cvDownloads");
+
+    private final String key;
+
+    AnalyticsEventType(String key) {
+        this.key = key;
+    }
+
+    // the camelCase name used by the API path and the AnalyticsResponse field
+    public String key() {
+        return key;
+    }
+
+    public static Optional<AnalyticsEventType> fromKey(String key) {
+        for (AnalyticsEventType type : values()) {
+            if (type.key.equals(key)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.enums;
+
+import java.util.Optional;
+
+/**
+ * Portfolio entities that owner events can be attributed to, with the event that counts them.
+ */
+public enum AnalyticsTargetType {
+    PROJECT("project", AnalyticsEventType.PROJECT_DETAIL_VIEWS),
+    CERTIFICATE("certificate", AnalyticsEventType.CERTIFICATE_FILE_OPENS);
+
+    private final String key;
+    private final AnalyticsEventType eventType;
+
+    AnalyticsTargetType(String key, AnalyticsEventType eventType) {
+        this.key = key;
+        this.eventType = eventType;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public AnalyticsEventType eventType() {
+        return eventType;
+    }
+
+    public static Optional<AnalyticsTargetType> forEvent(AnalyticsEventType eventType) {
+        for (AnalyticsTargetType type : values()) {
+            if (type.eventType == eventType) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<AnalyticsTargetType> fromKey(String key) {
+        for (AnalyticsTargetType type : values()) {
+            if (type.key.equals(key)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.events;
+
+/**
+ * Published by the write services whenever data that belongs to a user's portfolio
+ * (profile settings, projects, certificates or CV) is created, updated or deleted.
+ * {@code section} lets listeners that cache per section keep the untouched parts.
+ */
+public record PortfolioChangedEvent(String userId, PortfolioSection section) {
+
+    public PortfolioChangedEvent(String userId) {
+        this(userId, PortfolioSection.ALL);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.events;
+
+/**
+ * Part of a portfolio touched by a write. {@link #ALL} is used when the change is not
+ * confined to one section (visibility, account deletion).
+ */
+public enum PortfolioSection {
+    PROFILE,
+    CV,
+    PROJECTS,
+    CERTIFICATES,
+    ALL;
+
+    public boolean affects(PortfolioSection section) {
+        return this == ALL || this == section;
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.demo.geoip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reader for MaxMind DB ({@code .mmdb}) files such as GeoLite2-Country, over a read-only memory
+ * mapping. A lookup walks the binary search tree with absolute reads and then decodes only the
+ * map keys on the path to {@code country.iso_code}; nothing else of the record is materialized.
+ * Absolute reads do not touch buffer state, so one instance serves concurrent lookups.
+ *
+ * @see <a href="https://maxmind.github.io/MaxMind-DB/">MaxMind DB file format</a>
+ */
+public final class MaxMindDbReader {
+    private static final byte[] METADATA_MARKER = {
+        (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 'M', 'a', 'x', 'M', 'i', 'n', 'd', '.', 'c', 'o', 'm'
+    };
+    private static final int METADATA_MAX_SIZE = 128 * 1024;
+    private static final int DATA_SECTION_SEPARATOR = 16;
+
+    private static final int TYPE_POINTER = 1;
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_DOUBLE = 3;
+    private static final int TYPE_UINT16 = 5;
+    private static final int TYPE_UINT32 = 6;
+    private static final int TYPE_MAP = 7;
+    private static final int TYPE_INT32 = 8;
+    private static final int TYPE_UINT64 = 9;
+    private static final int TYPE_ARRAY = 11;
+    private static final int TYPE_BOOLEAN = 14;
+
+    private static final byte[][] COUNTRY_PATH = {utf8("country"), utf8("iso_code")};
+    private static final byte[][] REGISTERED_COUNTRY_PATH = {utf8("registered_country"), utf8("iso_code")};
+
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int recordSize;
+    private final int ipVersion;
+    private final int treeSize;
+    private final int dataStart;
+    private final int ipv4Start;
+    private final String databaseType;
+
+    private MaxMindDbReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int metadataStart = findMetadataStart(buffer);
+        Object decoded = decode(new int[] {metadataStart}, metadataStart);
+        if (!(decoded instanceof Map<?, ?> metadata)) {
+            throw new IllegalArgumentException("MaxMind DB metadata is not a map");
+        }
+        this.nodeCount = intValue(metadata, "node_count");
+        this.recordSize = intValue(metadata, "record_size");
+        this.ipVersion = intValue(metadata, "ip_version");
+        this.databaseType = String.valueOf(metadata.get("database_type"));
+        if (recordSize != 24 && recordSize != 28 && recordSize != 32) {
+            throw new IllegalArgumentException("Unsupported MaxMind DB record size " + recordSize);
+        }
+        this.treeSize = recordSize * 2 / 8 * nodeCount;
+        this.dataStart = treeSize + DATA_SECTION_SEPARATOR;
+        if (dataStart > metadataStart) {
+            throw new IllegalArgumentException("MaxMind DB search tree exceeds the file");
+        }
+
+        // IPv4 addresses live under ::/96 in IPv6 trees
+        int node = 0;
+        if (ipVersion == 6) {
+            for (int i = 0; i < 96 && node < nodeCount; i++) {
+                node = readRecord(node, 0);
+            }
+        }
+        this.ipv4Start = node;
+    }
+
+    public static MaxMindDbReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("MaxMind DB larger than 2 GiB is not supported: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            return new MaxMindDbReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public String databaseType() {
+        return databaseType;
+    }
+
+    /**
+     * ISO 3166-1 alpha-2 country of the address (4 or 16 bytes), falling back to the registered
+     * country when the database has no location for it.
+     */
+    public Optional<String> countryIsoCode(byte[] address) {
+        int record = findRecord(address);
+        if (record < 0) {
+            return Optional.empty();
+        }
+        String country = stringAt(record, COUNTRY_PATH);
+        return Optional.ofNullable(country != null ? country : stringAt(record, REGISTERED_COUNTRY_PATH));
+    }
+
+    // data section offset of the address's record, or -1
+    private int findRecord(byte[] address) {
+        int node;
+        if (address.length == 4) {
+            node = ipv4Start;
+        } else if (ipVersion == 6) {
+            node = 0;
+        } else {
+            return -1;
+        }
+
+        int bits = address.length * 8;
+        for (int i = 0; i < bits && node < nodeCount; i++) {
+            int bit = (address[i >>> 3] >>> (7 - (i & 7))) & 1;
+            node = readRecord(node, bit);
+        }
+        if (node <= nodeCount) {
+            return -1;
+        }
+        return dataStart + (node - nodeCount - DATA_SECTION_SEPARATOR);
+    }
+
+    private int readRecord(int node, int bit) {
+        switch (recordSize) {
+            case 24 -> {
+                return uint(node * 6 + bit * 3, 3);
+            }
+            case 28 -> {
+                int base = node * 7;
+                int middle = u8(base + 3);
+                return bit == 0
+                    ? ((middle & 0xF0) << 20) | uint(base, 3)
+                    : ((middle & 0x0F) << 24) | uint(base + 4, 3);
+            }
+            default -> {
+                return uint(node * 8 + bit * 4, 4);
+            }
+        }
+    }
+
+    // follows map keys from the value at offset; null if a key is missing or the leaf is not a string
+    private String stringAt(int offset, byte[][] path) {
+        int[] cursor = {offset};
+        for (byte[] key : path) {
+            cursor[0] = dereference(cursor);
+            long control = control(cursor);
+            if (type(control) != TYPE_MAP) {
+                return null;
+            }
+            int entries = size(control);
+            boolean found = false;
+            for (int i = 0; i < entries; i++) {
+                if (keyEquals(cursor, key)) {
+                    found = true;
+                    break;
+                }
+                skip(cursor);
+            }
+            if (!found) {
+                return null;
+            }
+        }
+
+        cursor[0] = dereference(cursor);
+        long control = control(cursor);
+        if (type(control) != TYPE_STRING) {
+            return null;
+        }
+        return string(cursor[0], size(control));
+    }
+
+    // compares in place; always advances the cursor past the key, which may be a pointer
+    private boolean keyEquals(int[] cursor, byte[] expected) {
+        int ctrl = u8(cursor[0]);
+        int[] key = cursor;
+        if (ctrl >>> 5 == TYPE_POINTER) {
+            cursor[0]++;
+            key = new int[] {dataStart + pointer(ctrl, cursor)};
+        }
+        long control = control(key);
+        int start = key[0];
+        if (key == cursor) {
+            cursor[0] += size(control);
+        }
+        if (type(control) != TYPE_STRING || size(control) != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Position of the value at the cursor. A pointer is consumed and its target returned;
+     * otherwise the cursor is left in place.
+     */
+    private int dereference(int[] cursor) {
+        int ctrl = u8(cursor[0]);
+        if (ctrl >>> 5 != TYPE_POINTER) {
+            return cursor[0];
+        }
+        cursor[0]++;
+        return dataStart + pointer(ctrl, cursor);
+    }
+
+    private void skip(int[] cursor) {
+        int ctrl = u8(cursor[0]);
+        if (ctrl >>> 5 == TYPE_POINTER) {
+            cursor[0] += 1 + ((ctrl >>> 3) & 0x3) + 1;
+            return;
+        }
+        long control = control(cursor);
+        switch (type(control)) {
+            case TYPE_MAP -> {
+                for (int i = 0; i < size(control); i++) {
+                    skip(cursor);
+                    skip(cursor);
+                }
+            }
+            case TYPE_ARRAY -> {
+                for (int i = 0; i < size(control); i++) {
+                    skip(cursor);
+                }
+            }
+            case TYPE_BOOLEAN -> {
+                // the value is the size field
+            }
+            default -> cursor[0] += size(control);
+        }
+    }
+
+    // metadata only: decodes a whole value into Java objects
+    private Object decode(int[] cursor, int pointerBase) {
+        int ctrl = u8(cursor[0]);
+        if (ctrl >>> 5 == TYPE_POINTER) {
+            cursor[0]++;
+            int target = pointerBase + pointer(ctrl, cursor);
+            return decode(new int[] {target}, pointerBase);
+        }
+        long control = control(cursor);
+        int size = size(control);
+        int start = cursor[0];
+        switch (type(control)) {
+            case TYPE_STRING -> {
+                cursor[0] += size;
+                return string(start, size);
+            }
+            case TYPE_DOUBLE -> {
+                cursor[0] += size;
+                return buffer.getDouble(start);
+            }
+            case TYPE_UINT16, TYPE_UINT32, TYPE_INT32, TYPE_UINT64 -> {
+                cursor[0] += size;
+                long value = 0;
+                for (int i = 0; i < size; i++) {
+                    value = (value << 8) | u8(start + i);
+                }
+                return value;
+            }
+            case TYPE_MAP -> {
+                Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(String.valueOf(decode(cursor, pointerBase)), decode(cursor, pointerBase));
+                }
+                return map;
+            }
+            case TYPE_ARRAY -> {
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(decode(cursor, pointerBase));
+                }
+                return list;
+            }
+            case TYPE_BOOLEAN -> {
+                return size != 0;
+            }
+            default -> {
+                cursor[0] += size;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads a control byte (plus extended type and size bytes) and returns {@code type << 32 | size};
+     * the cursor ends on the payload.
+     */
+    private long control(int[] cursor) {
+        int ctrl = u8(cursor[0]++);
+        int type = ctrl >>> 5;
+        if (type == 0) {
+            type = 7 + u8(cursor[0]++);
+        }
+        int size = ctrl & 0x1F;
+        if (size >= 29) {
+            int length = size - 28;
+            int extra = uint(cursor[0], length);
+            cursor[0] += length;
+            size = switch (length) {
+                case 1 -> 29 + extra;
+                case 2 -> 285 + extra;
+                default -> 65_821 + extra;
+            };
+        }
+        return ((long) type << 32) | size;
+    }
+
+    private int pointer(int ctrl, int[] cursor) {
+        int sizeBits = (ctrl >>> 3) & 0x3;
+        int high = ctrl & 0x7;
+        int length = sizeBits + 1;
+        int raw = uint(cursor[0], length);
+        cursor[0] += length;
+        return switch (sizeBits) {
+            case 0 -> (high << 8) | raw;
+            case 1 -> ((high << 16) | raw) + 2048;
+            case 2 -> ((high << 24) | raw) + 526_336;
+            default -> raw;
+        };
+    }
+
+    private static int type(long control) {
+        return (int) (control >>> 32);
+    }
+
+    private static int size(long control) {
+        return (int) control;
+    }
+
+    private int u8(int index) {
+        return buffer.get(index) & 0xFF;
+    }
+
+    private int uint(int index, int length) {
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | u8(index + i);
+        }
+        return value;
+    }
+
+    private String string(int start, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int findMetadataStart(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int stop = Math.max(0, limit - METADATA_MAX_SIZE);
+        for (int start = limit - METADATA_MARKER.length; start >= stop; start--) {
+            boolean match = true;
+            for (int i = 0; i < METADATA_MARKER.length; i++) {
+                if (buffer.get(start + i) != METADATA_MARKER[i]) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                return start + METADATA_MARKER.length;
+            }
+        }
+        throw new IllegalArgumentException("Not a MaxMind DB file: metadata marker not found");
+    }
+
+    private static int intValue(Map<?, ?> metadata, String key) {
+        if (!(metadata.get(key) instanceof Number number)) {
+            throw new IllegalArgumentException("MaxMind DB metadata lacks " + key);
+        }
+        return Math.toIntExact(number.longValue());
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of fixed-size records in memory-mapped segment files. A segment is
+ * preallocated and mapped once, so an append is a bounds check and a copy into the page cache;
+ * the bytes survive a process crash as soon as the copy returns, and {@link #force()} bounds
+ * what an operating system crash can take.
+ *
+ * <p>Each slot is a marker byte, the payload and a CRC32 of both. Replay stops at the first
+ * empty slot of a segment and skips slots whose checksum does not match (a torn tail).
+ * Segments are never rewritten: {@link #seal()} moves appends to a fresh segment and
+ * {@link #release(long)} deletes sealed segments once their records are stored elsewhere.
+ */
+public final class MappedSegmentJournal implements Closeable {
+    public static final int FRAME_BYTES = 1 + Integer.BYTES;
+
+    private static final byte MARKER = 0x4A;
+    private static final String SUFFIX = ".wal";
+    private static final int SEQUENCE_DIGITS = 20;
+
+    // the payload buffer is reused for the next record
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(ByteBuffer payload);
+    }
+
+    private final Path directory;
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final TreeSet<Long> sealed = new TreeSet<>();
+    private final List<Long> recovered;
+    private final CRC32 crc = new CRC32();
+    private long activeSequence;
+    private MappedByteBuffer active;
+    private int activeRecords;
+    private long corruptRecords;
+
+    private MappedSegmentJournal(Path directory, int recordSize, int recordsPerSegment, List<Long> recovered) {
+        this.directory = directory;
+        this.recordSize = recordSize;
+        this.recordsPerSegment = recordsPerSegment;
+        this.recovered = recovered;
+        this.sealed.addAll(recovered);
+    }
+
+    /**
+     * Opens the journal in {@code directory}. Segments already present are kept for
+     * {@link #replay} and appends go to a new segment after them.
+     */
+    public static MappedSegmentJournal open(Path directory, int recordSize, int segmentBytes) throws IOException {
+        if (recordSize <= FRAME_BYTES) {
+            throw new IllegalArgumentException("Record size must exceed the " + FRAME_BYTES + " byte frame");
+        }
+        int recordsPerSegment = segmentBytes / recordSize;
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("Segment size must hold at least one record");
+        }
+
+        Files.createDirectories(directory);
+        List<Long> existing = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String digits = name.substring(0, name.length() - SUFFIX.length());
+                if (digits.length() == SEQUENCE_DIGITS && digits.chars().allMatch(Character::isDigit)) {
+                    existing.add(Long.parseLong(digits));
+                }
+            }
+        }
+        existing.sort(null);
+
+        MappedSegmentJournal journal = new MappedSegmentJournal(directory, recordSize, recordsPerSegment, List.copyOf(existing));
+        journal.startSegment(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+        return journal;
+    }
+
+    public int payloadSize() {
+        return recordSize - FRAME_BYTES;
+    }
+
+    /**
+     * Appends one record; {@code payload} is zero-padded to {@link #payloadSize()}.
+     */
+    public synchronized void append(byte[] payload) throws IOException {
+        if (payload.length > payloadSize()) {
+            throw new IllegalArgumentException("Payload of " + payload.length + " bytes exceeds " + payloadSize());
+        }
+        if (active == null) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (activeRecords == recordsPerSegment) {
+            roll();
+        }
+
+        int offset = activeRecords * recordSize;
+        active.put(offset, MARKER);
+        active.put(offset + 1, payload);
+        crc.reset();
+        crc.update(MARKER);
+        crc.update(payload);
+        for (int i = payload.length; i < payloadSize(); i++) {
+            crc.update(0);
+        }
+        active.putInt(offset + recordSize - Integer.BYTES, (int) crc.getValue());
+        activeRecords++;
+    }
+
+    /**
+     * Starts a new segment if the current one has records and returns its sequence: every record
+     * appended before this call lives in a segment below it.
+     */
+    public synchronized long seal() throws IOException {
+        if (activeRecords > 0) {
+            roll();
+        }
+        return activeSequence;
+    }
+
+    /**
+     * Deletes sealed segments below {@code beforeSequence}; returns how many were removed.
+     */
+    public synchronized int release(long beforeSequence) throws IOException {
+        int released = 0;
+        Iterator<Long> iterator = sealed.headSet(beforeSequence).iterator();
+        while (iterator.hasNext()) {
+            Files.deleteIfExists(segmentPath(iterator.next()));
+            iterator.remove();
+            released++;
+        }
+        return released;
+    }
+
+    /**
+     * Visits the valid records of the segments found by {@link #open}, oldest first; returns the
+     * number visited. Does not release anything.
+     */
+    public int replay(RecordVisitor visitor) throws IOException {
+        int visited = 0;
+        ByteBuffer slot = ByteBuffer.allocate(recordSize);
+        for (long sequence : recovered) {
+            Path file = segmentPath(sequence);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                CRC32 check = new CRC32();
+                while (true) {
+                    slot.clear();
+                    while (slot.hasRemaining() && channel.read(slot) >= 0) {
+                        // fill the whole slot
+                    }
+                    if (slot.hasRemaining() || slot.get(0) != MARKER) {
+                        break;
+                    }
+                    check.reset();
+                    check.update(slot.array(), 0, recordSize - Integer.BYTES);
+                    if ((int) check.getValue() != slot.getInt(recordSize - Integer.BYTES)) {
+                        synchronized (this) {
+                            corruptRecords++;
+                        }
+                        continue;
+                    }
+                    visitor.visit(ByteBuffer.wrap(slot.array(), 1, payloadSize()).slice().asReadOnlyBuffer());
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Flushes the active segment's dirty pages to the device.
+     */
+    public synchronized void force() {
+        if (active != null && activeRecords > 0) {
+            active.force();
+        }
+    }
+
+    public synchronized int segmentCount() {
+        return sealed.size() + (active == null ? 0 : 1);
+    }
+
+    public synchronized int activeRecords() {
+        return activeRecords;
+    }
+
+    public synchronized long corruptRecords() {
+        return corruptRecords;
+    }
+
+    /**
+     * Forces the active segment; an empty one is deleted so a clean restart has nothing to scan.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (active == null) {
+            return;
+        }
+        if (activeRecords > 0) {
+            active.force();
+        } else {
+            Files.deleteIfExists(segmentPath(activeSequence));
+        }
+        active = null;
+    }
+
+    private void roll() throws IOException {
+        active.force();
+        sealed.add(activeSequence);
+        startSegment(activeSequence + 1);
+    }
+
+    private void startSegment(long sequence) throws IOException {
+        Path file = segmentPath(sequence);
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordSize * recordsPerSegment);
+        }
+        activeSequence = sequence;
+        activeRecords = 0;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format(Locale.ROOT, "%0" + SEQUENCE_DIGITS + "d%s", sequence, SUFFIX));
+    }
+}
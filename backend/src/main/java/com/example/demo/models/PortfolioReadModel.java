@@ -0,0 +1,32 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * One serialized {@link com.example.demo.dto.PortfolioResponse} per user, rebuilt on every
+ * portfolio write. Visibility and version are not copied here; they are joined from {@code users}.
+ */
+@Entity
+@Table(name = "portfolio_read_model")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PortfolioReadModel {
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private String document;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
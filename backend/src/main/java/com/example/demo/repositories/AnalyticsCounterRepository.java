@@ -0,0 +1,169 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Applies analytics deltas as atomic, additive upserts: no entity is loaded and concurrent
+ * writers (threads or nodes) cannot lose each other's increments. PostgreSQL gets
+ * {@code INSERT ... ON CONFLICT DO UPDATE}; other databases (the H2 used in tests) get the
+ * equivalent standard {@code MERGE}.
+ */
+@Repository
+public class AnalyticsCounterRepository extends DialectAwareJdbcRepository {
+
+    private static final String TOTALS_UPSERT_POSTGRES = """
+        INSERT INTO portfolio_analytics
+            (user_id, public_views, share_clicks, project_detail_views, certificate_file_opens, cv_downloads, last_updated)
+        VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+        ON CONFLICT (user_id) DO UPDATE SET
+            public_views = portfolio_analytics.public_views + EXCLUDED.public_views,
+            share_clicks = portfolio_analytics.share_clicks + EXCLUDED.share_clicks,
+            project_detail_views = portfolio_analytics.project_detail_views + EXCLUDED.project_detail_views,
+            certificate_file_opens = portfolio_analytics.certificate_file_opens + EXCLUDED.certificate_file_opens,
+            cv_downloads = portfolio_analytics.cv_downloads + EXCLUDED.cv_downloads,
+            last_updated = EXCLUDED.last_updated
+        """;
+
+    private static final String MONTHLY_UPSERT_POSTGRES = """
+        INSERT INTO portfolio_analytics_monthly (user_id, month_key, event_count)
+        VALUES (?, ?, ?)
+        ON CONFLICT (user_id, month_key) DO UPDATE SET
+            event_count = portfolio_analytics_monthly.event_count + EXCLUDED.event_count
+        """;
+
+    private static final String TOTALS_UPSERT_STANDARD = """
+        MERGE INTO portfolio_analytics t
+        USING (VALUES (CAST(? AS VARCHAR(128)), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                       CAST(? AS BIGINT), CAST(? AS BIGINT)))
+            AS s (user_id, public_views, share_clicks, project_detail_views, certificate_file_opens, cv_downloads)
+        ON t.user_id = s.user_id
+        WHEN MATCHED THEN UPDATE SET
+            public_views = t.public_views + s.public_views,
+            share_clicks = t.share_clicks + s.share_clicks,
+            project_detail_views = t.project_detail_views + s.project_detail_views,
+            certificate_file_opens = t.certificate_file_opens + s.certificate_file_opens,
+            cv_downloads = t.cv_downloads + s.cv_downloads,
+            last_updated = CURRENT_TIMESTAMP
+        WHEN NOT MATCHED THEN INSERT
+            (user_id, public_views, share_clicks, project_detail_views, certificate_file_opens, cv_downloads, last_updated)
+            VALUES (s.user_id, s.public_views, s.share_clicks, s.project_detail_views, s.certificate_file_opens,
+                    s.cv_downloads, CURRENT_TIMESTAMP)
+        """;
+
+    private static final String MONTHLY_UPSERT_STANDARD = """
+        MERGE INTO portfolio_analytics_monthly t
+        USING (VALUES (CAST(? AS VARCHAR(128)), CAST(? AS VARCHAR(7)), CAST(? AS BIGINT)))
+            AS s (user_id, month_key, event_count)
+        ON t.user_id = s.user_id AND t.month_key = s.month_key
+        WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count
+        WHEN NOT MATCHED THEN INSERT (user_id, month_key, event_count) VALUES (s.user_id, s.month_key, s.event_count)
+        """;
+
+    private static final String ROLLUP_UPSERT_POSTGRES = """
+        INSERT INTO portfolio_analytics_rollups (user_id, granularity, bucket_start, event_type, event_count)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (user_id, granularity, bucket_start, event_type) DO UPDATE SET
+            event_count = portfolio_analytics_rollups.event_count + EXCLUDED.event_count
+        """;
+
+    private static final String ROLLUP_UPSERT_STANDARD = """
+        MERGE INTO portfolio_analytics_rollups t
+        USING (VALUES (CAST(? AS VARCHAR(128)), CAST(? AS VARCHAR(5)), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(32)),
+                       CAST(? AS BIGINT)))
+            AS s (user_id, granularity, bucket_start, event_type, event_count)
+        ON t.user_id = s.user_id AND t.granularity = s.granularity AND t.bucket_start = s.bucket_start
+            AND t.event_type = s.event_type
+        WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count
+        WHEN NOT MATCHED THEN INSERT (user_id, granularity, bucket_start, event_type, event_count)
+            VALUES (s.user_id, s.granularity, s.bucket_start, s.event_type, s.event_count)
+        """;
+
+    private final AnalyticsPercentileRepository percentileRepository;
+
+    public AnalyticsCounterRepository(JdbcTemplate jdbcTemplate, AnalyticsPercentileRepository percentileRepository) {
+        super(jdbcTemplate);
+        this.percentileRepository = percentileRepository;
+    }
+
+    /**
+     * Three batched statements for any number of users: totals first (the monthly table
+     * references them), then month buckets, then the hour/day/month rollups. Keys are applied in sorted order so concurrent
+     * flushes lock rows in the same order and cannot deadlock. The changed month rollups then move
+     * their users between the cross-user percentile buckets in the same transaction.
+     */
+    public void increment(SortedMap<String, AnalyticsDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> totals = new ArrayList<>(deltas.size());
+        List<Object[]> monthly = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, AnalyticsDelta> entry : deltas.entrySet()) {
+            AnalyticsDelta delta = entry.getValue();
+            totals.add(new Object[] {
+                entry.getKey(),
+                delta.get(AnalyticsEventType.PUBLIC_VIEWS),
+                delta.get(AnalyticsEventType.SHARE_CLICKS),
+                delta.get(AnalyticsEventType.PROJECT_DETAIL_VIEWS),
+                delta.get(AnalyticsEventType.CERTIFICATE_FILE_OPENS),
+                delta.get(AnalyticsEventType.CV_DOWNLOADS)
+            });
+            delta.monthly().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(month -> monthly.add(new Object[] {entry.getKey(), month.getKey(), month.getValue()}));
+        }
+
+        boolean usePostgres = isPostgres();
+        jdbcTemplate.batchUpdate(usePostgres ? TOTALS_UPSERT_POSTGRES : TOTALS_UPSERT_STANDARD, totals);
+        if (!monthly.isEmpty()) {
+            jdbcTemplate.batchUpdate(usePostgres ? MONTHLY_UPSERT_POSTGRES : MONTHLY_UPSERT_STANDARD, monthly);
+        }
+        List<Object[]> rollups = rollupRows(deltas);
+        if (!rollups.isEmpty()) {
+            jdbcTemplate.batchUpdate(usePostgres ? ROLLUP_UPSERT_POSTGRES : ROLLUP_UPSERT_STANDARD, rollups);
+            percentileRepository.applyMonthTransitions(deltas);
+        }
+    }
+
+    /**
+     * Every hour count is added to its hour, day and month bucket at write time, so a series
+     * query at any granularity reads precomputed rows. Rows are pre-aggregated and sorted by key.
+     */
+    private static List<Object[]> rollupRows(SortedMap<String, AnalyticsDelta> deltas) {
+        AnalyticsEventType[] types = AnalyticsEventType.values();
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<String, AnalyticsDelta> entry : deltas.entrySet()) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                SortedMap<LocalDateTime, long[]> buckets = new TreeMap<>();
+                entry.getValue().hourly().forEach((hour, counts) -> {
+                    long[] bucket = buckets.computeIfAbsent(granularity.bucketStart(hour), ignored -> new long[types.length]);
+                    for (int i = 0; i < types.length; i++) {
+                        bucket[i] += counts[i];
+                    }
+                });
+                buckets.forEach((bucketStart, counts) -> {
+                    for (AnalyticsEventType type : types) {
+                        if (counts[type.ordinal()] > 0) {
+                            rows.add(new Object[] {
+                                entry.getKey(), granularity.name(), Timestamp.valueOf(bucketStart), type.key(), counts[type.ordinal()]
+                            });
+                        }
+                    }
+                });
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.analytics.AnalyticsEventRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only writes to {@code analytics_events} and, on PostgreSQL, management of its monthly
+ * range partitions ({@code analytics_events_yYYYYmMM}). Dropping a partition removes a whole
+ * month in one catalog operation instead of a row-by-row delete.
+ */
+@Repository
+public class AnalyticsEventRepository extends DialectAwareJdbcRepository {
+    private static final String INSERT_PREFIX = "INSERT INTO analytics_events (occurred_at, user_id, event_type, viewer_hash, target_id) VALUES ";
+    private static final String PARTITION_PREFIX = "analytics_events_";
+    private static final Pattern PARTITION_NAME = Pattern.compile("analytics_events_y(\\d{4})m(\\d{2})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final String SELECT_PARTITIONS = """
+        SELECT child.relname FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'analytics_events'
+        """;
+
+    // blocks inserts into the default partition but not reads
+    private static final String LOCK_DEFAULT_PARTITION = "LOCK TABLE analytics_events_default IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String PARTITION_EXISTS = "SELECT to_regclass(?) IS NOT NULL";
+
+    private static final String MOVE_FROM_DEFAULT = """
+        WITH moved AS (
+            DELETE FROM analytics_events_default WHERE occurred_at >= ? AND occurred_at < ?
+            RETURNING occurred_at, user_id, event_type, viewer_hash, target_id
+        )
+        INSERT INTO %s (occurred_at, user_id, event_type, viewer_hash, target_id)
+        SELECT occurred_at, user_id, event_type, viewer_hash, target_id FROM moved
+        """;
+
+    // multi-row INSERT text per row count, so a steady batch size reuses one prepared statement
+    private final Map<Integer, String> insertSql = new ConcurrentHashMap<>();
+
+    public AnalyticsEventRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * Writes the rows as one multi-row {@code INSERT ... VALUES (...), (...)} statement.
+     */
+    public void insertAll(List<AnalyticsEventRecord> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Object[] args = new Object[events.size() * 5];
+        int index = 0;
+        for (AnalyticsEventRecord event : events) {
+            args[index++] = Timestamp.valueOf(event.occurredAt());
+            args[index++] = event.userId();
+            args[index++] = event.type().key();
+            args[index++] = event.viewerHash();
+            args[index++] = event.targetId();
+        }
+        jdbcTemplate.update(insertSql.computeIfAbsent(events.size(), AnalyticsEventRepository::buildInsert), args);
+    }
+
+    public boolean supportsPartitions() {
+        return isPostgres();
+    }
+
+    /**
+     * Creates the month's partition unless it exists. {@code PARTITION OF} is refused while
+     * {@code analytics_events_default} holds rows of that month, so the partition is created
+     * detached, those rows are moved into it and it is attached, all while inserts into the default
+     * partition wait on its lock. Returns the number of rows moved, or -1 if the partition existed.
+     */
+    @Transactional
+    public int createMonthlyPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute(LOCK_DEFAULT_PARTITION);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(PARTITION_EXISTS, Boolean.class, name))) {
+            return -1;
+        }
+
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE analytics_events INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update(MOVE_FROM_DEFAULT.formatted(name), from, to);
+        jdbcTemplate.execute("ALTER TABLE analytics_events ATTACH PARTITION " + name
+            + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        return moved;
+    }
+
+    public List<YearMonth> findMonthlyPartitions() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    public void dropMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    // unpartitioned fallback (H2)
+    public int deleteBefore(YearMonth month) {
+        return jdbcTemplate.update("DELETE FROM analytics_events WHERE occurred_at < ?", Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(month);
+    }
+
+    private static String buildInsert(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * 18).append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import com.example.demo.sketches.LogHistogram;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Cross-user distribution of monthly counts per event type in {@code portfolio_analytics_percentiles}:
+ * one row per {@link LogHistogram} bucket holding the number of portfolios whose month count
+ * falls in it. Rows only ever receive additive deltas, so any number of nodes can write them.
+ */
+@Repository
+public class AnalyticsPercentileRepository extends DialectAwareJdbcRepository {
+
+    public record BucketKey(String eventType, String monthKey, int bucket) implements Comparable<BucketKey> {
+        @Override
+        public int compareTo(BucketKey other) {
+            int byType = eventType.compareTo(other.eventType);
+            if (byType != 0) {
+                return byType;
+            }
+            int byMonth = monthKey.compareTo(other.monthKey);
+            return byMonth != 0 ? byMonth : Integer.compare(bucket, other.bucket);
+        }
+    }
+
+    private static final int USERS_PER_QUERY = 500;
+
+    private static final String UPSERT_POSTGRES = """
+        INSERT INTO portfolio_analytics_percentiles (event_type, month_key, bucket, user_count)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (event_type, month_key, bucket) DO UPDATE SET
+            user_count = portfolio_analytics_percentiles.user_count + EXCLUDED.user_count
+        """;
+
+    private static final String UPSERT_STANDARD = """
+        MERGE INTO portfolio_analytics_percentiles t
+        USING (VALUES (CAST(? AS VARCHAR(32)), CAST(? AS VARCHAR(7)), CAST(? AS INTEGER), CAST(? AS BIGINT)))
+            AS s (event_type, month_key, bucket, user_count)
+        ON t.event_type = s.event_type AND t.month_key = s.month_key AND t.bucket = s.bucket
+        WHEN MATCHED THEN UPDATE SET user_count = t.user_count + s.user_count
+        WHEN NOT MATCHED THEN INSERT (event_type, month_key, bucket, user_count)
+            VALUES (s.event_type, s.month_key, s.bucket, s.user_count)
+        """;
+
+    private static final String SELECT_MONTH_COUNTS = """
+        SELECT user_id, event_type, event_count FROM portfolio_analytics_rollups
+        WHERE granularity = 'MONTH' AND bucket_start = ? AND user_id IN (%s)
+        """;
+
+    private static final String SELECT_MONTH = """
+        SELECT event_type, bucket, user_count FROM portfolio_analytics_percentiles WHERE month_key = ?
+        """;
+
+    public AnalyticsPercentileRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * Moves every user whose month count changed from the bucket of its old count to the bucket
+     * of its new one. Must run in the transaction that just added {@code deltas} to the month
+     * rollups: those rows are locked by it, so {@code stored - delta} is exactly the count before.
+     */
+    public void applyMonthTransitions(SortedMap<String, AnalyticsDelta> deltas) {
+        Map<LocalDateTime, Map<String, long[]>> byMonth = new TreeMap<>();
+        deltas.forEach((userId, delta) -> delta.hourly().forEach((hour, counts) -> {
+            long[] month = byMonth
+                .computeIfAbsent(RollupGranularity.MONTH.bucketStart(hour), ignored -> new HashMap<>())
+                .computeIfAbsent(userId, ignored -> new long[counts.length]);
+            for (int i = 0; i < counts.length; i++) {
+                month[i] += counts[i];
+            }
+        }));
+
+        SortedMap<BucketKey, Long> changes = new TreeMap<>();
+        byMonth.forEach((monthStart, users) -> {
+            String monthKey = YearMonth.from(monthStart).toString();
+            List<String> userIds = new ArrayList<>(users.keySet());
+            for (int from = 0; from < userIds.size(); from += USERS_PER_QUERY) {
+                List<String> chunk = userIds.subList(from, Math.min(from + USERS_PER_QUERY, userIds.size()));
+                List<Object> args = new ArrayList<>(chunk.size() + 1);
+                args.add(Timestamp.valueOf(monthStart));
+                args.addAll(chunk);
+                jdbcTemplate.query(
+                    SELECT_MONTH_COUNTS.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?"))),
+                    resultSet -> {
+                        AnalyticsEventType type = AnalyticsEventType.fromKey(resultSet.getString(2)).orElse(null);
+                        if (type == null) {
+                            return;
+                        }
+                        long added = users.get(resultSet.getString(1))[type.ordinal()];
+                        long current = resultSet.getLong(3);
+                        if (added <= 0 || current <= 0) {
+                            return;
+                        }
+                        long previous = current - added;
+                        if (previous > 0) {
+                            changes.merge(new BucketKey(type.key(), monthKey, LogHistogram.bucketOf(previous)), -1L, Long::sum);
+                        }
+                        changes.merge(new BucketKey(type.key(), monthKey, LogHistogram.bucketOf(current)), 1L, Long::sum);
+                    },
+                    args.toArray()
+                );
+            }
+        });
+        increment(changes);
+    }
+
+    /**
+     * One batched statement, keys in sorted order; zero changes are skipped.
+     */
+    public void increment(SortedMap<BucketKey, Long> changes) {
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        changes.forEach((key, count) -> {
+            if (count != 0) {
+                rows.add(new Object[] {key.eventType(), key.monthKey(), key.bucket(), count});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES : UPSERT_STANDARD, rows);
+        }
+    }
+
+    // a few hundred rows per event type at most
+    public Map<String, Map<Integer, Long>> findMonth(String monthKey) {
+        Map<String, Map<Integer, Long>> histograms = new HashMap<>();
+        jdbcTemplate.query(SELECT_MONTH, resultSet -> {
+            histograms.computeIfAbsent(resultSet.getString(1), ignored -> new HashMap<>())
+                .put(resultSet.getInt(2), resultSet.getLong(3));
+        }, monthKey);
+        return histograms;
+    }
+}
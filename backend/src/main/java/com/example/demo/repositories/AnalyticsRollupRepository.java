@@ -0,0 +1,51 @@
+package com.example.demo.repositories;
+
+import com.example.demo.enums.RollupGranularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and prunes {@code portfolio_analytics_rollups}; writes go through
+ * {@link AnalyticsCounterRepository#increment} together with the counters.
+ */
+@Repository
+public class AnalyticsRollupRepository {
+
+    public record RollupRow(LocalDateTime bucketStart, String eventType, long count) {}
+
+    private static final String SELECT_RANGE = """
+        SELECT bucket_start, event_type, event_count FROM portfolio_analytics_rollups
+        WHERE user_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?
+        ORDER BY bucket_start
+        """;
+
+    private static final String DELETE_OLDER_THAN = """
+        DELETE FROM portfolio_analytics_rollups WHERE granularity = ? AND bucket_start < ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalyticsRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<RollupRow> findRange(String userId, RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+            SELECT_RANGE,
+            (resultSet, rowNum) -> new RollupRow(
+                resultSet.getTimestamp(1).toLocalDateTime(),
+                resultSet.getString(2),
+                resultSet.getLong(3)
+            ),
+            userId, granularity.name(), Timestamp.valueOf(from), Timestamp.valueOf(to)
+        );
+    }
+
+    public int deleteOlderThan(RollupGranularity granularity, LocalDateTime cutoff) {
+        return jdbcTemplate.update(DELETE_OLDER_THAN, granularity.name(), Timestamp.valueOf(cutoff));
+    }
+}
@@ -1,10 +1,43 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.cv.CVSummary;
+import com.example.demo.dto.cv.EducationResponse;
+import com.example.demo.dto.cv.ExperienceResponse;
 import com.example.demo.models.CV;
 import com.example.demo.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
 import java.util.Optional;
 
 public interface CVRepository extends JpaRepository<CV, Long> {
     Optional<CV> findByUser(User user);
-}
\ No newline at end of file
+
+    @Query("""
+        select new com.example.demo.dto.cv.CVSummary(
+            c.id, c.profession, c.expectedSalary, c.contactEmail, c.phone, c.city, c.citizenship, c.birthDate)
+        from CV c
+        where c.user.id = :userId
+        """)
+    Optional<CVSummary> findSummaryByUserId(@Param("userId") String userId);
+
+    @Query("select s from CV c join c.skills s where c.id = :cvId")
+    List<String> findSkillsByCvId(@Param("cvId") Long cvId);
+
+    @Query("""
+        select new com.example.demo.dto.cv.ExperienceResponse(e.id, e.company, e.position, e.period)
+        from Experience e
+        where e.cv.id = :cvId
+        order by e.id
+        """)
+    List<ExperienceResponse> findExperienceResponsesByCvId(@Param("cvId") Long cvId);
+
+    @Query("""
+        select new com.example.demo.dto.cv.EducationResponse(e.id, e.institution, e.profession, e.degree, e.year)
+        from Education e
+        where e.cv.id = :cvId
+        order by e.id
+        """)
+    List<EducationResponse> findEducationResponsesByCvId(@Param("cvId") Long cvId);
+}
@@ -1,12 +1,24 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.CertificateResponse;
 import com.example.demo.models.Certificate;
 import com.example.demo.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface CertificateRepository extends JpaRepository<Certificate, Long> {
     List<Certificate> findByUser(User user);
     long countByUser(User user); // for counter in dashboard
-    
-}
\ No newline at end of file
+
+    @Query("""
+        select new com.example.demo.dto.CertificateResponse(
+            c.id, c.title, c.name, c.description, c.issuedBy, c.city, c.place, c.eventName, c.eventType,
+            c.fileUrl, c.imageUrl, c.issueDate, c.importance, c.isPinned, c.createdAt, c.updatedAt)
+        from Certificate c
+        where c.user.id = :userId
+        order by c.id
+        """)
+    List<CertificateResponse> findResponsesByUserId(@Param("userId") String userId);
+}
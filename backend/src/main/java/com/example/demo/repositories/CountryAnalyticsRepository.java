@@ -0,0 +1,65 @@
+package com.example.demo.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Public views per owner, month and viewer country in {@code portfolio_analytics_countries},
+ * next to the monthly buckets; additive upserts like {@link AnalyticsCounterRepository}.
+ */
+@Repository
+public class CountryAnalyticsRepository extends DialectAwareJdbcRepository {
+
+    public record CountryDelta(String userId, String monthKey, String countryCode, long count) {}
+
+    public record CountryCount(String countryCode, long count) {}
+
+    private static final String UPSERT_POSTGRES = """
+        INSERT INTO portfolio_analytics_countries (user_id, month_key, country_code, event_count)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (user_id, month_key, country_code) DO UPDATE SET
+            event_count = portfolio_analytics_countries.event_count + EXCLUDED.event_count
+        """;
+
+    private static final String UPSERT_STANDARD = """
+        MERGE INTO portfolio_analytics_countries t
+        USING (VALUES (CAST(? AS VARCHAR(128)), CAST(? AS VARCHAR(7)), CAST(? AS VARCHAR(2)), CAST(? AS BIGINT)))
+            AS s (user_id, month_key, country_code, event_count)
+        ON t.user_id = s.user_id AND t.month_key = s.month_key AND t.country_code = s.country_code
+        WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count
+        WHEN NOT MATCHED THEN INSERT (user_id, month_key, country_code, event_count)
+            VALUES (s.user_id, s.month_key, s.country_code, s.event_count)
+        """;
+
+    public CountryAnalyticsRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * One batched statement; callers pass deltas sorted by key.
+     */
+    public void increment(List<CountryDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (CountryDelta delta : deltas) {
+            rows.add(new Object[] {delta.userId(), delta.monthKey(), delta.countryCode(), delta.count()});
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES : UPSERT_STANDARD, rows);
+    }
+
+    // primary-key prefix scan, at most ~250 rows; ordering is left to the caller
+    public List<CountryCount> findForMonth(String userId, String monthKey) {
+        return jdbcTemplate.query(
+            "SELECT country_code, event_count FROM portfolio_analytics_countries WHERE user_id = ? AND month_key = ?",
+            (rs, rowNum) -> new CountryCount(rs.getString(1), rs.getLong(2)),
+            userId,
+            monthKey
+        );
+    }
+}
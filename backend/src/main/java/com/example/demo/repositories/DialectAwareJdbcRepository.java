@@ -0,0 +1,29 @@
+package com.example.demo.repositories;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Base for the JdbcTemplate repositories that pick between PostgreSQL-only statements
+ * ({@code ON CONFLICT}, partitions) and standard SQL ({@code MERGE}) for H2. The product name is
+ * read from the connection metadata once per repository and then cached.
+ */
+public abstract class DialectAwareJdbcRepository {
+
+    protected final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    protected DialectAwareJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    protected boolean isPostgres() {
+        Boolean detected = postgres;
+        if (detected == null) {
+            detected = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = detected;
+        }
+        return Boolean.TRUE.equals(detected);
+    }
+}
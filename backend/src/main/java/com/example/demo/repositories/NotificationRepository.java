@@ -1,9 +1,13 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.NotificationResponse;
 import com.example.demo.enums.NotificationType;
 import com.example.demo.models.Notification;
 import com.example.demo.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,4 +20,15 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     boolean existsByUserIdAndType(String userId, NotificationType type);
 
     long countByUserIdAndIsReadFalse(String userId);
+
+    @Query("select n.user.id, n.type from Notification n order by n.createdAt desc")
+    List<Object[]> findRecentUserIdsAndTypes(Pageable pageable);
+
+    @Query("""
+        select new com.example.demo.dto.NotificationResponse(n.id, n.type, n.title, n.message, n.isRead, n.readAt, n.createdAt)
+        from Notification n
+        where n.user.id = :userId
+        order by n.createdAt desc
+        """)
+    List<NotificationResponse> findResponsesByUserId(@Param("userId") String userId);
 }
@@ -0,0 +1,47 @@
+package com.example.demo.repositories;
+
+import com.example.demo.enums.NotificationType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Create-once notifications written against the {@code uk_notifications_user_type} constraint:
+ * the database decides which of several concurrent callers inserts, the rest are no-ops.
+ */
+@Repository
+public class NotificationWriteRepository extends DialectAwareJdbcRepository {
+
+    private static final String INSERT_IF_ABSENT_POSTGRES = """
+        INSERT INTO notifications (user_id, type, title, message, is_read, created_at)
+        VALUES (?, ?, ?, ?, FALSE, ?)
+        ON CONFLICT (user_id, type) DO NOTHING
+        """;
+
+    private static final String INSERT_IF_ABSENT_STANDARD = """
+        MERGE INTO notifications t
+        USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(140)),
+                       CAST(? AS VARCHAR(10000)), CAST(? AS TIMESTAMP)))
+            AS s (user_id, type, title, message, created_at)
+        ON t.user_id = s.user_id AND t.type = s.type
+        WHEN NOT MATCHED THEN INSERT (user_id, type, title, message, is_read, created_at)
+            VALUES (s.user_id, s.type, s.title, s.message, FALSE, s.created_at)
+        """;
+
+    public NotificationWriteRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * @return whether this call inserted the row
+     */
+    public boolean insertIfAbsent(String userId, NotificationType type, String title, String message) {
+        int inserted = jdbcTemplate.update(
+            isPostgres() ? INSERT_IF_ABSENT_POSTGRES : INSERT_IF_ABSENT_STANDARD,
+            userId, type.name(), title, message, Timestamp.valueOf(LocalDateTime.now())
+        );
+        return inserted > 0;
+    }
+}
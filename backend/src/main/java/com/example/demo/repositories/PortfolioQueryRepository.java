@@ -0,0 +1,355 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.dto.PortfolioSummary;
+import com.example.demo.models.CV;
+import com.example.demo.models.Certificate;
+import com.example.demo.models.Education;
+import com.example.demo.models.Experience;
+import com.example.demo.models.Project;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Loads a whole portfolio in at most two statements: one header row (user + CV) and one
+ * UNION ALL over every child table. Rows are mapped into detached model instances, so the
+ * result carries no Hibernate proxies and is safe to cache and serialize later.
+ */
+@Repository
+public class PortfolioQueryRepository {
+
+    public record LoadedPortfolio(boolean isPublic, PortfolioResponse portfolio) {}
+
+    private static final String HEADER_SQL = """
+        SELECT u.full_name, u.email, u.is_public, u.portfolio_version,
+               c.id, c.profession, c.expected_salary, c.contact_email, c.phone, c.city, c.citizenship, c.birth_date
+        FROM users u
+        LEFT JOIN cvs c ON c.user_id = u.id
+        WHERE u.id = :userId
+        """;
+
+    // columns: kind, id, s1..s11 (text), d1..d2 (date), n1 (int), b1 (bool), t1..t2 (timestamp)
+    private static final String CHILDREN_SQL = """
+        SELECT 'skill' AS kind, CAST(NULL AS BIGINT) AS id,
+               CAST(s.skill AS VARCHAR) AS s1, CAST(NULL AS VARCHAR) AS s2, CAST(NULL AS VARCHAR) AS s3,
+               CAST(NULL AS VARCHAR) AS s4, CAST(NULL AS VARCHAR) AS s5, CAST(NULL AS VARCHAR) AS s6,
+               CAST(NULL AS VARCHAR) AS s7, CAST(NULL AS VARCHAR) AS s8, CAST(NULL AS VARCHAR) AS s9,
+               CAST(NULL AS VARCHAR) AS s10, CAST(NULL AS VARCHAR) AS s11,
+               CAST(NULL AS DATE) AS d1, CAST(NULL AS DATE) AS d2, CAST(NULL AS INTEGER) AS n1,
+               CAST(NULL AS BOOLEAN) AS b1, CAST(NULL AS TIMESTAMP) AS t1, CAST(NULL AS TIMESTAMP) AS t2
+        FROM cv_skills s JOIN cvs c ON c.id = s.cv_id
+        WHERE c.user_id = :userId
+        UNION ALL
+        SELECT 'experience', e.id,
+               CAST(e.company AS VARCHAR), CAST(e.position AS VARCHAR), CAST(e.period AS VARCHAR),
+               NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL,
+               NULL, NULL, NULL, NULL, NULL, NULL
+        FROM experience e JOIN cvs c ON c.id = e.cv_id
+        WHERE c.user_id = :userId
+        UNION ALL
+        SELECT 'education', e.id,
+               CAST(e.institution AS VARCHAR), CAST(e.profession AS VARCHAR), CAST(e.degree AS VARCHAR),
+               CAST(e.education_year AS VARCHAR), NULL, NULL, NULL, NULL, NULL, NULL, NULL,
+               NULL, NULL, NULL, NULL, NULL, NULL
+        FROM education e JOIN cvs c ON c.id = e.cv_id
+        WHERE c.user_id = :userId
+        UNION ALL
+        SELECT 'project', p.id,
+               CAST(p.title AS VARCHAR), CAST(p.description AS VARCHAR), CAST(p.github_url AS VARCHAR),
+               CAST(p.live_url AS VARCHAR), CAST(p.image_url AS VARCHAR), CAST(p.role AS VARCHAR),
+               CAST(p.stack_summary AS VARCHAR), CAST(p.project_type AS VARCHAR), CAST(p.status AS VARCHAR),
+               NULL, NULL,
+               p.started_at, p.finished_at, NULL, p.is_pinned, p.created_at, p.updated_at
+        FROM projects p
+        WHERE p.user_id = :userId
+        UNION ALL
+        SELECT 'certificate', ct.id,
+               CAST(ct.title AS VARCHAR), CAST(ct.name AS VARCHAR), CAST(ct.description AS VARCHAR),
+               CAST(ct.issued_by AS VARCHAR), CAST(ct.city AS VARCHAR), CAST(ct.place AS VARCHAR),
+               CAST(ct.event_name AS VARCHAR), CAST(ct.event_type AS VARCHAR), CAST(ct.file_url AS VARCHAR),
+               CAST(ct.image_url AS VARCHAR), CAST(ct.issue_date AS VARCHAR),
+               NULL, NULL, ct.importance, ct.is_pinned, ct.created_at, ct.updated_at
+        FROM certificates ct
+        WHERE ct.user_id = :userId
+        """;
+
+    private static final String SUMMARY_HEADER_SQL = """
+        SELECT u.id, u.full_name, c.profession, c.city
+        FROM users u
+        LEFT JOIN cvs c ON c.user_id = u.id
+        WHERE u.id IN (:userIds) AND u.is_public = TRUE
+        """;
+
+    // columns: kind, user_id, n1 (count), s1 (text)
+    private static final String SUMMARY_CHILDREN_SQL = """
+        SELECT 'project' AS kind, p.user_id AS user_id, COUNT(*) AS n1, CAST(NULL AS VARCHAR) AS s1
+        FROM projects p
+        WHERE p.user_id IN (:userIds)
+        GROUP BY p.user_id
+        UNION ALL
+        SELECT 'certificate', ct.user_id, COUNT(*), NULL
+        FROM certificates ct
+        WHERE ct.user_id IN (:userIds)
+        GROUP BY ct.user_id
+        UNION ALL
+        SELECT 'skill', c.user_id, NULL, CAST(s.skill AS VARCHAR)
+        FROM cv_skills s JOIN cvs c ON c.id = s.cv_id
+        WHERE c.user_id IN (:userIds)
+        """;
+
+    private final EntityManager entityManager;
+
+    public PortfolioQueryRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns empty when the user does not exist. Children are only queried for public
+     * profiles unless {@code includePrivate} is set, so a blocked lookup costs one statement.
+     */
+    public Optional<LoadedPortfolio> findPortfolio(String userId, boolean includePrivate) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> headerRows = entityManager.createNativeQuery(HEADER_SQL)
+            .setParameter("userId", userId)
+            .getResultList();
+        if (headerRows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] header = headerRows.get(0);
+        boolean isPublic = Boolean.TRUE.equals(header[2]);
+        if (!isPublic && !includePrivate) {
+            return Optional.of(new LoadedPortfolio(false, null));
+        }
+
+        PortfolioResponse response = new PortfolioResponse();
+        response.setFullName((String) header[0]);
+        response.setEmail((String) header[1]);
+        response.setVersion(toLong(header[3]));
+        CV cv = header[4] == null ? null : toCv(header);
+
+        List<Project> projects = new ArrayList<>();
+        List<Certificate> certificates = new ArrayList<>();
+        List<String> skills = new ArrayList<>();
+        List<Experience> experiences = new ArrayList<>();
+        List<Education> educations = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> childRows = entityManager.createNativeQuery(CHILDREN_SQL)
+            .setParameter("userId", userId)
+            .getResultList();
+        for (Object[] row : childRows) {
+            switch ((String) row[0]) {
+                case "skill" -> skills.add(toText(row[2]));
+                case "experience" -> experiences.add(toExperience(row, cv));
+                case "education" -> educations.add(toEducation(row, cv));
+                case "project" -> projects.add(toProject(row));
+                case "certificate" -> certificates.add(toCertificate(row));
+                default -> throw new IllegalStateException("Unknown portfolio row kind: " + row[0]);
+            }
+        }
+
+        // keep the order the per-table repositories return on a fresh table: insertion (id) order
+        projects.sort(Comparator.comparing(Project::getId));
+        certificates.sort(Comparator.comparing(Certificate::getId));
+        experiences.sort(Comparator.comparing(Experience::getId));
+        educations.sort(Comparator.comparing(Education::getId));
+
+        if (cv != null) {
+            cv.setSkills(skills);
+            cv.setExperiences(experiences);
+            cv.setEducations(educations);
+        }
+        response.setCv(cv);
+        response.setProjects(projects);
+        response.setCertificates(certificates);
+        return Optional.of(new LoadedPortfolio(isPublic, response));
+    }
+
+    /**
+     * Summaries for the public profiles among {@code userIds}, in request order, in at most two
+     * statements regardless of how many ids are passed. Private and unknown ids are left out.
+     */
+    public Map<String, PortfolioSummary> findPublicSummaries(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> headerRows = entityManager.createNativeQuery(SUMMARY_HEADER_SQL)
+            .setParameter("userIds", userIds)
+            .getResultList();
+        if (headerRows.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Object[]> headers = new HashMap<>();
+        for (Object[] row : headerRows) {
+            headers.put((String) row[0], row);
+        }
+
+        Map<String, Long> projectCounts = new HashMap<>();
+        Map<String, Long> certificateCounts = new HashMap<>();
+        Map<String, List<String>> skills = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> childRows = entityManager.createNativeQuery(SUMMARY_CHILDREN_SQL)
+            .setParameter("userIds", headers.keySet())
+            .getResultList();
+        for (Object[] row : childRows) {
+            String userId = (String) row[1];
+            switch ((String) row[0]) {
+                case "project" -> projectCounts.put(userId, toLong(row[2]));
+                case "certificate" -> certificateCounts.put(userId, toLong(row[2]));
+                case "skill" -> skills.computeIfAbsent(userId, ignored -> new ArrayList<>()).add(toText(row[3]));
+                default -> throw new IllegalStateException("Unknown summary row kind: " + row[0]);
+            }
+        }
+
+        Map<String, PortfolioSummary> summaries = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            Object[] header = headers.get(userId);
+            if (header == null || summaries.containsKey(userId)) {
+                continue;
+            }
+            summaries.put(userId, new PortfolioSummary(
+                userId,
+                (String) header[1],
+                (String) header[2],
+                (String) header[3],
+                skills.getOrDefault(userId, List.of()),
+                projectCounts.getOrDefault(userId, 0L),
+                certificateCounts.getOrDefault(userId, 0L)
+            ));
+        }
+        return summaries;
+    }
+
+    private CV toCv(Object[] header) {
+        CV cv = new CV();
+        cv.setId(toLong(header[4]));
+        cv.setProfession((String) header[5]);
+        cv.setExpectedSalary(header[6] == null ? null : ((Number) header[6]).doubleValue());
+        cv.setContactEmail((String) header[7]);
+        cv.setPhone((String) header[8]);
+        cv.setCity((String) header[9]);
+        cv.setCitizenship((String) header[10]);
+        cv.setBirthDate((String) header[11]);
+        return cv;
+    }
+
+    private Experience toExperience(Object[] row, CV cv) {
+        Experience experience = new Experience();
+        experience.setId(toLong(row[1]));
+        experience.setCompany(toText(row[2]));
+        experience.setPosition(toText(row[3]));
+        experience.setPeriod(toText(row[4]));
+        experience.setCv(cv);
+        return experience;
+    }
+
+    private Education toEducation(Object[] row, CV cv) {
+        Education education = new Education();
+        education.setId(toLong(row[1]));
+        education.setInstitution(toText(row[2]));
+        education.setProfession(toText(row[3]));
+        education.setDegree(toText(row[4]));
+        education.setYear(toText(row[5]));
+        education.setCv(cv);
+        return education;
+    }
+
+    private Project toProject(Object[] row) {
+        Project project = new Project();
+        project.setId(toLong(row[1]));
+        project.setTitle(toText(row[2]));
+        project.setDescription(toText(row[3]));
+        project.setGithubUrl(toText(row[4]));
+        project.setLiveUrl(toText(row[5]));
+        project.setImageUrl(toText(row[6]));
+        project.setRole(toText(row[7]));
+        project.setStackSummary(toText(row[8]));
+        project.setProjectType(toText(row[9]));
+        project.setStatus(toText(row[10]));
+        project.setStartedAt(toLocalDate(row[13]));
+        project.setFinishedAt(toLocalDate(row[14]));
+        project.setPinned(Boolean.TRUE.equals(row[16]));
+        project.setCreatedAt(toLocalDateTime(row[17]));
+        project.setUpdatedAt(toLocalDateTime(row[18]));
+        return project;
+    }
+
+    private Certificate toCertificate(Object[] row) {
+        Certificate certificate = new Certificate();
+        certificate.setId(toLong(row[1]));
+        certificate.setTitle(toText(row[2]));
+        certificate.setName(toText(row[3]));
+        certificate.setDescription(toText(row[4]));
+        certificate.setIssuedBy(toText(row[5]));
+        certificate.setCity(toText(row[6]));
+        certificate.setPlace(toText(row[7]));
+        certificate.setEventName(toText(row[8]));
+        certificate.setEventType(toText(row[9]));
+        certificate.setFileUrl(toText(row[10]));
+        certificate.setImageUrl(toText(row[11]));
+        certificate.setIssueDate(toText(row[12]));
+        certificate.setImportance(row[15] == null ? 0 : ((Number) row[15]).intValue());
+        certificate.setPinned(Boolean.TRUE.equals(row[16]));
+        certificate.setCreatedAt(toLocalDateTime(row[17]));
+        certificate.setUpdatedAt(toLocalDateTime(row[18]));
+        return certificate;
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof Clob clob) {
+            try (Reader reader = clob.getCharacterStream()) {
+                StringBuilder text = new StringBuilder();
+                char[] buffer = new char[1024];
+                for (int read = reader.read(buffer); read != -1; read = reader.read(buffer)) {
+                    text.append(buffer, 0, read);
+                }
+                return text.toString();
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to read text column", ex);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return (String) value;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
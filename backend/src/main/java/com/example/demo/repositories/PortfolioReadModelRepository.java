@@ -0,0 +1,29 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.PortfolioDocument;
+import com.example.demo.models.PortfolioReadModel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PortfolioReadModelRepository extends JpaRepository<PortfolioReadModel, String> {
+
+    @Query("""
+        select new com.example.demo.dto.PortfolioDocument(r.document, u.portfolioVersion, u.isPublic)
+        from PortfolioReadModel r join User u on u.id = r.userId
+        where r.userId = :userId
+        """)
+    Optional<PortfolioDocument> findDocument(@Param("userId") String userId);
+
+    @Query("""
+        select u.id from User u
+        where u.id > :afterId
+          and not exists (select r.userId from PortfolioReadModel r where r.userId = u.id)
+        order by u.id
+        """)
+    List<String> findUserIdsWithoutReadModel(@Param("afterId") String afterId, Pageable pageable);
+}
@@ -1,12 +1,25 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.ProjectResponse;
 import com.example.demo.models.Project;
 import com.example.demo.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByUser(User user);
     List<Project> findByUserAndIsPinnedTrue(User user); // to get only pinned ones
     long countByUser(User user);
+
+    @Query("""
+        select new com.example.demo.dto.ProjectResponse(
+            p.id, p.title, p.description, p.githubUrl, p.liveUrl, p.imageUrl, p.role, p.stackSummary,
+            p.projectType, p.status, p.startedAt, p.finishedAt, p.isPinned, p.createdAt, p.updatedAt)
+        from Project p
+        where p.user.id = :userId
+        order by p.id
+        """)
+    List<ProjectResponse> findResponsesByUserId(@Param("userId") String userId);
 }
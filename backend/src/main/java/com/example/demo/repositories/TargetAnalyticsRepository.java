@@ -0,0 +1,87 @@
+package com.example.demo.repositories;
+
+import com.example.demo.enums.AnalyticsTargetType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-project and per-certificate counters in {@code portfolio_target_analytics}, applied as
+ * additive upserts like {@link AnalyticsCounterRepository}.
+ */
+@Repository
+public class TargetAnalyticsRepository extends DialectAwareJdbcRepository {
+
+    public record TargetDelta(String userId, AnalyticsTargetType targetType, long targetId, long count) {}
+
+    public record TargetCount(AnalyticsTargetType targetType, long targetId, String title, long count) {}
+
+    private static final String UPSERT_POSTGRES = """
+        INSERT INTO portfolio_target_analytics (user_id, target_type, target_id, event_count, last_updated)
+        VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+        ON CONFLICT (user_id, target_type, target_id) DO UPDATE SET
+            event_count = portfolio_target_analytics.event_count + EXCLUDED.event_count,
+            last_updated = EXCLUDED.last_updated
+        """;
+
+    private static final String UPSERT_STANDARD = """
+        MERGE INTO portfolio_target_analytics t
+        USING (VALUES (CAST(? AS VARCHAR(128)), CAST(? AS VARCHAR(16)), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+            AS s (user_id, target_type, target_id, event_count)
+        ON t.user_id = s.user_id AND t.target_type = s.target_type AND t.target_id = s.target_id
+        WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count, last_updated = CURRENT_TIMESTAMP
+        WHEN NOT MATCHED THEN INSERT (user_id, target_type, target_id, event_count, last_updated)
+            VALUES (s.user_id, s.target_type, s.target_id, s.event_count, CURRENT_TIMESTAMP)
+        """;
+
+    // driven from the owner's entities: counters of deleted entities and of ids that never belonged
+    // to this owner drop out, entities never counted come back with zero
+    private static final String FIND_FOR_USER = """
+        SELECT 'project', p.id, p.title, COALESCE(t.event_count, 0)
+        FROM projects p
+        LEFT JOIN portfolio_target_analytics t
+            ON t.user_id = p.user_id AND t.target_type = 'project' AND t.target_id = p.id
+        WHERE p.user_id = ?
+        UNION ALL
+        SELECT 'certificate', c.id, COALESCE(c.title, c.name), COALESCE(t.event_count, 0)
+        FROM certificates c
+        LEFT JOIN portfolio_target_analytics t
+            ON t.user_id = c.user_id AND t.target_type = 'certificate' AND t.target_id = c.id
+        WHERE c.user_id = ?
+        """;
+
+    public TargetAnalyticsRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * One batched statement; callers pass deltas sorted by key so concurrent flushes lock rows in
+     * the same order.
+     */
+    public void increment(List<TargetDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (TargetDelta delta : deltas) {
+            rows.add(new Object[] {delta.userId(), delta.targetType().key(), delta.targetId(), delta.count()});
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES : UPSERT_STANDARD, rows);
+    }
+
+    /**
+     * Every project and certificate of one owner with its counter, unordered; ranking is done by
+     * the caller, which also uses the result as the owner's set of valid targets.
+     */
+    public List<TargetCount> findForUser(String userId) {
+        return jdbcTemplate.query(FIND_FOR_USER, (rs, rowNum) -> new TargetCount(
+            AnalyticsTargetType.fromKey(rs.getString(1)).orElseThrow(),
+            rs.getLong(2),
+            rs.getString(3),
+            rs.getLong(4)
+        ), userId, userId);
+    }
+}
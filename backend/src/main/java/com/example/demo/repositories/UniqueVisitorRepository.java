@@ -0,0 +1,105 @@
+package com.example.demo.repositories;
+
+import com.example.demo.sketches.HyperLogLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+
+/**
+ * Stores one serialized HyperLogLog per user and month. Sketches cannot be added in SQL, so a
+ * write inserts missing rows in one batch and merges the rest under a row lock.
+ */
+@Repository
+public class UniqueVisitorRepository extends DialectAwareJdbcRepository {
+
+    public record MonthKey(String userId, String monthKey) implements Comparable<MonthKey> {
+        @Override
+        public int compareTo(MonthKey other) {
+            int byUser = userId.compareTo(other.userId);
+            return byUser != 0 ? byUser : monthKey.compareTo(other.monthKey);
+        }
+    }
+
+    private static final String INSERT_IF_ABSENT_POSTGRES = """
+        INSERT INTO portfolio_unique_visitors (user_id, month_key, sketch, updated_at)
+        VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+        ON CONFLICT (user_id, month_key) DO NOTHING
+        """;
+
+    private static final String INSERT_IF_ABSENT_STANDARD = """
+        MERGE INTO portfolio_unique_visitors t
+        USING (VALUES (CAST(? AS VARCHAR(128)), CAST(? AS VARCHAR(7)), CAST(? AS VARBINARY)))
+            AS s (user_id, month_key, sketch)
+        ON t.user_id = s.user_id AND t.month_key = s.month_key
+        WHEN NOT MATCHED THEN INSERT (user_id, month_key, sketch, updated_at)
+            VALUES (s.user_id, s.month_key, s.sketch, CURRENT_TIMESTAMP)
+        """;
+
+    private static final String SELECT_FOR_UPDATE = """
+        SELECT sketch FROM portfolio_unique_visitors WHERE user_id = ? AND month_key = ? FOR UPDATE
+        """;
+
+    private static final String UPDATE_SKETCH = """
+        UPDATE portfolio_unique_visitors SET sketch = ?, updated_at = CURRENT_TIMESTAMP
+        WHERE user_id = ? AND month_key = ?
+        """;
+
+    private static final String SELECT_RANGE = """
+        SELECT sketch FROM portfolio_unique_visitors
+        WHERE user_id = ? AND month_key BETWEEN ? AND ?
+        """;
+
+    public UniqueVisitorRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * Must run inside a transaction so the row locks are held until the merged sketches commit.
+     * Keys are visited in sorted order so concurrent writers cannot deadlock.
+     */
+    public void merge(SortedMap<MonthKey, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<MonthKey, HyperLogLog>> entries = new ArrayList<>(sketches.entrySet());
+        List<Object[]> inserts = new ArrayList<>(entries.size());
+        for (Map.Entry<MonthKey, HyperLogLog> entry : entries) {
+            inserts.add(new Object[] {entry.getKey().userId(), entry.getKey().monthKey(), entry.getValue().toBytes()});
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(isPostgres() ? INSERT_IF_ABSENT_POSTGRES : INSERT_IF_ABSENT_STANDARD, inserts);
+
+        List<Object[]> updates = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            // a driver reporting SUCCESS_NO_INFO just re-merges the inserted sketch, which is idempotent
+            if (inserted[i] > 0) {
+                continue;
+            }
+            MonthKey key = entries.get(i).getKey();
+            byte[] stored = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, byte[].class, key.userId(), key.monthKey());
+            // sketches written under another configured precision are folded down rather than rejected
+            HyperLogLog merged = HyperLogLog.fromBytes(stored).union(entries.get(i).getValue());
+            updates.add(new Object[] {merged.toBytes(), key.userId(), key.monthKey()});
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SKETCH, updates);
+        }
+    }
+
+    /**
+     * Union of the stored month sketches in {@code [fromMonth, toMonth]}; empty when none exist.
+     */
+    public Optional<HyperLogLog> findUnion(String userId, String fromMonth, String toMonth) {
+        HyperLogLog[] union = new HyperLogLog[1];
+        jdbcTemplate.query(SELECT_RANGE, resultSet -> {
+            HyperLogLog sketch = HyperLogLog.fromBytes(resultSet.getBytes(1));
+            union[0] = union[0] == null ? sketch : union[0].union(sketch);
+        }, userId, fromMonth, toMonth);
+        return Optional.ofNullable(union[0]);
+    }
+}
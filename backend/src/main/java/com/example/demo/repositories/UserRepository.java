@@ -1,8 +1,23 @@
 package com.example.demo.repositories;
 import com.example.demo.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
+    @Modifying
+    @Query("update User u set u.portfolioVersion = u.portfolioVersion + 1 where u.id = :userId")
+    int incrementPortfolioVersion(@Param("userId") String userId);
+
+    @Query("select u.id from User u")
+    List<String> findAllIds();
+
+    @Query("select u.portfolioVersion from User u where u.id = :userId and u.isPublic = true")
+    Optional<Long> findPublicPortfolioVersion(@Param("userId") String userId);
 }
\ No newline at end of file
@@ -0,0 +1,288 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.repositories.AnalyticsCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind layer for analytics counters. Increments are coalesced in memory per user and
+ * written as additive upserts in one batch per flush, so a click costs a map update instead of a row lock.
+ * Each user's counters are only touched inside {@link ConcurrentHashMap#compute}, which locks
+ * that user's bin; a flush removes the whole entry, so no increment can land on a drained object.
+ * With the {@link AnalyticsJournal} enabled, an increment is journaled before it is buffered,
+ * under a shared lock that a flush takes exclusively while it seals the segment and drains, so
+ * a sealed segment holds exactly the increments of that drain and earlier ones.
+ */
+@Service
+public class AnalyticsCounterBuffer {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsCounterBuffer.class);
+    private static final int EVENT_TYPES = AnalyticsEventType.values().length;
+
+    private static final class Pending {
+        private final long[] totals = new long[EVENT_TYPES];
+        private final Map<String, Long> monthly = new HashMap<>(2);
+        private final Map<LocalDateTime, long[]> hourly = new HashMap<>(2);
+        private long events;
+
+        private void add(AnalyticsEventType type, LocalDateTime hour, long delta) {
+            totals[type.ordinal()] += delta;
+            monthly.merge(YearMonth.from(hour).toString(), delta, Long::sum);
+            hourly.computeIfAbsent(hour, ignored -> new long[EVENT_TYPES])[type.ordinal()] += delta;
+            events += delta;
+        }
+
+        private void merge(AnalyticsDelta delta) {
+            for (int i = 0; i < EVENT_TYPES; i++) {
+                totals[i] += delta.totals()[i];
+                events += delta.totals()[i];
+            }
+            delta.monthly().forEach((month, count) -> monthly.merge(month, count, Long::sum));
+            delta.hourly().forEach((hour, counts) -> {
+                long[] target = hourly.computeIfAbsent(hour, ignored -> new long[EVENT_TYPES]);
+                for (int i = 0; i < EVENT_TYPES; i++) {
+                    target[i] += counts[i];
+                }
+            });
+        }
+
+        private AnalyticsDelta snapshot() {
+            Map<LocalDateTime, long[]> hourlyCopy = new HashMap<>(hourly.size());
+            hourly.forEach((hour, counts) -> hourlyCopy.put(hour, counts.clone()));
+            return new AnalyticsDelta(totals.clone(), Map.copyOf(monthly), hourlyCopy);
+        }
+    }
+
+    private final AnalyticsCounterRepository counterRepository;
+    private final RedisAnalyticsCounterStore redisStore;
+    private final AnalyticsJournal journal;
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final Lock journalFlushLock = new ReentrantLock();
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate writeThroughTemplate;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final Counter flushedEvents;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    @Value("${app.analytics.write-behind.enabled:true}")
+    private boolean enabled = true;
+
+    public AnalyticsCounterBuffer(AnalyticsCounterRepository counterRepository,
+                                  RedisAnalyticsCounterStore redisStore,
+                                  AnalyticsJournal journal,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.counterRepository = counterRepository;
+        this.redisStore = redisStore;
+        this.journal = journal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // record() runs inside request transactions; a failed upsert must not mark those rollback-only
+        this.writeThroughTemplate = new TransactionTemplate(transactionManager);
+        this.writeThroughTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("analytics.writebehind.pending.events", pendingEvents, AtomicLong::get)
+            .description("Analytics increments buffered in memory and not yet flushed")
+            .register(meterRegistry);
+        Gauge.builder("analytics.writebehind.pending.users", pending, Map::size)
+            .description("Users with buffered analytics increments")
+            .register(meterRegistry);
+        this.flushedEvents = Counter.builder("analytics.writebehind.flushed.events").register(meterRegistry);
+        this.flushFailures = Counter.builder("analytics.writebehind.flush.failures").register(meterRegistry);
+        this.flushTimer = Timer.builder("analytics.writebehind.flush").register(meterRegistry);
+    }
+
+    public void record(String userId, AnalyticsEventType type) {
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        if (redisStore.record(userId, type, hour)) {
+            return;
+        }
+        if (!enabled && writeThrough(userId, type, hour)) {
+            return;
+        }
+
+        if (journal.isEnabled()) {
+            Lock lock = journalLock.readLock();
+            lock.lock();
+            try {
+                journal.append(userId, type, hour);
+                buffer(userId, type, hour);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            buffer(userId, type, hour);
+        }
+    }
+
+    /**
+     * Puts increments journaled by the previous run back into the buffer; the first flush
+     * commits them and releases their segments. Runs before scheduled flushes start.
+     */
+    @PostConstruct
+    public void recover() {
+        int replayed = journal.replay(this::buffer);
+        if (replayed > 0) {
+            log.info("Recovered {} analytics increments from the journal", replayed);
+        }
+    }
+
+    // in-memory deltas plus, in Redis mode, the not yet reconciled Redis hash
+    public Optional<AnalyticsDelta> pendingFor(String userId) {
+        Pending combined = new Pending();
+        boolean[] found = new boolean[1];
+        pending.computeIfPresent(userId, (ignored, counters) -> {
+            combined.merge(counters.snapshot());
+            found[0] = true;
+            return counters;
+        });
+        redisStore.pendingFor(userId).ifPresent(delta -> {
+            combined.merge(delta);
+            found[0] = true;
+        });
+        return found[0] ? Optional.of(combined.snapshot()) : Optional.empty();
+    }
+
+    public long pendingEvents() {
+        return pendingEvents.get();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}",
+        initialDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        if (!journal.isEnabled()) {
+            commit(drain(), -1);
+            return;
+        }
+
+        // one journaled flush at a time, so a release never covers another flush's uncommitted drain
+        journalFlushLock.lock();
+        try {
+            long sealed;
+            SortedMap<String, AnalyticsDelta> drained;
+            Lock lock = journalLock.writeLock();
+            lock.lock();
+            try {
+                sealed = journal.seal();
+                drained = drain();
+            } finally {
+                lock.unlock();
+            }
+            commit(drained, sealed);
+        } finally {
+            journalFlushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (pendingEvents.get() > 0) {
+            log.warn("Shutting down with {} unflushed analytics increments", pendingEvents.get());
+        }
+    }
+
+    private void commit(SortedMap<String, AnalyticsDelta> drained, long sealedSegment) {
+        if (drained.isEmpty()) {
+            journal.release(sealedSegment);
+            return;
+        }
+
+        long events = drained.values().stream().mapToLong(AnalyticsDelta::eventCount).sum();
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> counterRepository.increment(drained)));
+            journal.release(sealedSegment);
+            flushedEvents.increment(events);
+            log.debug("Flushed {} analytics increments for {} users", events, drained.size());
+        } catch (RuntimeException ex) {
+            // put the deltas back so the next flush retries them; their segments stay until then
+            drained.forEach(this::restore);
+            flushFailures.increment();
+            log.warn("Analytics flush failed, {} increments kept in memory: {}", events, ex.getMessage());
+        }
+    }
+
+    /**
+     * Write-behind off: one upsert in the caller's thread, with no journal append or
+     * seal/drain cycle for a single increment. The upsert commits in its own transaction, so a
+     * failed write neither rolls back the caller's work nor is rolled back with it; it falls back
+     * to the buffer so the scheduled flush retries it.
+     */
+    private boolean writeThrough(String userId, AnalyticsEventType type, LocalDateTime hour) {
+        Pending single = new Pending();
+        single.add(type, hour, 1L);
+        SortedMap<String, AnalyticsDelta> delta = new TreeMap<>(Map.of(userId, single.snapshot()));
+        try {
+            writeThroughTemplate.executeWithoutResult(status -> counterRepository.increment(delta));
+            flushedEvents.increment();
+            return true;
+        } catch (RuntimeException ex) {
+            flushFailures.increment();
+            log.warn("Analytics write-through failed for userId={}, buffering: {}", userId, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void buffer(String userId, AnalyticsEventType type, LocalDateTime hour) {
+        pending.compute(userId, (ignored, counters) -> {
+            Pending next = counters == null ? new Pending() : counters;
+            next.add(type, hour, 1L);
+            return next;
+        });
+        pendingEvents.incrementAndGet();
+    }
+
+    private SortedMap<String, AnalyticsDelta> drain() {
+        SortedMap<String, AnalyticsDelta> drained = new TreeMap<>();
+        for (String userId : new ArrayList<>(pending.keySet())) {
+            Pending counters = pending.remove(userId);
+            if (counters == null) {
+                continue;
+            }
+            pendingEvents.addAndGet(-counters.events);
+            drained.put(userId, counters.snapshot());
+        }
+        return drained;
+    }
+
+    private void restore(String userId, AnalyticsDelta delta) {
+        pending.compute(userId, (ignored, counters) -> {
+            Pending next = counters == null ? new Pending() : counters;
+            next.merge(delta);
+            return next;
+        });
+        pendingEvents.addAndGet(delta.eventCount());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsEventRecord;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.repositories.AnalyticsEventRepository;
+import com.example.demo.sketches.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feeds the append-only {@code analytics_events} log. Appends go to a bounded in-memory queue
+ * and are written as multi-row inserts on the write-behind interval; the log is a record for
+ * rebuilding rollups and ad-hoc analysis, so a full queue drops events (counted) rather than
+ * slowing the request path.
+ */
+@Service
+public class AnalyticsEventLog {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventLog.class);
+
+    private final AnalyticsEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Queue<AnalyticsEventRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter written;
+    private final Counter dropped;
+
+    @Value("${app.analytics.event-log.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.analytics.event-log.max-pending:100000}")
+    private int maxPending = 100_000;
+
+    @Value("${app.analytics.event-log.batch-size:500}")
+    private int batchSize = 500;
+
+    public AnalyticsEventLog(AnalyticsEventRepository eventRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("analytics.eventlog.pending", queued, AtomicInteger::get)
+            .description("Analytics events waiting to be appended to the event log")
+            .register(meterRegistry);
+        this.written = Counter.builder("analytics.eventlog.written").register(meterRegistry);
+        this.dropped = Counter.builder("analytics.eventlog.dropped").register(meterRegistry);
+    }
+
+    public void append(String userId, AnalyticsEventType type, String viewerFingerprint) {
+        if (!enabled) {
+            return;
+        }
+
+        Long viewerHash = viewerFingerprint == null || viewerFingerprint.isBlank()
+            ? null
+            : Hashing.murmur64(viewerFingerprint.getBytes(StandardCharsets.UTF_8));
+        offer(new AnalyticsEventRecord(LocalDateTime.now(ZoneOffset.UTC), userId, type, viewerHash, null));
+    }
+
+    public void appendOwnerEvent(String userId, AnalyticsEventType type, String targetId, LocalDateTime occurredAt) {
+        if (!enabled) {
+            return;
+        }
+
+        offer(new AnalyticsEventRecord(occurredAt, userId, type, null, targetId));
+    }
+
+    public int pending() {
+        return queued.get();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}",
+        initialDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        List<AnalyticsEventRecord> batch = new ArrayList<>(batchSize);
+        // bounded by what was queued at the start so sustained traffic cannot keep one flush running
+        int remaining = queued.get();
+        AnalyticsEventRecord event;
+        while (remaining-- > 0 && (event = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(event);
+            if (batch.size() == batchSize && !write(batch)) {
+                return;
+            }
+        }
+        write(batch);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (queued.get() > 0) {
+            log.warn("Shutting down with {} analytics events not written to the event log", queued.get());
+        }
+    }
+
+    private boolean write(List<AnalyticsEventRecord> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> eventRepository.insertAll(batch));
+            written.increment(batch.size());
+            return true;
+        } catch (RuntimeException ex) {
+            // requeue for the next flush as far as the bound allows
+            log.warn("Analytics event log write of {} rows failed: {}", batch.size(), ex.getMessage());
+            batch.forEach(this::offer);
+            return false;
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void offer(AnalyticsEventRecord event) {
+        if (queued.incrementAndGet() > maxPending) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(event);
+    }
+}
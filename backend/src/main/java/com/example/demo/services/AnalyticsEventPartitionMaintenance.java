@@ -0,0 +1,73 @@
+package com.example.demo.services;
+
+import com.example.demo.repositories.AnalyticsEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps the monthly partitions of {@code analytics_events} ahead of the clock and drops the
+ * ones past retention. Without partition support (H2) retention falls back to a delete.
+ */
+@Service
+public class AnalyticsEventPartitionMaintenance {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventPartitionMaintenance.class);
+
+    private final AnalyticsEventRepository eventRepository;
+
+    @Value("${app.analytics.event-log.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.analytics.event-log.partitions-ahead:2}")
+    private int partitionsAhead = 2;
+
+    @Value("${app.analytics.event-log.retention-months:13}")
+    private int retentionMonths = 13;
+
+    public AnalyticsEventPartitionMaintenance(AnalyticsEventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.analytics.event-log.maintenance-cron:0 30 2 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+        try {
+            if (!eventRepository.supportsPartitions()) {
+                eventRepository.deleteBefore(oldestKept);
+                return;
+            }
+
+            for (int i = 0; i <= partitionsAhead; i++) {
+                int moved = eventRepository.createMonthlyPartition(current.plusMonths(i));
+                if (moved > 0) {
+                    log.info("Moved {} analytics events for {} out of the default partition", moved, current.plusMonths(i));
+                }
+            }
+            for (YearMonth month : eventRepository.findMonthlyPartitions()) {
+                if (month.isBefore(oldestKept)) {
+                    eventRepository.dropMonthlyPartition(month);
+                    log.info("Dropped analytics event partition for {}", month);
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Analytics event partition maintenance failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.demo.services;
+
+import com.example.demo.concurrent.BoundedRingBuffer;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.models.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional fire-and-forget ingestion for analytics writes ({@code app.analytics.ingestion.async.enabled}).
+ * Requests are validated with in-memory checks only, put on a bounded lock-free ring buffer and
+ * answered with {@code 202}; a fixed number of consumer threads apply them in batches grouped by
+ * owner, each owner's events in its own transaction with one owner lookup. The consumers are the only analytics work
+ * touching the database, so analytics bursts hold at most {@code consumers} pool connections and
+ * never a servlet thread; a full buffer drops and counts.
+ */
+@Service
+public class AnalyticsIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsIngestionService.class);
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    record IngestedEvent(String userId, AnalyticsEventType type, String viewerFingerprint, String ownerEmail) {}
+
+    private final AnalyticsService analyticsService;
+    private final UserService userService;
+    private final PublicProfileNegativeCache negativeCache;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedRingBuffer<IngestedEvent> buffer;
+    private final List<Thread> consumers = new ArrayList<>();
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter failed;
+    private volatile boolean running;
+
+    // queued events are only in memory: the journal sees them when a consumer applies them, so a
+    // crash loses whatever was accepted but not yet applied (at most capacity events)
+    @Value("${app.analytics.ingestion.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.ingestion.consumers:2}")
+    private int consumerCount = 2;
+
+    @Value("${app.analytics.ingestion.batch-size:256}")
+    private int batchSize = 256;
+
+    // an idle consumer doubles its sleep up to this, so an empty buffer costs a few wakeups per second
+    @Value("${app.analytics.ingestion.max-idle-ms:50}")
+    private long maxIdleMs = 50;
+
+    public AnalyticsIngestionService(
+        AnalyticsService analyticsService,
+        UserService userService,
+        PublicProfileNegativeCache negativeCache,
+        PlatformTransactionManager transactionManager,
+        @Value("${app.analytics.ingestion.capacity:65536}") int capacity,
+        MeterRegistry meterRegistry
+    ) {
+        this.analyticsService = analyticsService;
+        this.userService = userService;
+        this.negativeCache = negativeCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        Gauge.builder("analytics.ingest.queue.depth", buffer, BoundedRingBuffer::size)
+            .description("Analytics events accepted but not yet applied")
+            .register(meterRegistry);
+        this.accepted = Counter.builder("analytics.ingest.accepted").register(meterRegistry);
+        this.dropped = Counter.builder("analytics.ingest.dropped").register(meterRegistry);
+        this.failed = Counter.builder("analytics.ingest.failed").register(meterRegistry);
+    }
+
+    public boolean isAsync() {
+        return enabled;
+    }
+
+    public void acceptPublicView(String userId, String viewerFingerprint) {
+        // same cheap rejection as the synchronous path; everything else is checked by the consumer
+        if (negativeCache.isKnownAbsent(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found");
+        }
+        enqueue(new IngestedEvent(userId, AnalyticsEventType.PUBLIC_VIEWS, viewerFingerprint, null));
+    }
+
+    public void acceptMyEvent(String userId, String email, String eventKey) {
+        AnalyticsEventType type = AnalyticsEventType.fromKey(eventKey)
+            .filter(candidate -> candidate != AnalyticsEventType.PUBLIC_VIEWS)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported analytics event key"));
+        enqueue(new IngestedEvent(userId, type, null, email));
+    }
+
+    public int queued() {
+        return buffer.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        for (int i = 0; i < consumerCount; i++) {
+            Thread consumer = new Thread(this::consume, "analytics-ingest-" + i);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+        log.info("Async analytics ingestion started with {} consumers, capacity {}", consumerCount, buffer.capacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        // anything left is applied on the shutdown thread before the write-behind buffer flushes
+        int applied;
+        do {
+            applied = drainOnce();
+        } while (applied > 0);
+        if (buffer.size() > 0) {
+            log.warn("Shutting down with {} unapplied analytics events", buffer.size());
+        }
+    }
+
+    /**
+     * Applies one batch on the calling thread, one transaction per owner so a failing owner never
+     * rolls back the others; returns the number of events taken.
+     */
+    int drainOnce() {
+        List<IngestedEvent> batch = new ArrayList<>(batchSize);
+        buffer.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<IngestedEvent>> byOwner = new LinkedHashMap<>();
+        for (IngestedEvent event : batch) {
+            byOwner.computeIfAbsent(event.userId(), key -> new ArrayList<>()).add(event);
+        }
+        byOwner.forEach(this::applyInTransaction);
+        return batch.size();
+    }
+
+    private void consume() {
+        long idleNanos = MIN_IDLE_PARK_NANOS;
+        long maxIdleNanos = Math.max(MIN_IDLE_PARK_NANOS, TimeUnit.MILLISECONDS.toNanos(maxIdleMs));
+        while (running) {
+            if (drainOnce() > 0) {
+                idleNanos = MIN_IDLE_PARK_NANOS;
+            } else {
+                LockSupport.parkNanos(idleNanos);
+                idleNanos = Math.min(idleNanos * 2, maxIdleNanos);
+            }
+        }
+    }
+
+    private void applyInTransaction(String userId, List<IngestedEvent> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(userId, events));
+        } catch (RuntimeException ex) {
+            // covers both a failed write and a failed commit; the owner's events are dropped once
+            failed.increment(events.size());
+            log.warn("Failed to apply {} analytics events for userId={}: {}", events.size(), userId, ex.getMessage());
+        }
+    }
+
+    private void apply(String userId, List<IngestedEvent> events) {
+        List<String> viewerFingerprints = new ArrayList<>();
+        List<IngestedEvent> ownerEvents = new ArrayList<>();
+        for (IngestedEvent event : events) {
+            if (event.type() == AnalyticsEventType.PUBLIC_VIEWS) {
+                viewerFingerprints.add(event.viewerFingerprint());
+            } else {
+                ownerEvents.add(event);
+            }
+        }
+
+        if (!viewerFingerprints.isEmpty() && !analyticsService.recordPublicViews(userId, viewerFingerprints)) {
+            // private or unknown profile: the client already got its 202, nothing else to do
+            log.debug("Dropped {} public views for userId={}: profile not found", viewerFingerprints.size(), userId);
+        }
+        if (!ownerEvents.isEmpty()) {
+            User owner = userService.getOrCreateUser(userId, ownerEvents.get(0).ownerEmail(), "User");
+            for (IngestedEvent event : ownerEvents) {
+                analyticsService.recordMyEvent(owner, event.type().key());
+            }
+        }
+    }
+
+    private void enqueue(IngestedEvent event) {
+        if (buffer.offer(event)) {
+            accepted.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+}
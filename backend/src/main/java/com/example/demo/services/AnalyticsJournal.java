@@ -0,0 +1,215 @@
+package com.example.demo.services;
+
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.journal.MappedSegmentJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Optional write-ahead journal for the analytics write-behind buffer ({@code app.analytics.journal.*}).
+ * Every buffered increment is appended as one 128-byte record (event type, UTC hour, owner id)
+ * before the request returns, and segments are deleted only after the flush that contains them
+ * has committed, so a crash between two flushes loses nothing: the next start replays the
+ * remaining segments into the buffer. Events accepted by async ingestion are journaled only once
+ * a consumer applies them; public views cannot be journaled earlier, since whether they count
+ * (profile public, viewer not a repeat) is decided there.
+ */
+@Service
+public class AnalyticsJournal {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsJournal.class);
+    static final int RECORD_SIZE = 128;
+    // type (1) + epoch hour (4) + owner id length (1)
+    private static final int HEADER_BYTES = 1 + Integer.BYTES + 1;
+    static final int MAX_USER_ID_BYTES = RECORD_SIZE - MappedSegmentJournal.FRAME_BYTES - HEADER_BYTES;
+    private static final AnalyticsEventType[] TYPES = AnalyticsEventType.values();
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(String userId, AnalyticsEventType type, LocalDateTime hour);
+    }
+
+    private final Counter appended;
+    private final Counter skipped;
+    private final Counter failures;
+    private volatile MappedSegmentJournal journal;
+
+    @Value("${app.analytics.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.journal.directory:./data/analytics-journal}")
+    private String directory = "./data/analytics-journal";
+
+    @Value("${app.analytics.journal.segment-bytes:8388608}")
+    private int segmentBytes = 8 * 1024 * 1024;
+
+    public AnalyticsJournal(MeterRegistry meterRegistry) {
+        Gauge.builder("analytics.journal.segments", this, AnalyticsJournal::segmentCount)
+            .description("Journal segment files not yet released")
+            .register(meterRegistry);
+        this.appended = Counter.builder("analytics.journal.appended").register(meterRegistry);
+        this.skipped = Counter.builder("analytics.journal.skipped").register(meterRegistry);
+        this.failures = Counter.builder("analytics.journal.failures").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        Path path = Path.of(directory);
+        try {
+            journal = MappedSegmentJournal.open(path, RECORD_SIZE, segmentBytes);
+            log.info("Analytics journal opened in {} ({} segments to replay)", path, journal.segmentCount() - 1);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Analytics journal {} could not be opened, increments are buffered in memory only: {}", path, ex.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Appends one increment; returns false when it could not be journaled (it is still counted in memory).
+     */
+    public boolean append(String userId, AnalyticsEventType type, LocalDateTime hour) {
+        MappedSegmentJournal current = journal;
+        if (current == null) {
+            return false;
+        }
+        byte[] id = userId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_USER_ID_BYTES) {
+            skipped.increment();
+            return false;
+        }
+
+        byte[] payload = new byte[HEADER_BYTES + id.length];
+        ByteBuffer.wrap(payload)
+            .put((byte) type.ordinal())
+            .putInt((int) (hour.toEpochSecond(ZoneOffset.UTC) / 3600))
+            .put((byte) id.length)
+            .put(id);
+        try {
+            current.append(payload);
+            appended.increment();
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            failures.increment();
+            log.warn("Analytics journal append failed for userId={}: {}", userId, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Moves appends to a new segment; pass the result to {@link #release} once everything
+     * appended so far is committed. Returns -1 (release nothing) when the journal is off or failing.
+     */
+    public long seal() {
+        MappedSegmentJournal current = journal;
+        if (current == null) {
+            return -1;
+        }
+        try {
+            return current.seal();
+        } catch (IOException | RuntimeException ex) {
+            failures.increment();
+            log.warn("Analytics journal could not start a new segment: {}", ex.getMessage());
+            return -1;
+        }
+    }
+
+    public void release(long sealedSequence) {
+        MappedSegmentJournal current = journal;
+        if (current == null || sealedSequence < 0) {
+            return;
+        }
+        try {
+            int released = current.release(sealedSequence);
+            if (released > 0) {
+                log.debug("Released {} analytics journal segments", released);
+            }
+        } catch (IOException ex) {
+            failures.increment();
+            log.warn("Analytics journal segments could not be deleted: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Visits the increments left by the previous run; returns how many were read.
+     */
+    public int replay(Visitor visitor) {
+        MappedSegmentJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            int replayed = current.replay(payload -> {
+                int ordinal = payload.get();
+                long hour = Integer.toUnsignedLong(payload.getInt()) * 3600;
+                int length = Byte.toUnsignedInt(payload.get());
+                if (ordinal < 0 || ordinal >= TYPES.length || length > payload.remaining()) {
+                    skipped.increment();
+                    return;
+                }
+                byte[] id = new byte[length];
+                payload.get(id);
+                visitor.visit(new String(id, StandardCharsets.UTF_8), TYPES[ordinal],
+                    LocalDateTime.ofEpochSecond(hour, 0, ZoneOffset.UTC));
+            });
+            if (current.corruptRecords() > 0) {
+                log.warn("Skipped {} corrupt analytics journal records", current.corruptRecords());
+            }
+            return replayed;
+        } catch (IOException ex) {
+            failures.increment();
+            log.warn("Analytics journal replay failed: {}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    // page cache to disk; a process crash loses nothing either way, this bounds an OS crash
+    @Scheduled(
+        fixedDelayString = "${app.analytics.journal.force-interval-ms:1000}",
+        initialDelayString = "${app.analytics.journal.force-interval-ms:1000}"
+    )
+    public void force() {
+        MappedSegmentJournal current = journal;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        MappedSegmentJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        journal = null;
+        try {
+            current.close();
+        } catch (IOException ex) {
+            log.warn("Analytics journal could not be closed cleanly: {}", ex.getMessage());
+        }
+    }
+
+    private int segmentCount() {
+        MappedSegmentJournal current = journal;
+        return current == null ? 0 : current.segmentCount();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import com.example.demo.repositories.AnalyticsPercentileRepository;
+import com.example.demo.repositories.AnalyticsRollupRepository;
+import com.example.demo.repositories.AnalyticsRollupRepository.RollupRow;
+import com.example.demo.sketches.LogHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * "Top X% this month" benchmarks: where an owner's month count of each event type sits among all
+ * portfolios with at least one such event. The distribution is a {@link LogHistogram} per event
+ * type and month, kept current by the counter flush and shared through the database; each node
+ * reloads it at most once per {@code cache-ttl-ms}, so a dashboard load costs at most the owner's
+ * own month rollup read and one array lookup per event type; the caller hands in the analytics row
+ * and pending delta it already has, so owners with nothing stored this month need no query.
+ */
+@Service
+public class AnalyticsPercentileService {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsPercentileService.class);
+
+    private record Snapshot(String monthKey, long loadedAtMs, Map<AnalyticsEventType, LogHistogram> histograms) {}
+
+    private final AnalyticsPercentileRepository percentileRepository;
+    private final AnalyticsRollupRepository rollupRepository;
+    private volatile Snapshot snapshot;
+
+    @Value("${app.analytics.percentiles.cache-ttl-ms:60000}")
+    private long cacheTtlMs = 60_000;
+
+    public AnalyticsPercentileService(AnalyticsPercentileRepository percentileRepository,
+                                      AnalyticsRollupRepository rollupRepository) {
+        this.percentileRepository = percentileRepository;
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Percent rank (0 to 100, one decimal) per event key of the owner's counts this month; event
+     * types nobody has recorded this month are left out. Bucket widths make ranks approximate
+     * where many portfolios share nearly the same count.
+     *
+     * @param storedMonthly the owner's stored all-type month totals; the per-type rollup is only
+     *                      read when this month's total is not zero, since both are written by the
+     *                      same flush
+     * @param pending       the owner's write-behind delta, {@code null} when nothing is buffered
+     */
+    public Map<String, Double> percentilesThisMonth(String userId, Map<String, Long> storedMonthly, AnalyticsDelta pending) {
+        LocalDateTime monthStart = RollupGranularity.MONTH.bucketStart(LocalDateTime.now(ZoneOffset.UTC));
+        String monthKey = YearMonth.from(monthStart).toString();
+        Map<AnalyticsEventType, LogHistogram> histograms = histograms(monthKey);
+        if (histograms.isEmpty()) {
+            return Map.of();
+        }
+
+        long[] counts = new long[AnalyticsEventType.values().length];
+        if (storedMonthly.getOrDefault(monthKey, 0L) > 0) {
+            for (RollupRow row : rollupRepository.findRange(userId, RollupGranularity.MONTH, monthStart, monthStart.plusMonths(1))) {
+                AnalyticsEventType.fromKey(row.eventType()).ifPresent(type -> counts[type.ordinal()] += row.count());
+            }
+        }
+        if (pending != null) {
+            pending.hourly().forEach((hour, buffered) -> {
+                if (!hour.isBefore(monthStart)) {
+                    for (int i = 0; i < buffered.length; i++) {
+                        counts[i] += buffered[i];
+                    }
+                }
+            });
+        }
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (AnalyticsEventType type : AnalyticsEventType.values()) {
+            LogHistogram histogram = histograms.get(type);
+            if (histogram != null && histogram.total() > 0) {
+                percentiles.put(type.key(), Math.round(histogram.percentRank(counts[type.ordinal()]) * 10) / 10.0);
+            }
+        }
+        return percentiles;
+    }
+
+    private Map<AnalyticsEventType, LogHistogram> histograms(String monthKey) {
+        long now = System.currentTimeMillis();
+        Snapshot current = snapshot;
+        if (current != null && current.monthKey().equals(monthKey) && now - current.loadedAtMs() < cacheTtlMs) {
+            return current.histograms();
+        }
+
+        try {
+            Map<AnalyticsEventType, LogHistogram> loaded = new EnumMap<>(AnalyticsEventType.class);
+            percentileRepository.findMonth(monthKey).forEach((eventType, buckets) ->
+                AnalyticsEventType.fromKey(eventType).ifPresent(type -> loaded.put(type, new LogHistogram(buckets))));
+            snapshot = new Snapshot(monthKey, now, loaded);
+            return loaded;
+        } catch (RuntimeException ex) {
+            // benchmarks are decoration: keep serving the analytics without them
+            log.warn("Analytics percentile load failed: {}", ex.getMessage());
+            return current != null && current.monthKey().equals(monthKey) ? current.histograms() : Map.of();
+        }
+    }
+}
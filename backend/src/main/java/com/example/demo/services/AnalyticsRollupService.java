@@ -0,0 +1,117 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsSeriesResponse;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import com.example.demo.repositories.AnalyticsRollupRepository;
+import com.example.demo.repositories.AnalyticsRollupRepository.RollupRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serves analytics time series from the precomputed hour/day/month rollups. A query reads at
+ * most {@code max-points} rows per event type no matter how much history exists; hour and day
+ * rows past their retention are pruned because the coarser buckets already hold their totals.
+ */
+@Service
+public class AnalyticsRollupService {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsRollupService.class);
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsCounterBuffer counterBuffer;
+
+    @Value("${app.analytics.rollups.max-points:1000}")
+    private int maxPoints = 1000;
+
+    @Value("${app.analytics.rollups.hourly-retention-days:14}")
+    private int hourlyRetentionDays = 14;
+
+    @Value("${app.analytics.rollups.daily-retention-days:400}")
+    private int dailyRetentionDays = 400;
+
+    public AnalyticsRollupService(AnalyticsRollupRepository rollupRepository, AnalyticsCounterBuffer counterBuffer) {
+        this.rollupRepository = rollupRepository;
+        this.counterBuffer = counterBuffer;
+    }
+
+    public AnalyticsSeriesResponse series(String userId, LocalDateTime from, LocalDateTime to, String granularityParam) {
+        RollupGranularity granularity = granularityParam == null
+            ? RollupGranularity.DAY
+            : RollupGranularity.fromParam(granularityParam)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported granularity"));
+
+        LocalDateTime end = granularity.bucketStart(to != null ? to : LocalDateTime.now(ZoneOffset.UTC));
+        end = granularity.next(end);
+        LocalDateTime start = granularity.bucketStart(from != null ? from : defaultStart(granularity, end));
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        Map<LocalDateTime, long[]> buckets = new TreeMap<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(end); bucket = granularity.next(bucket)) {
+            if (buckets.size() == maxPoints) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range has too many points for this granularity");
+            }
+            buckets.put(bucket, new long[AnalyticsEventType.values().length]);
+        }
+
+        for (RollupRow row : rollupRepository.findRange(userId, granularity, start, end)) {
+            long[] counts = buckets.get(row.bucketStart());
+            if (counts != null) {
+                AnalyticsEventType.fromKey(row.eventType()).ifPresent(type -> counts[type.ordinal()] += row.count());
+            }
+        }
+        // same as the totals: owners see their own unflushed events right away
+        counterBuffer.pendingFor(userId).ifPresent(delta -> delta.hourly().forEach((hour, pending) -> {
+            long[] counts = buckets.get(granularity.bucketStart(hour));
+            if (counts != null) {
+                for (int i = 0; i < pending.length; i++) {
+                    counts[i] += pending[i];
+                }
+            }
+        }));
+
+        List<AnalyticsSeriesResponse.Point> points = new ArrayList<>(buckets.size());
+        buckets.forEach((bucketStart, counts) -> {
+            Map<String, Long> byKey = new LinkedHashMap<>();
+            for (AnalyticsEventType type : AnalyticsEventType.values()) {
+                byKey.put(type.key(), counts[type.ordinal()]);
+            }
+            points.add(new AnalyticsSeriesResponse.Point(bucketStart, byKey));
+        });
+        return new AnalyticsSeriesResponse(granularity.name().toLowerCase(), start, end, points);
+    }
+
+    @Scheduled(cron = "${app.analytics.rollups.compaction-cron:0 15 3 * * *}", zone = "UTC")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        try {
+            int hourly = rollupRepository.deleteOlderThan(RollupGranularity.HOUR, RollupGranularity.DAY.bucketStart(now.minusDays(hourlyRetentionDays)));
+            int daily = rollupRepository.deleteOlderThan(RollupGranularity.DAY, RollupGranularity.MONTH.bucketStart(now.minusDays(dailyRetentionDays)));
+            log.info("Compacted analytics rollups: removed {} hourly and {} daily buckets", hourly, daily);
+        } catch (RuntimeException ex) {
+            log.warn("Analytics rollup compaction failed: {}", ex.getMessage());
+        }
+    }
+
+    private static LocalDateTime defaultStart(RollupGranularity granularity, LocalDateTime end) {
+        return switch (granularity) {
+            case HOUR -> end.minusHours(48);
+            case DAY -> end.minusDays(30);
+            case MONTH -> end.minusMonths(12);
+        };
+    }
+}
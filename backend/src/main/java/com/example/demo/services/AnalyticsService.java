@@ -1,45 +1,71 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.dto.analytics.AnalyticsEventBatchRequest;
 import com.example.demo.dto.analytics.AnalyticsResponse;
+import com.example.demo.dto.analytics.UniqueVisitorsResponse;
+import com.example.demo.enums.AnalyticsEventType;
 import com.example.demo.models.PortfolioAnalytics;
 import com.example.demo.models.User;
 import com.example.demo.repositories.PortfolioAnalyticsRepository;
 import com.example.demo.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 
 @Service
 public class AnalyticsService {
-    private static final long PUBLIC_VIEW_DEDUP_TTL_MS = 6L * 60L * 60L * 1000L;
     private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+    private static final Duration MAX_BEACON_DELAY = Duration.ofHours(24);
 
     private final PortfolioAnalyticsRepository analyticsRepository;
     private final UserRepository userRepository;
-    private final Map<String, Long> publicViewDedup = new ConcurrentHashMap<>();
-
-    @Autowired(required = false)
-    private StringRedisTemplate redisTemplate;
-
-    @Value("${app.analytics.dedupe.redis.enabled:false}")
-    private boolean redisDedupeEnabled;
-
-    public AnalyticsService(PortfolioAnalyticsRepository analyticsRepository, UserRepository userRepository) {
+    private final PublicProfileNegativeCache negativeCache;
+    private final AnalyticsCounterBuffer counterBuffer;
+    private final PublicViewDeduplicator publicViewDeduplicator;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final AnalyticsEventLog eventLog;
+    private final TrendingPortfolioService trendingService;
+    private final TargetAnalyticsService targetAnalyticsService;
+    private final CountryAnalyticsService countryAnalyticsService;
+    private final AnalyticsPercentileService percentileService;
+
+    public AnalyticsService(
+        PortfolioAnalyticsRepository analyticsRepository,
+        UserRepository userRepository,
+        PublicProfileNegativeCache negativeCache,
+        AnalyticsCounterBuffer counterBuffer,
+        PublicViewDeduplicator publicViewDeduplicator,
+        UniqueVisitorService uniqueVisitorService,
+        AnalyticsEventLog eventLog,
+        TrendingPortfolioService trendingService,
+        TargetAnalyticsService targetAnalyticsService,
+        CountryAnalyticsService countryAnalyticsService,
+        AnalyticsPercentileService percentileService
+    ) {
         this.analyticsRepository = analyticsRepository;
         this.userRepository = userRepository;
+        this.negativeCache = negativeCache;
+        this.counterBuffer = counterBuffer;
+        this.publicViewDeduplicator = publicViewDeduplicator;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.eventLog = eventLog;
+        this.trendingService = trendingService;
+        this.targetAnalyticsService = targetAnalyticsService;
+        this.countryAnalyticsService = countryAnalyticsService;
+        this.percentileService = percentileService;
     }
 
     @Transactional
@@ -50,117 +76,142 @@ public class AnalyticsService {
 
     @Transactional
     public AnalyticsResponse incrementMyEvent(User user, String eventKey) {
-        PortfolioAnalytics analytics = getOrCreate(user.getId());
-        incrementByKey(analytics, eventKey);
-        return toResponse(analyticsRepository.save(analytics));
+        recordMyEvent(user, eventKey);
+        return toResponse(getOrCreate(user.getId()));
     }
 
-    @Transactional
-    public void incrementPublicView(String userId, String viewerFingerprint) {
-        User owner = userRepository.findById(userId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found"));
+    // fire-and-forget variant: no analytics row is read and no response is built
+    public void recordMyEvent(User user, String eventKey) {
+        AnalyticsEventType type = AnalyticsEventType.fromKey(eventKey)
+            .filter(candidate -> candidate != AnalyticsEventType.PUBLIC_VIEWS)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported analytics event key"));
+        counterBuffer.record(user.getId(), type);
+        eventLog.append(user.getId(), type, null);
+    }
 
-        if (!owner.isPublic()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found");
+    /**
+     * Beacon batch: every key is validated before anything is recorded, so a bad entry rejects
+     * the whole batch, and the events are applied in one transaction.
+     */
+    @Transactional
+    public void recordMyEvents(User user, List<AnalyticsEventBatchRequest.Event> events) {
+        List<AnalyticsEventType> types = new ArrayList<>(events.size());
+        for (AnalyticsEventBatchRequest.Event event : events) {
+            types.add(AnalyticsEventType.fromKey(event.getType())
+                .filter(candidate -> candidate != AnalyticsEventType.PUBLIC_VIEWS)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported analytics event key: " + event.getType())));
         }
 
-        if (isDuplicatePublicView(owner.getId(), viewerFingerprint)) {
-            log.debug("Skipped duplicate public view for userId={}", owner.getId());
-            return;
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        for (int i = 0; i < events.size(); i++) {
+            AnalyticsEventBatchRequest.Event event = events.get(i);
+            counterBuffer.record(user.getId(), types.get(i));
+            eventLog.appendOwnerEvent(user.getId(), types.get(i), event.getTargetId(), occurredAt(event.getClientTimestamp(), now));
+            targetAnalyticsService.record(user.getId(), types.get(i), event.getTargetId());
         }
-
-        PortfolioAnalytics analytics = getOrCreate(owner.getId());
-        analytics.setPublicViews(analytics.getPublicViews() + 1);
-        incrementMonthly(analytics);
-        analyticsRepository.save(analytics);
-        log.info("Tracked public portfolio view for userId={}", owner.getId());
     }
 
-    private PortfolioAnalytics getOrCreate(String userId) {
-        return analyticsRepository.findById(userId).orElseGet(() -> {
-            PortfolioAnalytics analytics = new PortfolioAnalytics();
-            analytics.setUserId(userId);
-            return analyticsRepository.save(analytics);
-        });
-    }
-
-    private void incrementByKey(PortfolioAnalytics analytics, String eventKey) {
-        switch (eventKey) {
-            case "shareClicks" -> analytics.setShareClicks(analytics.getShareClicks() + 1);
-            case "projectDetailViews" -> analytics.setProjectDetailViews(analytics.getProjectDetailViews() + 1);
-            case "certificateFileOpens" -> analytics.setCertificateFileOpens(analytics.getCertificateFileOpens() + 1);
-            case "cvDownloads" -> analytics.setCvDownloads(analytics.getCvDownloads() + 1);
-            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported analytics event key");
+    @Transactional
+    public void incrementPublicView(String userId, String viewerFingerprint) {
+        if (!recordPublicViews(userId, Collections.singletonList(viewerFingerprint))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found");
         }
-
-        incrementMonthly(analytics);
     }
 
-    private void incrementMonthly(PortfolioAnalytics analytics) {
-        String monthKey = YearMonth.now(ZoneOffset.UTC).toString();
-        long next = analytics.getMonthlyActivity().getOrDefault(monthKey, 0L) + 1L;
-        analytics.getMonthlyActivity().put(monthKey, next);
-    }
-
-    private AnalyticsResponse toResponse(PortfolioAnalytics analytics) {
-        return new AnalyticsResponse(
-            analytics.getPublicViews(),
-            analytics.getShareClicks(),
-            analytics.getProjectDetailViews(),
-            analytics.getCertificateFileOpens(),
-            analytics.getCvDownloads(),
-            analytics.getLastUpdated(),
-            new HashMap<>(analytics.getMonthlyActivity())
-        );
-    }
-
-    private boolean isDuplicatePublicView(String userId, String viewerFingerprint) {
-        if (viewerFingerprint == null || viewerFingerprint.isBlank()) {
+    /**
+     * Counts several views of one profile with a single owner lookup, in the caller's transaction.
+     * Returns {@code false} without counting anything if the profile is unknown or private.
+     */
+    public boolean recordPublicViews(String userId, List<String> viewerFingerprints) {
+        if (negativeCache.isKnownAbsent(userId)) {
             return false;
         }
 
-        if (isRedisDedupeEnabled()) {
-            return isDuplicateUsingRedis(userId, viewerFingerprint);
-        }
+        long negativeGeneration = negativeCache.generation();
+        User owner = userRepository.findById(userId).orElse(null);
 
-        return isDuplicateUsingInMemory(userId, viewerFingerprint);
-    }
+        if (owner == null || !owner.isPublic()) {
+            negativeCache.rememberAbsent(userId, negativeGeneration);
+            return false;
+        }
 
-    private boolean isDuplicateUsingRedis(String userId, String viewerFingerprint) {
-        String dedupeKey = "analytics:public-view:" + userId + ":" + hashFingerprint(viewerFingerprint);
+        for (String viewerFingerprint : viewerFingerprints) {
+            // uniques see every view: the sketch ignores repeats on its own
+            uniqueVisitorService.record(owner.getId(), viewerFingerprint);
 
-        try {
-            Boolean firstSeen = redisTemplate.opsForValue()
-                .setIfAbsent(dedupeKey, "1", Duration.ofMillis(PUBLIC_VIEW_DEDUP_TTL_MS));
+            if (publicViewDeduplicator.isDuplicate(owner.getId(), viewerFingerprint)) {
+                log.debug("Skipped duplicate public view for userId={}", owner.getId());
+                continue;
+            }
 
-            return firstSeen == null || !firstSeen;
-        } catch (RuntimeException ex) {
-            log.warn("Redis analytics dedupe fallback to in-memory due to error: {}", ex.getMessage());
-            return isDuplicateUsingInMemory(userId, viewerFingerprint);
+            counterBuffer.record(owner.getId(), AnalyticsEventType.PUBLIC_VIEWS);
+            eventLog.append(owner.getId(), AnalyticsEventType.PUBLIC_VIEWS, viewerFingerprint);
+            trendingService.record(owner.getId());
+            countryAnalyticsService.record(owner.getId(), viewerIp(viewerFingerprint));
+            log.info("Tracked public portfolio view for userId={}", owner.getId());
         }
+        return true;
     }
 
-    private boolean isDuplicateUsingInMemory(String userId, String viewerFingerprint) {
-        long now = System.currentTimeMillis();
-        String key = userId + "|" + viewerFingerprint;
-        Long previous = publicViewDedup.put(key, now);
-        cleanupDedup(now);
-        return previous != null && now - previous < PUBLIC_VIEW_DEDUP_TTL_MS;
+    public UniqueVisitorsResponse getMyUniqueVisitors(User user, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+        YearMonth start = from != null ? from : end;
+        return new UniqueVisitorsResponse(start.toString(), end.toString(), uniqueVisitorService.count(user.getId(), start, end));
     }
 
-    private void cleanupDedup(long nowMs) {
-        if (publicViewDedup.size() < 10_000) {
-            return;
+    // the controller builds fingerprints as "ip|user-agent"
+    private static String viewerIp(String viewerFingerprint) {
+        if (viewerFingerprint == null) {
+            return null;
         }
+        int separator = viewerFingerprint.indexOf('|');
+        return separator < 0 ? viewerFingerprint : viewerFingerprint.substring(0, separator);
+    }
 
-        publicViewDedup.entrySet().removeIf(entry -> nowMs - entry.getValue() > PUBLIC_VIEW_DEDUP_TTL_MS);
+    // beacons are sent late (page hide) but client clocks cannot be trusted beyond that
+    private static LocalDateTime occurredAt(Long clientTimestamp, LocalDateTime now) {
+        if (clientTimestamp == null) {
+            return now;
+        }
+        LocalDateTime client = LocalDateTime.ofEpochSecond(Math.floorDiv(clientTimestamp, 1000L), 0, ZoneOffset.UTC);
+        if (client.isBefore(now.minus(MAX_BEACON_DELAY)) || client.isAfter(now.plusMinutes(1))) {
+            return now;
+        }
+        return client;
     }
 
-    private boolean isRedisDedupeEnabled() {
-        return redisDedupeEnabled && redisTemplate != null;
+    private PortfolioAnalytics getOrCreate(String userId) {
+        return analyticsRepository.findById(userId).orElseGet(() -> {
+            PortfolioAnalytics analytics = new PortfolioAnalytics();
+            analytics.setUserId(userId);
+            return analyticsRepository.save(analytics);
+        });
     }
 
-    private String hashFingerprint(String fingerprint) {
-        return Integer.toHexString(fingerprint.hashCode());
+    // stored totals plus whatever is still buffered, so owners see their own clicks immediately
+    private AnalyticsResponse toResponse(PortfolioAnalytics analytics) {
+        // read once: in Redis mode every pendingFor is a round trip
+        AnalyticsDelta pending = counterBuffer.pendingFor(analytics.getUserId()).orElse(null);
+        AnalyticsResponse response = new AnalyticsResponse(
+            analytics.getPublicViews(),
+            analytics.getShareClicks(),
+            analytics.getProjectDetailViews(),
+            analytics.getCertificateFileOpens(),
+            analytics.getCvDownloads(),
+            analytics.getLastUpdated(),
+            new HashMap<>(analytics.getMonthlyActivity()),
+            uniqueVisitorService.countThisMonth(analytics.getUserId()),
+            percentileService.percentilesThisMonth(analytics.getUserId(), analytics.getMonthlyActivity(), pending)
+        );
+
+        if (pending != null) {
+            response.setPublicViews(response.getPublicViews() + pending.get(AnalyticsEventType.PUBLIC_VIEWS));
+            response.setShareClicks(response.getShareClicks() + pending.get(AnalyticsEventType.SHARE_CLICKS));
+            response.setProjectDetailViews(response.getProjectDetailViews() + pending.get(AnalyticsEventType.PROJECT_DETAIL_VIEWS));
+            response.setCertificateFileOpens(response.getCertificateFileOpens() + pending.get(AnalyticsEventType.CERTIFICATE_FILE_OPENS));
+            response.setCvDownloads(response.getCvDownloads() + pending.get(AnalyticsEventType.CV_DOWNLOADS));
+            pending.monthly().forEach((month, count) -> response.getMonthlyActivity().merge(month, count, Long::sum));
+        }
+        return response;
     }
 }
@@ -0,0 +1,41 @@
+package com.example.demo.services;
+
+import com.example.demo.sketches.RotatingBloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory engine: a rotating Bloom filter sized once at startup. Memory does not grow with
+ * traffic and a check is a fixed number of bit probes; a false positive drops one real view.
+ */
+@Service
+public class BloomPublicViewDedupeEngine implements PublicViewDedupeEngine {
+    private final RotatingBloomFilter filter;
+
+    public BloomPublicViewDedupeEngine(
+        @Value("${app.analytics.dedupe.window-ms:21600000}") long windowMs,
+        @Value("${app.analytics.dedupe.bloom.buckets:4}") int buckets,
+        @Value("${app.analytics.dedupe.bloom.expected-views-per-window:1000000}") long expectedViewsPerWindow,
+        @Value("${app.analytics.dedupe.bloom.false-positive-rate:0.001}") double falsePositiveRate,
+        MeterRegistry meterRegistry
+    ) {
+        this.filter = new RotatingBloomFilter(windowMs, buckets, expectedViewsPerWindow, falsePositiveRate);
+        Gauge.builder("analytics.dedupe.bloom.bytes", filter, RotatingBloomFilter::sizeInBytes)
+            .description("Memory held by the public view dedupe filter")
+            .register(meterRegistry);
+        Gauge.builder("analytics.dedupe.bloom.rotations", filter, RotatingBloomFilter::rotations)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "bloom";
+    }
+
+    @Override
+    public boolean isDuplicate(String userId, String viewerFingerprint) {
+        return filter.checkAndPut(userId + '|' + viewerFingerprint, System.currentTimeMillis());
+    }
+}
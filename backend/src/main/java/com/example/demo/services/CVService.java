@@ -2,8 +2,12 @@ package com.example.demo.services;
 
 import com.example.demo.models.*;
 import com.example.demo.repositories.*;
+import com.example.demo.dto.cv.CVResponse;
 import com.example.demo.dto.cv.CVSaveRequest;
 import com.example.demo.enums.NotificationType;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
@@ -17,15 +21,18 @@ public class CVService {
     private final ExperienceRepository experienceRepository;
     private final EducationRepository educationRepository; // Добавили
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CVService(CVRepository cvRepository, 
                      ExperienceRepository experienceRepository,
                      EducationRepository educationRepository,
-                     NotificationService notificationService) {
+                     NotificationService notificationService,
+                     ApplicationEventPublisher eventPublisher) {
         this.cvRepository = cvRepository;
         this.experienceRepository = experienceRepository;
         this.educationRepository = educationRepository;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -74,6 +81,8 @@ public class CVService {
             });
         }
 
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.CV));
+
         if (isNewCv) {
             notificationService.createOnce(
                 user,
@@ -86,8 +95,15 @@ public class CVService {
         return savedCv;
     }
 
-    public CV getCV(User user) {
-        return cvRepository.findByUser(user).orElse(null);
+    public CVResponse getCV(User user) {
+        return cvRepository.findSummaryByUserId(user.getId())
+            .map(summary -> CVResponse.of(
+                summary,
+                cvRepository.findSkillsByCvId(summary.id()),
+                cvRepository.findExperienceResponsesByCvId(summary.id()),
+                cvRepository.findEducationResponsesByCvId(summary.id())
+            ))
+            .orElse(null);
     }
 
     @Transactional
@@ -99,5 +115,6 @@ public class CVService {
         educationRepository.deleteByCv(cv);
         
         cvRepository.delete(cv);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.CV));
     }
 }
@@ -3,11 +3,15 @@ package com.example.demo.services;
 import com.example.demo.models.Certificate;
 import com.example.demo.models.User;
 import com.example.demo.enums.NotificationType;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
 import com.example.demo.repositories.CertificateRepository;
 
 import jakarta.transaction.Transactional;
 
 import com.example.demo.dto.CertificateRequest;
+import com.example.demo.dto.CertificateResponse;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import org.springframework.http.HttpStatus;
@@ -17,10 +21,14 @@ import org.springframework.web.server.ResponseStatusException;
 public class CertificateService {
     private final CertificateRepository certificateRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CertificateService(CertificateRepository certificateRepository, NotificationService notificationService) {
+    public CertificateService(CertificateRepository certificateRepository,
+                              NotificationService notificationService,
+                              ApplicationEventPublisher eventPublisher) {
         this.certificateRepository = certificateRepository;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Certificate addCertificate(User user, CertificateRequest request) {
@@ -28,6 +36,7 @@ public class CertificateService {
         applyRequest(cert, request);
         cert.setUser(user);
         Certificate saved = certificateRepository.save(cert);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.CERTIFICATES));
 
         if (certificateRepository.countByUser(user) == 1L) {
             notificationService.createOnce(
@@ -41,8 +50,8 @@ public class CertificateService {
         return saved;
     }
 
-    public List<Certificate> getUserCertificates(User user) {
-        return certificateRepository.findByUser(user);
+    public List<CertificateResponse> getUserCertificates(User user) {
+        return certificateRepository.findResponsesByUserId(user.getId());
     }
 
     @Transactional
@@ -56,7 +65,9 @@ public class CertificateService {
 
         applyRequest(cert, request);
 
-        return certificateRepository.save(cert);
+        Certificate saved = certificateRepository.save(cert);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.CERTIFICATES));
+        return saved;
     }
 
     public void deleteCertificate(Long id, User user) {
@@ -68,6 +79,7 @@ public class CertificateService {
         }
         
         certificateRepository.delete(cert);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.CERTIFICATES));
     }
 
     private void applyRequest(Certificate cert, CertificateRequest request) {
@@ -0,0 +1,161 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.OwnedLongCounterMap;
+import com.example.demo.dto.analytics.CountryBreakdownResponse;
+import com.example.demo.repositories.CountryAnalyticsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Public views per owner, month and viewer country. Counted views are resolved through
+ * {@link GeoIpService} and buffered in an {@link OwnedLongCounterMap} keyed by the month and the
+ * two country letters packed into one long, then flushed as one batched upsert on the
+ * write-behind interval. A per-owner key index lets a breakdown read only that owner's pending
+ * counters. Does nothing while no GeoIP database is loaded.
+ */
+@Service
+public class CountryAnalyticsService {
+    private static final Logger log = LoggerFactory.getLogger(CountryAnalyticsService.class);
+    static final String UNKNOWN_COUNTRY = "ZZ";
+
+    private static final class Pending {
+        private final OwnedLongCounterMap counts;
+        private final Map<String, List<Long>> keysByOwner = new HashMap<>();
+
+        private Pending(int expectedSize) {
+            this.counts = new OwnedLongCounterMap(expectedSize);
+        }
+
+        private void add(String owner, long key, long delta) {
+            // counts are always positive, so the sum equals the delta only for a new key
+            if (counts.add(owner, key, delta) == delta) {
+                keysByOwner.computeIfAbsent(owner, ignored -> new ArrayList<>(4)).add(key);
+            }
+        }
+    }
+
+    private final GeoIpService geoIpService;
+    private final CountryAnalyticsRepository countryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter flushFailures;
+    private Pending pending = new Pending(1024);
+
+    public CountryAnalyticsService(GeoIpService geoIpService,
+                                   CountryAnalyticsRepository countryRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.geoIpService = geoIpService;
+        this.countryRepository = countryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("analytics.countries.pending", this, CountryAnalyticsService::pendingCounters).register(meterRegistry);
+        this.flushFailures = Counter.builder("analytics.countries.flush.failures").register(meterRegistry);
+    }
+
+    public void record(String userId, String viewerIp) {
+        if (!geoIpService.isAvailable()) {
+            return;
+        }
+        String country = geoIpService.countryOf(viewerIp)
+            .filter(code -> code.length() == 2)
+            .orElse(UNKNOWN_COUNTRY);
+        long key = pack(YearMonth.now(ZoneOffset.UTC), country);
+        synchronized (this) {
+            pending.add(userId, key, 1L);
+        }
+    }
+
+    public CountryBreakdownResponse breakdown(String userId, YearMonth month) {
+        YearMonth target = month != null ? month : YearMonth.now(ZoneOffset.UTC);
+        Map<String, Long> counts = new HashMap<>();
+        for (CountryAnalyticsRepository.CountryCount stored : countryRepository.findForMonth(userId, target.toString())) {
+            counts.merge(stored.countryCode(), stored.count(), Long::sum);
+        }
+        long monthIndex = monthIndex(target);
+        synchronized (this) {
+            for (long key : pending.keysByOwner.getOrDefault(userId, List.of())) {
+                if (key >>> 16 == monthIndex) {
+                    counts.merge(unpackCountry(key), pending.counts.get(userId, key), Long::sum);
+                }
+            }
+        }
+
+        List<CountryBreakdownResponse.Country> countries = new ArrayList<>(counts.size());
+        counts.forEach((country, views) -> countries.add(new CountryBreakdownResponse.Country(country, views)));
+        countries.sort(Comparator.comparingLong(CountryBreakdownResponse.Country::views).reversed()
+            .thenComparing(CountryBreakdownResponse.Country::countryCode));
+        return new CountryBreakdownResponse(target.toString(), countries);
+    }
+
+    public synchronized int pendingCounters() {
+        return pending.counts.size();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}",
+        initialDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        OwnedLongCounterMap drained;
+        synchronized (this) {
+            if (pending.counts.isEmpty()) {
+                return;
+            }
+            drained = pending.counts;
+            pending = new Pending(Math.max(1024, drained.size()));
+        }
+
+        List<CountryAnalyticsRepository.CountryDelta> deltas = new ArrayList<>(drained.size());
+        drained.forEach((userId, key, count) -> deltas.add(
+            new CountryAnalyticsRepository.CountryDelta(userId, unpackMonth(key).toString(), unpackCountry(key), count)));
+        deltas.sort(Comparator.comparing(CountryAnalyticsRepository.CountryDelta::userId)
+            .thenComparing(CountryAnalyticsRepository.CountryDelta::monthKey)
+            .thenComparing(CountryAnalyticsRepository.CountryDelta::countryCode));
+        try {
+            transactionTemplate.executeWithoutResult(status -> countryRepository.increment(deltas));
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                drained.forEach((userId, key, count) -> pending.add(userId, key, count));
+            }
+            flushFailures.increment();
+            log.warn("Country analytics flush failed, {} counters kept in memory: {}", deltas.size(), ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static long monthIndex(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private static long pack(YearMonth month, String country) {
+        return (monthIndex(month) << 16) | ((long) (country.charAt(0) & 0xFF) << 8) | (country.charAt(1) & 0xFF);
+    }
+
+    private static YearMonth unpackMonth(long key) {
+        long monthIndex = key >>> 16;
+        return YearMonth.of((int) (monthIndex / 12), (int) (monthIndex % 12) + 1);
+    }
+
+    private static String unpackCountry(long key) {
+        return new String(new char[] {(char) ((key >>> 8) & 0xFF), (char) (key & 0xFF)});
+    }
+}
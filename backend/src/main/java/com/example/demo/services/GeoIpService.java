@@ -0,0 +1,173 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.BoundedMaps;
+import com.example.demo.geoip.MaxMindDbReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Offline IP to country lookup from a local MaxMind DB file (for example GeoLite2-Country).
+ * Results are cached per /24 (IPv4) or /48 (IPv6) prefix; country databases do not split
+ * networks below that in practice, so one lookup serves the whole prefix.
+ */
+@Service
+public class GeoIpService {
+    private static final Logger log = LoggerFactory.getLogger(GeoIpService.class);
+    private static final String UNKNOWN = "";
+    private static final long IPV4_TAG = 1L << 62;
+    private static final long IPV6_TAG = 1L << 61;
+
+    private final Map<Long, String> prefixCache = new ConcurrentHashMap<>();
+    private final Counter lookups;
+    private final Counter cacheHits;
+    private final Counter lookupFailures;
+    private volatile MaxMindDbReader reader;
+
+    @Value("${app.analytics.geoip.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.geoip.database-path:}")
+    private String databasePath = "";
+
+    @Value("${app.analytics.geoip.cache-max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    public GeoIpService(MeterRegistry meterRegistry) {
+        Gauge.builder("analytics.geoip.cache.size", prefixCache, Map::size).register(meterRegistry);
+        this.lookups = Counter.builder("analytics.geoip.lookups").register(meterRegistry);
+        this.cacheHits = Counter.builder("analytics.geoip.cache.hits").register(meterRegistry);
+        this.lookupFailures = Counter.builder("analytics.geoip.lookup.failures")
+            .description("GeoIP lookups that failed on a malformed or truncated database record")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled || databasePath == null || databasePath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(databasePath);
+        if (!Files.isReadable(path)) {
+            log.warn("GeoIP database {} is not readable, country analytics disabled", path);
+            return;
+        }
+        try {
+            reader = MaxMindDbReader.open(path);
+            log.info("GeoIP database {} ({}) mapped", path, reader.databaseType());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("GeoIP database {} could not be opened, country analytics disabled: {}", path, ex.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return reader != null;
+    }
+
+    /**
+     * ISO country code for an IP literal; empty when no database is loaded, the string is not an
+     * IP literal, the address is not in the database, or its record cannot be decoded.
+     */
+    public Optional<String> countryOf(String ip) {
+        MaxMindDbReader current = reader;
+        byte[] address = current == null ? null : parseLiteral(ip);
+        if (address == null) {
+            return Optional.empty();
+        }
+
+        long prefix = prefixKey(address);
+        String cached = prefixCache.get(prefix);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached.isEmpty() ? Optional.empty() : Optional.of(cached);
+        }
+
+        lookups.increment();
+        String country;
+        try {
+            country = current.countryIsoCode(address).orElse(UNKNOWN);
+        } catch (RuntimeException ex) {
+            // a corrupt record must not fail the view; the prefix is cached as unknown below
+            lookupFailures.increment();
+            log.warn("GeoIP lookup failed, address counted as unknown: {}", ex.toString());
+            country = UNKNOWN;
+        }
+        BoundedMaps.makeRoom(prefixCache, maxEntries);
+        prefixCache.put(prefix, country);
+        return country.isEmpty() ? Optional.empty() : Optional.of(country);
+    }
+
+    // IPv4-mapped IPv6 literals come back from InetAddress as 4 bytes, so both share one cache key
+    private static long prefixKey(byte[] address) {
+        if (address.length == 4) {
+            return IPV4_TAG | ((address[0] & 0xFFL) << 16) | ((address[1] & 0xFFL) << 8) | (address[2] & 0xFFL);
+        }
+        long prefix = 0;
+        for (int i = 0; i < 6; i++) {
+            prefix = (prefix << 8) | (address[i] & 0xFFL);
+        }
+        return IPV6_TAG | prefix;
+    }
+
+    /**
+     * Parses only literals: InetAddress would resolve anything else through DNS.
+     */
+    static byte[] parseLiteral(String ip) {
+        if (ip == null || ip.isEmpty() || ip.length() > 45) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            return parseIpv4(ip);
+        }
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            boolean allowed = c == ':' || c == '.' || Character.digit(c, 16) >= 0;
+            if (!allowed) {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+    }
+
+    private static byte[] parseIpv4(String ip) {
+        byte[] address = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i == ip.length() ? '.' : ip.charAt(i);
+            if (c == '.') {
+                if (value < 0 || part == 4) {
+                    return null;
+                }
+                address[part++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return part == 4 ? address : null;
+    }
+}
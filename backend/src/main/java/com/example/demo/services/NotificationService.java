@@ -1,11 +1,22 @@
 package com.example.demo.services;
 
+import com.example.demo.collections.BoundedMaps;
+import com.example.demo.dto.NotificationResponse;
 import com.example.demo.enums.NotificationType;
 import com.example.demo.models.Notification;
 import com.example.demo.models.User;
 import com.example.demo.repositories.NotificationRepository;
+import com.example.demo.repositories.NotificationWriteRepository;
 import com.example.demo.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,20 +24,51 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 @Service
 public class NotificationService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
     private final NotificationRepository notificationRepository;
+    private final NotificationWriteRepository notificationWriteRepository;
     private final UserRepository userRepository;
-
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    private final PortfolioVersionService portfolioVersionService;
+    private final Executor notificationExecutor;
+    // per-user bitset of create-once types already emitted (bit = NotificationType ordinal); only a
+    // shortcut in front of the unique (user_id, type) constraint, so entries may be dropped at will
+    private final Map<String, Integer> emittedTypes = new ConcurrentHashMap<>();
+
+    @Value("${app.notifications.emitted-cache-max-entries:100000}")
+    private int maxEmittedEntries = 100_000;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                               NotificationWriteRepository notificationWriteRepository,
+                               UserRepository userRepository,
+                               PortfolioVersionService portfolioVersionService,
+                               @Qualifier("notificationExecutor") Executor notificationExecutor) {
         this.notificationRepository = notificationRepository;
+        this.notificationWriteRepository = notificationWriteRepository;
         this.userRepository = userRepository;
+        this.portfolioVersionService = portfolioVersionService;
+        this.notificationExecutor = notificationExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmEmittedTypes() {
+        try {
+            List<Object[]> rows = notificationRepository.findRecentUserIdsAndTypes(PageRequest.of(0, maxEmittedEntries));
+            rows.forEach(row -> markEmitted((String) row[0], (NotificationType) row[1]));
+            log.info("Warmed create-once notification bitset with {} entries", rows.size());
+        } catch (RuntimeException ex) {
+            log.warn("Create-once notification warm-up failed: {}", ex.getMessage());
+        }
     }
 
-    public List<Notification> getNotifications(User user) {
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user);
+    public List<NotificationResponse> getNotifications(User user) {
+        return notificationRepository.findResponsesByUserId(user.getId());
     }
 
     public long getUnreadCount(User user) {
@@ -43,7 +85,9 @@ public class NotificationService {
             notification.setReadAt(LocalDateTime.now());
         }
 
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        portfolioVersionService.bump(user.getId());
+        return saved;
     }
 
     @Transactional
@@ -58,6 +102,7 @@ public class NotificationService {
             });
 
         notificationRepository.saveAll(notifications);
+        portfolioVersionService.bump(user.getId());
     }
 
     public void create(User user, NotificationType type, String title, String message) {
@@ -68,22 +113,94 @@ public class NotificationService {
         notification.setMessage(message);
         notification.setRead(false);
         notificationRepository.save(notification);
+        portfolioVersionService.bump(user.getId());
     }
 
     public void createOnce(User user, NotificationType type, String title, String message) {
-        boolean exists = notificationRepository.existsByUserIdAndType(user.getId(), type);
-        if (exists) {
+        if (isEmitted(user.getId(), type)) {
             return;
         }
 
+        insertOnce(user.getId(), type, title, message);
+        markEmitted(user.getId(), type);
+    }
+
+    public void createOnceByUserId(String userId, NotificationType type, String title, String message) {
+        userRepository.findById(userId).ifPresent(user -> createOnce(user, type, title, message));
+    }
+
+    /**
+     * Request-path variant of {@link #createOnceByUserId}: after the first emission it is a single
+     * map lookup, and the lookup/insert itself runs on the notification executor. The bit stays set
+     * while the task is queued, so a burst of requests submits one task; it is cleared again only
+     * when the insert could not run.
+     */
+    public void createOnceByUserIdAsync(String userId, NotificationType type, String title, String message) {
+        if (!markEmitted(userId, type)) {
+            return;
+        }
+
+        try {
+            notificationExecutor.execute(() -> {
+                try {
+                    userRepository.findById(userId).ifPresentOrElse(
+                        user -> insertOnce(userId, type, title, message),
+                        () -> unmarkEmitted(userId, type)
+                    );
+                } catch (RuntimeException ex) {
+                    unmarkEmitted(userId, type);
+                    log.warn("Background notification {} failed for userId={}: {}", type, userId, ex.getMessage());
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            unmarkEmitted(userId, type);
+            log.debug("Notification executor saturated, dropped {} for userId={}", type, userId);
+        }
+    }
+
+    public void forgetUser(String userId) {
+        emittedTypes.remove(userId);
+    }
+
+    private void insertOnce(String userId, NotificationType type, String title, String message) {
         try {
-            create(user, type, title, message);
+            if (notificationWriteRepository.insertIfAbsent(userId, type, title, message)) {
+                portfolioVersionService.bump(userId);
+            }
         } catch (DataIntegrityViolationException ignored) {
-            // unique constraint can be hit under concurrent requests; this is safe to ignore for create-once flow
+            // MERGE on H2 can still race on the unique constraint; the other caller's row is the one we wanted
         }
     }
 
-    public void createOnceByUserId(String userId, NotificationType type, String title, String message) {
-        userRepository.findById(userId).ifPresent(user -> createOnce(user, type, title, message));
+    private boolean isEmitted(String userId, NotificationType type) {
+        Integer bits = emittedTypes.get(userId);
+        return bits != null && (bits & bit(type)) != 0;
+    }
+
+    // returns true only for the caller that flipped the bit
+    private boolean markEmitted(String userId, NotificationType type) {
+        int mask = bit(type);
+        boolean[] flipped = new boolean[1];
+        if (!emittedTypes.containsKey(userId)) {
+            BoundedMaps.makeRoom(emittedTypes, maxEmittedEntries);
+        }
+        emittedTypes.compute(userId, (ignored, current) -> {
+            int bits = current == null ? 0 : current;
+            flipped[0] = (bits & mask) == 0;
+            return bits | mask;
+        });
+        return flipped[0];
+    }
+
+    private void unmarkEmitted(String userId, NotificationType type) {
+        int mask = bit(type);
+        emittedTypes.computeIfPresent(userId, (ignored, current) -> {
+            int bits = current & ~mask;
+            return bits == 0 ? null : bits;
+        });
+    }
+
+    private static int bit(NotificationType type) {
+        return 1 << type.ordinal();
     }
 }
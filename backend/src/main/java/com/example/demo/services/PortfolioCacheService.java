@@ -0,0 +1,155 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.BoundedMaps;
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class PortfolioCacheService {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioCacheService.class);
+
+    public record EncodedPortfolio(byte[] json, byte[] gzip, long version) {}
+
+    private static final class Entry {
+        private final PortfolioResponse response;
+        private volatile EncodedPortfolio encoded;
+
+        private Entry(PortfolioResponse response) {
+            this.response = response;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> snapshots = new ConcurrentHashMap<>();
+    // last eviction stamp per key, bounded on its own so evictions never push out live snapshots;
+    // a load only stores if its key's stamp did not move meanwhile
+    private final Map<String, Long> evictedAt = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+    // stamp read for keys without one: raised whenever stamps are dropped for capacity, so a load
+    // whose key's stamp was dropped mid-flight sees a change instead of an unevicted key
+    private volatile long droppedStamp;
+
+    @Value("${app.portfolio.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.portfolio.cache.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    public PortfolioCacheService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public PortfolioResponse getOrLoad(String userId, Supplier<PortfolioResponse> loader) {
+        return getEntry(userId, loader).response;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Serialized snapshot with its gzip variant. The bytes live on the cached entry, so callers
+     * should only use this while {@link #isEnabled()}; otherwise every call encodes from scratch.
+     */
+    public EncodedPortfolio getEncodedOrLoad(String userId, Supplier<PortfolioResponse> loader) {
+        Entry entry = getEntry(userId, loader);
+        EncodedPortfolio encoded = entry.encoded;
+        if (encoded == null) {
+            // concurrent first hits may both encode; the results are identical so the race is harmless
+            encoded = encode(entry.response);
+            entry.encoded = encoded;
+        }
+        return encoded;
+    }
+
+    public Optional<PortfolioResponse> peek(String userId) {
+        Entry cached = enabled ? snapshots.get(userId) : null;
+        return cached == null ? Optional.empty() : Optional.of(cached.response);
+    }
+
+    public void evict(String userId) {
+        if (evictedAt.size() >= maxEntries) {
+            // every stamp about to be dropped is at most the current one
+            droppedStamp = evictions.get();
+            BoundedMaps.makeRoom(evictedAt, maxEntries);
+        }
+        // stamp first, then remove: a load that compares after either step does not store
+        evictedAt.put(userId, evictions.incrementAndGet());
+        if (snapshots.remove(userId) != null) {
+            log.debug("Evicted public portfolio snapshot for userId={}", userId);
+        }
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        evict(event.userId());
+    }
+
+    private Entry getEntry(String userId, Supplier<PortfolioResponse> loader) {
+        if (!enabled) {
+            return new Entry(loader.get());
+        }
+
+        Entry cached = snapshots.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // only this key's evictions matter; edits to other portfolios do not block the fill
+        long stampBeforeLoad = stampOf(userId);
+        Entry loaded = new Entry(loader.get());
+        BoundedMaps.makeRoom(snapshots, maxEntries);
+        Entry stored = snapshots.compute(userId, (ignored, current) -> {
+            if (current == null) {
+                return stampOf(userId) == stampBeforeLoad ? loaded : null;
+            }
+            return current.response.getVersion() >= loaded.response.getVersion() ? current : loaded;
+        });
+        return stored != null ? stored : loaded;
+    }
+
+    private long stampOf(String userId) {
+        Long stamp = evictedAt.get(userId);
+        return stamp != null ? stamp : droppedStamp;
+    }
+
+    private EncodedPortfolio encode(PortfolioResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            return new EncodedPortfolio(json, gzip(json), response.getVersion());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize public portfolio", ex);
+        }
+    }
+
+    private byte[] gzip(byte[] source) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, source.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(source);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.BoundedMaps;
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
+import com.example.demo.models.CV;
+import com.example.demo.models.Certificate;
+import com.example.demo.models.Education;
+import com.example.demo.models.Experience;
+import com.example.demo.models.Project;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Server-rendered HTML for public portfolios. The page shell is cheap and built per request;
+ * the CV, projects and certificates sections are cached as finished HTML fragments and dropped
+ * individually when the matching section is written.
+ */
+@Service
+public class PortfolioPageService {
+
+    private static final List<PortfolioSection> CACHED_SECTIONS =
+        List.of(PortfolioSection.CV, PortfolioSection.PROJECTS, PortfolioSection.CERTIFICATES);
+
+    private record FragmentKey(String userId, PortfolioSection section) {}
+
+    private record Fragment(long version, String html) {}
+
+    private final Map<FragmentKey, Fragment> fragments = new ConcurrentHashMap<>();
+    // last invalidation stamp per owner; callers read it before loading the portfolio so a load that
+    // raced with a write to the same owner never stores stale HTML, while other owners' writes do not matter
+    private final Map<String, Long> evictedAt = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+    // stamp read for owners without one, raised when stamps are dropped for capacity
+    private volatile long droppedStamp;
+
+    @Value("${app.portfolio.html.fragment-cache.enabled:true}")
+    private boolean cacheEnabled = true;
+
+    @Value("${app.portfolio.html.fragment-cache.max-entries:30000}")
+    private int maxEntries = 30_000;
+
+    /**
+     * Invalidation stamp of {@code userId} to take before loading the portfolio passed to {@link #render}.
+     */
+    public long stamp(String userId) {
+        Long stamp = evictedAt.get(userId);
+        return stamp != null ? stamp : droppedStamp;
+    }
+
+    /**
+     * Renders a portfolio that has already passed the public visibility check. Fragments are only
+     * cached when this owner had nothing evicted since {@code stampBeforeLoad}.
+     */
+    public String render(String userId, PortfolioResponse portfolio, long stampBeforeLoad) {
+        String name = text(portfolio.getFullName());
+        CV cv = portfolio.getCv();
+        String profession = cv == null ? "" : text(cv.getProfession());
+
+        StringBuilder html = new StringBuilder(4096)
+            .append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n")
+            .append("<meta charset=\"utf-8\">\n")
+            .append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n")
+            .append("<title>").append(escape(name.isEmpty() ? "Portfolio" : name + " | Portfolio")).append("</title>\n");
+        if (!profession.isEmpty()) {
+            html.append("<meta name=\"description\" content=\"").append(escape(name + " - " + profession)).append("\">\n");
+        }
+        html.append("</head>\n<body>\n<header>\n<h1>").append(escape(name)).append("</h1>\n");
+        if (!profession.isEmpty()) {
+            html.append("<p class=\"profession\">").append(escape(profession)).append("</p>\n");
+        }
+        html.append("</header>\n<main>\n");
+
+        html.append(fragment(userId, PortfolioSection.CV, portfolio, stampBeforeLoad, this::renderCv));
+        html.append(fragment(userId, PortfolioSection.PROJECTS, portfolio, stampBeforeLoad, this::renderProjects));
+        html.append(fragment(userId, PortfolioSection.CERTIFICATES, portfolio, stampBeforeLoad, this::renderCertificates));
+
+        return html.append("</main>\n</body>\n</html>\n").toString();
+    }
+
+    public void evict(String userId, PortfolioSection section) {
+        if (evictedAt.size() >= maxEntries) {
+            // every stamp about to be dropped is at most the current one
+            droppedStamp = evictions.get();
+            BoundedMaps.makeRoom(evictedAt, maxEntries);
+        }
+        // stamp first, then remove: a store that checks after either step keeps its hands off
+        evictedAt.put(userId, evictions.incrementAndGet());
+        for (PortfolioSection cached : CACHED_SECTIONS) {
+            if (section.affects(cached)) {
+                fragments.remove(new FragmentKey(userId, cached));
+            }
+        }
+    }
+
+    public int size() {
+        return fragments.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        evict(event.userId(), event.section());
+    }
+
+    private String fragment(String userId, PortfolioSection section, PortfolioResponse portfolio,
+                            long stampBeforeLoad, Function<PortfolioResponse, String> renderer) {
+        if (!cacheEnabled) {
+            return renderer.apply(portfolio);
+        }
+
+        FragmentKey key = new FragmentKey(userId, section);
+        Fragment cached = fragments.get(key);
+        if (cached != null && cached.version() <= portfolio.getVersion()) {
+            return cached.html();
+        }
+
+        String rendered = renderer.apply(portfolio);
+        if (stamp(userId) == stampBeforeLoad) {
+            BoundedMaps.makeRoom(fragments, maxEntries);
+            Fragment fresh = new Fragment(portfolio.getVersion(), rendered);
+            // checked again inside compute, which an eviction's remove of this key waits for;
+            // a slower render of an older version never replaces a newer fragment
+            fragments.compute(key, (ignored, current) -> {
+                if (stamp(userId) != stampBeforeLoad) {
+                    return current;
+                }
+                return current == null || fresh.version() >= current.version() ? fresh : current;
+            });
+        }
+        return rendered;
+    }
+
+    private String renderCv(PortfolioResponse portfolio) {
+        CV cv = portfolio.getCv();
+        if (cv == null) {
+            return "";
+        }
+
+        StringBuilder html = new StringBuilder("<section id=\"cv\">\n<h2>About</h2>\n");
+        if (!text(cv.getCity()).isEmpty()) {
+            html.append("<p class=\"city\">").append(escape(cv.getCity())).append("</p>\n");
+        }
+        if (cv.getSkills() != null && !cv.getSkills().isEmpty()) {
+            html.append("<h3>Skills</h3>\n<ul class=\"skills\">\n");
+            for (String skill : cv.getSkills()) {
+                html.append("<li>").append(escape(skill)).append("</li>\n");
+            }
+            html.append("</ul>\n");
+        }
+        if (cv.getExperiences() != null && !cv.getExperiences().isEmpty()) {
+            html.append("<h3>Experience</h3>\n<ul class=\"experience\">\n");
+            for (Experience experience : cv.getExperiences()) {
+                html.append("<li><strong>").append(escape(experience.getPosition())).append("</strong> ")
+                    .append(escape(experience.getCompany()))
+                    .append(" <span>").append(escape(experience.getPeriod())).append("</span></li>\n");
+            }
+            html.append("</ul>\n");
+        }
+        if (cv.getEducations() != null && !cv.getEducations().isEmpty()) {
+            html.append("<h3>Education</h3>\n<ul class=\"education\">\n");
+            for (Education education : cv.getEducations()) {
+                html.append("<li><strong>").append(escape(education.getInstitution())).append("</strong> ")
+                    .append(escape(joinNonBlank(education.getDegree(), education.getProfession())))
+                    .append(" <span>").append(escape(education.getYear())).append("</span></li>\n");
+            }
+            html.append("</ul>\n");
+        }
+        return html.append("</section>\n").toString();
+    }
+
+    private String renderProjects(PortfolioResponse portfolio) {
+        List<Project> projects = portfolio.getProjects();
+        if (projects == null || projects.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder html = new StringBuilder("<section id=\"projects\">\n<h2>Projects</h2>\n");
+        for (Project project : projects) {
+            html.append("<article class=\"project\">\n<h3>").append(escape(project.getTitle())).append("</h3>\n");
+            String meta = joinNonBlank(project.getRole(), project.getStackSummary(), project.getStatus());
+            if (!meta.isEmpty()) {
+                html.append("<p class=\"meta\">").append(escape(meta)).append("</p>\n");
+            }
+            if (!text(project.getDescription()).isEmpty()) {
+                html.append("<p>").append(escape(project.getDescription())).append("</p>\n");
+            }
+            appendLink(html, project.getLiveUrl(), "Live");
+            appendLink(html, project.getGithubUrl(), "Source");
+            html.append("</article>\n");
+        }
+        return html.append("</section>\n").toString();
+    }
+
+    private String renderCertificates(PortfolioResponse portfolio) {
+        List<Certificate> certificates = portfolio.getCertificates();
+        if (certificates == null || certificates.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder html = new StringBuilder("<section id=\"certificates\">\n<h2>Certificates</h2>\n<ul>\n");
+        for (Certificate certificate : certificates) {
+            String title = text(certificate.getName()).isEmpty() ? certificate.getTitle() : certificate.getName();
+            html.append("<li><strong>").append(escape(title)).append("</strong> ")
+                .append(escape(joinNonBlank(certificate.getIssuedBy(), certificate.getIssueDate())));
+            appendLink(html, certificate.getFileUrl(), "View");
+            html.append("</li>\n");
+        }
+        return html.append("</ul>\n</section>\n").toString();
+    }
+
+    // only http(s) links are emitted, so stored values can never become javascript: URLs
+    private void appendLink(StringBuilder html, String url, String label) {
+        String value = text(url);
+        String lower = value.toLowerCase();
+        if (!lower.startsWith("https://") && !lower.startsWith("http://")) {
+            return;
+        }
+        html.append(" <a href=\"").append(escape(value)).append("\" rel=\"nofollow noopener\">")
+            .append(label).append("</a>");
+    }
+
+    private static String joinNonBlank(String... values) {
+        StringBuilder joined = new StringBuilder();
+        for (String value : values) {
+            if (text(value).isEmpty()) {
+                continue;
+            }
+            if (!joined.isEmpty()) {
+                joined.append(" · ");
+            }
+            joined.append(value.trim());
+        }
+        return joined.toString();
+    }
+
+    private static String text(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : HtmlUtils.htmlEscape(value, "UTF-8");
+    }
+}
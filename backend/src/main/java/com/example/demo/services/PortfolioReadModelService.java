@@ -0,0 +1,188 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioDocument;
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.models.CV;
+import com.example.demo.models.PortfolioReadModel;
+import com.example.demo.repositories.PortfolioQueryRepository;
+import com.example.demo.repositories.PortfolioReadModelRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps {@code portfolio_read_model} in step with the normalized tables. Rebuilds run inside the
+ * writer's transaction, so a committed write always has a matching document; readers fall back to
+ * {@link PortfolioQueryRepository} whenever a document is missing.
+ */
+@Service
+public class PortfolioReadModelService {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioReadModelService.class);
+
+    private final PortfolioReadModelRepository readModelRepository;
+    private final PortfolioQueryRepository portfolioQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper documentReader;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.portfolio.read-model.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.portfolio.read-model.backfill-on-startup:true}")
+    private boolean backfillOnStartup = true;
+
+    @Value("${app.portfolio.read-model.backfill-batch-size:200}")
+    private int backfillBatchSize = 200;
+
+    public PortfolioReadModelService(PortfolioReadModelRepository readModelRepository,
+                                     PortfolioQueryRepository portfolioQueryRepository,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.readModelRepository = readModelRepository;
+        this.portfolioQueryRepository = portfolioQueryRepository;
+        this.objectMapper = objectMapper;
+        // CV children carry @JsonManagedReference without a back reference (the parent link is
+        // @JsonIgnore), which Jackson refuses to deserialize; links are restored by hand instead
+        this.documentReader = objectMapper.copy().setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public AnnotationIntrospector.ReferenceProperty findReferenceType(AnnotatedMember member) {
+                return null;
+            }
+        });
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * One primary-key lookup. Private documents are only deserialized when {@code includePrivate}
+     * is set, mirroring {@link PortfolioQueryRepository#findPortfolio}.
+     */
+    public Optional<PortfolioQueryRepository.LoadedPortfolio> find(String userId, boolean includePrivate) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Optional<PortfolioDocument> stored = readModelRepository.findDocument(userId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+
+        PortfolioDocument document = stored.get();
+        if (!document.isPublic() && !includePrivate) {
+            return Optional.of(new PortfolioQueryRepository.LoadedPortfolio(false, null));
+        }
+
+        try {
+            PortfolioResponse portfolio = documentReader.readValue(document.document(), PortfolioResponse.class);
+            portfolio.setVersion(document.version());
+            linkCvChildren(portfolio.getCv());
+            return Optional.of(new PortfolioQueryRepository.LoadedPortfolio(document.isPublic(), portfolio));
+        } catch (JsonProcessingException ex) {
+            log.warn("Unreadable portfolio read model for userId={}: {}", userId, ex.getOriginalMessage());
+            return Optional.empty();
+        }
+    }
+
+    @EventListener
+    @Transactional
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        rebuild(event.userId());
+    }
+
+    @Transactional
+    public void rebuild(String userId) {
+        if (!enabled) {
+            return;
+        }
+
+        Optional<PortfolioResponse> portfolio = portfolioQueryRepository.findPortfolio(userId, true)
+            .map(PortfolioQueryRepository.LoadedPortfolio::portfolio);
+        if (portfolio.isEmpty()) {
+            readModelRepository.deleteById(userId);
+            return;
+        }
+
+        PortfolioReadModel readModel = new PortfolioReadModel();
+        readModel.setUserId(userId);
+        readModel.setUpdatedAt(LocalDateTime.now());
+        try {
+            readModel.setDocument(objectMapper.writeValueAsString(portfolio.get()));
+        } catch (JsonProcessingException ex) {
+            // a stale document is worse than none: readers fall back to the normalized tables
+            log.warn("Failed to serialize portfolio read model for userId={}: {}", userId, ex.getOriginalMessage());
+            readModelRepository.deleteById(userId);
+            return;
+        }
+        readModelRepository.save(readModel);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled || !backfillOnStartup) {
+            return;
+        }
+
+        try {
+            int rebuilt = backfill();
+            if (rebuilt > 0) {
+                log.info("Backfilled {} portfolio read model documents", rebuilt);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Portfolio read model backfill failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Builds documents for every user that has none yet, one batch per transaction.
+     * Returns the number of users processed.
+     */
+    public int backfill() {
+        int total = 0;
+        // keyset cursor, so a user whose document cannot be built is skipped rather than retried forever
+        String afterId = "";
+        while (true) {
+            String cursor = afterId;
+            List<String> userIds = transactionTemplate.execute(status -> {
+                List<String> batch = readModelRepository.findUserIdsWithoutReadModel(cursor, PageRequest.of(0, backfillBatchSize));
+                batch.forEach(this::rebuild);
+                return batch;
+            });
+            if (userIds == null || userIds.isEmpty()) {
+                return total;
+            }
+            total += userIds.size();
+            if (userIds.size() < backfillBatchSize) {
+                return total;
+            }
+            afterId = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    private static void linkCvChildren(CV cv) {
+        if (cv == null) {
+            return;
+        }
+        if (cv.getExperiences() != null) {
+            cv.getExperiences().forEach(experience -> experience.setCv(cv));
+        }
+        if (cv.getEducations() != null) {
+            cv.getEducations().forEach(education -> education.setCv(cv));
+        }
+    }
+}
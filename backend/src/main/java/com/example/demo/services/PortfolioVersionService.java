@@ -0,0 +1,82 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.models.User;
+import com.example.demo.repositories.UserRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+@Service
+public class PortfolioVersionService {
+
+    private final UserRepository userRepository;
+    private final PortfolioCacheService portfolioCacheService;
+    private final PublicProfileNegativeCache negativeCache;
+
+    public PortfolioVersionService(UserRepository userRepository,
+                                   PortfolioCacheService portfolioCacheService,
+                                   PublicProfileNegativeCache negativeCache) {
+        this.userRepository = userRepository;
+        this.portfolioCacheService = portfolioCacheService;
+        this.negativeCache = negativeCache;
+    }
+
+    // runs inside the writer's transaction so the new version commits together with the data
+    @EventListener
+    @Transactional
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        bump(event.userId());
+    }
+
+    @Transactional
+    public void bump(String userId) {
+        userRepository.incrementPortfolioVersion(userId);
+    }
+
+    public OptionalLong findPublicVersion(String userId) {
+        if (negativeCache.isKnownAbsent(userId)) {
+            return OptionalLong.empty();
+        }
+
+        Optional<PortfolioResponse> cached = portfolioCacheService.peek(userId);
+        if (cached.isPresent()) {
+            return OptionalLong.of(cached.get().getVersion());
+        }
+
+        return userRepository.findPublicPortfolioVersion(userId)
+            .map(OptionalLong::of)
+            .orElseGet(OptionalLong::empty);
+    }
+
+    public String etag(User user) {
+        return etag(user.getId(), user.getPortfolioVersion());
+    }
+
+    // the owner id is part of the tag so two accounts sharing a browser cache never match each other
+    public String etag(String userId, long version) {
+        return etag(userId, version, "");
+    }
+
+    // strong tags must differ per representation, e.g. "-gzip" for the precompressed public body
+    public String etag(String userId, long version, String representationSuffix) {
+        return "\"" + ownerTag(userId) + "-" + version + representationSuffix + "\"";
+    }
+
+    private String ownerTag(String userId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(userId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
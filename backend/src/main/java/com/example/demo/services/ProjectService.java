@@ -1,13 +1,17 @@
 package com.example.demo.services;
 
 import com.example.demo.dto.ProjectDTO;
+import com.example.demo.dto.ProjectResponse;
 import com.example.demo.enums.NotificationType;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
 import com.example.demo.models.Project;
 import com.example.demo.models.User;
 import com.example.demo.repositories.ProjectRepository;
 
 import jakarta.transaction.Transactional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import org.springframework.http.HttpStatus;
@@ -17,10 +21,14 @@ import org.springframework.web.server.ResponseStatusException;
 public class ProjectService {
     private final ProjectRepository projectRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProjectService(ProjectRepository projectRepository, NotificationService notificationService) {
+    public ProjectService(ProjectRepository projectRepository,
+                          NotificationService notificationService,
+                          ApplicationEventPublisher eventPublisher) {
         this.projectRepository = projectRepository;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Project createProject(User user, ProjectDTO dto) {
@@ -39,6 +47,7 @@ public class ProjectService {
         project.setPinned(dto.isPinned());
         project.setUser(user);
         Project saved = projectRepository.save(project);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.PROJECTS));
 
         if (projectRepository.countByUser(user) == 1L) {
             notificationService.createOnce(
@@ -52,8 +61,8 @@ public class ProjectService {
         return saved;
     }
 
-    public List<Project> getUserProjects(User user) {
-        return projectRepository.findByUser(user);
+    public List<ProjectResponse> getUserProjects(User user) {
+        return projectRepository.findResponsesByUserId(user.getId());
     }
 
     @Transactional
@@ -78,7 +87,9 @@ public class ProjectService {
         project.setFinishedAt(dto.getFinishedAt());
         project.setPinned(dto.isPinned());
 
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.PROJECTS));
+        return saved;
     }
 
     public void deleteProject(Long id, User user) {
@@ -90,5 +101,6 @@ public class ProjectService {
         }
 
         projectRepository.delete(project);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId(), PortfolioSection.PROJECTS));
     }
 }
@@ -0,0 +1,219 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.BoundedMaps;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.sketches.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets the public endpoints answer 404 for private or unknown profiles without a query.
+ * A Bloom filter of every known user id rejects ids that were never seen, so walking unknown ids
+ * costs no database work at all. Registrations and profile changes on other nodes arrive over a
+ * Redis channel when Redis is available and are added to the filter; without it they show up on
+ * the next periodic rebuild. Ids that exist but are private (or were deleted) are remembered in a
+ * bounded map for a short TTL, so a profile made public elsewhere is served again within it.
+ */
+@Service
+public class PublicProfileNegativeCache {
+    private static final Logger log = LoggerFactory.getLogger(PublicProfileNegativeCache.class);
+    static final String CHANNEL = "public-profile:changed";
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    // messages are "<node id>|<user id>"; a node skips its own
+    private final String nodeId = UUID.randomUUID().toString();
+    private RedisMessageListenerContainer listenerContainer;
+    private final Map<String, Long> absentUntil = new ConcurrentHashMap<>();
+    // bumped on every invalidation so a lookup that raced with a visibility change is not remembered
+    private final AtomicLong generation = new AtomicLong();
+    // null until warmed from the database; unknown ids are never rejected before that
+    private volatile BloomFilter knownUsers;
+    // ids registered while a rebuild reads the table; replayed into the new filter before it is used
+    private final Set<String> registeredDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    @Value("${app.public-profile.negative-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.public-profile.negative-cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    @Value("${app.public-profile.negative-cache.max-entries:50000}")
+    private int maxEntries = 50_000;
+
+    @Value("${app.public-profile.bloom.expected-users:100000}")
+    private long expectedUsers = 100_000;
+
+    @Value("${app.public-profile.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${app.public-profile.redis-sync.enabled:true}")
+    private boolean redisSyncEnabled = true;
+
+    public PublicProfileNegativeCache(UserRepository userRepository,
+                                      ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplateProvider.getIfAvailable();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled || !redisSyncEnabled || redisTemplate == null || redisTemplate.getConnectionFactory() == null) {
+            return;
+        }
+        try {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(redisTemplate.getConnectionFactory());
+            // while Redis is down the periodic rebuild covers for the channel; no need to retry often
+            container.setRecoveryInterval(30_000L);
+            container.addMessageListener(
+                (message, pattern) -> onRemoteChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL)
+            );
+            container.afterPropertiesSet();
+            container.start();
+            listenerContainer = container;
+        } catch (RuntimeException ex) {
+            log.warn("Public profile change channel unavailable, relying on periodic rebuilds: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void unsubscribe() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    public boolean isKnownAbsent(String userId) {
+        if (!enabled) {
+            return false;
+        }
+
+        Long until = absentUntil.get(userId);
+        if (until != null) {
+            if (until >= System.currentTimeMillis()) {
+                return true;
+            }
+            absentUntil.remove(userId, until);
+        }
+
+        BloomFilter filter = knownUsers;
+        return filter != null && !filter.mightContain(userId);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void rememberAbsent(String userId, long generationBeforeLookup) {
+        if (!enabled || generation.get() != generationBeforeLookup) {
+            return;
+        }
+
+        BoundedMaps.makeRoom(absentUntil, maxEntries);
+        absentUntil.put(userId, System.currentTimeMillis() + ttlSeconds * 1000L);
+    }
+
+    public void registerUser(String userId) {
+        markKnown(userId);
+        publish(userId);
+    }
+
+    public void invalidate(String userId) {
+        generation.incrementAndGet();
+        absentUntil.remove(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        invalidate(event.userId());
+        publish(event.userId());
+    }
+
+    // a registration or profile change on another node: the user exists, and may have turned public
+    void onRemoteChange(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.startsWith(nodeId + "|")) {
+            return;
+        }
+        markKnown(message.substring(separator + 1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuildKnownUsers();
+    }
+
+    // catches anything the change channel missed (Redis down, or not configured)
+    @Scheduled(
+        fixedDelayString = "${app.public-profile.bloom.refresh-ms:600000}",
+        initialDelayString = "${app.public-profile.bloom.refresh-ms:600000}"
+    )
+    public void rebuildKnownUsers() {
+        if (!enabled) {
+            return;
+        }
+
+        rebuilding = true;
+        try {
+            List<String> ids = userRepository.findAllIds();
+            BloomFilter filter = new BloomFilter(Math.max(expectedUsers, ids.size() * 2L), falsePositiveRate);
+            ids.forEach(filter::put);
+            registeredDuringRebuild.forEach(filter::put);
+            knownUsers = filter;
+            // registrations between the replay and the swap went to the old filter only
+            registeredDuringRebuild.forEach(filter::put);
+            log.info("Rebuilt public profile bloom filter with {} user ids", ids.size());
+        } catch (RuntimeException ex) {
+            log.warn("Public profile bloom filter rebuild failed: {}", ex.getMessage());
+        } finally {
+            rebuilding = false;
+            registeredDuringRebuild.clear();
+        }
+    }
+
+    private void markKnown(String userId) {
+        if (rebuilding) {
+            registeredDuringRebuild.add(userId);
+        }
+        BloomFilter filter = knownUsers;
+        if (filter != null) {
+            filter.put(userId);
+        }
+        invalidate(userId);
+    }
+
+    private void publish(String userId) {
+        if (listenerContainer == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + userId);
+        } catch (RuntimeException ex) {
+            log.debug("Could not publish public profile change for userId={}: {}", userId, ex.getMessage());
+        }
+    }
+}
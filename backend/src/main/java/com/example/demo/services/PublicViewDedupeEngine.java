@@ -0,0 +1,11 @@
+package com.example.demo.services;
+
+/**
+ * Answers "has this viewer already been counted for this portfolio within the dedupe window?"
+ * and records the view in the same call.
+ */
+public interface PublicViewDedupeEngine {
+    String name();
+
+    boolean isDuplicate(String userId, String viewerFingerprint);
+}
@@ -0,0 +1,51 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Picks the public view dedupe engine from {@code app.analytics.dedupe.engine} ({@code bloom} or
+ * {@code redis}); the older {@code app.analytics.dedupe.redis.enabled=true} still selects Redis.
+ */
+@Service
+public class PublicViewDeduplicator {
+    private static final Logger log = LoggerFactory.getLogger(PublicViewDeduplicator.class);
+
+    private final PublicViewDedupeEngine engine;
+    private final Counter duplicates;
+    private final Counter unique;
+
+    public PublicViewDeduplicator(
+        BloomPublicViewDedupeEngine bloomEngine,
+        RedisPublicViewDedupeEngine redisEngine,
+        @Value("${app.analytics.dedupe.engine:bloom}") String engineName,
+        @Value("${app.analytics.dedupe.redis.enabled:false}") boolean redisEnabled,
+        MeterRegistry meterRegistry
+    ) {
+        boolean useRedis = ("redis".equalsIgnoreCase(engineName) || redisEnabled) && redisEngine.isAvailable();
+        this.engine = useRedis ? redisEngine : bloomEngine;
+        this.duplicates = Counter.builder("analytics.dedupe.checks")
+            .tag("engine", engine.name())
+            .tag("result", "duplicate")
+            .register(meterRegistry);
+        this.unique = Counter.builder("analytics.dedupe.checks")
+            .tag("engine", engine.name())
+            .tag("result", "unique")
+            .register(meterRegistry);
+        log.info("Public view dedupe engine: {}", engine.name());
+    }
+
+    public boolean isDuplicate(String userId, String viewerFingerprint) {
+        if (viewerFingerprint == null || viewerFingerprint.isBlank()) {
+            return false;
+        }
+
+        boolean duplicate = engine.isDuplicate(userId, viewerFingerprint);
+        (duplicate ? duplicates : unique).increment();
+        return duplicate;
+    }
+}
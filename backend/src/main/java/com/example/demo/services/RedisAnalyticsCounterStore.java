@@ -0,0 +1,311 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.repositories.AnalyticsCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Redis mode for analytics counters: every node HINCRBYs a per-user hash and marks the user
+ * dirty, and a reconciliation job folds the hashes into Postgres with additive upserts. A hash
+ * is claimed with RENAMENX before it is read, so increments arriving during reconciliation go to a
+ * fresh hash and nodes never double-apply each other's deltas. Live and claimed hashes share the
+ * {@code {userId}} hash tag, so the rename stays within one cluster slot.
+ */
+@Service
+public class RedisAnalyticsCounterStore {
+    private static final Logger log = LoggerFactory.getLogger(RedisAnalyticsCounterStore.class);
+    private static final String KEY_PREFIX = "analytics:counters:";
+    private static final String DIRTY_KEY = KEY_PREFIX + "dirty";
+    private static final String CLAIMED_SUFFIX = ":claimed";
+    private static final String CLAIMED_PATTERN = KEY_PREFIX + "{*}" + CLAIMED_SUFFIX;
+    // stamped on a claimed hash by the first sweep that sees it; not an event key, so toDelta skips it
+    private static final String CLAIM_SEEN_FIELD = "claim-seen-at";
+    private static final String MONTH_FIELD_PREFIX = "m:";
+    // h:<hour start>|<event key>
+    private static final String HOUR_FIELD_PREFIX = "h:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final AnalyticsCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter reconciledEvents;
+    private final Counter reconcileFailures;
+    private final Counter recoveredClaims;
+
+    @Value("${app.analytics.counters.redis.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.counters.redis.reconcile-batch-size:500}")
+    private int reconcileBatchSize = 500;
+
+    @Value("${app.analytics.counters.redis.claim-timeout-ms:300000}")
+    private long claimTimeoutMs = 300_000;
+
+    public RedisAnalyticsCounterStore(ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                                      AnalyticsCounterRepository counterRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplateProvider.getIfAvailable();
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconciledEvents = Counter.builder("analytics.redis.reconciled.events").register(meterRegistry);
+        this.reconcileFailures = Counter.builder("analytics.redis.reconcile.failures").register(meterRegistry);
+        this.recoveredClaims = Counter.builder("analytics.redis.claims.recovered").register(meterRegistry);
+    }
+
+    public boolean isActive() {
+        return enabled && redisTemplate != null;
+    }
+
+    /**
+     * One pipelined round trip. Returns false when Redis mode is off or Redis failed, in which
+     * case the caller keeps the increment in memory instead.
+     */
+    public boolean record(String userId, AnalyticsEventType type, LocalDateTime hour) {
+        if (!isActive()) {
+            return false;
+        }
+
+        byte[] hashKey = bytes(liveKey(userId));
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.hashCommands().hIncrBy(hashKey, bytes(type.key()), 1L);
+                connection.hashCommands().hIncrBy(hashKey, bytes(MONTH_FIELD_PREFIX + YearMonth.from(hour)), 1L);
+                connection.hashCommands().hIncrBy(hashKey, bytes(hourField(hour, type)), 1L);
+                connection.setCommands().sAdd(bytes(DIRTY_KEY), bytes(userId));
+                return null;
+            });
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Redis analytics counters fallback to in-memory due to error: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    // live hash plus a claimed one that is being (or failed to be) reconciled
+    public Optional<AnalyticsDelta> pendingFor(String userId) {
+        if (!isActive()) {
+            return Optional.empty();
+        }
+
+        try {
+            Map<Object, Object> fields = new HashMap<>(redisTemplate.opsForHash().entries(liveKey(userId)));
+            redisTemplate.opsForHash().entries(claimedKey(userId)).forEach((field, value) ->
+                fields.merge(field, value, (live, claimed) ->
+                    String.valueOf(Long.parseLong(String.valueOf(live)) + Long.parseLong(String.valueOf(claimed)))));
+            return fields.isEmpty() ? Optional.empty() : Optional.of(toDelta(fields));
+        } catch (RuntimeException ex) {
+            log.debug("Could not read pending Redis analytics for userId={}: {}", userId, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.analytics.counters.redis.reconcile-interval-ms:10000}",
+        initialDelayString = "${app.analytics.counters.redis.reconcile-interval-ms:10000}"
+    )
+    public void reconcile() {
+        if (!isActive()) {
+            return;
+        }
+
+        try {
+            while (reconcileBatch() == reconcileBatchSize) {
+                // keep draining while full batches come back
+            }
+        } catch (RuntimeException ex) {
+            reconcileFailures.increment();
+            log.warn("Redis analytics reconciliation failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Claims up to one batch of dirty users and writes them in one transaction. Returns the
+     * number of users popped from the dirty set and not handed back because their previous
+     * claim is still open.
+     */
+    int reconcileBatch() {
+        List<String> userIds = redisTemplate.opsForSet().pop(DIRTY_KEY, reconcileBatchSize);
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+
+        SortedMap<String, AnalyticsDelta> deltas = new TreeMap<>();
+        Map<String, String> claimedKeys = new HashMap<>();
+        List<String> deferred = new ArrayList<>();
+        for (String userId : userIds) {
+            String claimed = claimedKey(userId);
+            Boolean renamed;
+            try {
+                renamed = redisTemplate.renameIfAbsent(liveKey(userId), claimed);
+            } catch (DataAccessException ex) {
+                // already reconciled by another node together with an earlier dirty mark
+                continue;
+            }
+            if (!Boolean.TRUE.equals(renamed)) {
+                // another node is still writing this user's previous claim, or it crashed and the sweep will fold it back
+                deferred.add(userId);
+                continue;
+            }
+            Map<Object, Object> fields = redisTemplate.opsForHash().entries(claimed);
+            deltas.put(userId, toDelta(fields));
+            claimedKeys.put(userId, claimed);
+        }
+        if (!deferred.isEmpty()) {
+            redisTemplate.opsForSet().add(DIRTY_KEY, deferred.toArray(String[]::new));
+        }
+        if (deltas.isEmpty()) {
+            return userIds.size() - deferred.size();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> counterRepository.increment(deltas));
+        } catch (RuntimeException ex) {
+            deltas.forEach(this::restore);
+            redisTemplate.delete(claimedKeys.values());
+            throw ex;
+        }
+
+        redisTemplate.delete(claimedKeys.values());
+        reconciledEvents.increment(deltas.values().stream().mapToLong(AnalyticsDelta::eventCount).sum());
+        return userIds.size() - deferred.size();
+    }
+
+    /**
+     * Folds claimed hashes left behind by a node that died between RENAMENX and DELETE back into
+     * the live hash. Claims carry no timestamp of their own, so the first sweep that sees one
+     * stamps it and a later sweep recovers it once it has stayed for {@code claim-timeout-ms};
+     * a live reconciliation deletes its claim well before that.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.analytics.counters.redis.claim-sweep-interval-ms:60000}",
+        initialDelayString = "${app.analytics.counters.redis.claim-sweep-interval-ms:60000}"
+    )
+    public void sweepAbandonedClaims() {
+        if (!isActive()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> claimedKeys = new ArrayList<>();
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(CLAIMED_PATTERN).count(500).build())) {
+            cursor.forEachRemaining(claimedKeys::add);
+        } catch (RuntimeException ex) {
+            log.warn("Redis analytics claim sweep failed: {}", ex.getMessage());
+            return;
+        }
+
+        for (String claimed : claimedKeys) {
+            try {
+                redisTemplate.opsForHash().putIfAbsent(claimed, CLAIM_SEEN_FIELD, String.valueOf(now));
+                Map<Object, Object> fields = redisTemplate.opsForHash().entries(claimed);
+                if (fields.keySet().equals(Set.of(CLAIM_SEEN_FIELD))) {
+                    // the owner deleted its claim between SCAN and our stamp; drop the stamp-only hash
+                    redisTemplate.delete(claimed);
+                    continue;
+                }
+                Object seenAt = fields.get(CLAIM_SEEN_FIELD);
+                if (seenAt == null || now - Long.parseLong(String.valueOf(seenAt)) < claimTimeoutMs) {
+                    continue;
+                }
+                String userId = claimed.substring(KEY_PREFIX.length() + 1, claimed.length() - CLAIMED_SUFFIX.length() - 1);
+                restore(userId, toDelta(fields));
+                redisTemplate.delete(claimed);
+                recoveredClaims.increment();
+                log.info("Recovered abandoned analytics claim for userId={}", userId);
+            } catch (RuntimeException ex) {
+                log.warn("Could not recover analytics claim {}: {}", claimed, ex.getMessage());
+            }
+        }
+    }
+
+    // folds a claimed delta back into the live hash so the next run retries it
+    private void restore(String userId, AnalyticsDelta delta) {
+        byte[] hashKey = bytes(liveKey(userId));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (AnalyticsEventType type : AnalyticsEventType.values()) {
+                incrementIfPositive(connection, hashKey, type.key(), delta.get(type));
+            }
+            delta.monthly().forEach((month, count) -> incrementIfPositive(connection, hashKey, MONTH_FIELD_PREFIX + month, count));
+            delta.hourly().forEach((hour, counts) -> {
+                for (AnalyticsEventType type : AnalyticsEventType.values()) {
+                    incrementIfPositive(connection, hashKey, hourField(hour, type), counts[type.ordinal()]);
+                }
+            });
+            connection.setCommands().sAdd(bytes(DIRTY_KEY), bytes(userId));
+            return null;
+        });
+    }
+
+    private static void incrementIfPositive(RedisConnection connection, byte[] hashKey, String field, long value) {
+        if (value > 0) {
+            connection.hashCommands().hIncrBy(hashKey, bytes(field), value);
+        }
+    }
+
+    private static AnalyticsDelta toDelta(Map<Object, Object> fields) {
+        long[] totals = new long[AnalyticsEventType.values().length];
+        Map<String, Long> monthly = new HashMap<>();
+        Map<LocalDateTime, long[]> hourly = new HashMap<>();
+        fields.forEach((rawField, rawValue) -> {
+            String field = String.valueOf(rawField);
+            long value = Long.parseLong(String.valueOf(rawValue));
+            if (field.startsWith(MONTH_FIELD_PREFIX)) {
+                monthly.put(field.substring(MONTH_FIELD_PREFIX.length()), value);
+                return;
+            }
+            if (field.startsWith(HOUR_FIELD_PREFIX)) {
+                int separator = field.indexOf('|');
+                LocalDateTime hour = LocalDateTime.parse(field.substring(HOUR_FIELD_PREFIX.length(), separator));
+                AnalyticsEventType.fromKey(field.substring(separator + 1)).ifPresent(type ->
+                    hourly.computeIfAbsent(hour, ignored -> new long[totals.length])[type.ordinal()] = value);
+                return;
+            }
+            AnalyticsEventType.fromKey(field).ifPresent(type -> totals[type.ordinal()] = value);
+        });
+        return new AnalyticsDelta(totals, monthly, hourly);
+    }
+
+    private static String liveKey(String userId) {
+        return KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private static String claimedKey(String userId) {
+        return liveKey(userId) + CLAIMED_SUFFIX;
+    }
+
+    private static String hourField(LocalDateTime hour, AnalyticsEventType type) {
+        return HOUR_FIELD_PREFIX + hour + "|" + type.key();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
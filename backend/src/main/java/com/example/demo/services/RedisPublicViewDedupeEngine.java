@@ -0,0 +1,61 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Shared engine for multi-node deployments: one {@code SET NX PX} key per viewer and portfolio.
+ * Falls back to the in-memory engine while Redis is unavailable.
+ */
+@Service
+public class RedisPublicViewDedupeEngine implements PublicViewDedupeEngine {
+    private static final Logger log = LoggerFactory.getLogger(RedisPublicViewDedupeEngine.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BloomPublicViewDedupeEngine fallback;
+    private final Counter fallbacks;
+
+    @Value("${app.analytics.dedupe.window-ms:21600000}")
+    private long windowMs = 21_600_000L;
+
+    public RedisPublicViewDedupeEngine(ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                                       BloomPublicViewDedupeEngine fallback,
+                                       MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplateProvider.getIfAvailable();
+        this.fallback = fallback;
+        this.fallbacks = Counter.builder("analytics.dedupe.redis.fallbacks").register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    public boolean isAvailable() {
+        return redisTemplate != null;
+    }
+
+    @Override
+    public boolean isDuplicate(String userId, String viewerFingerprint) {
+        String dedupeKey = "analytics:public-view:" + userId + ":" + Integer.toHexString(viewerFingerprint.hashCode());
+
+        try {
+            Boolean firstSeen = redisTemplate.opsForValue()
+                .setIfAbsent(dedupeKey, "1", Duration.ofMillis(windowMs));
+
+            return firstSeen == null || !firstSeen;
+        } catch (RuntimeException ex) {
+            fallbacks.increment();
+            log.warn("Redis analytics dedupe fallback to in-memory due to error: {}", ex.getMessage());
+            return fallback.isDuplicate(userId, viewerFingerprint);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.BoundedMaps;
+import com.example.demo.collections.OwnedLongCounterMap;
+import com.example.demo.dto.analytics.TargetAnalyticsResponse;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.AnalyticsTargetType;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
+import com.example.demo.repositories.TargetAnalyticsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-project and per-certificate counters. Increments land in an open-addressing map keyed by
+ * owner and {@code (target type, entity id)} packed into one long, and are flushed as one batched
+ * upsert on the write-behind interval. Each owner's ranking is loaded once, sorted in memory and
+ * kept sorted as increments arrive, so "most viewed" reads never run an ORDER BY. The ranking lists
+ * every project and certificate the owner has, so it also validates targets: ids of deleted or
+ * other owners' entities are dropped before they reach the buffer.
+ */
+@Service
+public class TargetAnalyticsService {
+    private static final Logger log = LoggerFactory.getLogger(TargetAnalyticsService.class);
+    private static final int TYPE_SHIFT = 56;
+    private static final long MAX_TARGET_ID = (1L << TYPE_SHIFT) - 1;
+    public static final int MAX_LIMIT = 100;
+
+    private static final class Item {
+        private final AnalyticsTargetType targetType;
+        private final long targetId;
+        private final String title;
+        private long count;
+
+        private Item(AnalyticsTargetType targetType, long targetId, String title, long count) {
+            this.targetType = targetType;
+            this.targetId = targetId;
+            this.title = title;
+            this.count = count;
+        }
+    }
+
+    // highest count first; guarded by its own monitor
+    private static final class Ranking {
+        private final List<Item> items;
+
+        private Ranking(List<Item> items) {
+            items.sort(Comparator.comparingLong((Item item) -> item.count).reversed());
+            this.items = items;
+        }
+
+        private synchronized boolean increment(AnalyticsTargetType targetType, long targetId, long delta) {
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                if (item.targetType == targetType && item.targetId == targetId) {
+                    item.count += delta;
+                    // one insertion step keeps the list sorted
+                    while (i > 0 && items.get(i - 1).count < item.count) {
+                        items.set(i, items.get(i - 1));
+                        items.set(--i, item);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized List<TargetAnalyticsResponse> top(AnalyticsTargetType filter, int limit) {
+            List<TargetAnalyticsResponse> top = new ArrayList<>(Math.min(limit, items.size()));
+            for (Item item : items) {
+                if (top.size() == limit || item.count == 0) {
+                    break;
+                }
+                if (filter == null || item.targetType == filter) {
+                    top.add(new TargetAnalyticsResponse(item.targetType.key(), item.targetId, item.title, item.count));
+                }
+            }
+            return top;
+        }
+    }
+
+    private final TargetAnalyticsRepository targetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Ranking> rankings = new ConcurrentHashMap<>();
+    // bumped on flush start and end and on eviction, so a load that raced with either is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter flushFailures;
+    private final Counter rejected;
+    private OwnedLongCounterMap pending = new OwnedLongCounterMap(1024);
+    private volatile boolean flushing;
+
+    @Value("${app.analytics.targets.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.analytics.targets.max-cached-users:10000}")
+    private int maxCachedUsers = 10_000;
+
+    public TargetAnalyticsService(TargetAnalyticsRepository targetRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.targetRepository = targetRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("analytics.targets.pending", this, TargetAnalyticsService::pendingTargets)
+            .description("Project and certificate counters buffered in memory and not yet flushed")
+            .register(meterRegistry);
+        Gauge.builder("analytics.targets.cached.users", rankings, Map::size).register(meterRegistry);
+        this.flushFailures = Counter.builder("analytics.targets.flush.failures").register(meterRegistry);
+        this.rejected = Counter.builder("analytics.targets.rejected")
+            .description("Project and certificate events dropped because the id is not one of the owner's")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Attributes an event to its project or certificate. Events without a target, of a type that
+     * has none, or naming an entity the owner does not have, are ignored; the per-user totals are
+     * recorded elsewhere either way.
+     */
+    public void record(String userId, AnalyticsEventType eventType, String targetId) {
+        if (!enabled || targetId == null) {
+            return;
+        }
+        AnalyticsTargetType targetType = AnalyticsTargetType.forEvent(eventType).orElse(null);
+        long id = parseTargetId(targetId);
+        if (targetType == null || id <= 0) {
+            return;
+        }
+
+        Ranking ranking = ranking(userId);
+        synchronized (this) {
+            if (!ranking.increment(targetType, id, 1L)) {
+                rejected.increment();
+                return;
+            }
+            pending.add(userId, pack(targetType, id), 1L);
+        }
+    }
+
+    public List<TargetAnalyticsResponse> mostViewed(String userId, String targetType, int limit) {
+        AnalyticsTargetType filter = null;
+        if (targetType != null && !targetType.isBlank()) {
+            filter = AnalyticsTargetType.fromKey(targetType)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported target type: " + targetType));
+        }
+        int clamped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return ranking(userId).top(filter, clamped);
+    }
+
+    public synchronized int pendingTargets() {
+        return pending.size();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}",
+        initialDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        OwnedLongCounterMap drained;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            flushing = true;
+            generation.incrementAndGet();
+            drained = pending;
+            pending = new OwnedLongCounterMap(Math.max(1024, drained.size()));
+        }
+
+        try {
+            List<TargetAnalyticsRepository.TargetDelta> deltas = new ArrayList<>(drained.size());
+            drained.forEach((userId, key, count) ->
+                deltas.add(new TargetAnalyticsRepository.TargetDelta(userId, unpackType(key), unpackId(key), count)));
+            deltas.sort(Comparator.comparing(TargetAnalyticsRepository.TargetDelta::userId)
+                .thenComparing(TargetAnalyticsRepository.TargetDelta::targetType)
+                .thenComparingLong(TargetAnalyticsRepository.TargetDelta::targetId));
+            transactionTemplate.executeWithoutResult(status -> targetRepository.increment(deltas));
+            log.debug("Flushed {} project/certificate counters", deltas.size());
+        } catch (RuntimeException ex) {
+            // cached rankings already include these counts; only the database is behind
+            synchronized (this) {
+                drained.forEach((userId, key, count) -> pending.add(userId, key, count));
+            }
+            flushFailures.increment();
+            log.warn("Project/certificate analytics flush failed, {} counters kept in memory: {}", drained.size(), ex.getMessage());
+        } finally {
+            flushing = false;
+            generation.incrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        PortfolioSection section = event.section();
+        if (section.affects(PortfolioSection.PROJECTS) || section.affects(PortfolioSection.CERTIFICATES)) {
+            generation.incrementAndGet();
+            rankings.remove(event.userId());
+        }
+    }
+
+    private Ranking ranking(String userId) {
+        Ranking cached = rankings.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean cacheable = !flushing;
+        long generationBeforeLoad = generation.get();
+        List<Item> items = new ArrayList<>();
+        for (TargetAnalyticsRepository.TargetCount stored : targetRepository.findForUser(userId)) {
+            items.add(new Item(stored.targetType(), stored.targetId(), stored.title(), stored.count()));
+        }
+
+        synchronized (this) {
+            // stored counts plus whatever is still buffered for this owner
+            for (Item item : items) {
+                item.count += pending.get(userId, pack(item.targetType, item.targetId));
+            }
+            Ranking loaded = new Ranking(items);
+            if (cacheable && generation.get() == generationBeforeLoad) {
+                BoundedMaps.makeRoom(rankings, maxCachedUsers);
+                rankings.put(userId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private static long parseTargetId(String targetId) {
+        try {
+            long id = Long.parseLong(targetId.trim());
+            return id > MAX_TARGET_ID ? -1L : id;
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private static long pack(AnalyticsTargetType targetType, long targetId) {
+        return ((long) targetType.ordinal() << TYPE_SHIFT) | targetId;
+    }
+
+    private static AnalyticsTargetType unpackType(long key) {
+        return AnalyticsTargetType.values()[(int) (key >>> TYPE_SHIFT)];
+    }
+
+    private static long unpackId(long key) {
+        return key & MAX_TARGET_ID;
+    }
+}
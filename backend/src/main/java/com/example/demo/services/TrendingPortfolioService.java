@@ -0,0 +1,114 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioSummary;
+import com.example.demo.dto.analytics.TrendingPortfoliosResponse;
+import com.example.demo.sketches.SlidingTopK;
+import com.example.demo.sketches.SpaceSaving;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approximate "most viewed right now" per node. Counted public views feed one sliding
+ * Space-Saving summary per window, so trending never queries the counters tables; only the
+ * handful of winners are joined with their public summaries, and that result is cached briefly.
+ */
+@Service
+public class TrendingPortfolioService {
+    public static final int MAX_LIMIT = 50;
+
+    private record CachedResponse(long expiresAtMs, TrendingPortfoliosResponse response) {}
+
+    private final UserService userService;
+    private final Map<String, SlidingTopK> windows = new LinkedHashMap<>();
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+
+    @Value("${app.analytics.trending.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.analytics.trending.response-ttl-ms:15000}")
+    private long responseTtlMs = 15_000L;
+
+    public TrendingPortfolioService(
+        UserService userService,
+        MeterRegistry meterRegistry,
+        @Value("${app.analytics.trending.capacity:256}") int capacity,
+        @Value("${app.analytics.trending.stripes:8}") int stripes
+    ) {
+        this.userService = userService;
+        // hour: 6 slices of 10 minutes; day: 24 slices of 1 hour (plus the current partial slice)
+        windows.put("hour", new SlidingTopK(TimeUnit.HOURS.toMillis(1), 7, capacity, stripes));
+        windows.put("day", new SlidingTopK(TimeUnit.DAYS.toMillis(1), 25, capacity, stripes));
+        int counters = windows.values().stream().mapToInt(SlidingTopK::counters).sum();
+        Gauge.builder("analytics.trending.counters", () -> counters)
+            .description("Space-Saving counters allocated for trending portfolios")
+            .register(meterRegistry);
+    }
+
+    public void record(String userId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (SlidingTopK window : windows.values()) {
+            window.offer(userId, now);
+        }
+    }
+
+    /**
+     * Raw sketch view, including private profiles and error bounds; for operators only.
+     */
+    public Map<String, List<SpaceSaving.Entry>> snapshot(int limit) {
+        long now = System.currentTimeMillis();
+        Map<String, List<SpaceSaving.Entry>> snapshot = new LinkedHashMap<>();
+        windows.forEach((name, window) -> snapshot.put(name, window.top(clampLimit(limit), now)));
+        return snapshot;
+    }
+
+    public TrendingPortfoliosResponse trending(String window, int limit) {
+        String windowName = window == null ? "hour" : window.toLowerCase(Locale.ROOT);
+        SlidingTopK sketch = windows.get(windowName);
+        if (sketch == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported trending window: " + window);
+        }
+        int clamped = clampLimit(limit);
+        String cacheKey = windowName + ":" + clamped;
+        long now = System.currentTimeMillis();
+        CachedResponse cached = responses.get(cacheKey);
+        if (cached != null && cached.expiresAtMs() > now) {
+            return cached.response();
+        }
+
+        // over-fetch: owners who went private since their views were counted are dropped below
+        List<SpaceSaving.Entry> candidates = sketch.top(clamped * 2, now);
+        Map<String, PortfolioSummary> summaries = candidates.isEmpty()
+            ? Map.of()
+            : userService.getPublicPortfolioSummaries(candidates.stream().map(SpaceSaving.Entry::key).toList());
+
+        List<TrendingPortfoliosResponse.Item> items = new ArrayList<>(clamped);
+        for (SpaceSaving.Entry candidate : candidates) {
+            PortfolioSummary summary = summaries.get(candidate.key());
+            if (summary != null && items.size() < clamped) {
+                items.add(new TrendingPortfoliosResponse.Item(summary, candidate.count()));
+            }
+        }
+        TrendingPortfoliosResponse response = new TrendingPortfoliosResponse(windowName, List.copyOf(items));
+        responses.put(cacheKey, new CachedResponse(now + responseTtlMs, response));
+        return response;
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
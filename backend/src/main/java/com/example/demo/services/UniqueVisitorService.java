@@ -0,0 +1,200 @@
+package com.example.demo.services;
+
+import com.example.demo.repositories.UniqueVisitorRepository;
+import com.example.demo.repositories.UniqueVisitorRepository.MonthKey;
+import com.example.demo.sketches.Hashing;
+import com.example.demo.sketches.HyperLogLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique public visitors per portfolio and month as HyperLogLog sketches. Only a hash of the
+ * viewer fingerprint reaches a sketch, so neither the database nor Redis holds IPs or user agents.
+ * Sketches are buffered in memory and merged into {@code portfolio_unique_visitors} on the
+ * write-behind interval; in Redis mode they are {@code PFADD}ed and counted with {@code PFCOUNT}.
+ * Stored sketches keep their own precision, so changing {@code precision} folds older sketches
+ * down on merge instead of failing every flush.
+ */
+@Service
+public class UniqueVisitorService {
+    private static final Logger log = LoggerFactory.getLogger(UniqueVisitorService.class);
+    private static final String REDIS_KEY_PREFIX = "analytics:uniques:";
+    private static final int MAX_RANGE_MONTHS = 120;
+
+    private final UniqueVisitorRepository uniqueVisitorRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<MonthKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private final Counter flushFailures;
+
+    @Value("${app.analytics.uniques.precision:12}")
+    private int precision = 12;
+
+    @Value("${app.analytics.uniques.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${app.analytics.uniques.redis.retention-days:800}")
+    private long redisRetentionDays = 800;
+
+    public UniqueVisitorService(UniqueVisitorRepository uniqueVisitorRepository,
+                                ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.uniqueVisitorRepository = uniqueVisitorRepository;
+        this.redisTemplate = redisTemplateProvider.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("analytics.uniques.pending.sketches", pending, Map::size)
+            .description("User-month visitor sketches buffered in memory")
+            .register(meterRegistry);
+        this.flushFailures = Counter.builder("analytics.uniques.flush.failures").register(meterRegistry);
+    }
+
+    public void record(String userId, String viewerFingerprint) {
+        if (viewerFingerprint == null || viewerFingerprint.isBlank()) {
+            return;
+        }
+
+        long hash = Hashing.murmur64(viewerFingerprint.getBytes(StandardCharsets.UTF_8));
+        String monthKey = YearMonth.now(ZoneOffset.UTC).toString();
+        if (isRedisEnabled() && recordInRedis(userId, monthKey, hash)) {
+            return;
+        }
+
+        pending.compute(new MonthKey(userId, monthKey), (ignored, sketch) -> {
+            HyperLogLog next = sketch == null ? new HyperLogLog(precision) : sketch;
+            next.offerHash(hash);
+            return next;
+        });
+    }
+
+    public long countThisMonth(String userId) {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        return count(userId, month, month);
+    }
+
+    /**
+     * Estimated distinct visitors across the inclusive month range, counting each visitor once
+     * even if they came back in several months.
+     */
+    public long count(String userId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to) || ChronoUnit.MONTHS.between(from, to) >= MAX_RANGE_MONTHS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid month range");
+        }
+
+        // Redis and local sketches hash differently, so they cannot be unioned register-wise; in
+        // Redis mode the local side only holds history from before the switch and visits recorded
+        // during a Redis outage, and adding the two counts such a visitor at most twice
+        long fromRedis = 0;
+        if (isRedisEnabled()) {
+            try {
+                fromRedis = countInRedis(userId, from, to);
+            } catch (RuntimeException ex) {
+                log.warn("Redis unique visitor count fallback to database due to error: {}", ex.getMessage());
+            }
+        }
+
+        HyperLogLog union = uniqueVisitorRepository.findUnion(userId, from.toString(), to.toString())
+            .orElseGet(() -> new HyperLogLog(precision));
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            HyperLogLog[] buffered = new HyperLogLog[1];
+            pending.computeIfPresent(new MonthKey(userId, month.toString()), (ignored, sketch) -> {
+                buffered[0] = sketch.copy();
+                return sketch;
+            });
+            if (buffered[0] != null) {
+                union = union.union(buffered[0]);
+            }
+        }
+        return fromRedis + union.estimate();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}",
+        initialDelayString = "${app.analytics.write-behind.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        SortedMap<MonthKey, HyperLogLog> drained = new TreeMap<>();
+        for (MonthKey key : new ArrayList<>(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch != null) {
+                drained.put(key, sketch);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> uniqueVisitorRepository.merge(drained));
+        } catch (RuntimeException ex) {
+            // merging is idempotent, so putting the sketches back and retrying is always safe
+            drained.forEach((key, sketch) -> pending.merge(key, sketch, HyperLogLog::union));
+            flushFailures.increment();
+            log.warn("Unique visitor flush failed, {} sketches kept in memory: {}", drained.size(), ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean recordInRedis(String userId, String monthKey, long hash) {
+        byte[] key = redisKey(userId, monthKey).getBytes(StandardCharsets.UTF_8);
+        byte[] element = Long.toHexString(hash).getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.hyperLogLogCommands().pfAdd(key, element);
+                connection.keyCommands().expire(key, Duration.ofDays(redisRetentionDays).toSeconds());
+                return null;
+            });
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Redis unique visitor tracking fallback to in-memory due to error: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private long countInRedis(String userId, YearMonth from, YearMonth to) {
+        List<String> keys = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            keys.add(redisKey(userId, month.toString()));
+        }
+        Long count = redisTemplate.opsForHyperLogLog().size(keys.toArray(String[]::new));
+        return count == null ? 0L : count;
+    }
+
+    private boolean isRedisEnabled() {
+        return redisEnabled && redisTemplate != null;
+    }
+
+    private static String redisKey(String userId, String monthKey) {
+        return REDIS_KEY_PREFIX + userId + ":" + monthKey;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.services;
+
+import com.example.demo.collections.BoundedMaps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Flags crawler, monitoring and scripted-client traffic by User-Agent so it can be dropped before
+ * rate-limit, dedupe or counter state is touched. All signatures are compiled into one
+ * case-insensitive alternation at startup; verdicts are memoized per User-Agent in a bounded map,
+ * since a handful of strings make up most traffic.
+ */
+@Service
+public class UserAgentClassifier {
+    // lowercase substrings; order does not matter. Generic words are anchored ("bot/", "monitor/") or
+    // spelled out per crawler, since bare "bot", "pinterest" or "telegram" also hit phone models
+    // (Cubot) and in-app browsers of the same apps
+    private static final List<String> DEFAULT_SIGNATURES = List.of(
+        "bot/", "bot;", "-bot", "+http", "crawl", "spider", "slurp", "scrape", "archiver", "fetcher", "preview",
+        "googlebot", "bingbot", "adsbot", "slackbot", "twitterbot", "linkedinbot", "discordbot",
+        "facebookexternalhit", "embedly", "whatsapp", "telegrambot", "skypeuripreview", "vkshare", "pinterestbot",
+        "bingpreview", "mediapartners-google", "google-inspectiontool", "chrome-lighthouse", "pagespeed",
+        "headlesschrome", "phantomjs", "puppeteer", "playwright", "selenium",
+        "curl/", "wget/", "python-requests", "python-urllib", "aiohttp", "httpx", "go-http-client", "java/",
+        "okhttp", "apache-httpclient", "axios/", "node-fetch", "libwww-perl", "postmanruntime", "insomnia",
+        "uptime", "pingdom", "statuscake", "site24x7", "newrelicpinger", "datadog", "monitor/", "monitoring",
+        "ahrefs", "semrush", "mj12", "dotbot", "petalbot", "bytespider", "gptbot", "ccbot", "claudebot",
+        "perplexity", "amazonbot", "applebot", "yandex", "baiduspider", "duckduckbot", "sogou", "exabot"
+    );
+    // regular expressions, for words that only mean a bot as a standalone token
+    private static final List<String> DEFAULT_TOKENS = List.of("\\bbot\\b");
+    // longer values are not memoized so oversized headers cannot flood the cache
+    private static final int MAX_MEMO_LENGTH = 512;
+
+    private final Pattern botPattern;
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+    private final Counter bots;
+    private final Counter memoHits;
+
+    @Value("${app.analytics.bots.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.analytics.bots.missing-user-agent-is-bot:true}")
+    private boolean missingIsBot = true;
+
+    @Value("${app.analytics.bots.cache-max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    public UserAgentClassifier(
+        MeterRegistry meterRegistry,
+        @Value("${app.analytics.bots.extra-signatures:}") String extraSignatures
+    ) {
+        List<String> signatures = new ArrayList<>(DEFAULT_SIGNATURES);
+        Arrays.stream(extraSignatures.split(","))
+            .map(value -> value.trim().toLowerCase(Locale.ROOT))
+            .filter(value -> !value.isEmpty())
+            .forEach(signatures::add);
+        List<String> alternatives = new ArrayList<>(DEFAULT_TOKENS);
+        signatures.stream().map(Pattern::quote).forEach(alternatives::add);
+        this.botPattern = Pattern.compile(String.join("|", alternatives));
+        Gauge.builder("analytics.bots.cache.size", verdicts, Map::size).register(meterRegistry);
+        this.bots = Counter.builder("analytics.bots.filtered")
+            .description("Analytics requests dropped because the User-Agent looks automated")
+            .register(meterRegistry);
+        this.memoHits = Counter.builder("analytics.bots.cache.hits").register(meterRegistry);
+    }
+
+    /**
+     * {@code true} if the request should not count as a human view; also counts it.
+     */
+    public boolean isBot(String userAgent) {
+        if (!enabled) {
+            return false;
+        }
+        boolean bot = classify(userAgent);
+        if (bot) {
+            bots.increment();
+        }
+        return bot;
+    }
+
+    private boolean classify(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return missingIsBot;
+        }
+        if (userAgent.length() > MAX_MEMO_LENGTH) {
+            return matches(userAgent);
+        }
+
+        Boolean cached = verdicts.get(userAgent);
+        if (cached != null) {
+            memoHits.increment();
+            return cached;
+        }
+        boolean bot = matches(userAgent);
+        BoundedMaps.makeRoom(verdicts, maxEntries);
+        verdicts.put(userAgent, bot);
+        return bot;
+    }
+
+    private boolean matches(String userAgent) {
+        return botPattern.matcher(userAgent.toLowerCase(Locale.ROOT)).find();
+    }
+}
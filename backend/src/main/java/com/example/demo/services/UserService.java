@@ -1,17 +1,24 @@
 package com.example.demo.services;
 
 import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.dto.PortfolioSummary;
 import com.example.demo.dto.user.UserSettingsResponse;
 import com.example.demo.enums.NotificationType;
+import com.example.demo.events.PortfolioChangedEvent;
 import com.example.demo.models.User;
 import com.example.demo.repositories.*;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 @Service
 public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
@@ -20,18 +27,33 @@ public class UserService {
     private final ProjectRepository projectRepository;
     private final CVRepository cvRepository;
     private final CertificateRepository certificateRepository;
+    private final PortfolioQueryRepository portfolioQueryRepository;
+    private final PortfolioReadModelService portfolioReadModelService;
     private final NotificationService notificationService;
+    private final PortfolioCacheService portfolioCacheService;
+    private final PublicProfileNegativeCache negativeCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserService(UserRepository userRepository, 
                        ProjectRepository projectRepository, 
                        CVRepository cvRepository, 
                        CertificateRepository certificateRepository,
-                       NotificationService notificationService) {
+                       PortfolioQueryRepository portfolioQueryRepository,
+                       PortfolioReadModelService portfolioReadModelService,
+                       NotificationService notificationService,
+                       PortfolioCacheService portfolioCacheService,
+                       PublicProfileNegativeCache negativeCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.projectRepository = projectRepository;
         this.cvRepository = cvRepository;
         this.certificateRepository = certificateRepository;
+        this.portfolioQueryRepository = portfolioQueryRepository;
+        this.portfolioReadModelService = portfolioReadModelService;
         this.notificationService = notificationService;
+        this.portfolioCacheService = portfolioCacheService;
+        this.negativeCache = negativeCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public User getOrCreateUser(String clerkId, String email, String fullName) {
@@ -42,6 +64,7 @@ public class UserService {
             newUser.setFullName(fullName);
             newUser.setPublic(false); // by default: profile is hidden
             User saved = userRepository.save(newUser);
+            negativeCache.registerUser(saved.getId());
             notificationService.createOnce(
                 saved,
                 NotificationType.WELCOME,
@@ -53,6 +76,11 @@ public class UserService {
     }
 
     public PortfolioResponse getFullPortfolio(String userId) {
+        Optional<PortfolioQueryRepository.LoadedPortfolio> stored = portfolioReadModelService.find(userId, true);
+        if (stored.isPresent()) {
+            return stored.get().portfolio();
+        }
+
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
@@ -68,20 +96,51 @@ public class UserService {
     }
 
     public PortfolioResponse getPublicPortfolio(String userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found"));
+        rejectKnownAbsent(userId);
+        return portfolioCacheService.getOrLoad(userId, () -> loadPublicPortfolio(userId));
+    }
+
+    // precompressed bytes are only worth it when a cached snapshot keeps them between requests
+    public boolean canServeEncodedPublicPortfolio() {
+        return portfolioCacheService.isEnabled();
+    }
+
+    public PortfolioCacheService.EncodedPortfolio getEncodedPublicPortfolio(String userId) {
+        rejectKnownAbsent(userId);
+        return portfolioCacheService.getEncodedOrLoad(userId, () -> loadPublicPortfolio(userId));
+    }
+
+    public Map<String, PortfolioSummary> getPublicPortfolioSummaries(List<String> userIds) {
+        List<String> candidates = userIds.stream()
+            .filter(userId -> userId != null && !userId.isBlank())
+            .filter(userId -> !negativeCache.isKnownAbsent(userId))
+            .distinct()
+            .toList();
+        return portfolioQueryRepository.findPublicSummaries(candidates);
+    }
 
-        if (!user.isPublic()) {
-            log.info("Blocked private profile access for userId={}", userId);
+    private void rejectKnownAbsent(String userId) {
+        if (negativeCache.isKnownAbsent(userId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found");
         }
+    }
 
-        PortfolioResponse response = new PortfolioResponse();
-        response.setFullName(user.getFullName());
+    private PortfolioResponse loadPublicPortfolio(String userId) {
+        long negativeGeneration = negativeCache.generation();
+        PortfolioQueryRepository.LoadedPortfolio loaded = portfolioReadModelService.find(userId, false)
+            .or(() -> portfolioQueryRepository.findPortfolio(userId, false))
+            .orElse(null);
+
+        if (loaded == null || !loaded.isPublic()) {
+            if (loaded != null) {
+                log.info("Blocked private profile access for userId={}", userId);
+            }
+            negativeCache.rememberAbsent(userId, negativeGeneration);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found");
+        }
+
+        PortfolioResponse response = loaded.portfolio();
         response.setEmail(null);
-        response.setCv(cvRepository.findByUser(user).orElse(null));
-        response.setProjects(projectRepository.findByUser(user));
-        response.setCertificates(certificateRepository.findByUser(user));
         return response;
     }
 
@@ -94,6 +153,7 @@ public class UserService {
         boolean nextPublic = "public".equalsIgnoreCase(accountVisibility);
         user.setPublic(nextPublic);
         userRepository.save(user);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(user.getId()));
         log.info("Updated account visibility for userId={} to {}", user.getId(), nextPublic ? "public" : "private");
         return getSettings(user);
     }
@@ -104,5 +164,7 @@ public class UserService {
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
         
         userRepository.delete(user);
+        notificationService.forgetUser(clerkId);
+        eventPublisher.publishEvent(new PortfolioChangedEvent(clerkId));
     }
 }
@@ -0,0 +1,55 @@
+package com.example.demo.sketches;
+
+/**
+ * 64-bit MurmurHash3 finalizer-based hashing shared by the sketches in this package.
+ */
+public final class Hashing {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Hashing() {
+    }
+
+    public static long murmur64(byte[] data) {
+        long h = 0x9368e53c2f6af274L ^ data.length;
+        int blocks = data.length / 8;
+        for (int i = 0; i < blocks; i++) {
+            long k = getLong(data, i * 8);
+            k *= C1;
+            k = Long.rotateLeft(k, 31);
+            k *= C2;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+
+        long tail = 0;
+        for (int i = data.length - 1; i >= blocks * 8; i--) {
+            tail = (tail << 8) | (data[i] & 0xffL);
+        }
+        if (tail != 0 || data.length % 8 != 0) {
+            tail *= C1;
+            tail = Long.rotateLeft(tail, 31);
+            tail *= C2;
+            h ^= tail;
+        }
+        return mix(h);
+    }
+
+    public static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xffL);
+        }
+        return value;
+    }
+}
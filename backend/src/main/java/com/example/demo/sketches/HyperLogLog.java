@@ -0,0 +1,160 @@
+package com.example.demo.sketches;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch with one byte per register. Precision 12 is 4 KiB and
+ * estimates within about 1.6%; sketches of the same precision merge by register-wise max,
+ * so month sketches union into any range without keeping the raw values. A sketch can be folded
+ * down to a lower precision exactly, which is how {@link #union} joins sketches written before
+ * and after a precision change. Not thread-safe.
+ */
+public class HyperLogLog {
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * Serialized form: one precision byte followed by the registers.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 1) {
+            throw new IllegalArgumentException("Empty HyperLogLog payload");
+        }
+        int precision = bytes[0];
+        if (precision < 4 || precision > 16 || bytes.length != (1 << precision) + 1) {
+            throw new IllegalArgumentException("Malformed HyperLogLog payload");
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    public boolean offer(String value) {
+        return offerHash(Hashing.murmur64(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns {@code true} if a register changed.
+     */
+    public boolean offerHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the sentinel bit caps the rank when all remaining bits are zero
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Union with a sketch of any precision. The result has the lower of the two precisions: it is
+     * this sketch when that is already the lower one, otherwise a new reduced sketch, so callers
+     * must use the returned value.
+     */
+    public HyperLogLog union(HyperLogLog other) {
+        if (other.precision >= precision) {
+            merge(other.precision == precision ? other : other.reduceTo(precision));
+            return this;
+        }
+        HyperLogLog reduced = reduceTo(other.precision);
+        reduced.merge(other);
+        return reduced;
+    }
+
+    /**
+     * The sketch this one would be had it been built at {@code targetPrecision}: the index bits
+     * dropped from each register become the leading bits of its rank.
+     */
+    public HyperLogLog reduceTo(int targetPrecision) {
+        if (targetPrecision > precision || targetPrecision < 4) {
+            throw new IllegalArgumentException("Can only reduce to a precision between 4 and " + precision);
+        }
+        if (targetPrecision == precision) {
+            return copy();
+        }
+
+        int dropped = precision - targetPrecision;
+        int lowMask = (1 << dropped) - 1;
+        byte[] reduced = new byte[1 << targetPrecision];
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            int low = i & lowMask;
+            int rank = low != 0 ? dropped - (32 - Integer.numberOfLeadingZeros(low)) + 1 : dropped + registers[i];
+            int index = i >>> dropped;
+            if (rank > reduced[index]) {
+                reduced[index] = (byte) rank;
+            }
+        }
+        return new HyperLogLog(targetPrecision, reduced);
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
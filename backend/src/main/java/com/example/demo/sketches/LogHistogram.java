@@ -0,0 +1,122 @@
+package com.example.demo.sketches;
+
+import java.util.Map;
+
+/**
+ * Relative-error quantile sketch over positive counts (the DDSketch bucket layout): value
+ * {@code v} falls in bucket {@code ceil(log(v) / log(gamma))}, so every bucket spans about 2% and
+ * a ten-million count needs fewer than 820 buckets. Unlike t-digest or KLL, an entry can be moved
+ * between buckets, and two sketches merge by adding bucket counts, which is what lets a
+ * database row per bucket be updated with additive upserts from any node.
+ *
+ * <p>Instances are immutable snapshots with a prefix-sum array, so {@link #percentRank} is one
+ * logarithm and two array reads.
+ */
+public final class LogHistogram {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    // StrictMath so every node and the migration agree on bucket boundaries
+    private static final double LOG_GAMMA = StrictMath.log(GAMMA);
+
+    private final int minBucket;
+    private final long[] counts;
+    private final long[] below;
+    private final long total;
+
+    /**
+     * Builds a snapshot from bucket counts; negative counts (transient skew between nodes) count as zero.
+     */
+    public LogHistogram(Map<Integer, Long> bucketCounts) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Map.Entry<Integer, Long> entry : bucketCounts.entrySet()) {
+            if (entry.getValue() > 0) {
+                min = Math.min(min, entry.getKey());
+                max = Math.max(max, entry.getKey());
+            }
+        }
+        if (min > max) {
+            this.minBucket = 0;
+            this.counts = new long[0];
+            this.below = new long[] {0};
+            this.total = 0;
+            return;
+        }
+
+        this.minBucket = min;
+        this.counts = new long[max - min + 1];
+        bucketCounts.forEach((bucket, count) -> {
+            if (count > 0) {
+                counts[bucket - minBucket] += count;
+            }
+        });
+        this.below = new long[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            below[i + 1] = below[i] + counts[i];
+        }
+        this.total = below[counts.length];
+    }
+
+    public static int bucketOf(long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("value must be positive");
+        }
+        return (int) Math.ceil(StrictMath.log(value) / LOG_GAMMA);
+    }
+
+    /**
+     * Value reported for a bucket, within {@link #RELATIVE_ACCURACY} of every value in it.
+     */
+    public static long representative(int bucket) {
+        return Math.max(1, Math.round(2 * StrictMath.pow(GAMMA, bucket) / (GAMMA + 1)));
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Share of entries (0 to 100) below {@code value}, counting half of the entries in its own
+     * bucket; {@code NaN} when the sketch is empty.
+     */
+    public double percentRank(long value) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        if (value < 1) {
+            return 0;
+        }
+        int index = bucketOf(value) - minBucket;
+        if (index < 0) {
+            return 0;
+        }
+        if (index >= counts.length) {
+            return 100;
+        }
+        return 100.0 * (below[index] + counts[index] / 2.0) / total;
+    }
+
+    /**
+     * Estimated value at quantile {@code q} in [0, 1]; 0 when the sketch is empty.
+     */
+    public long quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1");
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.min(total - 1, (long) Math.floor(q * total));
+        int low = 0;
+        int high = counts.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (below[middle + 1] > rank) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return representative(low + minBucket);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.sketches;
+
+/**
+ * Time-bucketed ring of Bloom filters for "seen within the last window" checks in fixed memory.
+ * Each bucket covers {@code window / (buckets - 1)}; inserts go to the current bucket and lookups
+ * check all of them, so a value is remembered for at least the window and at most one bucket
+ * longer. Expiry is a bucket swap on rotation instead of a scan over entries.
+ */
+public class RotatingBloomFilter {
+    private final BloomFilter[] buckets;
+    private final long[] bucketEpochs;
+    private final long bucketSpanMs;
+    private final long expectedPerBucket;
+    private final double bucketFalsePositiveRate;
+    private volatile long currentEpoch = Long.MIN_VALUE;
+    private volatile long rotations;
+
+    /**
+     * @param expectedPerWindow distinct values expected within one window
+     * @param falsePositiveRate target rate for a lookup across all buckets
+     */
+    public RotatingBloomFilter(long windowMs, int bucketCount, long expectedPerWindow, double falsePositiveRate) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("bucketCount must be at least 2");
+        }
+        this.buckets = new BloomFilter[bucketCount];
+        this.bucketEpochs = new long[bucketCount];
+        this.bucketSpanMs = Math.max(1L, windowMs / (bucketCount - 1));
+        this.expectedPerBucket = Math.max(1L, expectedPerWindow / (bucketCount - 1));
+        // a lookup is a false positive if any bucket is, so the target is split across them
+        this.bucketFalsePositiveRate = falsePositiveRate / bucketCount;
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new BloomFilter(expectedPerBucket, bucketFalsePositiveRate);
+            bucketEpochs[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Records the value and reports whether it was (probably) already seen within the window.
+     */
+    public boolean checkAndPut(String value, long nowMs) {
+        long epoch = Math.floorDiv(nowMs, bucketSpanMs);
+        advanceTo(epoch);
+
+        BloomFilter current = buckets[slot(epoch)];
+        boolean firstInCurrent = current.put(value);
+        if (!firstInCurrent) {
+            return true;
+        }
+        for (int i = 1; i < buckets.length; i++) {
+            int index = slot(epoch - i);
+            if (bucketEpochs[index] == epoch - i && buckets[index].mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (BloomFilter bucket : buckets) {
+            bytes += bucket.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public long rotations() {
+        return rotations;
+    }
+
+    private void advanceTo(long epoch) {
+        if (epoch <= currentEpoch) {
+            return;
+        }
+        synchronized (this) {
+            if (epoch <= currentEpoch) {
+                return;
+            }
+            int slot = slot(epoch);
+            if (bucketEpochs[slot] != Long.MIN_VALUE) {
+                // a fresh filter instead of clear() so concurrent readers of the old bucket finish undisturbed
+                buckets[slot] = new BloomFilter(expectedPerBucket, bucketFalsePositiveRate);
+            }
+            bucketEpochs[slot] = epoch;
+            currentEpoch = epoch;
+            rotations++;
+        }
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) buckets.length);
+    }
+}
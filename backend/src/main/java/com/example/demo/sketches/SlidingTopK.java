@@ -0,0 +1,114 @@
+package com.example.demo.sketches;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate top-K over a sliding time window: a ring of {@link SpaceSaving} summaries, one per
+ * {@code window / (buckets - 1)} slice. Offers go to the current slice; a query sums the live
+ * slices, so the window slides one slice at a time and memory stays at {@code buckets * capacity}
+ * counters regardless of traffic. Expired slices are cleared on rotation.
+ * <p>
+ * Each slice is split into {@code stripes} summaries by key hash, each behind its own lock, so
+ * concurrent offers for different keys rarely contend. A key always lands in the same stripe, so
+ * the stripes of a slice hold disjoint keys and summing them keeps the Space-Saving bounds.
+ * Thread-safe.
+ */
+public class SlidingTopK {
+
+    // one summary and the epoch it currently counts; guarded by its own monitor
+    private static final class Stripe {
+        private final SpaceSaving summary;
+        private long epoch = Long.MIN_VALUE;
+
+        private Stripe(int capacity) {
+            this.summary = new SpaceSaving(capacity);
+        }
+    }
+
+    private final Stripe[][] buckets;
+    private final int stripeMask;
+    private final long bucketSpanMs;
+    private final long windowMs;
+
+    /**
+     * @param stripes rounded up to a power of two; {@code capacityPerBucket} is shared between them
+     */
+    public SlidingTopK(long windowMs, int bucketCount, int capacityPerBucket, int stripes) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("bucketCount must be at least 2");
+        }
+        int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        int capacityPerStripe = Math.max(1, (capacityPerBucket + stripeCount - 1) / stripeCount);
+        this.windowMs = windowMs;
+        this.bucketSpanMs = Math.max(1L, windowMs / (bucketCount - 1));
+        this.stripeMask = stripeCount - 1;
+        this.buckets = new Stripe[bucketCount][stripeCount];
+        for (Stripe[] bucket : buckets) {
+            for (int i = 0; i < stripeCount; i++) {
+                bucket[i] = new Stripe(capacityPerStripe);
+            }
+        }
+    }
+
+    public void offer(String key, long nowMs) {
+        long epoch = Math.floorDiv(nowMs, bucketSpanMs);
+        Stripe stripe = buckets[slot(epoch)][stripe(key)];
+        synchronized (stripe) {
+            if (stripe.epoch != epoch) {
+                stripe.summary.clear();
+                stripe.epoch = epoch;
+            }
+            stripe.summary.offer(key);
+        }
+    }
+
+    /**
+     * Keys with the highest summed counts across the live slices; {@code error} is the summed
+     * per-slice overestimate. The oldest live slice may start up to one slice before the window,
+     * so counts are estimates of the window's count rather than strict bounds on it.
+     */
+    public List<SpaceSaving.Entry> top(int limit, long nowMs) {
+        Map<String, long[]> merged = new HashMap<>();
+        long epoch = Math.floorDiv(nowMs, bucketSpanMs);
+        for (int i = 0; i < buckets.length; i++) {
+            for (Stripe stripe : buckets[slot(epoch - i)]) {
+                synchronized (stripe) {
+                    if (stripe.epoch != epoch - i) {
+                        continue;
+                    }
+                    for (SpaceSaving.Entry entry : stripe.summary.entries()) {
+                        long[] sums = merged.computeIfAbsent(entry.key(), ignored -> new long[2]);
+                        sums[0] += entry.count();
+                        sums[1] += entry.error();
+                    }
+                }
+            }
+        }
+
+        List<SpaceSaving.Entry> entries = new ArrayList<>(merged.size());
+        merged.forEach((key, sums) -> entries.add(new SpaceSaving.Entry(key, sums[0], sums[1])));
+        entries.sort(Comparator.comparingLong(SpaceSaving.Entry::count).reversed().thenComparing(SpaceSaving.Entry::key));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, Math.max(0, limit))) : entries;
+    }
+
+    public long windowMs() {
+        return windowMs;
+    }
+
+    public int counters() {
+        return buckets.length * buckets[0].length * buckets[0][0].summary.capacity();
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) buckets.length);
+    }
+
+    private int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & stripeMask;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.sketches;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary with a fixed number of counters. A new key takes over the
+ * smallest counter and inherits its count as the error bound, so any key whose true count exceeds
+ * {@code total / capacity} is guaranteed to be tracked and no count is ever underestimated.
+ * Counters live in an indexed min-heap: an offer is O(log capacity). Not thread-safe.
+ */
+public class SpaceSaving {
+
+    /**
+     * {@code count - error} is a lower bound of the true count, {@code count} an upper bound.
+     */
+    public record Entry(String key, long count, long error) {}
+
+    private final int capacity;
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> slots;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String key) {
+        offer(key, 1L);
+    }
+
+    public void offer(String key, long increment) {
+        if (increment <= 0) {
+            return;
+        }
+        total += increment;
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += increment;
+            siftDown(slot);
+            return;
+        }
+        if (size < capacity) {
+            keys[size] = key;
+            counts[size] = increment;
+            errors[size] = 0L;
+            slots.put(key, size);
+            siftUp(size++);
+            return;
+        }
+        // evict the minimum: the newcomer may have been seen up to that many times already
+        slots.remove(keys[0]);
+        errors[0] = counts[0];
+        counts[0] += increment;
+        keys[0] = key;
+        slots.put(key, 0);
+        siftDown(0);
+    }
+
+    public long estimate(String key) {
+        Integer slot = slots.get(key);
+        return slot == null ? 0L : counts[slot];
+    }
+
+    /**
+     * Tracked keys ordered by count, highest first.
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = entries();
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, Math.max(0, limit))) : entries;
+    }
+
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(keys[i], counts[i], errors[i]));
+        }
+        return entries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        slots.clear();
+        size = 0;
+        total = 0L;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        slots.put(keys[a], a);
+        slots.put(keys[b], b);
+    }
+}
@@ -0,0 +1,65 @@
+package db.migration;
+
+import com.example.demo.sketches.LogHistogram;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Creates the cross-user percentile buckets and fills them from the month rollups written so
+ * far. Bucket numbers come from {@link LogHistogram#bucketOf}, which SQL cannot reproduce
+ * exactly, hence a Java migration; the flush path keeps the buckets current from here on.
+ */
+public class V10__portfolio_analytics_percentiles extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("""
+                CREATE TABLE IF NOT EXISTS portfolio_analytics_percentiles (
+                    event_type VARCHAR(32) NOT NULL,
+                    month_key VARCHAR(7) NOT NULL,
+                    bucket INTEGER NOT NULL,
+                    user_count BIGINT NOT NULL DEFAULT 0,
+                    PRIMARY KEY (event_type, month_key, bucket)
+                )
+                """);
+        }
+
+        // event type, month, bucket -> users
+        Map<String, Long> buckets = new TreeMap<>();
+        try (Statement statement = context.getConnection().createStatement();
+             ResultSet rows = statement.executeQuery("""
+                 SELECT event_type, bucket_start, event_count FROM portfolio_analytics_rollups
+                 WHERE granularity = 'MONTH' AND event_count > 0
+                 """)) {
+            while (rows.next()) {
+                String monthKey = YearMonth.from(rows.getTimestamp(2).toLocalDateTime()).toString();
+                String key = rows.getString(1) + "|" + monthKey + "|" + LogHistogram.bucketOf(rows.getLong(3));
+                buckets.merge(key, 1L, Long::sum);
+            }
+        }
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement insert = context.getConnection().prepareStatement(
+            "INSERT INTO portfolio_analytics_percentiles (event_type, month_key, bucket, user_count) VALUES (?, ?, ?, ?)")) {
+            for (Map.Entry<String, Long> entry : buckets.entrySet()) {
+                String[] parts = entry.getKey().split("\\|");
+                insert.setString(1, parts[0]);
+                insert.setString(2, parts[1]);
+                insert.setInt(3, Integer.parseInt(parts[2]));
+                insert.setLong(4, entry.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Creates the denormalized portfolio document table. Written in Java only to pick the column
+ * type: JSONB on PostgreSQL, plain JSON on the embedded H2 used by repository tests.
+ */
+public class V3__portfolio_read_model extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String product = context.getConnection().getMetaData().getDatabaseProductName();
+        String documentType = "PostgreSQL".equalsIgnoreCase(product) ? "JSONB" : "JSON";
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("""
+                CREATE TABLE IF NOT EXISTS portfolio_read_model (
+                    user_id VARCHAR(255) PRIMARY KEY,
+                    document %s NOT NULL,
+                    updated_at TIMESTAMP NOT NULL
+                )
+                """.formatted(documentType));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Creates the append-only analytics event log. On PostgreSQL it is range-partitioned by month
+ * (monthly partitions are created ahead of time by {@code AnalyticsEventPartitionMaintenance});
+ * H2 has no declarative partitioning, so tests get a plain table with the same columns.
+ */
+public class V6__analytics_events extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = "PostgreSQL".equalsIgnoreCase(context.getConnection().getMetaData().getDatabaseProductName());
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("""
+                CREATE TABLE IF NOT EXISTS analytics_events (
+                    occurred_at TIMESTAMP NOT NULL,
+                    user_id VARCHAR(128) NOT NULL,
+                    event_type VARCHAR(32) NOT NULL,
+                    viewer_hash BIGINT
+                )%s
+                """.formatted(postgres ? " PARTITION BY RANGE (occurred_at)" : ""));
+            statement.execute("""
+                CREATE INDEX IF NOT EXISTS idx_analytics_events_user_time ON analytics_events (user_id, occurred_at)
+                """);
+            if (postgres) {
+                // catches rows outside the pre-created months instead of failing the insert batch;
+                // creating a month's partition later moves that month's rows out of it first
+                statement.execute("CREATE TABLE IF NOT EXISTS analytics_events_default PARTITION OF analytics_events DEFAULT");
+            }
+        }
+    }
+}
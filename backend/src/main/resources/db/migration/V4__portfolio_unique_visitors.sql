@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS portfolio_unique_visitors (
+    user_id VARCHAR(128) NOT NULL,
+    month_key VARCHAR(7) NOT NULL,
+    sketch BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, month_key)
+);
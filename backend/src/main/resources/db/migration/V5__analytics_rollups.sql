@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS portfolio_analytics_rollups (
+    user_id VARCHAR(128) NOT NULL,
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, granularity, bucket_start, event_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_portfolio_analytics_rollups_retention
+    ON portfolio_analytics_rollups (granularity, bucket_start);
@@ -0,0 +1 @@
+ALTER TABLE analytics_events ADD COLUMN IF NOT EXISTS target_id VARCHAR(128);
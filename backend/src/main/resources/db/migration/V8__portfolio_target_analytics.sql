@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS portfolio_target_analytics (
+    user_id VARCHAR(128) NOT NULL,
+    target_type VARCHAR(16) NOT NULL,
+    target_id BIGINT NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    last_updated TIMESTAMP,
+    PRIMARY KEY (user_id, target_type, target_id)
+);
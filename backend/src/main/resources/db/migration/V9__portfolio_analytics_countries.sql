@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS portfolio_analytics_countries (
+    user_id VARCHAR(128) NOT NULL,
+    month_key VARCHAR(7) NOT NULL,
+    country_code VARCHAR(2) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, month_key, country_code)
+);
@@ -0,0 +1,51 @@
+package com.example.demo.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OwnedLongCounterMapTest {
+
+    @Test
+    void add_keepsOwnersApartForTheSameKey() {
+        OwnedLongCounterMap map = new OwnedLongCounterMap(4);
+
+        map.add("alice", 42L, 1);
+        map.add("bob", 42L, 5);
+        assertThat(map.add("alice", 42L, 2)).isEqualTo(3);
+
+        assertThat(map.get("alice", 42L)).isEqualTo(3);
+        assertThat(map.get("bob", 42L)).isEqualTo(5);
+        assertThat(map.get("carol", 42L)).isZero();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void add_growsAndKeepsEveryCounter() {
+        OwnedLongCounterMap map = new OwnedLongCounterMap(2);
+        for (int i = 0; i < 10_000; i++) {
+            map.add("owner-" + (i % 37), i % 1_000, 1);
+        }
+
+        Map<String, Long> visited = new HashMap<>();
+        map.forEach((owner, key, count) -> visited.merge(owner + "/" + key, count, Long::sum));
+
+        assertThat(map.size()).isEqualTo(visited.size());
+        assertThat(visited.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(10_000);
+        assertThat(map.get("owner-0", 0L)).isEqualTo(visited.get("owner-0/0"));
+    }
+
+    @Test
+    void clear_emptiesTheTable() {
+        OwnedLongCounterMap map = new OwnedLongCounterMap(4);
+        map.add("alice", 1L, 1);
+
+        map.clear();
+
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get("alice", 1L)).isZero();
+    }
+}
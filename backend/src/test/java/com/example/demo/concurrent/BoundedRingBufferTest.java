@@ -0,0 +1,90 @@
+package com.example.demo.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedRingBufferTest {
+
+    @Test
+    void offer_whenFull_rejectsWithoutBlocking() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(99)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    void poll_returnsElementsInFifoOrderAndWrapsAround() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 3; i++) {
+                buffer.offer(round * 10 + i);
+            }
+            buffer.drainTo(drained, 10);
+        }
+
+        assertThat(drained).containsExactly(0, 1, 2, 10, 11, 12, 20, 21, 22);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void capacity_isRoundedUpToPowerOfTwo() {
+        assertThat(new BoundedRingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new BoundedRingBuffer<>(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_neverLoseOrDuplicateAcceptedElements() throws Exception {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(256);
+        int producers = 4;
+        int perProducer = 20_000;
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch producersDone = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                producersDone.countDown();
+            });
+        }
+        for (int c = 0; c < 2; c++) {
+            executor.submit(() -> {
+                while (producersDone.getCount() > 0 || buffer.size() > 0) {
+                    Integer value = buffer.poll();
+                    if (value != null && !consumed.add(value)) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(duplicates.get()).isZero();
+        assertThat(consumed).hasSize(accepted.get());
+    }
+}
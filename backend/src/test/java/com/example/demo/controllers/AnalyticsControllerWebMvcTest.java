@@ -2,9 +2,18 @@ package com.example.demo.controllers;
 
 import com.example.demo.config.SecurityConfig;
 import com.example.demo.dto.analytics.AnalyticsResponse;
+import com.example.demo.dto.analytics.AnalyticsSeriesResponse;
+import com.example.demo.dto.analytics.CountryBreakdownResponse;
+import com.example.demo.dto.analytics.TargetAnalyticsResponse;
+import com.example.demo.dto.analytics.UniqueVisitorsResponse;
 import com.example.demo.models.User;
+import com.example.demo.services.AnalyticsIngestionService;
+import com.example.demo.services.AnalyticsRollupService;
 import com.example.demo.services.AnalyticsService;
+import com.example.demo.services.CountryAnalyticsService;
 import com.example.demo.services.RateLimitService;
+import com.example.demo.services.TargetAnalyticsService;
+import com.example.demo.services.UserAgentClassifier;
 import com.example.demo.services.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -16,17 +25,23 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +59,16 @@ class AnalyticsControllerWebMvcTest {
     @MockBean
     private RateLimitService rateLimitService;
     @MockBean
+    private AnalyticsRollupService rollupService;
+    @MockBean
+    private AnalyticsIngestionService ingestionService;
+    @MockBean
+    private TargetAnalyticsService targetAnalyticsService;
+    @MockBean
+    private UserAgentClassifier userAgentClassifier;
+    @MockBean
+    private CountryAnalyticsService countryAnalyticsService;
+    @MockBean
     private JwtDecoder jwtDecoder;
 
     @Test
@@ -52,14 +77,97 @@ class AnalyticsControllerWebMvcTest {
         user.setId("clerk-1");
         when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
         when(analyticsService.getMyAnalytics(user)).thenReturn(
-            new AnalyticsResponse(2, 3, 4, 5, 6, LocalDateTime.now(), Map.of("2026-03", 10L))
+            new AnalyticsResponse(2, 3, 4, 5, 6, LocalDateTime.now(), Map.of("2026-03", 10L), 1, Map.of("publicViews", 90.5))
         );
 
         mockMvc.perform(get("/api/analytics/me")
                 .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.publicViews").value(2))
-            .andExpect(jsonPath("$.shareClicks").value(3));
+            .andExpect(jsonPath("$.shareClicks").value(3))
+            .andExpect(jsonPath("$.percentilesThisMonth.publicViews").value(90.5));
+    }
+
+    @Test
+    void getMySeries_passesParsedRangeAndGranularity() throws Exception {
+        User user = new User();
+        user.setId("clerk-1");
+        LocalDateTime from = LocalDateTime.of(2026, 10, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 10, 2, 0, 0);
+        when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
+        when(rollupService.series("clerk-1", from, to, "day")).thenReturn(new AnalyticsSeriesResponse(
+            "day", from, to.plusDays(1), List.of(new AnalyticsSeriesResponse.Point(from, Map.of("publicViews", 3L)))
+        ));
+
+        mockMvc.perform(get("/api/analytics/me/series")
+                .param("from", "2026-10-01T00:00:00")
+                .param("to", "2026-10-02T00:00:00")
+                .param("granularity", "day")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granularity").value("day"))
+            .andExpect(jsonPath("$.points[0].counts.publicViews").value(3));
+    }
+
+    @Test
+    void getMyUniqueVisitors_parsesMonthRange() throws Exception {
+        User user = new User();
+        user.setId("clerk-1");
+        when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
+        when(analyticsService.getMyUniqueVisitors(user, YearMonth.of(2026, 1), YearMonth.of(2026, 3)))
+            .thenReturn(new UniqueVisitorsResponse("2026-01", "2026-03", 42));
+
+        mockMvc.perform(get("/api/analytics/me/unique-visitors")
+                .param("from", "2026-01")
+                .param("to", "2026-03")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.uniqueVisitors").value(42))
+            .andExpect(jsonPath("$.from").value("2026-01"));
+    }
+
+    @Test
+    void getMyTopTargets_returnsRankedTargets() throws Exception {
+        User user = new User();
+        user.setId("clerk-1");
+        when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
+        when(targetAnalyticsService.mostViewed("clerk-1", "project", 3)).thenReturn(List.of(
+            new TargetAnalyticsResponse("project", 7L, "Compiler", 12L),
+            new TargetAnalyticsResponse("project", 3L, "Website", 4L)
+        ));
+
+        mockMvc.perform(get("/api/analytics/me/targets")
+                .param("type", "project")
+                .param("limit", "3")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].targetId").value(7))
+            .andExpect(jsonPath("$[0].count").value(12))
+            .andExpect(jsonPath("$[1].title").value("Website"));
+    }
+
+    @Test
+    void getMyCountries_parsesMonth() throws Exception {
+        User user = new User();
+        user.setId("clerk-1");
+        when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
+        when(countryAnalyticsService.breakdown("clerk-1", YearMonth.of(2026, 9))).thenReturn(new CountryBreakdownResponse(
+            "2026-09", List.of(new CountryBreakdownResponse.Country("DE", 7))
+        ));
+
+        mockMvc.perform(get("/api/analytics/me/countries")
+                .param("month", "2026-09")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.month").value("2026-09"))
+            .andExpect(jsonPath("$.countries[0].countryCode").value("DE"))
+            .andExpect(jsonPath("$.countries[0].views").value(7));
+    }
+
+    @Test
+    void getMyUniqueVisitors_whenAnonymous_isUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/analytics/me/unique-visitors"))
+            .andExpect(status().isUnauthorized());
     }
 
     @Test
@@ -75,9 +183,95 @@ class AnalyticsControllerWebMvcTest {
         assertThat(fingerprintCaptor.getValue()).contains("|JUnit");
     }
 
+    @Test
+    void trackPublicView_whenBotUserAgent_skipsRateLimitAndCounting() throws Exception {
+        when(userAgentClassifier.isBot("Googlebot/2.1")).thenReturn(true);
+
+        mockMvc.perform(post("/api/analytics/public-view/owner-1")
+                .header("User-Agent", "Googlebot/2.1"))
+            .andExpect(status().isOk());
+
+        verify(rateLimitService, never()).check(any(), anyInt(), anyInt(), any(), any());
+        verify(analyticsService, never()).incrementPublicView(any(), any());
+        verify(ingestionService, never()).acceptPublicView(any(), any());
+    }
+
+    @Test
+    void trackMyEvent_whenPreferMinimal_returnsNoContentWithoutSnapshot() throws Exception {
+        User user = new User();
+        user.setId("clerk-1");
+        when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
+
+        mockMvc.perform(post("/api/analytics/me/events/shareClicks")
+                .header("Prefer", "return=minimal")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isNoContent())
+            .andExpect(header().string("Preference-Applied", "return=minimal"));
+
+        verify(analyticsService).recordMyEvent(user, "shareClicks");
+        verify(analyticsService, never()).incrementMyEvent(any(), any());
+    }
+
     @Test
     void trackMyEvent_whenUnauthorized_returns401() throws Exception {
         mockMvc.perform(post("/api/analytics/me/events/shareClicks"))
             .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void trackPublicView_whenAsyncIngestion_returnsAcceptedWithoutServiceCall() throws Exception {
+        when(ingestionService.isAsync()).thenReturn(true);
+
+        mockMvc.perform(post("/api/analytics/public-view/owner-1")
+                .header("User-Agent", "JUnit"))
+            .andExpect(status().isAccepted());
+
+        verify(ingestionService).acceptPublicView(eq("owner-1"), contains("|JUnit"));
+        verify(analyticsService, never()).incrementPublicView(any(), any());
+    }
+
+    @Test
+    void trackMyEvent_whenAsyncIngestionAndPreferMinimal_returnsAcceptedWithoutUserLookup() throws Exception {
+        when(ingestionService.isAsync()).thenReturn(true);
+
+        mockMvc.perform(post("/api/analytics/me/events/cvDownloads")
+                .header("Prefer", "return=minimal")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Preference-Applied", "return=minimal"));
+
+        verify(ingestionService).acceptMyEvent("clerk-1", "u@example.com", "cvDownloads");
+        verify(userService, never()).getOrCreateUser(any(), any(), any());
+    }
+
+    @Test
+    void trackMyEvents_appliesBatchAndReturnsNoContent() throws Exception {
+        User user = new User();
+        user.setId("clerk-1");
+        when(userService.getOrCreateUser("clerk-1", "u@example.com", "User")).thenReturn(user);
+
+        mockMvc.perform(post("/api/analytics/me/events:batch")
+                .contentType("application/json")
+                .content("""
+                    {"events": [
+                      {"type": "shareClicks", "clientTimestamp": 1760000000000},
+                      {"type": "projectDetailViews", "targetId": "42"}
+                    ]}
+                    """)
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isNoContent());
+
+        verify(analyticsService).recordMyEvents(eq(user), argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void trackMyEvents_whenBatchEmpty_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/analytics/me/events:batch")
+                .contentType("application/json")
+                .content("{\"events\": []}")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-1").claim("email", "u@example.com"))))
+            .andExpect(status().isBadRequest());
+
+        verify(analyticsService, never()).recordMyEvents(any(), any());
+    }
 }
@@ -1,10 +1,12 @@
 package com.example.demo.controllers;
 
 import com.example.demo.config.SecurityConfig;
+import com.example.demo.dto.cv.CVResponse;
 import com.example.demo.dto.cv.CVSaveRequest;
 import com.example.demo.models.CV;
 import com.example.demo.models.User;
 import com.example.demo.services.CVService;
+import com.example.demo.services.PortfolioVersionService;
 import com.example.demo.services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -27,7 +29,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +49,8 @@ class CVControllerWebMvcTest {
     @MockBean
     private UserService userService;
     @MockBean
+    private PortfolioVersionService portfolioVersionService;
+    @MockBean
     private JwtDecoder jwtDecoder;
 
     @Test
@@ -116,6 +122,44 @@ class CVControllerWebMvcTest {
         verify(cvService).deleteCV(user);
     }
 
+    @Test
+    void getMyCV_whenETagMatches_returnsNotModifiedWithoutLoadingCv() throws Exception {
+        User user = new User();
+        user.setId("clerk-3");
+        user.setEmail("etag@example.com");
+
+        when(userService.getOrCreateUser("clerk-3", "etag@example.com", "User")).thenReturn(user);
+        when(portfolioVersionService.etag(user)).thenReturn("\"abc-4\"");
+
+        mockMvc.perform(get("/api/cv")
+                .header("If-None-Match", "\"abc-4\"")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-3").claim("email", "etag@example.com"))))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"abc-4\""));
+
+        verify(cvService, never()).getCV(any());
+    }
+
+    @Test
+    void getMyCV_whenETagStale_returnsCvWithCurrentETag() throws Exception {
+        User user = new User();
+        user.setId("clerk-3");
+        user.setEmail("etag@example.com");
+
+        CVResponse cv = new CVResponse(7L, "Platform Engineer", null, null, null, null, null, null, List.of(), List.of(), List.of());
+
+        when(userService.getOrCreateUser("clerk-3", "etag@example.com", "User")).thenReturn(user);
+        when(portfolioVersionService.etag(user)).thenReturn("\"abc-5\"");
+        when(cvService.getCV(user)).thenReturn(cv);
+
+        mockMvc.perform(get("/api/cv")
+                .header("If-None-Match", "\"abc-4\"")
+                .with(jwt().jwt(jwt -> jwt.subject("clerk-3").claim("email", "etag@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"abc-5\""))
+            .andExpect(jsonPath("$.profession").value("Platform Engineer"));
+    }
+
     @Test
     void saveMyCV_whenUnauthorized_returns401() throws Exception {
         mockMvc.perform(post("/api/cv")
@@ -0,0 +1,184 @@
+package com.example.demo.controllers;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.dto.PortfolioSummary;
+import com.example.demo.dto.analytics.TrendingPortfoliosResponse;
+import com.example.demo.enums.NotificationType;
+import com.example.demo.services.NotificationService;
+import com.example.demo.services.PortfolioCacheService;
+import com.example.demo.services.PortfolioVersionService;
+import com.example.demo.services.TrendingPortfolioService;
+import com.example.demo.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PublicController.class)
+@Import(SecurityConfig.class)
+class PublicControllerWebMvcTest {
+
+    private static final byte[] JSON = "{\"fullName\":\"Visible User\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GZIP = new byte[] {0x1f, (byte) 0x8b, 0x08};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private NotificationService notificationService;
+    @MockBean
+    private PortfolioVersionService portfolioVersionService;
+    @MockBean
+    private TrendingPortfolioService trendingService;
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.canServeEncodedPublicPortfolio()).thenReturn(true);
+    }
+
+    @Test
+    void getPortfolioSummaries_returnsMapKeyedByUserId() throws Exception {
+        when(userService.getPublicPortfolioSummaries(List.of("owner-1", "owner-2"))).thenReturn(Map.of(
+            "owner-1", new PortfolioSummary("owner-1", "Visible User", "Engineer", "Astana", List.of("Java"), 2, 1)
+        ));
+
+        mockMvc.perform(post("/api/public/portfolios:batch")
+                .contentType("application/json")
+                .content("{\"userIds\":[\"owner-1\",\"owner-2\"]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$['owner-1'].fullName").value("Visible User"))
+            .andExpect(jsonPath("$['owner-1'].projectCount").value(2))
+            .andExpect(jsonPath("$['owner-2']").doesNotExist());
+    }
+
+    @Test
+    void getPortfolioSummaries_whenUserIdsMissing_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/public/portfolios:batch")
+                .contentType("application/json")
+                .content("{\"userIds\":[]}"))
+            .andExpect(status().isBadRequest());
+
+        verify(userService, never()).getPublicPortfolioSummaries(any());
+    }
+
+    @Test
+    void getTrendingPortfolios_passesWindowAndLimit() throws Exception {
+        PortfolioSummary summary = new PortfolioSummary("owner-1", "Visible User", "Engineer", "Astana", List.of("Java"), 2, 1);
+        when(trendingService.trending("day", 5)).thenReturn(
+            new TrendingPortfoliosResponse("day", List.of(new TrendingPortfoliosResponse.Item(summary, 42)))
+        );
+
+        mockMvc.perform(get("/api/public/portfolios/trending").param("window", "day").param("limit", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.window").value("day"))
+            .andExpect(jsonPath("$.portfolios[0].portfolio.userId").value("owner-1"))
+            .andExpect(jsonPath("$.portfolios[0].views").value(42));
+    }
+
+    @Test
+    void getPortfolio_whenClientAcceptsGzip_writesPrecompressedBody() throws Exception {
+        when(userService.getEncodedPublicPortfolio("owner-1")).thenReturn(new PortfolioCacheService.EncodedPortfolio(JSON, GZIP, 3L));
+
+        mockMvc.perform(get("/api/public/portfolio/owner-1").header("Accept-Encoding", "br, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+            .andExpect(content().bytes(GZIP));
+    }
+
+    @Test
+    void getPortfolio_withoutAcceptEncoding_writesPlainJson() throws Exception {
+        when(userService.getEncodedPublicPortfolio("owner-1")).thenReturn(new PortfolioCacheService.EncodedPortfolio(JSON, GZIP, 3L));
+
+        mockMvc.perform(get("/api/public/portfolio/owner-1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(jsonPath("$.fullName").value("Visible User"));
+
+        verify(notificationService).createOnceByUserIdAsync(
+            eq("owner-1"),
+            eq(NotificationType.FIRST_PUBLIC_PROFILE_VIEW),
+            eq("Public profile viewed"),
+            eq("Someone opened your public portfolio page for the first time.")
+        );
+    }
+
+    @Test
+    void getPortfolio_whenGzipRefused_writesPlainJson() throws Exception {
+        when(userService.getEncodedPublicPortfolio("owner-1")).thenReturn(new PortfolioCacheService.EncodedPortfolio(JSON, GZIP, 3L));
+
+        mockMvc.perform(get("/api/public/portfolio/owner-1").header("Accept-Encoding", "gzip;q=0"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(content().bytes(JSON));
+    }
+
+    @Test
+    void getPortfolio_whenETagMatches_returnsNotModifiedWithoutLoadingPortfolio() throws Exception {
+        when(portfolioVersionService.findPublicVersion("owner-1")).thenReturn(OptionalLong.of(3L));
+        when(portfolioVersionService.etag("owner-1", 3L, "-gzip")).thenReturn("\"abc-3-gzip\"");
+
+        mockMvc.perform(get("/api/public/portfolio/owner-1")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", "\"abc-3-gzip\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"abc-3-gzip\""));
+
+        verify(userService, never()).getEncodedPublicPortfolio("owner-1");
+    }
+
+    @Test
+    void getPortfolio_whenETagStale_returnsBodyWithCurrentETag() throws Exception {
+        when(portfolioVersionService.findPublicVersion("owner-1")).thenReturn(OptionalLong.of(3L));
+        when(portfolioVersionService.etag("owner-1", 3L, "")).thenReturn("\"abc-3\"");
+        when(userService.getEncodedPublicPortfolio("owner-1")).thenReturn(new PortfolioCacheService.EncodedPortfolio(JSON, GZIP, 3L));
+
+        mockMvc.perform(get("/api/public/portfolio/owner-1").header("If-None-Match", "\"abc-2\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"abc-3\""))
+            .andExpect(content().bytes(JSON));
+    }
+
+    @Test
+    void getPortfolio_whenSnapshotCacheOff_servesJacksonBodyWithoutPrecompressing() throws Exception {
+        when(userService.canServeEncodedPublicPortfolio()).thenReturn(false);
+        PortfolioResponse portfolio = new PortfolioResponse();
+        portfolio.setFullName("Visible User");
+        portfolio.setVersion(3L);
+        when(userService.getPublicPortfolio("owner-1")).thenReturn(portfolio);
+
+        mockMvc.perform(get("/api/public/portfolio/owner-1").header("Accept-Encoding", "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(jsonPath("$.fullName").value("Visible User"));
+
+        verify(userService, never()).getEncodedPublicPortfolio("owner-1");
+    }
+}
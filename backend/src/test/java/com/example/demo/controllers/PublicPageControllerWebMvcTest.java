@@ -0,0 +1,90 @@
+package com.example.demo.controllers;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.services.NotificationService;
+import com.example.demo.services.PortfolioPageService;
+import com.example.demo.services.PortfolioVersionService;
+import com.example.demo.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PublicPageController.class)
+@Import(SecurityConfig.class)
+class PublicPageControllerWebMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private PortfolioPageService portfolioPageService;
+    @MockBean
+    private PortfolioVersionService portfolioVersionService;
+    @MockBean
+    private NotificationService notificationService;
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @Test
+    void getPortfolioPage_rendersHtmlWithoutAuthentication() throws Exception {
+        PortfolioResponse portfolio = portfolio(4L);
+        when(userService.getPublicPortfolio("owner-1")).thenReturn(portfolio);
+        when(portfolioVersionService.etag("owner-1", 4L, "-html")).thenReturn("\"abc-4-html\"");
+        when(portfolioPageService.render(eq("owner-1"), eq(portfolio), anyLong())).thenReturn("<!DOCTYPE html><h1>Visible User</h1>");
+
+        mockMvc.perform(get("/p/owner-1"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/html"))
+            .andExpect(header().string("ETag", "\"abc-4-html\""))
+            .andExpect(content().string("<!DOCTYPE html><h1>Visible User</h1>"));
+    }
+
+    @Test
+    void getPortfolioPage_whenETagMatches_skipsRendering() throws Exception {
+        when(userService.getPublicPortfolio("owner-1")).thenReturn(portfolio(4L));
+        when(portfolioVersionService.etag("owner-1", 4L, "-html")).thenReturn("\"abc-4-html\"");
+
+        mockMvc.perform(get("/p/owner-1").header("If-None-Match", "\"abc-4-html\""))
+            .andExpect(status().isNotModified());
+
+        verify(portfolioPageService, never()).render(any(), any(), anyLong());
+    }
+
+    @Test
+    void getPortfolioPage_whenProfileNotPublic_returnsNotFound() throws Exception {
+        when(userService.getPublicPortfolio("hidden"))
+            .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Public profile not found"));
+
+        mockMvc.perform(get("/p/hidden"))
+            .andExpect(status().isNotFound());
+
+        verify(portfolioPageService, never()).render(any(), any(), anyLong());
+    }
+
+    private PortfolioResponse portfolio(long version) {
+        PortfolioResponse portfolio = new PortfolioResponse();
+        portfolio.setFullName("Visible User");
+        portfolio.setVersion(version);
+        return portfolio;
+    }
+}
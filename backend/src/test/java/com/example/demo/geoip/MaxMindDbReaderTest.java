@@ -0,0 +1,62 @@
+package com.example.demo.geoip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MaxMindDbReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countryIsoCode_walksIpv4TreeAndFollowsKeyPointers() throws Exception {
+        Path db = tempDir.resolve("v4.mmdb");
+        new MaxMindDbTestWriter(4, 24)
+            .insert("81.2.69.0/24", "GB")
+            .insert("2.125.160.0/19", "FR")
+            .insert("89.160.0.0/16", "SE")
+            .write(db);
+
+        MaxMindDbReader reader = MaxMindDbReader.open(db);
+
+        assertThat(reader.databaseType()).isEqualTo("Test-Country");
+        assertThat(reader.countryIsoCode(address("81.2.69.142"))).contains("GB");
+        assertThat(reader.countryIsoCode(address("2.125.170.1"))).contains("FR");
+        assertThat(reader.countryIsoCode(address("89.160.20.112"))).contains("SE");
+        assertThat(reader.countryIsoCode(address("8.8.8.8"))).isEmpty();
+        assertThat(reader.countryIsoCode(address("2001:db8::1"))).isEmpty();
+    }
+
+    @Test
+    void countryIsoCode_readsIpv6TreeWith28BitRecords() throws Exception {
+        Path db = tempDir.resolve("v6.mmdb");
+        new MaxMindDbTestWriter(6, 28)
+            .insert("2001:218::/32", "JP")
+            .insert("81.2.69.0/24", "GB")
+            .write(db);
+
+        MaxMindDbReader reader = MaxMindDbReader.open(db);
+
+        assertThat(reader.countryIsoCode(address("2001:218:1:2::3"))).contains("JP");
+        assertThat(reader.countryIsoCode(address("81.2.69.1"))).contains("GB");
+        assertThat(reader.countryIsoCode(address("2001:db8::1"))).isEmpty();
+    }
+
+    @Test
+    void open_whenFileIsNotMaxMindDb_throws() throws Exception {
+        Path db = Files.write(tempDir.resolve("bad.mmdb"), new byte[] {1, 2, 3});
+
+        assertThatThrownBy(() -> MaxMindDbReader.open(db)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] address(String literal) throws Exception {
+        return InetAddress.getByName(literal).getAddress();
+    }
+}
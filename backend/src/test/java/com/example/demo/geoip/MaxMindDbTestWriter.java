@@ -0,0 +1,159 @@
+package com.example.demo.geoip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes small MaxMind DB files for tests: one {@code {country: {iso_code}}} record per country,
+ * repeated map keys stored once and referenced through pointers like real databases do.
+ */
+public final class MaxMindDbTestWriter {
+    private static final byte[] METADATA_MARKER = {
+        (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 'M', 'a', 'x', 'M', 'i', 'n', 'd', '.', 'c', 'o', 'm'
+    };
+
+    private static final class Node {
+        private final Object[] records = new Object[2];
+        private int number;
+    }
+
+    private final int ipVersion;
+    private final int recordSize;
+    private final Node root = new Node();
+    private final Map<String, Integer> countries = new LinkedHashMap<>();
+
+    public MaxMindDbTestWriter(int ipVersion, int recordSize) {
+        this.ipVersion = ipVersion;
+        this.recordSize = recordSize;
+    }
+
+    public MaxMindDbTestWriter insert(String cidr, String country) throws IOException {
+        String[] parts = cidr.split("/");
+        byte[] address = InetAddress.getByName(parts[0]).getAddress();
+        int prefix = Integer.parseInt(parts[1]);
+        int offsetBits = 0;
+        if (ipVersion == 6 && address.length == 4) {
+            offsetBits = 96;
+        }
+        countries.putIfAbsent(country, countries.size());
+
+        Node node = root;
+        int totalBits = offsetBits + prefix;
+        for (int i = 0; i < totalBits; i++) {
+            int bit = i < offsetBits ? 0 : (address[(i - offsetBits) >>> 3] >>> (7 - ((i - offsetBits) & 7))) & 1;
+            if (i == totalBits - 1) {
+                node.records[bit] = country;
+            } else {
+                if (!(node.records[bit] instanceof Node)) {
+                    node.records[bit] = new Node();
+                }
+                node = (Node) node.records[bit];
+            }
+        }
+        return this;
+    }
+
+    public void write(Path path) throws IOException {
+        List<Node> nodes = new ArrayList<>();
+        number(root, nodes);
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        Map<String, Integer> keyOffsets = new HashMap<>();
+        Map<String, Integer> recordOffsets = new HashMap<>();
+        for (String country : countries.keySet()) {
+            recordOffsets.put(country, data.size());
+            data.write(control(7, 1));
+            key(data, keyOffsets, "country");
+            data.write(control(7, 1));
+            key(data, keyOffsets, "iso_code");
+            string(data, country);
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (Node node : nodes) {
+            long left = recordValue(node.records[0], nodes.size(), recordOffsets);
+            long right = recordValue(node.records[1], nodes.size(), recordOffsets);
+            if (recordSize == 24) {
+                uint(file, left, 3);
+                uint(file, right, 3);
+            } else {
+                uint(file, left & 0xFFFFFF, 3);
+                file.write((int) (((left >>> 24) << 4) | (right >>> 24)));
+                uint(file, right & 0xFFFFFF, 3);
+            }
+        }
+        file.write(new byte[16]);
+        file.write(data.toByteArray());
+        file.write(METADATA_MARKER);
+        file.write(control(7, 4));
+        string(file, "node_count");
+        file.write(control(6, 4));
+        uint(file, nodes.size(), 4);
+        string(file, "record_size");
+        file.write(control(5, 2));
+        uint(file, recordSize, 2);
+        string(file, "ip_version");
+        file.write(control(5, 2));
+        uint(file, ipVersion, 2);
+        string(file, "database_type");
+        string(file, "Test-Country");
+        Files.write(path, file.toByteArray());
+    }
+
+    private static void number(Node node, List<Node> nodes) {
+        node.number = nodes.size();
+        nodes.add(node);
+        for (Object record : node.records) {
+            if (record instanceof Node child) {
+                number(child, nodes);
+            }
+        }
+    }
+
+    private static long recordValue(Object record, int nodeCount, Map<String, Integer> recordOffsets) {
+        if (record instanceof Node child) {
+            return child.number;
+        }
+        if (record instanceof String country) {
+            return nodeCount + 16L + recordOffsets.get(country);
+        }
+        return nodeCount;
+    }
+
+    private static void key(ByteArrayOutputStream out, Map<String, Integer> keyOffsets, String key) {
+        Integer offset = keyOffsets.get(key);
+        if (offset == null) {
+            keyOffsets.put(key, out.size());
+            string(out, key);
+            return;
+        }
+        // pointer with a one-byte payload, enough for the offsets used in tests
+        out.write((1 << 5) | ((offset >>> 8) & 0x7));
+        out.write(offset & 0xFF);
+    }
+
+    private static void string(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(control(2, bytes.length));
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static int control(int type, int size) {
+        return (type << 5) | size;
+    }
+
+    private static void uint(ByteArrayOutputStream out, long value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            out.write((int) (value >>> (8 * i)) & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedSegmentJournalTest {
+
+    private static final int RECORD_SIZE = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_returnsRecordsOfThePreviousRunInOrder() throws IOException {
+        MappedSegmentJournal first = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+        for (int i = 0; i < 10; i++) {
+            first.append(payload("event-" + i));
+        }
+        // segments of four records each, so the run spans three files
+
+        MappedSegmentJournal second = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+
+        assertThat(replayAll(second)).containsExactly(
+            "event-0", "event-1", "event-2", "event-3", "event-4",
+            "event-5", "event-6", "event-7", "event-8", "event-9");
+    }
+
+    @Test
+    void replay_ignoresAppendsOfTheCurrentRun() throws IOException {
+        MappedSegmentJournal journal = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+        journal.append(payload("fresh"));
+
+        assertThat(replayAll(journal)).isEmpty();
+    }
+
+    @Test
+    void release_deletesSealedSegmentsOnly() throws IOException {
+        MappedSegmentJournal journal = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+        journal.append(payload("committed"));
+        long sealed = journal.seal();
+        journal.append(payload("pending"));
+
+        assertThat(journal.release(sealed)).isEqualTo(1);
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(replayAll(MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE))).containsExactly("pending");
+    }
+
+    @Test
+    void seal_withoutNewRecords_keepsTheActiveSegment() throws IOException {
+        MappedSegmentJournal journal = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+
+        assertThat(journal.seal()).isEqualTo(journal.seal());
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void replay_skipsRecordsWithABadChecksum() throws IOException {
+        MappedSegmentJournal first = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+        first.append(payload("intact"));
+        first.append(payload("torn"));
+        first.append(payload("after"));
+        first.force();
+
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), RECORD_SIZE + 2);
+        }
+
+        MappedSegmentJournal second = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+        assertThat(replayAll(second)).containsExactly("intact", "after");
+        assertThat(second.corruptRecords()).isEqualTo(1);
+    }
+
+    @Test
+    void close_deletesAnEmptyActiveSegment() throws IOException {
+        MappedSegmentJournal journal = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+        journal.close();
+
+        assertThat(segmentFiles()).isEmpty();
+    }
+
+    @Test
+    void append_rejectsOversizedPayloads() throws IOException {
+        MappedSegmentJournal journal = MappedSegmentJournal.open(directory, RECORD_SIZE, 4 * RECORD_SIZE);
+
+        assertThatThrownBy(() -> journal.append(new byte[journal.payloadSize() + 1]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] payload(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[bytes.length + 1];
+        payload[0] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, payload, 1, bytes.length);
+        return payload;
+    }
+
+    private static List<String> replayAll(MappedSegmentJournal journal) throws IOException {
+        List<String> records = new ArrayList<>();
+        journal.replay(record -> {
+            byte[] bytes = new byte[record.get()];
+            record.get(bytes);
+            records.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return records;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import com.example.demo.models.PortfolioAnalytics;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AnalyticsCounterRepository.class, AnalyticsPercentileRepository.class})
+class AnalyticsCounterRepositoryIntegrationTest {
+
+    @Autowired
+    private AnalyticsCounterRepository counterRepository;
+    @Autowired
+    private PortfolioAnalyticsRepository analyticsRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void increment_insertsMissingRowsAndAddsToExistingOnes() {
+        PortfolioAnalytics existing = new PortfolioAnalytics();
+        existing.setUserId("a-1");
+        existing.setPublicViews(10);
+        existing.getMonthlyActivity().put("2026-09", 10L);
+        analyticsRepository.save(existing);
+        entityManager.flush();
+        entityManager.clear();
+
+        TreeMap<String, AnalyticsDelta> deltas = new TreeMap<>();
+        deltas.put("a-1", delta(AnalyticsEventType.PUBLIC_VIEWS, 3, Map.of("2026-09", 2L, "2026-10", 1L)));
+        deltas.put("a-2", delta(AnalyticsEventType.CV_DOWNLOADS, 2, Map.of("2026-10", 2L)));
+        counterRepository.increment(deltas);
+        counterRepository.increment(new TreeMap<>(Map.of("a-2", delta(AnalyticsEventType.CV_DOWNLOADS, 1, Map.of("2026-10", 1L)))));
+        entityManager.clear();
+
+        PortfolioAnalytics first = analyticsRepository.findById("a-1").orElseThrow();
+        assertThat(first.getPublicViews()).isEqualTo(13);
+        assertThat(first.getMonthlyActivity()).containsEntry("2026-09", 12L).containsEntry("2026-10", 1L);
+        PortfolioAnalytics second = analyticsRepository.findById("a-2").orElseThrow();
+        assertThat(second.getCvDownloads()).isEqualTo(3);
+        assertThat(second.getPublicViews()).isZero();
+        assertThat(second.getLastUpdated()).isNotNull();
+        assertThat(second.getMonthlyActivity()).containsEntry("2026-10", 3L);
+    }
+
+    @Test
+    void increment_addsHourlyCountsToHourDayAndMonthRollups() {
+        AnalyticsRollupRepository rollupRepository = new AnalyticsRollupRepository(jdbcTemplate);
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 17, 9, 0);
+        LocalDateTime evening = LocalDateTime.of(2026, 10, 17, 21, 0);
+        long[] morningCounts = new long[AnalyticsEventType.values().length];
+        morningCounts[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = 2;
+        long[] eveningCounts = new long[AnalyticsEventType.values().length];
+        eveningCounts[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = 3;
+        long[] totals = new long[AnalyticsEventType.values().length];
+        totals[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = 5;
+
+        AnalyticsDelta delta = new AnalyticsDelta(totals, Map.of("2026-10", 5L), Map.of(morning, morningCounts, evening, eveningCounts));
+        counterRepository.increment(new TreeMap<>(Map.of("r-1", delta)));
+        counterRepository.increment(new TreeMap<>(Map.of("r-1", delta)));
+
+        LocalDateTime day = LocalDateTime.of(2026, 10, 17, 0, 0);
+        assertThat(rollupRepository.findRange("r-1", RollupGranularity.HOUR, day, day.plusDays(1)))
+            .extracting(AnalyticsRollupRepository.RollupRow::count)
+            .containsExactly(4L, 6L);
+        assertThat(rollupRepository.findRange("r-1", RollupGranularity.DAY, day, day.plusDays(1)))
+            .extracting(AnalyticsRollupRepository.RollupRow::count)
+            .containsExactly(10L);
+        assertThat(rollupRepository.findRange("r-1", RollupGranularity.MONTH, day.withDayOfMonth(1), day.plusMonths(1)))
+            .singleElement()
+            .satisfies(row -> assertThat(row.eventType()).isEqualTo("publicViews"));
+
+        assertThat(rollupRepository.deleteOlderThan(RollupGranularity.HOUR, day.plusDays(1))).isEqualTo(2);
+        assertThat(rollupRepository.findRange("r-1", RollupGranularity.DAY, day, day.plusDays(1))).hasSize(1);
+    }
+
+    private AnalyticsDelta delta(AnalyticsEventType type, long count, Map<String, Long> monthly) {
+        long[] totals = new long[AnalyticsEventType.values().length];
+        totals[type.ordinal()] = count;
+        return new AnalyticsDelta(totals, monthly);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.analytics.AnalyticsEventRecord;
+import com.example.demo.enums.AnalyticsEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(AnalyticsEventRepository.class)
+class AnalyticsEventRepositoryIntegrationTest {
+
+    @Autowired
+    private AnalyticsEventRepository eventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertAll_writesEveryRowInOneStatementAndDeleteBeforeTrimsOldMonths() {
+        eventRepository.insertAll(List.of(
+            new AnalyticsEventRecord(LocalDateTime.of(2026, 8, 31, 23, 59), "e-1", AnalyticsEventType.PUBLIC_VIEWS, 42L, null),
+            new AnalyticsEventRecord(LocalDateTime.of(2026, 9, 1, 0, 0), "e-1", AnalyticsEventType.CV_DOWNLOADS, null, null),
+            new AnalyticsEventRecord(LocalDateTime.of(2026, 10, 17, 9, 30), "e-2", AnalyticsEventType.SHARE_CLICKS, null, "project-7")
+        ));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analytics_events", Long.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT viewer_hash FROM analytics_events WHERE event_type = 'publicViews'", Long.class)).isEqualTo(42L);
+
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT target_id FROM analytics_events WHERE event_type = 'shareClicks'", String.class)).isEqualTo("project-7");
+
+        assertThat(eventRepository.deleteBefore(YearMonth.of(2026, 9))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analytics_events", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void partitionName_encodesYearAndMonth() {
+        assertThat(AnalyticsEventRepository.partitionName(YearMonth.of(2026, 3))).isEqualTo("analytics_events_y2026m03");
+        assertThat(eventRepository.supportsPartitions()).isFalse();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// PostgreSQL-only statements; the H2 integration test cannot run them
+@ExtendWith(MockitoExtension.class)
+class AnalyticsEventRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AnalyticsEventRepository eventRepository;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = new AnalyticsEventRepository(jdbcTemplate);
+    }
+
+    @Test
+    void createMonthlyPartition_whenDefaultHoldsRowsOfThatMonth_movesThemBeforeAttaching() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("analytics_events_y2026m10"))).thenReturn(false);
+        when(jdbcTemplate.update(contains("DELETE FROM analytics_events_default"), any(Timestamp.class), any(Timestamp.class)))
+            .thenReturn(3);
+
+        int moved = eventRepository.createMonthlyPartition(YearMonth.of(2026, 10));
+
+        assertThat(moved).isEqualTo(3);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute(startsWith("LOCK TABLE analytics_events_default"));
+        order.verify(jdbcTemplate).execute("CREATE TABLE analytics_events_y2026m10 (LIKE analytics_events INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        order.verify(jdbcTemplate).update(
+            contains("INSERT INTO analytics_events_y2026m10"),
+            eq(Timestamp.valueOf(LocalDateTime.of(2026, 10, 1, 0, 0))),
+            eq(Timestamp.valueOf(LocalDateTime.of(2026, 11, 1, 0, 0)))
+        );
+        order.verify(jdbcTemplate).execute(
+            "ALTER TABLE analytics_events ATTACH PARTITION analytics_events_y2026m10 FOR VALUES FROM ('2026-10-01') TO ('2026-11-01')");
+        verify(jdbcTemplate, never()).execute(contains("PARTITION OF"));
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    void createMonthlyPartition_whenPartitionExists_leavesDefaultAlone() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("analytics_events_y2026m11"))).thenReturn(true);
+
+        int moved = eventRepository.createMonthlyPartition(YearMonth.of(2026, 11));
+
+        assertThat(moved).isEqualTo(-1);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+    }
+}
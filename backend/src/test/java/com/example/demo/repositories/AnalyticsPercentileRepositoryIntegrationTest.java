@@ -0,0 +1,68 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.sketches.LogHistogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AnalyticsCounterRepository.class, AnalyticsPercentileRepository.class})
+class AnalyticsPercentileRepositoryIntegrationTest {
+
+    private static final LocalDateTime OCTOBER = LocalDateTime.of(2026, 10, 17, 9, 0);
+    private static final LocalDateTime NOVEMBER = LocalDateTime.of(2026, 11, 2, 9, 0);
+
+    @Autowired
+    private AnalyticsCounterRepository counterRepository;
+    @Autowired
+    private AnalyticsPercentileRepository percentileRepository;
+
+    @Test
+    void flush_movesUsersBetweenBucketsAsTheirMonthCountsGrow() {
+        counterRepository.increment(new TreeMap<>(Map.of(
+            "p-1", views(OCTOBER, 3),
+            "p-2", views(OCTOBER, 40)
+        )));
+        counterRepository.increment(new TreeMap<>(Map.of("p-1", views(OCTOBER, 7))));
+
+        Map<Integer, Long> october = percentileRepository.findMonth("2026-10").get(AnalyticsEventType.PUBLIC_VIEWS.key());
+        assertThat(october.entrySet().stream().filter(entry -> entry.getValue() != 0))
+            .containsExactlyInAnyOrder(
+                Map.entry(LogHistogram.bucketOf(10), 1L),
+                Map.entry(LogHistogram.bucketOf(40), 1L)
+            );
+        assertThat(october).containsEntry(LogHistogram.bucketOf(3), 0L);
+    }
+
+    @Test
+    void flush_countsEachMonthAndEventTypeSeparately() {
+        long[] counts = new long[AnalyticsEventType.values().length];
+        counts[AnalyticsEventType.SHARE_CLICKS.ordinal()] = 2;
+        long[] totals = counts.clone();
+        totals[AnalyticsEventType.SHARE_CLICKS.ordinal()] = 4;
+        AnalyticsDelta delta = new AnalyticsDelta(totals, Map.of("2026-10", 2L, "2026-11", 2L),
+            Map.of(OCTOBER, counts, NOVEMBER, counts.clone()));
+
+        counterRepository.increment(new TreeMap<>(Map.of("p-3", delta)));
+
+        assertThat(percentileRepository.findMonth("2026-10"))
+            .containsOnlyKeys(AnalyticsEventType.SHARE_CLICKS.key());
+        assertThat(percentileRepository.findMonth("2026-11").get(AnalyticsEventType.SHARE_CLICKS.key()))
+            .containsExactly(Map.entry(LogHistogram.bucketOf(2), 1L));
+    }
+
+    private static AnalyticsDelta views(LocalDateTime hour, long count) {
+        long[] counts = new long[AnalyticsEventType.values().length];
+        counts[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = count;
+        return new AnalyticsDelta(counts.clone(), Map.of(hour.toLocalDate().toString().substring(0, 7), count), Map.of(hour, counts));
+    }
+}
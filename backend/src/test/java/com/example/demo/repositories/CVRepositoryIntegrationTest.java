@@ -1,6 +1,9 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.cv.CVSummary;
+import com.example.demo.dto.cv.ExperienceResponse;
 import com.example.demo.models.CV;
+import com.example.demo.models.Experience;
 import com.example.demo.models.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,8 @@ class CVRepositoryIntegrationTest {
     private CVRepository cvRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ExperienceRepository experienceRepository;
 
     @Test
     void findByUser_whenCvExists_returnsUserCv() {
@@ -60,6 +65,35 @@ class CVRepositoryIntegrationTest {
         assertThat(foundForSecondUser).isEmpty();
     }
 
+    @Test
+    void projections_returnCvColumnsSkillsAndExperiencesWithoutEntities() {
+        User user = saveUser("u5", "u5@example.com");
+        CV cv = new CV();
+        cv.setUser(user);
+        cv.setProfession("Data Engineer");
+        cv.setCity("Almaty");
+        cv.setSkills(List.of("Python", "Kafka"));
+        CV savedCv = cvRepository.saveAndFlush(cv);
+
+        Experience experience = new Experience();
+        experience.setCompany("Acme");
+        experience.setPosition("Engineer");
+        experience.setPeriod("2023 - 2024");
+        experience.setCv(savedCv);
+        experienceRepository.saveAndFlush(experience);
+
+        Optional<CVSummary> summary = cvRepository.findSummaryByUserId("u5");
+
+        assertThat(summary).isPresent();
+        assertThat(summary.get().profession()).isEqualTo("Data Engineer");
+        assertThat(summary.get().city()).isEqualTo("Almaty");
+        assertThat(cvRepository.findSkillsByCvId(savedCv.getId())).containsExactlyInAnyOrder("Python", "Kafka");
+        assertThat(cvRepository.findExperienceResponsesByCvId(savedCv.getId()))
+            .containsExactly(new ExperienceResponse(experience.getId(), "Acme", "Engineer", "2023 - 2024"));
+        assertThat(cvRepository.findEducationResponsesByCvId(savedCv.getId())).isEmpty();
+        assertThat(cvRepository.findSummaryByUserId("u2-missing")).isEmpty();
+    }
+
     private User saveUser(String id, String email) {
         User user = new User();
         user.setId(id);
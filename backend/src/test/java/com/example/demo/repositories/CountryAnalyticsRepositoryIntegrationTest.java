@@ -0,0 +1,34 @@
+package com.example.demo.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(CountryAnalyticsRepository.class)
+class CountryAnalyticsRepositoryIntegrationTest {
+
+    @Autowired
+    private CountryAnalyticsRepository countryRepository;
+
+    @Test
+    void increment_addsPerMonthAndCountry() {
+        countryRepository.increment(List.of(
+            new CountryAnalyticsRepository.CountryDelta("c-1", "2026-10", "DE", 2),
+            new CountryAnalyticsRepository.CountryDelta("c-1", "2026-10", "GB", 1),
+            new CountryAnalyticsRepository.CountryDelta("c-1", "2026-09", "DE", 5)
+        ));
+        countryRepository.increment(List.of(new CountryAnalyticsRepository.CountryDelta("c-1", "2026-10", "DE", 3)));
+
+        assertThat(countryRepository.findForMonth("c-1", "2026-10")).containsExactlyInAnyOrder(
+            new CountryAnalyticsRepository.CountryCount("DE", 5),
+            new CountryAnalyticsRepository.CountryCount("GB", 1)
+        );
+        assertThat(countryRepository.findForMonth("c-2", "2026-10")).isEmpty();
+    }
+}
@@ -6,6 +6,7 @@ import com.example.demo.models.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,11 +15,14 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
+@Import(NotificationWriteRepository.class)
 class NotificationRepositoryIntegrationTest {
 
     @Autowired
     private NotificationRepository notificationRepository;
     @Autowired
+    private NotificationWriteRepository notificationWriteRepository;
+    @Autowired
     private UserRepository userRepository;
 
     @Test
@@ -81,6 +85,20 @@ class NotificationRepositoryIntegrationTest {
         assertThat(result).allMatch(notification -> "n6".equals(notification.getUser().getId()));
     }
 
+    @Test
+    void insertIfAbsent_insertsOncePerUserAndType() {
+        saveUser("n8");
+
+        boolean first = notificationWriteRepository.insertIfAbsent("n8", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+        boolean second = notificationWriteRepository.insertIfAbsent("n8", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Other", "Other");
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(notificationRepository.findResponsesByUserId("n8"))
+            .singleElement()
+            .satisfies(response -> assertThat(response.title()).isEqualTo("Title"));
+    }
+
     private User saveUser(String id) {
         User user = new User();
         user.setId(id);
@@ -0,0 +1,202 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.dto.PortfolioSummary;
+import com.example.demo.models.CV;
+import com.example.demo.models.Certificate;
+import com.example.demo.models.Education;
+import com.example.demo.models.Experience;
+import com.example.demo.models.Project;
+import com.example.demo.models.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PortfolioQueryRepository.class)
+class PortfolioQueryRepositoryIntegrationTest {
+
+    @Autowired
+    private PortfolioQueryRepository portfolioQueryRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findPortfolio_loadsWholePortfolioInAtMostTwoStatements() {
+        User user = persistUser("p1", true);
+        CV cv = new CV();
+        cv.setUser(user);
+        cv.setProfession("Backend Engineer");
+        cv.setSkills(List.of("Java", "Spring", "SQL"));
+        entityManager.persist(cv);
+        persistExperience(cv, "Acme");
+        persistExperience(cv, "Globex");
+        persistEducation(cv, "IT University");
+        persistProject(user, "Portfolio API");
+        persistProject(user, "Analytics Service");
+        persistCertificate(user, "Java SE 17");
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        PortfolioResponse portfolio = portfolioQueryRepository.findPortfolio("p1", false).orElseThrow().portfolio();
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(portfolio.getFullName()).isEqualTo("Test User p1");
+        assertThat(portfolio.getCv().getProfession()).isEqualTo("Backend Engineer");
+        assertThat(portfolio.getCv().getSkills()).containsExactlyInAnyOrder("Java", "Spring", "SQL");
+        assertThat(portfolio.getCv().getExperiences()).extracting(Experience::getCompany).containsExactly("Acme", "Globex");
+        assertThat(portfolio.getCv().getEducations()).extracting(Education::getInstitution).containsExactly("IT University");
+        assertThat(portfolio.getProjects()).extracting(Project::getTitle).containsExactly("Portfolio API", "Analytics Service");
+        assertThat(portfolio.getProjects().get(0).getStartedAt()).isEqualTo(LocalDate.of(2025, 1, 15));
+        assertThat(portfolio.getProjects().get(0).isPinned()).isTrue();
+        assertThat(portfolio.getCertificates()).extracting(Certificate::getName).containsExactly("Java SE 17");
+        assertThat(portfolio.getCertificates().get(0).getImportance()).isEqualTo(3);
+    }
+
+    @Test
+    void findPortfolio_whenProfilePrivate_skipsChildQuery() {
+        persistUser("p2", false);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        PortfolioQueryRepository.LoadedPortfolio loaded = portfolioQueryRepository.findPortfolio("p2", false).orElseThrow();
+
+        assertThat(loaded.isPublic()).isFalse();
+        assertThat(loaded.portfolio()).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findPortfolio_whenUserMissing_returnsEmpty() {
+        assertThat(portfolioQueryRepository.findPortfolio("missing", false)).isEmpty();
+    }
+
+    @Test
+    void findPortfolio_withoutCv_returnsProjectsOnly() {
+        User user = persistUser("p3", true);
+        persistProject(user, "Solo Project");
+        entityManager.flush();
+        entityManager.clear();
+
+        PortfolioResponse portfolio = portfolioQueryRepository.findPortfolio("p3", false).orElseThrow().portfolio();
+
+        assertThat(portfolio.getCv()).isNull();
+        assertThat(portfolio.getProjects()).extracting(Project::getTitle).containsExactly("Solo Project");
+        assertThat(portfolio.getCertificates()).isEmpty();
+    }
+
+    @Test
+    void findPublicSummaries_loadsManyUsersInAtMostTwoStatements() {
+        for (int i = 0; i < 5; i++) {
+            User user = persistUser("s" + i, true);
+            persistProject(user, "Project " + i);
+            persistProject(user, "Second " + i);
+            persistCertificate(user, "Cert " + i);
+        }
+        User withCv = persistUser("s-cv", true);
+        CV cv = new CV();
+        cv.setUser(withCv);
+        cv.setProfession("Data Engineer");
+        cv.setCity("Almaty");
+        cv.setSkills(List.of("Kafka", "SQL"));
+        entityManager.persist(cv);
+        persistUser("s-private", false);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Map<String, PortfolioSummary> summaries = portfolioQueryRepository.findPublicSummaries(
+            List.of("s-cv", "s0", "s-private", "missing", "s1", "s2", "s3", "s4")
+        );
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(summaries.keySet()).containsExactly("s-cv", "s0", "s1", "s2", "s3", "s4");
+        assertThat(summaries.get("s0").projectCount()).isEqualTo(2);
+        assertThat(summaries.get("s0").certificateCount()).isEqualTo(1);
+        assertThat(summaries.get("s0").skills()).isEmpty();
+        PortfolioSummary cvSummary = summaries.get("s-cv");
+        assertThat(cvSummary.fullName()).isEqualTo("Test User s-cv");
+        assertThat(cvSummary.profession()).isEqualTo("Data Engineer");
+        assertThat(cvSummary.city()).isEqualTo("Almaty");
+        assertThat(cvSummary.skills()).containsExactlyInAnyOrder("Kafka", "SQL");
+        assertThat(cvSummary.projectCount()).isZero();
+    }
+
+    @Test
+    void findPublicSummaries_whenNoneVisible_issuesSingleStatement() {
+        persistUser("s-hidden", false);
+        entityManager.flush();
+        statistics.clear();
+
+        assertThat(portfolioQueryRepository.findPublicSummaries(List.of("s-hidden", "missing"))).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private User persistUser(String id, boolean isPublic) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setFullName("Test User " + id);
+        user.setPublic(isPublic);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private void persistExperience(CV cv, String company) {
+        Experience experience = new Experience();
+        experience.setCompany(company);
+        experience.setPosition("Engineer");
+        experience.setPeriod("2024");
+        experience.setCv(cv);
+        entityManager.persist(experience);
+    }
+
+    private void persistEducation(CV cv, String institution) {
+        Education education = new Education();
+        education.setInstitution(institution);
+        education.setDegree("BSc");
+        education.setYear("2021");
+        education.setCv(cv);
+        entityManager.persist(education);
+    }
+
+    private void persistProject(User user, String title) {
+        Project project = new Project();
+        project.setTitle(title);
+        project.setDescription("Description of " + title);
+        project.setStartedAt(LocalDate.of(2025, 1, 15));
+        project.setPinned(true);
+        project.setUser(user);
+        entityManager.persist(project);
+    }
+
+    private void persistCertificate(User user, String name) {
+        Certificate certificate = new Certificate();
+        certificate.setName(name);
+        certificate.setTitle(name);
+        certificate.setIssuedBy("Oracle");
+        certificate.setImportance(3);
+        certificate.setUser(user);
+        entityManager.persist(certificate);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.repositories;
+
+import com.example.demo.enums.AnalyticsTargetType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(TargetAnalyticsRepository.class)
+class TargetAnalyticsRepositoryIntegrationTest {
+
+    @Autowired
+    private TargetAnalyticsRepository targetRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, email, full_name, is_public) VALUES ('t-1', 't1@example.com', 'T One', TRUE)");
+        jdbcTemplate.update("INSERT INTO users (id, email, full_name, is_public) VALUES ('t-2', 't2@example.com', 'T Two', TRUE)");
+        jdbcTemplate.update("INSERT INTO projects (id, title, user_id) VALUES (501, 'Compiler', 't-1')");
+        jdbcTemplate.update("INSERT INTO projects (id, title, user_id) VALUES (502, 'Other owner', 't-2')");
+        jdbcTemplate.update("INSERT INTO certificates (id, name, title, user_id) VALUES (601, 'AWS', NULL, 't-1')");
+        jdbcTemplate.update("INSERT INTO certificates (id, name, title, user_id) VALUES (602, 'GCP', 'GCP Architect', 't-1')");
+    }
+
+    @Test
+    void increment_addsToExistingRowsAndFindForUserListsTheOwnersEntities() {
+        targetRepository.increment(List.of(
+            new TargetAnalyticsRepository.TargetDelta("t-1", AnalyticsTargetType.PROJECT, 501, 2),
+            new TargetAnalyticsRepository.TargetDelta("t-1", AnalyticsTargetType.CERTIFICATE, 601, 1)
+        ));
+        targetRepository.increment(List.of(
+            new TargetAnalyticsRepository.TargetDelta("t-1", AnalyticsTargetType.PROJECT, 501, 3),
+            // another owner's project and a deleted one are stored but never returned
+            new TargetAnalyticsRepository.TargetDelta("t-1", AnalyticsTargetType.PROJECT, 502, 9),
+            new TargetAnalyticsRepository.TargetDelta("t-1", AnalyticsTargetType.PROJECT, 999, 9)
+        ));
+
+        assertThat(targetRepository.findForUser("t-1")).containsExactlyInAnyOrder(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 501, "Compiler", 5),
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.CERTIFICATE, 601, "AWS", 1),
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.CERTIFICATE, 602, "GCP Architect", 0)
+        );
+        assertThat(targetRepository.findForUser("t-2")).containsExactly(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 502, "Other owner", 0)
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.repositories;
+
+import com.example.demo.repositories.UniqueVisitorRepository.MonthKey;
+import com.example.demo.sketches.HyperLogLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(UniqueVisitorRepository.class)
+class UniqueVisitorRepositoryIntegrationTest {
+
+    @Autowired
+    private UniqueVisitorRepository uniqueVisitorRepository;
+
+    @Test
+    void merge_insertsNewMonthsAndUnionsExistingOnes() {
+        uniqueVisitorRepository.merge(new TreeMap<>(Map.of(
+            new MonthKey("u-1", "2026-09"), sketch(0, 100),
+            new MonthKey("u-1", "2026-10"), sketch(50, 150)
+        )));
+        uniqueVisitorRepository.merge(new TreeMap<>(Map.of(
+            new MonthKey("u-1", "2026-10"), sketch(100, 200)
+        )));
+
+        assertThat(uniqueVisitorRepository.findUnion("u-1", "2026-10", "2026-10").orElseThrow().estimate())
+            .isBetween(145L, 155L);
+        assertThat(uniqueVisitorRepository.findUnion("u-1", "2026-01", "2026-12").orElseThrow().estimate())
+            .isBetween(194L, 206L);
+    }
+
+    @Test
+    void findUnion_whenNothingStored_isEmpty() {
+        assertThat(uniqueVisitorRepository.findUnion("u-missing", "2026-01", "2026-12")).isEmpty();
+    }
+
+    private static HyperLogLog sketch(int fromInclusive, int toExclusive) {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            sketch.offer("viewer-" + i);
+        }
+        return sketch;
+    }
+}
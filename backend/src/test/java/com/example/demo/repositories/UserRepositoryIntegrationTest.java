@@ -0,0 +1,52 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserRepositoryIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void incrementPortfolioVersion_survivesLaterEntitySave() {
+        User user = saveUser("v1", true);
+
+        userRepository.incrementPortfolioVersion("v1");
+        userRepository.incrementPortfolioVersion("v1");
+        user.setFullName("Renamed");
+        userRepository.saveAndFlush(user);
+        entityManager.clear();
+
+        assertThat(userRepository.findById("v1")).get()
+            .extracting(User::getPortfolioVersion)
+            .isEqualTo(2L);
+    }
+
+    @Test
+    void findPublicPortfolioVersion_whenProfilePrivate_returnsEmpty() {
+        saveUser("v2", false);
+        saveUser("v3", true);
+
+        assertThat(userRepository.findPublicPortfolioVersion("v2")).isEmpty();
+        assertThat(userRepository.findPublicPortfolioVersion("v3")).contains(0L);
+        assertThat(userRepository.findPublicPortfolioVersion("missing")).isEmpty();
+    }
+
+    private User saveUser(String id, boolean isPublic) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setFullName("Test User " + id);
+        user.setPublic(isPublic);
+        return userRepository.saveAndFlush(user);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.repositories.AnalyticsCounterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsCounterBufferTest {
+
+    @Mock
+    private AnalyticsCounterRepository counterRepository;
+    @Mock
+    private RedisAnalyticsCounterStore redisStore;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnalyticsCounterBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new AnalyticsCounterBuffer(counterRepository, redisStore, new AnalyticsJournal(meterRegistry), transactionManager, meterRegistry);
+    }
+
+    @Test
+    void flush_writesCoalescedDeltasInOneBatch() {
+        buffer.record("u-2", AnalyticsEventType.SHARE_CLICKS);
+        buffer.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+        buffer.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+        buffer.record("u-1", AnalyticsEventType.CV_DOWNLOADS);
+        buffer.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<SortedMap<String, AnalyticsDelta>> flushed = ArgumentCaptor.forClass(SortedMap.class);
+        verify(counterRepository).increment(flushed.capture());
+        String month = YearMonth.now(ZoneOffset.UTC).toString();
+        assertThat(flushed.getValue().keySet()).containsExactly("u-1", "u-2");
+        AnalyticsDelta first = flushed.getValue().get("u-1");
+        assertThat(first.get(AnalyticsEventType.PUBLIC_VIEWS)).isEqualTo(2);
+        assertThat(first.get(AnalyticsEventType.CV_DOWNLOADS)).isEqualTo(1);
+        assertThat(first.monthly()).containsEntry(month, 3L);
+        assertThat(flushed.getValue().get("u-2").get(AnalyticsEventType.SHARE_CLICKS)).isEqualTo(1);
+        assertThat(buffer.pendingEvents()).isZero();
+        assertThat(meterRegistry.get("analytics.writebehind.flushed.events").counter().count()).isEqualTo(4.0);
+    }
+
+    @Test
+    void flush_whenNothingPending_skipsDatabase() {
+        buffer.flush();
+
+        verify(counterRepository, never()).increment(any());
+    }
+
+    @Test
+    void flush_whenWriteFails_keepsDeltasForNextFlush() {
+        doThrow(new RuntimeException("db down")).when(counterRepository).increment(any());
+
+        buffer.record("u-1", AnalyticsEventType.SHARE_CLICKS);
+        buffer.flush();
+
+        assertThat(buffer.pendingEvents()).isEqualTo(1);
+        assertThat(buffer.pendingFor("u-1").orElseThrow().get(AnalyticsEventType.SHARE_CLICKS)).isEqualTo(1);
+        assertThat(meterRegistry.get("analytics.writebehind.pending.events").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("analytics.writebehind.flush.failures").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void flushOnShutdown_drainsPendingDeltas() {
+        buffer.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS);
+
+        buffer.flushOnShutdown();
+
+        verify(counterRepository).increment(any());
+        assertThat(buffer.pendingFor("u-1")).isEmpty();
+    }
+
+    @Test
+    void record_fromManyThreads_losesNoIncrements() throws InterruptedException {
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    buffer.record("hot", AnalyticsEventType.PUBLIC_VIEWS);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(buffer.pendingFor("hot").orElseThrow().get(AnalyticsEventType.PUBLIC_VIEWS))
+            .isEqualTo((long) threads * perThread);
+        assertThat(buffer.pendingEvents()).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    void record_whenWriteBehindDisabled_writesThroughWithoutJournal(@TempDir Path directory) throws IOException {
+        AnalyticsCounterBuffer writeThrough = journaledBuffer(directory);
+        ReflectionTestUtils.setField(writeThrough, "enabled", false);
+
+        writeThrough.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+        writeThrough.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+
+        verify(counterRepository, times(2)).increment(any());
+        assertThat(writeThrough.pendingEvents()).isZero();
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertThat(segments).hasSize(1);
+        }
+        AnalyticsCounterBuffer restarted = journaledBuffer(directory);
+        restarted.recover();
+        assertThat(restarted.pendingEvents()).isZero();
+    }
+
+    @Test
+    void record_whenWriteThroughFails_buffersForTheNextFlush() {
+        ReflectionTestUtils.setField(buffer, "enabled", false);
+        doThrow(new IllegalStateException("db down")).doNothing().when(counterRepository).increment(any());
+
+        buffer.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+        assertThat(buffer.pendingEvents()).isEqualTo(1);
+
+        buffer.flush();
+        assertThat(buffer.pendingEvents()).isZero();
+        verify(counterRepository, times(2)).increment(any());
+    }
+
+    @Test
+    void record_whenWriteThroughFailsInsideAnOuterTransaction_leavesTheOuterTransactionCommittable() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        try {
+            DataSourceTransactionManager realManager = new DataSourceTransactionManager(database);
+            AnalyticsCounterBuffer writeThrough =
+                new AnalyticsCounterBuffer(counterRepository, redisStore, new AnalyticsJournal(meterRegistry), realManager, meterRegistry);
+            ReflectionTestUtils.setField(writeThrough, "enabled", false);
+            doThrow(new IllegalStateException("db down")).when(counterRepository).increment(any());
+
+            // with a joined transaction the failed upsert would mark this one rollback-only and commit would throw
+            new TransactionTemplate(realManager).executeWithoutResult(status -> {
+                writeThrough.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+                assertThat(status.isRollbackOnly()).isFalse();
+            });
+
+            assertThat(writeThrough.pendingEvents()).isEqualTo(1);
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @Test
+    void record_whenRedisAcceptsIncrement_keepsNothingInMemory() {
+        when(redisStore.record(eq("user-1"), eq(AnalyticsEventType.PUBLIC_VIEWS), any(LocalDateTime.class))).thenReturn(true);
+
+        buffer.record("user-1", AnalyticsEventType.PUBLIC_VIEWS);
+
+        assertThat(buffer.pendingEvents()).isZero();
+    }
+
+    @Test
+    void pendingFor_mergesInMemoryAndRedisDeltas() {
+        String month = YearMonth.now(ZoneOffset.UTC).toString();
+        long[] redisTotals = new long[AnalyticsEventType.values().length];
+        redisTotals[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = 4;
+        when(redisStore.pendingFor("user-1")).thenReturn(Optional.of(new AnalyticsDelta(redisTotals, Map.of(month, 4L))));
+
+        buffer.record("user-1", AnalyticsEventType.PUBLIC_VIEWS);
+
+        AnalyticsDelta delta = buffer.pendingFor("user-1").orElseThrow();
+        assertThat(delta.get(AnalyticsEventType.PUBLIC_VIEWS)).isEqualTo(5);
+        assertThat(delta.monthly()).containsEntry(month, 5L);
+    }
+
+    @Test
+    void pendingFor_tracksHourlyCountsPerEventType() {
+        buffer.record("user-1", AnalyticsEventType.SHARE_CLICKS);
+        buffer.record("user-1", AnalyticsEventType.SHARE_CLICKS);
+
+        AnalyticsDelta delta = buffer.pendingFor("user-1").orElseThrow();
+
+        assertThat(delta.hourly()).hasSize(1);
+        long[] counts = delta.hourly().values().iterator().next();
+        assertThat(counts[AnalyticsEventType.SHARE_CLICKS.ordinal()]).isEqualTo(2);
+    }
+
+    @Test
+    void journal_replaysIncrementsLeftByACrashAndReleasesThemAfterCommit(@TempDir Path directory) {
+        AnalyticsCounterBuffer crashed = journaledBuffer(directory);
+        crashed.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+        crashed.record("u-1", AnalyticsEventType.PUBLIC_VIEWS);
+        crashed.record("u-2", AnalyticsEventType.CV_DOWNLOADS);
+        // no flush and no close: the process dies with the increments only in memory and the journal
+
+        AnalyticsCounterBuffer restarted = journaledBuffer(directory);
+        restarted.recover();
+        assertThat(restarted.pendingEvents()).isEqualTo(3);
+        restarted.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<SortedMap<String, AnalyticsDelta>> flushed = ArgumentCaptor.forClass(SortedMap.class);
+        verify(counterRepository).increment(flushed.capture());
+        assertThat(flushed.getValue().get("u-1").get(AnalyticsEventType.PUBLIC_VIEWS)).isEqualTo(2);
+        assertThat(flushed.getValue().get("u-2").get(AnalyticsEventType.CV_DOWNLOADS)).isEqualTo(1);
+
+        AnalyticsCounterBuffer afterCommit = journaledBuffer(directory);
+        afterCommit.recover();
+        assertThat(afterCommit.pendingEvents()).isZero();
+    }
+
+    @Test
+    void journal_keepsSegmentsWhenTheFlushFails(@TempDir Path directory) {
+        doThrow(new IllegalStateException("db down")).when(counterRepository).increment(any());
+        AnalyticsCounterBuffer failing = journaledBuffer(directory);
+        failing.record("u-1", AnalyticsEventType.SHARE_CLICKS);
+        failing.flush();
+
+        AnalyticsCounterBuffer restarted = journaledBuffer(directory);
+        restarted.recover();
+
+        assertThat(restarted.pendingFor("u-1").orElseThrow().get(AnalyticsEventType.SHARE_CLICKS)).isEqualTo(1);
+    }
+
+    private AnalyticsCounterBuffer journaledBuffer(Path directory) {
+        AnalyticsJournal journal = new AnalyticsJournal(meterRegistry);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentBytes", 4096);
+        journal.open();
+        return new AnalyticsCounterBuffer(counterRepository, redisStore, journal, transactionManager, meterRegistry);
+    }
+}
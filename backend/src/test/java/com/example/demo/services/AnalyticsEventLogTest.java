@@ -0,0 +1,99 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsEventRecord;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.repositories.AnalyticsEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsEventLogTest {
+    @Mock
+    private AnalyticsEventRepository eventRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnalyticsEventLog eventLog;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        eventLog = new AnalyticsEventLog(eventRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void flush_writesQueuedEventsInBatchesWithHashedViewer() {
+        ReflectionTestUtils.setField(eventLog, "batchSize", 2);
+        List<List<AnalyticsEventRecord>> batches = new ArrayList<>();
+        doAnswer(invocation -> batches.add(List.copyOf(invocation.getArgument(0))))
+            .when(eventRepository).insertAll(any());
+
+        eventLog.append("owner-1", AnalyticsEventType.PUBLIC_VIEWS, "1.1.1.1|agent");
+        eventLog.append("owner-1", AnalyticsEventType.SHARE_CLICKS, null);
+        eventLog.append("owner-2", AnalyticsEventType.CV_DOWNLOADS, null);
+        eventLog.flush();
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(batches.get(0).get(0).viewerHash()).isNotNull();
+        assertThat(batches.get(0).get(1).viewerHash()).isNull();
+        assertThat(eventLog.pending()).isZero();
+        assertThat(meterRegistry.counter("analytics.eventlog.written").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void append_whenQueueFull_dropsAndCounts() {
+        ReflectionTestUtils.setField(eventLog, "maxPending", 1);
+
+        eventLog.append("owner-1", AnalyticsEventType.PUBLIC_VIEWS, null);
+        eventLog.append("owner-1", AnalyticsEventType.PUBLIC_VIEWS, null);
+
+        assertThat(eventLog.pending()).isEqualTo(1);
+        assertThat(meterRegistry.counter("analytics.eventlog.dropped").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void flush_whenInsertFails_requeuesForNextFlush() {
+        doThrow(new IllegalStateException("db down")).doNothing().when(eventRepository).insertAll(any());
+
+        eventLog.append("owner-1", AnalyticsEventType.PUBLIC_VIEWS, null);
+        eventLog.flush();
+        assertThat(eventLog.pending()).isEqualTo(1);
+
+        eventLog.flush();
+
+        verify(eventRepository, times(2)).insertAll(any());
+        assertThat(eventLog.pending()).isZero();
+    }
+
+    @Test
+    void append_whenDisabled_queuesNothing() {
+        ReflectionTestUtils.setField(eventLog, "enabled", false);
+
+        eventLog.append("owner-1", AnalyticsEventType.PUBLIC_VIEWS, null);
+        eventLog.flush();
+
+        verify(eventRepository, never()).insertAll(any());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo.services;
+
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.models.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsIngestionServiceTest {
+    @Mock
+    private AnalyticsService analyticsService;
+    @Mock
+    private UserService userService;
+    @Mock
+    private PublicProfileNegativeCache negativeCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnalyticsIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        ingestionService = new AnalyticsIngestionService(analyticsService, userService, negativeCache, transactionManager, 4, meterRegistry);
+    }
+
+    @Test
+    void acceptPublicView_whenKnownAbsent_rejectsBeforeQueueing() {
+        when(negativeCache.isKnownAbsent("scraped-id")).thenReturn(true);
+
+        assertThatThrownBy(() -> ingestionService.acceptPublicView("scraped-id", "viewer-1"))
+            .isInstanceOf(ResponseStatusException.class);
+        assertThat(ingestionService.queued()).isZero();
+    }
+
+    @Test
+    void acceptMyEvent_whenKeyUnsupported_throwsBadRequest() {
+        assertThatThrownBy(() -> ingestionService.acceptMyEvent("owner-1", "o@example.com", "publicViews"))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void drainOnce_appliesQueuedEventsThroughAnalyticsService() {
+        User owner = new User();
+        owner.setId("owner-1");
+        when(userService.getOrCreateUser("owner-1", "o@example.com", "User")).thenReturn(owner);
+        when(analyticsService.recordPublicViews(eq("owner-2"), anyList())).thenReturn(true);
+
+        ingestionService.acceptPublicView("owner-2", "viewer-1");
+        ingestionService.acceptMyEvent("owner-1", "o@example.com", "shareClicks");
+        ingestionService.acceptPublicView("owner-2", "viewer-2");
+        ingestionService.acceptMyEvent("owner-1", "o@example.com", "cvDownloads");
+
+        assertThat(ingestionService.drainOnce()).isEqualTo(4);
+        verify(analyticsService).recordPublicViews("owner-2", List.of("viewer-1", "viewer-2"));
+        verify(userService).getOrCreateUser("owner-1", "o@example.com", "User");
+        verify(analyticsService).recordMyEvent(owner, AnalyticsEventType.SHARE_CLICKS.key());
+        verify(analyticsService).recordMyEvent(owner, AnalyticsEventType.CV_DOWNLOADS.key());
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertThat(ingestionService.queued()).isZero();
+    }
+
+    @Test
+    void stop_drainsEveryBatchLeftInTheBuffer() {
+        AnalyticsIngestionService large = new AnalyticsIngestionService(analyticsService, userService, negativeCache, transactionManager, 64, meterRegistry);
+        ReflectionTestUtils.setField(large, "batchSize", 8);
+        when(analyticsService.recordPublicViews(any(), anyList())).thenReturn(true);
+        for (int i = 0; i < 50; i++) {
+            large.acceptPublicView("owner-" + (i % 5), "viewer-" + i);
+        }
+
+        large.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> applied = ArgumentCaptor.forClass(List.class);
+        verify(analyticsService, atLeastOnce()).recordPublicViews(any(), applied.capture());
+        assertThat(applied.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(50);
+        assertThat(large.queued()).isZero();
+        // six full batches touch all five owners, the last one two
+        verify(transactionManager, times(32)).getTransaction(any());
+    }
+
+    @Test
+    void drainOnce_whenOneOwnerFails_commitsTheOthersAndCountsTheFailureOnce() {
+        when(analyticsService.recordPublicViews("owner-bad", List.of("viewer-1", "viewer-2")))
+            .thenThrow(new IllegalStateException("db down"));
+        when(analyticsService.recordPublicViews("owner-good", List.of("viewer-1"))).thenReturn(true);
+
+        ingestionService.acceptPublicView("owner-bad", "viewer-1");
+        ingestionService.acceptPublicView("owner-good", "viewer-1");
+        ingestionService.acceptPublicView("owner-bad", "viewer-2");
+
+        assertThat(ingestionService.drainOnce()).isEqualTo(3);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        assertThat(meterRegistry.counter("analytics.ingest.failed").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void acceptPublicView_whenBufferFull_dropsAndCounts() {
+        for (int i = 0; i < 6; i++) {
+            ingestionService.acceptPublicView("owner-1", "viewer-" + i);
+        }
+
+        assertThat(ingestionService.queued()).isEqualTo(4);
+        assertThat(meterRegistry.counter("analytics.ingest.accepted").count()).isEqualTo(4.0);
+        assertThat(meterRegistry.counter("analytics.ingest.dropped").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void drainOnce_whenProfileTurnedPrivate_dropsItsViewsAndContinues() {
+        when(analyticsService.recordPublicViews("owner-private", List.of("viewer-1"))).thenReturn(false);
+        when(analyticsService.recordPublicViews("owner-public", List.of("viewer-1"))).thenReturn(true);
+
+        ingestionService.acceptPublicView("owner-private", "viewer-1");
+        ingestionService.acceptPublicView("owner-public", "viewer-1");
+
+        assertThat(ingestionService.drainOnce()).isEqualTo(2);
+        verify(analyticsService).recordPublicViews("owner-public", List.of("viewer-1"));
+        assertThat(meterRegistry.counter("analytics.ingest.failed").count()).isZero();
+    }
+}
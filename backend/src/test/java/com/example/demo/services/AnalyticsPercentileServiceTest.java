@@ -0,0 +1,115 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import com.example.demo.repositories.AnalyticsPercentileRepository;
+import com.example.demo.repositories.AnalyticsRollupRepository;
+import com.example.demo.repositories.AnalyticsRollupRepository.RollupRow;
+import com.example.demo.sketches.LogHistogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsPercentileServiceTest {
+
+    @Mock
+    private AnalyticsPercentileRepository percentileRepository;
+    @Mock
+    private AnalyticsRollupRepository rollupRepository;
+
+    private AnalyticsPercentileService percentileService;
+    private String monthKey;
+    private LocalDateTime monthStart;
+
+    @BeforeEach
+    void setUp() {
+        percentileService = new AnalyticsPercentileService(percentileRepository, rollupRepository);
+        monthStart = RollupGranularity.MONTH.bucketStart(LocalDateTime.now(ZoneOffset.UTC));
+        monthKey = YearMonth.from(monthStart).toString();
+    }
+
+    @Test
+    void percentilesThisMonth_ranksStoredPlusPendingCountsAgainstTheMonthHistogram() {
+        Map<Integer, Long> views = new HashMap<>();
+        for (long count = 1; count <= 100; count++) {
+            views.merge(LogHistogram.bucketOf(count), 1L, Long::sum);
+        }
+        when(percentileRepository.findMonth(monthKey)).thenReturn(Map.of(AnalyticsEventType.PUBLIC_VIEWS.key(), views));
+        when(rollupRepository.findRange("owner-1", RollupGranularity.MONTH, monthStart, monthStart.plusMonths(1)))
+            .thenReturn(List.of(new RollupRow(monthStart, AnalyticsEventType.PUBLIC_VIEWS.key(), 85)));
+        long[] pending = new long[AnalyticsEventType.values().length];
+        pending[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = 5;
+        long[] lastMonth = pending.clone();
+        lastMonth[AnalyticsEventType.PUBLIC_VIEWS.ordinal()] = 1_000;
+        AnalyticsDelta delta = new AnalyticsDelta(new long[AnalyticsEventType.values().length], Map.of(),
+            Map.of(monthStart.plusHours(3), pending, monthStart.minusHours(1), lastMonth));
+
+        Map<String, Double> percentiles = percentileService.percentilesThisMonth("owner-1", Map.of(monthKey, 85L), delta);
+
+        assertThat(percentiles).containsOnlyKeys(AnalyticsEventType.PUBLIC_VIEWS.key());
+        assertThat(percentiles.get(AnalyticsEventType.PUBLIC_VIEWS.key())).isBetween(88.0, 91.0);
+    }
+
+    @Test
+    void percentilesThisMonth_reusesTheLoadedHistogramsWithinTheTtl() {
+        when(percentileRepository.findMonth(monthKey))
+            .thenReturn(Map.of(AnalyticsEventType.SHARE_CLICKS.key(), Map.of(LogHistogram.bucketOf(2), 3L)));
+        when(rollupRepository.findRange(anyString(), eq(RollupGranularity.MONTH), any(), any())).thenReturn(List.of());
+
+        assertThat(percentileService.percentilesThisMonth("owner-1", Map.of(monthKey, 1L), null))
+            .containsEntry(AnalyticsEventType.SHARE_CLICKS.key(), 0.0);
+        percentileService.percentilesThisMonth("owner-2", Map.of(monthKey, 1L), null);
+
+        verify(percentileRepository, times(1)).findMonth(monthKey);
+    }
+
+    @Test
+    void percentilesThisMonth_whenNobodyHasEventsYet_skipsTheOwnerQuery() {
+        when(percentileRepository.findMonth(monthKey)).thenReturn(Map.of());
+
+        assertThat(percentileService.percentilesThisMonth("owner-1", Map.of(monthKey, 5L), null)).isEmpty();
+        verify(rollupRepository, never()).findRange(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void percentilesThisMonth_whenNothingIsStoredThisMonth_ranksPendingCountsWithoutTheRollupRead() {
+        when(percentileRepository.findMonth(monthKey))
+            .thenReturn(Map.of(AnalyticsEventType.SHARE_CLICKS.key(), Map.of(LogHistogram.bucketOf(2), 3L)));
+        long[] pending = new long[AnalyticsEventType.values().length];
+        pending[AnalyticsEventType.SHARE_CLICKS.ordinal()] = 10;
+        AnalyticsDelta delta = new AnalyticsDelta(new long[AnalyticsEventType.values().length], Map.of(),
+            Map.of(monthStart.plusHours(1), pending));
+
+        Map<String, Double> percentiles = percentileService.percentilesThisMonth("owner-1", Map.of("2020-01", 40L), delta);
+
+        assertThat(percentiles).containsEntry(AnalyticsEventType.SHARE_CLICKS.key(), 100.0);
+        verify(rollupRepository, never()).findRange(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void percentilesThisMonth_whenTheLoadFails_answersWithoutBenchmarks() {
+        when(percentileRepository.findMonth(monthKey)).thenThrow(new IllegalStateException("db down"));
+
+        assertThat(percentileService.percentilesThisMonth("owner-1", Map.of(monthKey, 5L), null)).isEmpty();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.dto.analytics.AnalyticsSeriesResponse;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.RollupGranularity;
+import com.example.demo.repositories.AnalyticsRollupRepository;
+import com.example.demo.repositories.AnalyticsRollupRepository.RollupRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupServiceTest {
+
+    @Mock
+    private AnalyticsRollupRepository rollupRepository;
+    @Mock
+    private AnalyticsCounterBuffer counterBuffer;
+
+    @InjectMocks
+    private AnalyticsRollupService rollupService;
+
+    @Test
+    void series_returnsDensePointsWithStoredAndPendingCounts() {
+        LocalDateTime from = LocalDateTime.of(2026, 10, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 10, 3, 12, 30);
+        when(rollupRepository.findRange("owner-1", RollupGranularity.DAY, from, LocalDateTime.of(2026, 10, 4, 0, 0)))
+            .thenReturn(List.of(new RollupRow(LocalDateTime.of(2026, 10, 2, 0, 0), "publicViews", 7)));
+        long[] pending = new long[AnalyticsEventType.values().length];
+        pending[AnalyticsEventType.CV_DOWNLOADS.ordinal()] = 2;
+        when(counterBuffer.pendingFor("owner-1")).thenReturn(Optional.of(new AnalyticsDelta(
+            new long[AnalyticsEventType.values().length], Map.of(), Map.of(LocalDateTime.of(2026, 10, 3, 11, 0), pending)
+        )));
+
+        AnalyticsSeriesResponse series = rollupService.series("owner-1", from, to, "day");
+
+        assertThat(series.granularity()).isEqualTo("day");
+        assertThat(series.points()).hasSize(3);
+        assertThat(series.points().get(0).counts()).containsEntry("publicViews", 0L).containsKey("cvDownloads");
+        assertThat(series.points().get(1).counts()).containsEntry("publicViews", 7L);
+        assertThat(series.points().get(2).counts()).containsEntry("cvDownloads", 2L);
+    }
+
+    @Test
+    void series_whenGranularityUnknown_throwsBadRequest() {
+        assertThatThrownBy(() -> rollupService.series("owner-1", null, null, "week"))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void series_whenRangeHasTooManyPoints_throwsBadRequestWithoutQuery() {
+        LocalDateTime to = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+        assertThatThrownBy(() -> rollupService.series("owner-1", to.minusYears(1), to, "hour"))
+            .isInstanceOf(ResponseStatusException.class);
+        verify(rollupRepository, never()).findRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void compact_prunesHourlyAndDailyRowsPastRetention() {
+        rollupService.compact();
+
+        verify(rollupRepository).deleteOlderThan(eq(RollupGranularity.HOUR), any());
+        verify(rollupRepository).deleteOlderThan(eq(RollupGranularity.DAY), any());
+        verify(rollupRepository, never()).deleteOlderThan(eq(RollupGranularity.MONTH), any());
+    }
+}
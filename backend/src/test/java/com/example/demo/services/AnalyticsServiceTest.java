@@ -1,28 +1,35 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.dto.analytics.AnalyticsEventBatchRequest;
+import com.example.demo.dto.analytics.AnalyticsResponse;
+import com.example.demo.enums.AnalyticsEventType;
 import com.example.demo.models.PortfolioAnalytics;
 import com.example.demo.models.User;
 import com.example.demo.repositories.PortfolioAnalyticsRepository;
 import com.example.demo.repositories.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.http.HttpStatus;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,9 +41,23 @@ class AnalyticsServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private PublicProfileNegativeCache negativeCache;
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private AnalyticsCounterBuffer counterBuffer;
+    @Mock
+    private PublicViewDeduplicator publicViewDeduplicator;
+    @Mock
+    private UniqueVisitorService uniqueVisitorService;
+    @Mock
+    private AnalyticsEventLog eventLog;
+    @Mock
+    private TrendingPortfolioService trendingService;
+    @Mock
+    private TargetAnalyticsService targetAnalyticsService;
+    @Mock
+    private CountryAnalyticsService countryAnalyticsService;
+    @Mock
+    private AnalyticsPercentileService percentileService;
 
     @InjectMocks
     private AnalyticsService analyticsService;
@@ -53,6 +74,15 @@ class AnalyticsServiceTest {
             });
     }
 
+    @Test
+    void incrementPublicView_whenKnownAbsent_throwsWithoutQuery() {
+        when(negativeCache.isKnownAbsent("scraped-id")).thenReturn(true);
+
+        assertThatThrownBy(() -> analyticsService.incrementPublicView("scraped-id", "viewer-1"))
+            .isInstanceOf(ResponseStatusException.class);
+        verify(userRepository, never()).findById(anyString());
+    }
+
     @Test
     void incrementPublicView_whenOwnerPrivate_throwsNotFound() {
         User owner = new User();
@@ -74,18 +104,16 @@ class AnalyticsServiceTest {
         owner.setId("owner-public");
         owner.setPublic(true);
 
-        PortfolioAnalytics analytics = new PortfolioAnalytics();
-        analytics.setUserId("owner-public");
-        analytics.setPublicViews(5);
-
         when(userRepository.findById("owner-public")).thenReturn(Optional.of(owner));
-        when(analyticsRepository.findById("owner-public")).thenReturn(Optional.of(analytics));
-        when(analyticsRepository.save(any(PortfolioAnalytics.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         analyticsService.incrementPublicView("owner-public", "viewer-1");
 
-        assertThat(analytics.getPublicViews()).isEqualTo(6);
-        verify(analyticsRepository).save(analytics);
+        verify(counterBuffer).record("owner-public", AnalyticsEventType.PUBLIC_VIEWS);
+        verify(uniqueVisitorService).record("owner-public", "viewer-1");
+        verify(eventLog).append("owner-public", AnalyticsEventType.PUBLIC_VIEWS, "viewer-1");
+        verify(trendingService).record("owner-public");
+        verify(countryAnalyticsService).record("owner-public", "viewer-1");
+        verify(analyticsRepository, never()).save(any(PortfolioAnalytics.class));
     }
 
     @Test
@@ -94,19 +122,13 @@ class AnalyticsServiceTest {
         owner.setId("owner-public");
         owner.setPublic(true);
 
-        PortfolioAnalytics analytics = new PortfolioAnalytics();
-        analytics.setUserId("owner-public");
-        analytics.setPublicViews(10);
-
         when(userRepository.findById("owner-public")).thenReturn(Optional.of(owner));
-        when(analyticsRepository.findById("owner-public")).thenReturn(Optional.of(analytics));
-        when(analyticsRepository.save(any(PortfolioAnalytics.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(publicViewDeduplicator.isDuplicate("owner-public", "viewer-1")).thenReturn(false, true);
 
         analyticsService.incrementPublicView("owner-public", "viewer-1");
         analyticsService.incrementPublicView("owner-public", "viewer-1");
 
-        assertThat(analytics.getPublicViews()).isEqualTo(11);
-        verify(analyticsRepository).save(analytics);
+        verify(counterBuffer, times(1)).record("owner-public", AnalyticsEventType.PUBLIC_VIEWS);
     }
 
     @Test
@@ -114,71 +136,82 @@ class AnalyticsServiceTest {
         User user = new User();
         user.setId("owner-public");
 
-        PortfolioAnalytics analytics = new PortfolioAnalytics();
-        analytics.setUserId("owner-public");
-        when(analyticsRepository.findById("owner-public")).thenReturn(Optional.of(analytics));
-
         assertThatThrownBy(() -> analyticsService.incrementMyEvent(user, "unknown"))
             .isInstanceOf(ResponseStatusException.class)
             .satisfies(ex -> {
                 ResponseStatusException responseStatusException = (ResponseStatusException) ex;
                 assertThat(responseStatusException.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
             });
-        verify(analyticsRepository, never()).save(any(PortfolioAnalytics.class));
+        verify(counterBuffer, never()).record(anyString(), any());
     }
 
     @Test
-    void incrementPublicView_whenRedisDedupeEnabled_skipsDuplicate() {
-        User owner = new User();
-        owner.setId("owner-public");
-        owner.setPublic(true);
+    void incrementMyEvent_buffersIncrementAndReturnsStoredPlusPendingTotals() {
+        User user = new User();
+        user.setId("owner-public");
 
         PortfolioAnalytics analytics = new PortfolioAnalytics();
         analytics.setUserId("owner-public");
-        analytics.setPublicViews(7);
+        analytics.setShareClicks(4);
+        analytics.getMonthlyActivity().put("2026-01", 4L);
+        long[] pending = new long[AnalyticsEventType.values().length];
+        pending[AnalyticsEventType.SHARE_CLICKS.ordinal()] = 2;
 
-        when(userRepository.findById("owner-public")).thenReturn(Optional.of(owner));
         when(analyticsRepository.findById("owner-public")).thenReturn(Optional.of(analytics));
-        when(analyticsRepository.save(any(PortfolioAnalytics.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenReturn(true)
-            .thenReturn(false);
-
-        ReflectionTestUtils.setField(analyticsService, "redisTemplate", redisTemplate);
-        ReflectionTestUtils.setField(analyticsService, "redisDedupeEnabled", true);
-
-        analyticsService.incrementPublicView("owner-public", "viewer-1");
-        analyticsService.incrementPublicView("owner-public", "viewer-1");
-
-        assertThat(analytics.getPublicViews()).isEqualTo(8);
-        verify(analyticsRepository).save(analytics);
+        AnalyticsDelta delta = new AnalyticsDelta(pending, Map.of("2026-01", 2L));
+        when(counterBuffer.pendingFor("owner-public")).thenReturn(Optional.of(delta));
+        when(percentileService.percentilesThisMonth("owner-public", analytics.getMonthlyActivity(), delta))
+            .thenReturn(Map.of("shareClicks", 75.0));
+
+        AnalyticsResponse response = analyticsService.incrementMyEvent(user, "shareClicks");
+
+        verify(counterBuffer).record("owner-public", AnalyticsEventType.SHARE_CLICKS);
+        verify(eventLog).append("owner-public", AnalyticsEventType.SHARE_CLICKS, null);
+        assertThat(response.getShareClicks()).isEqualTo(6);
+        assertThat(response.getMonthlyActivity()).containsEntry("2026-01", 6L);
+        assertThat(analytics.getShareClicks()).isEqualTo(4);
+        assertThat(response.getPercentilesThisMonth()).containsEntry("shareClicks", 75.0);
+        verify(counterBuffer, times(1)).pendingFor("owner-public");
     }
 
     @Test
-    void incrementPublicView_whenRedisDedupeFails_fallsBackToInMemory() {
-        User owner = new User();
-        owner.setId("owner-public");
-        owner.setPublic(true);
-
-        PortfolioAnalytics analytics = new PortfolioAnalytics();
-        analytics.setUserId("owner-public");
-        analytics.setPublicViews(3);
+    void recordMyEvents_recordsEveryEventWithTargetAndClampedTimestamp() {
+        User user = new User();
+        user.setId("owner-public");
+        AnalyticsEventBatchRequest.Event recent = batchEvent("projectDetailViews", "project-1", System.currentTimeMillis() - 60_000L);
+        AnalyticsEventBatchRequest.Event ancient = batchEvent("cvDownloads", null, 0L);
+
+        analyticsService.recordMyEvents(user, List.of(recent, ancient));
+
+        verify(counterBuffer).record("owner-public", AnalyticsEventType.PROJECT_DETAIL_VIEWS);
+        verify(counterBuffer).record("owner-public", AnalyticsEventType.CV_DOWNLOADS);
+        ArgumentCaptor<LocalDateTime> occurredAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(eventLog).appendOwnerEvent(eq("owner-public"), eq(AnalyticsEventType.PROJECT_DETAIL_VIEWS), eq("project-1"), occurredAt.capture());
+        verify(eventLog).appendOwnerEvent(eq("owner-public"), eq(AnalyticsEventType.CV_DOWNLOADS), eq(null), occurredAt.capture());
+        verify(targetAnalyticsService).record("owner-public", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "project-1");
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        assertThat(occurredAt.getAllValues().get(0)).isBetween(now.minusMinutes(2), now.minusSeconds(30));
+        assertThat(occurredAt.getAllValues().get(1)).isAfter(now.minusMinutes(1));
+    }
 
-        when(userRepository.findById("owner-public")).thenReturn(Optional.of(owner));
-        when(analyticsRepository.findById("owner-public")).thenReturn(Optional.of(analytics));
-        when(analyticsRepository.save(any(PortfolioAnalytics.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenThrow(new RuntimeException("redis unavailable"));
+    @Test
+    void recordMyEvents_whenAnyKeyUnsupported_recordsNothing() {
+        User user = new User();
+        user.setId("owner-public");
 
-        ReflectionTestUtils.setField(analyticsService, "redisTemplate", redisTemplate);
-        ReflectionTestUtils.setField(analyticsService, "redisDedupeEnabled", true);
+        assertThatThrownBy(() -> analyticsService.recordMyEvents(user, List.of(
+            batchEvent("shareClicks", null, null),
+            batchEvent("publicViews", null, null)
+        ))).isInstanceOf(ResponseStatusException.class);
 
-        analyticsService.incrementPublicView("owner-public", "viewer-1");
-        analyticsService.incrementPublicView("owner-public", "viewer-1");
+        verify(counterBuffer, never()).record(anyString(), any());
+    }
 
-        assertThat(analytics.getPublicViews()).isEqualTo(4);
-        verify(analyticsRepository).save(analytics);
+    private static AnalyticsEventBatchRequest.Event batchEvent(String type, String targetId, Long clientTimestamp) {
+        AnalyticsEventBatchRequest.Event event = new AnalyticsEventBatchRequest.Event();
+        event.setType(type);
+        event.setTargetId(targetId);
+        event.setClientTimestamp(clientTimestamp);
+        return event;
     }
 }
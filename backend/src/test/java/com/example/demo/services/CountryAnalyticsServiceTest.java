@@ -0,0 +1,130 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.CountryBreakdownResponse;
+import com.example.demo.repositories.CountryAnalyticsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CountryAnalyticsServiceTest {
+
+    @Mock
+    private GeoIpService geoIpService;
+    @Mock
+    private CountryAnalyticsRepository countryRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CountryAnalyticsService countryService;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryAnalyticsService(geoIpService, countryRepository, transactionManager, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void record_whenGeoIpUnavailable_doesNothing() {
+        when(geoIpService.isAvailable()).thenReturn(false);
+
+        countryService.record("owner-1", "81.2.69.142");
+
+        assertThat(countryService.pendingCounters()).isZero();
+    }
+
+    @Test
+    void flush_writesSortedMonthCountryDeltasWithUnknownAsZz() {
+        String month = YearMonth.now(ZoneOffset.UTC).toString();
+        when(geoIpService.isAvailable()).thenReturn(true);
+        when(geoIpService.countryOf("81.2.69.142")).thenReturn(Optional.of("GB"));
+        when(geoIpService.countryOf("10.0.0.1")).thenReturn(Optional.empty());
+
+        countryService.record("owner-1", "81.2.69.142");
+        countryService.record("owner-1", "81.2.69.142");
+        countryService.record("owner-1", "10.0.0.1");
+        countryService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CountryAnalyticsRepository.CountryDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(countryRepository).increment(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+            new CountryAnalyticsRepository.CountryDelta("owner-1", month, "GB", 2),
+            new CountryAnalyticsRepository.CountryDelta("owner-1", month, "ZZ", 1)
+        );
+        assertThat(countryService.pendingCounters()).isZero();
+    }
+
+    @Test
+    void flush_whenWriteFails_keepsCounters() {
+        when(geoIpService.isAvailable()).thenReturn(true);
+        when(geoIpService.countryOf("81.2.69.142")).thenReturn(Optional.of("GB"));
+        doThrow(new IllegalStateException("db down")).when(countryRepository).increment(anyList());
+
+        countryService.record("owner-1", "81.2.69.142");
+        countryService.flush();
+
+        assertThat(countryService.pendingCounters()).isEqualTo(1);
+    }
+
+    @Test
+    void breakdown_addsPendingToStoredAndSortsByViews() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        when(geoIpService.isAvailable()).thenReturn(true);
+        when(geoIpService.countryOf("81.2.69.142")).thenReturn(Optional.of("GB"));
+        when(countryRepository.findForMonth("owner-1", month.toString())).thenReturn(List.of(
+            new CountryAnalyticsRepository.CountryCount("DE", 3),
+            new CountryAnalyticsRepository.CountryCount("GB", 2)
+        ));
+        countryService.record("owner-1", "81.2.69.142");
+        countryService.record("owner-1", "81.2.69.142");
+        countryService.record("owner-2", "81.2.69.142");
+
+        CountryBreakdownResponse response = countryService.breakdown("owner-1", null);
+
+        assertThat(response.month()).isEqualTo(month.toString());
+        assertThat(response.countries()).containsExactly(
+            new CountryBreakdownResponse.Country("GB", 4),
+            new CountryBreakdownResponse.Country("DE", 3)
+        );
+    }
+
+    @Test
+    void breakdown_afterFailedFlush_stillSeesRestoredCounters() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        when(geoIpService.isAvailable()).thenReturn(true);
+        when(geoIpService.countryOf("81.2.69.142")).thenReturn(Optional.of("GB"));
+        doThrow(new IllegalStateException("db down")).when(countryRepository).increment(anyList());
+        when(countryRepository.findForMonth("owner-1", month.toString())).thenReturn(List.of());
+        countryService.record("owner-1", "81.2.69.142");
+        countryService.flush();
+        countryService.record("owner-1", "81.2.69.142");
+
+        assertThat(countryService.breakdown("owner-1", month).countries())
+            .containsExactly(new CountryBreakdownResponse.Country("GB", 2));
+    }
+
+    @Test
+    void breakdown_forPastMonth_ignoresCurrentPending() {
+        when(countryRepository.findForMonth("owner-1", "2025-01")).thenReturn(List.of());
+
+        assertThat(countryService.breakdown("owner-1", YearMonth.of(2025, 1)).countries()).isEmpty();
+        verifyNoInteractions(geoIpService);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.services;
+
+import com.example.demo.geoip.MaxMindDbReader;
+import com.example.demo.geoip.MaxMindDbTestWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeoIpServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countryOf_resolvesLiteralsAndCachesPerPrefix() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GeoIpService service = openService(registry);
+
+        assertThat(service.isAvailable()).isTrue();
+        assertThat(service.countryOf("81.2.69.142")).contains("GB");
+        assertThat(service.countryOf("81.2.69.7")).contains("GB");
+        assertThat(service.countryOf("::ffff:81.2.69.9")).contains("GB");
+        assertThat(service.countryOf("2001:218::1")).contains("JP");
+        assertThat(service.countryOf("8.8.8.8")).isEmpty();
+        assertThat(service.countryOf("8.8.8.9")).isEmpty();
+
+        assertThat(registry.get("analytics.geoip.lookups").counter().count()).isEqualTo(3.0);
+        assertThat(registry.get("analytics.geoip.cache.hits").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void countryOf_rejectsHostnamesAndMalformedAddresses() throws Exception {
+        GeoIpService service = openService(new SimpleMeterRegistry());
+
+        assertThat(service.countryOf("example.com")).isEmpty();
+        assertThat(service.countryOf("81.2.69")).isEmpty();
+        assertThat(service.countryOf("81.2.69.256")).isEmpty();
+        assertThat(service.countryOf(null)).isEmpty();
+        assertThat(GeoIpService.parseLiteral("1.2.3.4.5")).isNull();
+    }
+
+    @Test
+    void countryOf_whenRecordCannotBeDecoded_returnsUnknownAndCachesIt() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MaxMindDbReader reader = mock(MaxMindDbReader.class);
+        when(reader.countryIsoCode(any())).thenThrow(new IndexOutOfBoundsException("pointer past end of data section"));
+        GeoIpService service = new GeoIpService(registry);
+        ReflectionTestUtils.setField(service, "reader", reader);
+
+        assertThat(service.countryOf("81.2.69.142")).isEmpty();
+        assertThat(service.countryOf("81.2.69.143")).isEmpty();
+
+        assertThat(registry.get("analytics.geoip.lookup.failures").counter().count()).isEqualTo(1.0);
+        verify(reader, times(1)).countryIsoCode(any());
+    }
+
+    @Test
+    void open_whenDisabledOrMissingFile_staysUnavailable() {
+        GeoIpService disabled = new GeoIpService(new SimpleMeterRegistry());
+        disabled.open();
+
+        GeoIpService missing = new GeoIpService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(missing, "enabled", true);
+        ReflectionTestUtils.setField(missing, "databasePath", tempDir.resolve("absent.mmdb").toString());
+        missing.open();
+
+        assertThat(disabled.isAvailable()).isFalse();
+        assertThat(missing.isAvailable()).isFalse();
+        assertThat(missing.countryOf("81.2.69.142")).isEmpty();
+    }
+
+    private GeoIpService openService(SimpleMeterRegistry registry) throws Exception {
+        Path db = tempDir.resolve("country.mmdb");
+        new MaxMindDbTestWriter(6, 24)
+            .insert("81.2.69.0/24", "GB")
+            .insert("2001:218::/32", "JP")
+            .write(db);
+        GeoIpService service = new GeoIpService(registry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "databasePath", db.toString());
+        service.open();
+        return service;
+    }
+}
@@ -4,24 +4,32 @@ import com.example.demo.enums.NotificationType;
 import com.example.demo.models.Notification;
 import com.example.demo.models.User;
 import com.example.demo.repositories.NotificationRepository;
+import com.example.demo.repositories.NotificationWriteRepository;
 import com.example.demo.repositories.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,7 +39,13 @@ class NotificationServiceTest {
     @Mock
     private NotificationRepository notificationRepository;
     @Mock
+    private NotificationWriteRepository notificationWriteRepository;
+    @Mock
     private UserRepository userRepository;
+    @Mock
+    private PortfolioVersionService portfolioVersionService;
+    @Mock
+    private Executor notificationExecutor;
 
     @InjectMocks
     private NotificationService notificationService;
@@ -104,34 +118,39 @@ class NotificationServiceTest {
     @Test
     void createOnce_whenNotificationExists_skipsCreation() {
         User user = user("u-5");
-        when(notificationRepository.existsByUserIdAndType("u-5", NotificationType.WELCOME)).thenReturn(true);
+        when(notificationWriteRepository.insertIfAbsent("u-5", NotificationType.WELCOME, "title", "message"))
+            .thenReturn(false);
 
         notificationService.createOnce(user, NotificationType.WELCOME, "title", "message");
 
         verify(notificationRepository, never()).save(any(Notification.class));
+        verify(portfolioVersionService, never()).bump(any());
     }
 
     @Test
     void createOnce_whenNotificationMissing_createsNotification() {
         User user = user("u-6");
-        when(notificationRepository.existsByUserIdAndType("u-6", NotificationType.WELCOME)).thenReturn(false);
+        when(notificationWriteRepository.insertIfAbsent("u-6", NotificationType.WELCOME, "Hello", "Welcome"))
+            .thenReturn(true);
 
         notificationService.createOnce(user, NotificationType.WELCOME, "Hello", "Welcome");
+        notificationService.createOnce(user, NotificationType.WELCOME, "Hello", "Welcome");
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationWriteRepository, times(1)).insertIfAbsent("u-6", NotificationType.WELCOME, "Hello", "Welcome");
+        verify(portfolioVersionService).bump("u-6");
     }
 
     @Test
     void createOnceByUserId_whenUserExists_createsNotificationOnce() {
         User user = user("u-7");
         when(userRepository.findById("u-7")).thenReturn(Optional.of(user));
-        when(notificationRepository.existsByUserIdAndType("u-7", NotificationType.FIRST_PROJECT_ADDED))
-            .thenReturn(false);
+        when(notificationWriteRepository.insertIfAbsent("u-7", NotificationType.FIRST_PROJECT_ADDED, "Title", "Message"))
+            .thenReturn(true);
 
         notificationService.createOnceByUserId("u-7", NotificationType.FIRST_PROJECT_ADDED, "Title", "Message");
 
-        verify(notificationRepository).existsByUserIdAndType("u-7", NotificationType.FIRST_PROJECT_ADDED);
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationWriteRepository).insertIfAbsent("u-7", NotificationType.FIRST_PROJECT_ADDED, "Title", "Message");
+        verify(portfolioVersionService).bump("u-7");
     }
 
     @Test
@@ -140,8 +159,85 @@ class NotificationServiceTest {
 
         notificationService.createOnceByUserId("missing", NotificationType.FIRST_PROJECT_ADDED, "Title", "Message");
 
-        verify(notificationRepository, never()).existsByUserIdAndType(any(), any());
-        verify(notificationRepository, never()).save(any(Notification.class));
+        verify(notificationWriteRepository, never()).insertIfAbsent(any(), any(), any(), any());
+    }
+
+    @Test
+    void createOnceByUserIdAsync_submitsOnlyOncePerUserAndType() {
+        runTasksInline();
+        User user = user("u-8");
+        when(userRepository.findById("u-8")).thenReturn(Optional.of(user));
+        when(notificationWriteRepository.insertIfAbsent("u-8", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message"))
+            .thenReturn(true);
+
+        notificationService.createOnceByUserIdAsync("u-8", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+        notificationService.createOnceByUserIdAsync("u-8", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+
+        verify(notificationExecutor, times(1)).execute(any(Runnable.class));
+        verify(notificationWriteRepository, times(1))
+            .insertIfAbsent("u-8", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+    }
+
+    @Test
+    void createOnceByUserIdAsync_whileTaskQueued_doesNotSubmitAgain() {
+        notificationService.createOnceByUserIdAsync("u-12", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+        notificationService.createOnceByUserIdAsync("u-12", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+
+        verify(notificationExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void createOnce_keepsEmittedBitsWithinLimit() {
+        ReflectionTestUtils.setField(notificationService, "maxEmittedEntries", 2);
+
+        notificationService.createOnce(user("u-13"), NotificationType.WELCOME, "Title", "Message");
+        notificationService.createOnce(user("u-14"), NotificationType.WELCOME, "Title", "Message");
+        notificationService.createOnce(user("u-15"), NotificationType.WELCOME, "Title", "Message");
+
+        Map<String, ?> emitted = (Map<String, ?>) ReflectionTestUtils.getField(notificationService, "emittedTypes");
+        assertThat(emitted).hasSizeLessThanOrEqualTo(2).containsKey("u-15");
+    }
+
+    @Test
+    void createOnceByUserIdAsync_whenWarmedFromDatabase_skipsExecutor() {
+        when(notificationRepository.findRecentUserIdsAndTypes(any())).thenReturn(List.<Object[]>of(
+            new Object[]{"u-9", NotificationType.FIRST_PUBLIC_PROFILE_VIEW}
+        ));
+        notificationService.warmEmittedTypes();
+
+        notificationService.createOnceByUserIdAsync("u-9", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+
+        verify(notificationExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    void createOnceByUserIdAsync_whenExecutorRejects_retriesOnNextCall() {
+        doThrow(new TaskRejectedException("full"))
+            .doNothing()
+            .when(notificationExecutor).execute(any(Runnable.class));
+
+        notificationService.createOnceByUserIdAsync("u-10", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+        notificationService.createOnceByUserIdAsync("u-10", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+
+        verify(notificationExecutor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void createOnceByUserIdAsync_whenUserMissing_allowsLaterAttempt() {
+        runTasksInline();
+        when(userRepository.findById("u-11")).thenReturn(Optional.empty());
+
+        notificationService.createOnceByUserIdAsync("u-11", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+        notificationService.createOnceByUserIdAsync("u-11", NotificationType.FIRST_PUBLIC_PROFILE_VIEW, "Title", "Message");
+
+        verify(notificationExecutor, times(2)).execute(any(Runnable.class));
+    }
+
+    private void runTasksInline() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(notificationExecutor).execute(any(Runnable.class));
     }
 
     private User user(String id) {
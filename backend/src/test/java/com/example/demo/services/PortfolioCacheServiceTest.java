@@ -0,0 +1,159 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PortfolioCacheServiceTest {
+
+    private final PortfolioCacheService cacheService = new PortfolioCacheService(new ObjectMapper());
+
+    @Test
+    void getOrLoad_whenCached_doesNotCallLoaderAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        PortfolioResponse first = cacheService.getOrLoad("u-1", () -> portfolio("First", loads));
+        PortfolioResponse second = cacheService.getOrLoad("u-1", () -> portfolio("Second", loads));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void onPortfolioChanged_evictsSnapshot() {
+        AtomicInteger loads = new AtomicInteger();
+        cacheService.getOrLoad("u-1", () -> portfolio("Before", loads));
+
+        cacheService.onPortfolioChanged(new PortfolioChangedEvent("u-1"));
+        PortfolioResponse reloaded = cacheService.getOrLoad("u-1", () -> portfolio("After", loads));
+
+        assertThat(reloaded.getFullName()).isEqualTo("After");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getOrLoad_whenEvictedDuringLoad_doesNotStoreStaleSnapshot() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cacheService.getOrLoad("u-1", () -> {
+            cacheService.evict("u-1");
+            return portfolio("Stale", loads);
+        });
+
+        assertThat(cacheService.size()).isZero();
+    }
+
+    @Test
+    void getOrLoad_whenFull_keepsSizeWithinLimit() {
+        ReflectionTestUtils.setField(cacheService, "maxEntries", 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cacheService.getOrLoad("u-1", () -> portfolio("One", loads));
+        cacheService.getOrLoad("u-2", () -> portfolio("Two", loads));
+        cacheService.getOrLoad("u-3", () -> portfolio("Three", loads));
+
+        assertThat(cacheService.size()).isEqualTo(2);
+    }
+
+    @Test
+    void getEncodedOrLoad_returnsJsonAndMatchingGzipVariant() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+
+        PortfolioCacheService.EncodedPortfolio encoded = cacheService.getEncodedOrLoad("u-1", () -> portfolio("Encoded", loads));
+        PortfolioCacheService.EncodedPortfolio again = cacheService.getEncodedOrLoad("u-1", () -> portfolio("Other", loads));
+
+        String json = new String(encoded.json(), StandardCharsets.UTF_8);
+        assertThat(json).contains("\"fullName\":\"Encoded\"");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(encoded.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(encoded.json());
+        }
+        assertThat(again).isSameAs(encoded);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getOrLoad_whenAnotherUserIsEvictedDuringLoad_stillStoresSnapshot() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cacheService.getOrLoad("u-1", () -> {
+            cacheService.evict("u-2");
+            return portfolio("Fresh", loads);
+        });
+
+        assertThat(cacheService.peek("u-1")).isPresent();
+    }
+
+    @Test
+    void getOrLoad_afterEviction_reloadsAndStoresAgain() {
+        AtomicInteger loads = new AtomicInteger();
+        cacheService.getOrLoad("u-1", () -> portfolio("Before", loads));
+        cacheService.evict("u-1");
+
+        cacheService.getOrLoad("u-1", () -> portfolio("After", loads));
+
+        assertThat(cacheService.peek("u-1")).map(PortfolioResponse::getFullName).contains("After");
+    }
+
+    @Test
+    void getOrLoad_whenEvictedAgainDuringReload_doesNotStore() {
+        AtomicInteger loads = new AtomicInteger();
+        cacheService.getOrLoad("u-1", () -> portfolio("Before", loads));
+        cacheService.evict("u-1");
+
+        cacheService.getOrLoad("u-1", () -> {
+            cacheService.evict("u-1");
+            return portfolio("Stale", loads);
+        });
+
+        assertThat(cacheService.peek("u-1")).isEmpty();
+    }
+
+    @Test
+    void evict_ofUncachedKeys_neitherDisplacesSnapshotsNorGrowsPastTheCap() {
+        ReflectionTestUtils.setField(cacheService, "maxEntries", 2);
+        AtomicInteger loads = new AtomicInteger();
+        cacheService.getOrLoad("u-1", () -> portfolio("One", loads));
+        cacheService.getOrLoad("u-2", () -> portfolio("Two", loads));
+
+        for (int i = 3; i < 50; i++) {
+            cacheService.evict("u-" + i);
+        }
+
+        assertThat(cacheService.peek("u-1")).isPresent();
+        assertThat(cacheService.peek("u-2")).isPresent();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(cacheService, "evictedAt")).hasSizeLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getOrLoad_whenTheEvictionStampIsDroppedDuringLoad_doesNotStore() {
+        ReflectionTestUtils.setField(cacheService, "maxEntries", 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        cacheService.getOrLoad("u-1", () -> {
+            cacheService.evict("u-1");
+            // pushes u-1's stamp out of the bounded stamp map
+            cacheService.evict("u-2");
+            return portfolio("Stale", loads);
+        });
+
+        assertThat(cacheService.peek("u-1")).isEmpty();
+    }
+
+    private PortfolioResponse portfolio(String fullName, AtomicInteger loads) {
+        loads.incrementAndGet();
+        PortfolioResponse response = new PortfolioResponse();
+        response.setFullName(fullName);
+        return response;
+    }
+}
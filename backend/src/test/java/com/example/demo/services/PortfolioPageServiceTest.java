@@ -0,0 +1,134 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
+import com.example.demo.models.CV;
+import com.example.demo.models.Certificate;
+import com.example.demo.models.Project;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PortfolioPageServiceTest {
+
+    private final PortfolioPageService pageService = new PortfolioPageService();
+
+    @Test
+    void render_escapesUserContentAndDropsUnsafeLinks() {
+        PortfolioResponse portfolio = portfolio("<script>alert(1)</script>", "Original");
+        portfolio.getProjects().get(0).setGithubUrl("javascript:alert(1)");
+        portfolio.getProjects().get(0).setLiveUrl("https://example.com/?a=1&b=2");
+
+        String html = render("u-1", portfolio);
+
+        assertThat(html).startsWith("<!DOCTYPE html>");
+        assertThat(html).doesNotContain("<script>");
+        assertThat(html).contains("&lt;script&gt;alert(1)&lt;/script&gt;");
+        assertThat(html).doesNotContain("javascript:");
+        assertThat(html).contains("href=\"https://example.com/?a=1&amp;b=2\"");
+    }
+
+    @Test
+    void render_reusesCachedFragmentsUntilTheirSectionChanges() {
+        render("u-1", portfolio("Ada", "Original"));
+        PortfolioResponse updated = portfolio("Ada", "Renamed");
+        updated.getCertificates().get(0).setName("New certificate");
+
+        assertThat(render("u-1", updated)).contains("Original").doesNotContain("Renamed");
+
+        pageService.onPortfolioChanged(new PortfolioChangedEvent("u-1", PortfolioSection.PROJECTS));
+        String html = render("u-1", updated);
+
+        assertThat(html).contains("Renamed").doesNotContain("New certificate");
+        assertThat(pageService.size()).isEqualTo(3);
+    }
+
+    @Test
+    void onPortfolioChanged_withoutSection_dropsAllFragments() {
+        render("u-1", portfolio("Ada", "Original"));
+        render("u-2", portfolio("Grace", "Other"));
+
+        pageService.onPortfolioChanged(new PortfolioChangedEvent("u-1"));
+
+        assertThat(pageService.size()).isEqualTo(3);
+    }
+
+    @Test
+    void render_whenEvictedDuringRender_doesNotStoreStaleFragments() {
+        PortfolioResponse portfolio = portfolio("Ada", "Original");
+        portfolio.setProjects(new ArrayList<>(portfolio.getProjects()) {
+            @Override
+            public Iterator<Project> iterator() {
+                pageService.evict("u-1", PortfolioSection.PROJECTS);
+                return super.iterator();
+            }
+        });
+
+        render("u-1", portfolio);
+
+        assertThat(render("u-1", portfolio("Ada", "Fresh"))).contains("Fresh");
+    }
+
+    @Test
+    void render_whenEvictedBetweenLoadAndRender_doesNotStoreStaleFragments() {
+        long stamp = pageService.stamp("u-1");
+        PortfolioResponse loaded = portfolio("Ada", "Original");
+        pageService.evict("u-1", PortfolioSection.PROJECTS);
+
+        pageService.render("u-1", loaded, stamp);
+
+        assertThat(render("u-1", portfolio("Ada", "Fresh"))).contains("Fresh");
+    }
+
+    @Test
+    void render_whenAnotherUserIsEvictedBetweenLoadAndRender_stillCachesFragments() {
+        long stamp = pageService.stamp("u-1");
+        PortfolioResponse loaded = portfolio("Ada", "Original");
+        pageService.evict("u-2", PortfolioSection.PROJECTS);
+
+        pageService.render("u-1", loaded, stamp);
+
+        assertThat(render("u-1", portfolio("Ada", "Fresh"))).contains("Original");
+    }
+
+    @Test
+    void render_withOlderVersionThanCached_neitherServesNorReplacesNewerFragment() {
+        PortfolioResponse newer = portfolio("Ada", "Newer");
+        newer.setVersion(2);
+        render("u-1", newer);
+        PortfolioResponse older = portfolio("Ada", "Older");
+        older.setVersion(1);
+
+        assertThat(render("u-1", older)).contains("Older");
+        assertThat(render("u-1", newer)).contains("Newer");
+    }
+
+    private String render(String userId, PortfolioResponse portfolio) {
+        return pageService.render(userId, portfolio, pageService.stamp(userId));
+    }
+
+    private PortfolioResponse portfolio(String fullName, String projectTitle) {
+        CV cv = new CV();
+        cv.setProfession("Engineer");
+        cv.setSkills(List.of("Java"));
+
+        Project project = new Project();
+        project.setTitle(projectTitle);
+
+        Certificate certificate = new Certificate();
+        certificate.setName("Java SE 17");
+        certificate.setIssuedBy("Oracle");
+
+        PortfolioResponse portfolio = new PortfolioResponse();
+        portfolio.setFullName(fullName);
+        portfolio.setCv(cv);
+        portfolio.setProjects(List.of(project));
+        portfolio.setCertificates(List.of(certificate));
+        return portfolio;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioResponse;
+import com.example.demo.models.CV;
+import com.example.demo.models.Experience;
+import com.example.demo.models.Project;
+import com.example.demo.models.User;
+import com.example.demo.repositories.PortfolioQueryRepository;
+import com.example.demo.repositories.PortfolioReadModelRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({PortfolioReadModelService.class, PortfolioQueryRepository.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class PortfolioReadModelServiceIntegrationTest {
+
+    @Autowired
+    private PortfolioReadModelService readModelService;
+    @Autowired
+    private PortfolioReadModelRepository readModelRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void rebuild_thenFind_roundTripsWholePortfolio() {
+        User user = persistUser("rm-1", true);
+        CV cv = new CV();
+        cv.setUser(user);
+        cv.setProfession("Platform Engineer");
+        cv.setSkills(List.of("Go", "Kubernetes"));
+        entityManager.persist(cv);
+        Experience experience = new Experience();
+        experience.setCompany("Initech");
+        experience.setCv(cv);
+        entityManager.persist(experience);
+        Project project = new Project();
+        project.setTitle("Read Model");
+        project.setStartedAt(LocalDate.of(2025, 3, 1));
+        project.setUser(user);
+        entityManager.persist(project);
+        entityManager.flush();
+
+        readModelService.rebuild("rm-1");
+        entityManager.flush();
+        entityManager.clear();
+
+        PortfolioResponse portfolio = readModelService.find("rm-1", false).orElseThrow().portfolio();
+
+        assertThat(portfolio.getFullName()).isEqualTo("User rm-1");
+        assertThat(portfolio.getCv().getProfession()).isEqualTo("Platform Engineer");
+        assertThat(portfolio.getCv().getSkills()).containsExactlyInAnyOrder("Go", "Kubernetes");
+        assertThat(portfolio.getCv().getExperiences()).extracting(Experience::getCompany).containsExactly("Initech");
+        assertThat(portfolio.getProjects()).extracting(Project::getTitle).containsExactly("Read Model");
+        assertThat(portfolio.getProjects().get(0).getStartedAt()).isEqualTo(LocalDate.of(2025, 3, 1));
+    }
+
+    @Test
+    void find_whenProfilePrivate_returnsVisibilityWithoutDocument() {
+        persistUser("rm-2", false);
+        entityManager.flush();
+        readModelService.rebuild("rm-2");
+        entityManager.flush();
+
+        PortfolioQueryRepository.LoadedPortfolio loaded = readModelService.find("rm-2", false).orElseThrow();
+
+        assertThat(loaded.isPublic()).isFalse();
+        assertThat(loaded.portfolio()).isNull();
+        assertThat(readModelService.find("rm-2", true).orElseThrow().portfolio().getEmail()).isEqualTo("rm-2@example.com");
+    }
+
+    @Test
+    void rebuild_whenUserDeleted_removesDocument() {
+        User user = persistUser("rm-3", true);
+        entityManager.flush();
+        readModelService.rebuild("rm-3");
+        entityManager.flush();
+
+        entityManager.remove(user);
+        entityManager.flush();
+        readModelService.rebuild("rm-3");
+        entityManager.flush();
+
+        assertThat(readModelRepository.existsById("rm-3")).isFalse();
+        assertThat(readModelService.find("rm-3", true)).isEmpty();
+    }
+
+    @Test
+    void backfill_buildsDocumentsForUsersWithoutOne() {
+        persistUser("rm-4", true);
+        persistUser("rm-5", false);
+        entityManager.flush();
+
+        int rebuilt = readModelService.backfill();
+        entityManager.flush();
+
+        assertThat(rebuilt).isEqualTo(2);
+        assertThat(readModelRepository.existsById("rm-4")).isTrue();
+        assertThat(readModelRepository.existsById("rm-5")).isTrue();
+        assertThat(readModelService.backfill()).isZero();
+    }
+
+    private User persistUser(String id, boolean isPublic) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setFullName("User " + id);
+        user.setPublic(isPublic);
+        entityManager.persist(user);
+        return user;
+    }
+}
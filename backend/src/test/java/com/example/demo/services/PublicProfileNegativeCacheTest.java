@@ -0,0 +1,154 @@
+package com.example.demo.services;
+
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PublicProfileNegativeCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private PublicProfileNegativeCache negativeCache;
+
+    @BeforeEach
+    void setUp() {
+        negativeCache = new PublicProfileNegativeCache(userRepository, redisTemplateProvider);
+    }
+
+    @Test
+    void isKnownAbsent_beforeWarmUp_onlyTrustsRememberedEntries() {
+        assertThat(negativeCache.isKnownAbsent("u-1")).isFalse();
+
+        negativeCache.rememberAbsent("u-1", negativeCache.generation());
+
+        assertThat(negativeCache.isKnownAbsent("u-1")).isTrue();
+    }
+
+    @Test
+    void isKnownAbsent_afterWarmUp_rejectsNeverSeenIdsWithoutAQuery() {
+        when(userRepository.findAllIds()).thenReturn(List.of("known-1", "known-2"));
+
+        negativeCache.warmUp();
+
+        assertThat(negativeCache.isKnownAbsent("known-1")).isFalse();
+        for (int i = 0; i < 100; i++) {
+            assertThat(negativeCache.isKnownAbsent("user_scraped_" + i)).isTrue();
+        }
+        verify(userRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void onRemoteChange_addsUsersRegisteredOnOtherNodes() {
+        when(userRepository.findAllIds()).thenReturn(List.of("known-1"));
+        negativeCache.warmUp();
+        assertThat(negativeCache.isKnownAbsent("other-node-user")).isTrue();
+
+        negativeCache.onRemoteChange("other-node|other-node-user");
+
+        assertThat(negativeCache.isKnownAbsent("other-node-user")).isFalse();
+    }
+
+    @Test
+    void registerUser_publishesToOtherNodesAndSkipsItsOwnEcho() {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        negativeCache = new PublicProfileNegativeCache(userRepository, redisTemplateProvider);
+        ReflectionTestUtils.setField(negativeCache, "listenerContainer", mock(RedisMessageListenerContainer.class));
+        when(userRepository.findAllIds()).thenReturn(List.of());
+        negativeCache.warmUp();
+
+        negativeCache.registerUser("fresh-user");
+        String nodeId = (String) ReflectionTestUtils.getField(negativeCache, "nodeId");
+        negativeCache.onRemoteChange(nodeId + "|echoed-user");
+
+        verify(redisTemplate).convertAndSend(eq(PublicProfileNegativeCache.CHANNEL), startsWith(nodeId + "|fresh-user"));
+        assertThat(negativeCache.isKnownAbsent("echoed-user")).isTrue();
+    }
+
+    @Test
+    void rememberAbsent_whenFull_makesRoomInsteadOfClearing() {
+        ReflectionTestUtils.setField(negativeCache, "maxEntries", 3);
+        for (int i = 0; i < 10; i++) {
+            negativeCache.rememberAbsent("private-" + i, negativeCache.generation());
+        }
+
+        assertThat(negativeCache.isKnownAbsent("private-9")).isTrue();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(negativeCache, "absentUntil")).hasSize(3);
+    }
+
+    @Test
+    void rebuildKnownUsers_keepsUsersRegisteredWhileReadingIds() {
+        when(userRepository.findAllIds()).thenAnswer(invocation -> {
+            negativeCache.registerUser("registered-mid-rebuild");
+            return List.of("known-1");
+        });
+
+        negativeCache.rebuildKnownUsers();
+
+        assertThat(negativeCache.isKnownAbsent("registered-mid-rebuild")).isFalse();
+        verify(userRepository, never()).existsById("registered-mid-rebuild");
+    }
+
+    @Test
+    void registerUser_makesNewIdVisibleAgain() {
+        when(userRepository.findAllIds()).thenReturn(List.of());
+        negativeCache.warmUp();
+
+        negativeCache.registerUser("fresh-user");
+
+        assertThat(negativeCache.isKnownAbsent("fresh-user")).isFalse();
+    }
+
+    @Test
+    void onPortfolioChanged_clearsRememberedEntry() {
+        negativeCache.rememberAbsent("u-2", negativeCache.generation());
+
+        negativeCache.onPortfolioChanged(new PortfolioChangedEvent("u-2"));
+
+        assertThat(negativeCache.isKnownAbsent("u-2")).isFalse();
+    }
+
+    @Test
+    void rememberAbsent_whenInvalidatedDuringLookup_isIgnored() {
+        long generation = negativeCache.generation();
+        negativeCache.invalidate("u-3");
+
+        negativeCache.rememberAbsent("u-3", generation);
+
+        assertThat(negativeCache.isKnownAbsent("u-3")).isFalse();
+    }
+
+    @Test
+    void isKnownAbsent_afterTtl_expires() {
+        ReflectionTestUtils.setField(negativeCache, "ttlSeconds", -1L);
+
+        negativeCache.rememberAbsent("u-4", negativeCache.generation());
+
+        assertThat(negativeCache.isKnownAbsent("u-4")).isFalse();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PublicViewDeduplicatorTest {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BloomPublicViewDedupeEngine bloomEngine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bloomEngine = new BloomPublicViewDedupeEngine(60_000L, 4, 10_000, 0.001, meterRegistry);
+    }
+
+    @Test
+    void isDuplicate_withBloomEngine_skipsRepeatAndCountsChecks() {
+        PublicViewDeduplicator deduplicator = deduplicator("bloom", null);
+
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-1")).isFalse();
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-1")).isTrue();
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-2")).isFalse();
+
+        assertThat(meterRegistry.counter("analytics.dedupe.checks", "engine", "bloom", "result", "duplicate").count())
+            .isEqualTo(1.0);
+        assertThat(meterRegistry.counter("analytics.dedupe.checks", "engine", "bloom", "result", "unique").count())
+            .isEqualTo(2.0);
+    }
+
+    @Test
+    void isDuplicate_withoutFingerprint_neverDeduplicates() {
+        PublicViewDeduplicator deduplicator = deduplicator("bloom", null);
+
+        assertThat(deduplicator.isDuplicate("owner-public", null)).isFalse();
+        assertThat(deduplicator.isDuplicate("owner-public", " ")).isFalse();
+    }
+
+    @Test
+    void isDuplicate_withRedisEngine_usesSetIfAbsent() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+            .thenReturn(true)
+            .thenReturn(false);
+        PublicViewDeduplicator deduplicator = deduplicator("redis", redisTemplate);
+
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-1")).isFalse();
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-1")).isTrue();
+    }
+
+    @Test
+    void isDuplicate_whenRedisFails_fallsBackToBloomEngine() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+            .thenThrow(new RuntimeException("redis unavailable"));
+        PublicViewDeduplicator deduplicator = deduplicator("redis", redisTemplate);
+
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-1")).isFalse();
+        assertThat(deduplicator.isDuplicate("owner-public", "viewer-1")).isTrue();
+        assertThat(meterRegistry.counter("analytics.dedupe.redis.fallbacks").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void constructor_whenRedisRequestedButUnavailable_usesBloomEngine() {
+        PublicViewDeduplicator deduplicator = deduplicator("redis", null);
+
+        deduplicator.isDuplicate("owner-public", "viewer-1");
+
+        assertThat(meterRegistry.counter("analytics.dedupe.checks", "engine", "bloom", "result", "unique").count())
+            .isEqualTo(1.0);
+    }
+
+    private PublicViewDeduplicator deduplicator(String engine, StringRedisTemplate template) {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(template);
+        RedisPublicViewDedupeEngine redisEngine = new RedisPublicViewDedupeEngine(redisTemplateProvider, bloomEngine, meterRegistry);
+        return new PublicViewDeduplicator(bloomEngine, redisEngine, engine, false, meterRegistry);
+    }
+}
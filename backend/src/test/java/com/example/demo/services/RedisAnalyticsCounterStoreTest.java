@@ -0,0 +1,188 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.AnalyticsDelta;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.repositories.AnalyticsCounterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisAnalyticsCounterStoreTest {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private SetOperations<String, String> setOperations;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    @Mock
+    private AnalyticsCounterRepository counterRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisAnalyticsCounterStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        store = new RedisAnalyticsCounterStore(redisTemplateProvider, counterRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(store, "enabled", true);
+    }
+
+    @Test
+    void record_whenDisabled_returnsFalseWithoutTouchingRedis() {
+        ReflectionTestUtils.setField(store, "enabled", false);
+
+        assertThat(store.record("user-1", AnalyticsEventType.PUBLIC_VIEWS, LocalDateTime.of(2026, 10, 17, 13, 0))).isFalse();
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void record_whenRedisFails_returnsFalseSoCallerFallsBack() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RedisSystemException("down", null));
+
+        assertThat(store.record("user-1", AnalyticsEventType.PUBLIC_VIEWS, LocalDateTime.of(2026, 10, 17, 13, 0))).isFalse();
+    }
+
+    @Test
+    void pendingFor_parsesTotalsAndMonthBuckets() {
+        when(hashOperations.entries("analytics:counters:{user-1}"))
+            .thenReturn(Map.of("publicViews", "3", "cvDownloads", "1", "m:2026-10", "4", "h:2026-10-17T13:00|publicViews", "3"));
+
+        AnalyticsDelta delta = store.pendingFor("user-1").orElseThrow();
+
+        assertThat(delta.hourly().get(LocalDateTime.of(2026, 10, 17, 13, 0))[AnalyticsEventType.PUBLIC_VIEWS.ordinal()])
+            .isEqualTo(3);
+
+        assertThat(delta.get(AnalyticsEventType.PUBLIC_VIEWS)).isEqualTo(3);
+        assertThat(delta.get(AnalyticsEventType.CV_DOWNLOADS)).isEqualTo(1);
+        assertThat(delta.monthly()).containsEntry("2026-10", 4L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_claimsDirtyHashesAndUpsertsThem() {
+        when(setOperations.pop("analytics:counters:dirty", 500)).thenReturn(List.of("user-1", "user-2"));
+        when(redisTemplate.renameIfAbsent("analytics:counters:{user-1}", "analytics:counters:{user-1}:claimed")).thenReturn(true);
+        doThrow(new RedisSystemException("ERR no such key", null))
+            .when(redisTemplate).renameIfAbsent(eq("analytics:counters:{user-2}"), anyString());
+        when(hashOperations.entries("analytics:counters:{user-1}:claimed"))
+            .thenReturn(Map.of("publicViews", "2", "m:2026-10", "2"));
+
+        store.reconcile();
+
+        ArgumentCaptor<SortedMap<String, AnalyticsDelta>> captor = ArgumentCaptor.forClass(SortedMap.class);
+        verify(counterRepository).increment(captor.capture());
+        assertThat(captor.getValue()).containsOnlyKeys("user-1");
+        assertThat(captor.getValue().get("user-1").get(AnalyticsEventType.PUBLIC_VIEWS)).isEqualTo(2);
+        verify(redisTemplate).delete(anyCollection());
+        assertThat(meterRegistry.counter("analytics.redis.reconciled.events").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void reconcile_whenDatabaseFails_restoresDeltasIntoLiveHash() {
+        when(setOperations.pop("analytics:counters:dirty", 500)).thenReturn(List.of("user-1"));
+        when(redisTemplate.renameIfAbsent("analytics:counters:{user-1}", "analytics:counters:{user-1}:claimed")).thenReturn(true);
+        when(hashOperations.entries("analytics:counters:{user-1}:claimed"))
+            .thenReturn(Map.of("publicViews", "2", "m:2026-10", "2"));
+        doThrow(new IllegalStateException("db down")).when(counterRepository).increment(any());
+
+        store.reconcile();
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate).delete(anyCollection());
+        assertThat(meterRegistry.counter("analytics.redis.reconcile.failures").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("analytics.redis.reconciled.events").count()).isZero();
+    }
+
+    @Test
+    void reconcile_whenPreviousClaimIsStillOpen_handsUserBackWithoutWriting() {
+        when(setOperations.pop("analytics:counters:dirty", 500)).thenReturn(List.of("user-1"));
+        when(redisTemplate.renameIfAbsent("analytics:counters:{user-1}", "analytics:counters:{user-1}:claimed")).thenReturn(false);
+
+        assertThat(store.reconcileBatch()).isZero();
+
+        verify(setOperations).add("analytics:counters:dirty", "user-1");
+        verify(counterRepository, never()).increment(any());
+    }
+
+    @Test
+    void pendingFor_includesClaimedButUnreconciledCounts() {
+        when(hashOperations.entries("analytics:counters:{user-1}")).thenReturn(Map.of("publicViews", "1", "m:2026-10", "1"));
+        when(hashOperations.entries("analytics:counters:{user-1}:claimed"))
+            .thenReturn(Map.of("publicViews", "2", "m:2026-10", "2", "claim-seen-at", "1"));
+
+        AnalyticsDelta delta = store.pendingFor("user-1").orElseThrow();
+
+        assertThat(delta.get(AnalyticsEventType.PUBLIC_VIEWS)).isEqualTo(3);
+        assertThat(delta.monthly()).containsEntry("2026-10", 3L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sweepAbandonedClaims_foldsOnlyClaimsOlderThanTheTimeoutBackIntoLiveHash() {
+        Cursor<String> cursor = mock(Cursor.class);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            action.accept("analytics:counters:{user-1}:claimed");
+            action.accept("analytics:counters:{user-2}:claimed");
+            return null;
+        }).when(cursor).forEachRemaining(any());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        String longAgo = String.valueOf(System.currentTimeMillis() - 600_000);
+        when(hashOperations.entries("analytics:counters:{user-1}:claimed"))
+            .thenReturn(Map.of("publicViews", "2", "m:2026-10", "2", "claim-seen-at", longAgo));
+        when(hashOperations.entries("analytics:counters:{user-2}:claimed"))
+            .thenReturn(Map.of("publicViews", "5", "m:2026-10", "5", "claim-seen-at", String.valueOf(System.currentTimeMillis())));
+
+        store.sweepAbandonedClaims();
+
+        verify(hashOperations).putIfAbsent(eq("analytics:counters:{user-2}:claimed"), eq("claim-seen-at"), anyString());
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate).delete("analytics:counters:{user-1}:claimed");
+        verify(redisTemplate, never()).delete("analytics:counters:{user-2}:claimed");
+        assertThat(meterRegistry.counter("analytics.redis.claims.recovered").count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.analytics.TargetAnalyticsResponse;
+import com.example.demo.enums.AnalyticsEventType;
+import com.example.demo.enums.AnalyticsTargetType;
+import com.example.demo.events.PortfolioChangedEvent;
+import com.example.demo.events.PortfolioSection;
+import com.example.demo.repositories.TargetAnalyticsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TargetAnalyticsServiceTest {
+
+    @Mock
+    private TargetAnalyticsRepository targetRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TargetAnalyticsService targetService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        targetService = new TargetAnalyticsService(targetRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void record_ignoresEventsWithoutTargetOrWithUnrelatedType() {
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, null);
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "not-a-number");
+        targetService.record("u-1", AnalyticsEventType.SHARE_CLICKS, "7");
+
+        assertThat(targetService.pendingTargets()).isZero();
+    }
+
+    @Test
+    void record_whenTargetIsNotOneOfTheOwners_dropsIt() {
+        when(targetRepository.findForUser("u-1")).thenReturn(new ArrayList<>(List.of(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 7, "Website", 0)
+        )));
+
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "8");
+        targetService.record("u-1", AnalyticsEventType.CERTIFICATE_FILE_OPENS, "7");
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "7");
+
+        assertThat(targetService.pendingTargets()).isEqualTo(1);
+        assertThat(meterRegistry.counter("analytics.targets.rejected").count()).isEqualTo(2.0);
+        verify(targetRepository, times(1)).findForUser("u-1");
+    }
+
+    @Test
+    void flush_writesSortedDeltasOnce() {
+        when(targetRepository.findForUser("u-1")).thenReturn(new ArrayList<>(List.of(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 7, "Website", 0)
+        )));
+        when(targetRepository.findForUser("u-2")).thenReturn(new ArrayList<>(List.of(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.CERTIFICATE, 9, "AWS", 0)
+        )));
+        targetService.record("u-2", AnalyticsEventType.CERTIFICATE_FILE_OPENS, "9");
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "7");
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "7");
+
+        targetService.flush();
+        targetService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TargetAnalyticsRepository.TargetDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(targetRepository, times(1)).increment(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+            new TargetAnalyticsRepository.TargetDelta("u-1", AnalyticsTargetType.PROJECT, 7, 2),
+            new TargetAnalyticsRepository.TargetDelta("u-2", AnalyticsTargetType.CERTIFICATE, 9, 1)
+        );
+        assertThat(targetService.pendingTargets()).isZero();
+    }
+
+    @Test
+    void flush_whenWriteFails_keepsCountersForNextFlush() {
+        when(targetRepository.findForUser("u-1")).thenReturn(new ArrayList<>(List.of(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 7, "Website", 0)
+        )));
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "7");
+        doThrow(new IllegalStateException("db down")).when(targetRepository).increment(anyList());
+
+        targetService.flush();
+
+        assertThat(targetService.pendingTargets()).isEqualTo(1);
+    }
+
+    @Test
+    void mostViewed_ranksStoredPlusPendingAndServesLaterReadsFromMemory() {
+        when(targetRepository.findForUser("u-1")).thenReturn(new ArrayList<>(List.of(
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 1, "Website", 5),
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.PROJECT, 2, "Compiler", 4),
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.CERTIFICATE, 3, "AWS", 1),
+            new TargetAnalyticsRepository.TargetCount(AnalyticsTargetType.CERTIFICATE, 4, "Never opened", 0)
+        )));
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "2");
+
+        assertThat(targetService.mostViewed("u-1", null, 10))
+            .extracting(TargetAnalyticsResponse::targetId, TargetAnalyticsResponse::count)
+            .containsExactly(
+                tuple(1L, 5L),
+                tuple(2L, 5L),
+                tuple(3L, 1L)
+            );
+
+        targetService.record("u-1", AnalyticsEventType.PROJECT_DETAIL_VIEWS, "2");
+
+        assertThat(targetService.mostViewed("u-1", "project", 1))
+            .containsExactly(new TargetAnalyticsResponse("project", 2, "Compiler", 6));
+        verify(targetRepository, times(1)).findForUser("u-1");
+    }
+
+    @Test
+    void onPortfolioChanged_evictsRankingOnlyForProjectOrCertificateWrites() {
+        when(targetRepository.findForUser("u-1")).thenReturn(List.of());
+        targetService.mostViewed("u-1", null, 10);
+
+        targetService.onPortfolioChanged(new PortfolioChangedEvent("u-1", PortfolioSection.CV));
+        targetService.mostViewed("u-1", null, 10);
+        targetService.onPortfolioChanged(new PortfolioChangedEvent("u-1", PortfolioSection.PROJECTS));
+        targetService.mostViewed("u-1", null, 10);
+
+        verify(targetRepository, times(2)).findForUser("u-1");
+    }
+
+    @Test
+    void mostViewed_whenTypeUnknown_throwsBadRequest() {
+        assertThatThrownBy(() -> targetService.mostViewed("u-1", "cv", 10)).isInstanceOf(ResponseStatusException.class);
+
+        verify(targetRepository, never()).findForUser("u-1");
+    }
+}
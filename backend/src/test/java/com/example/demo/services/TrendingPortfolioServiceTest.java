@@ -0,0 +1,95 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.PortfolioSummary;
+import com.example.demo.dto.analytics.TrendingPortfoliosResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingPortfolioServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    private TrendingPortfolioService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingPortfolioService(userService, new SimpleMeterRegistry(), 32, 4);
+    }
+
+    @Test
+    void trending_ordersByViewsAndDropsProfilesThatAreNoLongerPublic() {
+        record("hot", 5);
+        record("went-private", 4);
+        record("warm", 2);
+        when(userService.getPublicPortfolioSummaries(List.of("hot", "went-private", "warm"))).thenReturn(Map.of(
+            "hot", summary("hot"),
+            "warm", summary("warm")
+        ));
+
+        TrendingPortfoliosResponse response = trendingService.trending("hour", 2);
+
+        assertThat(response.window()).isEqualTo("hour");
+        assertThat(response.portfolios()).extracting(item -> item.portfolio().userId()).containsExactly("hot", "warm");
+        assertThat(response.portfolios()).extracting(TrendingPortfoliosResponse.Item::views).containsExactly(5L, 2L);
+    }
+
+    @Test
+    void trending_servesRepeatedRequestsFromCache() {
+        record("hot", 1);
+        when(userService.getPublicPortfolioSummaries(List.of("hot"))).thenReturn(Map.of("hot", summary("hot")));
+
+        trendingService.trending("day", 10);
+        trendingService.trending("DAY", 10);
+
+        verify(userService, times(1)).getPublicPortfolioSummaries(any());
+    }
+
+    @Test
+    void trending_whenNothingRecorded_skipsSummaryLookup() {
+        assertThat(trendingService.trending("hour", 10).portfolios()).isEmpty();
+
+        verify(userService, never()).getPublicPortfolioSummaries(any());
+    }
+
+    @Test
+    void trending_whenWindowUnknown_throwsBadRequest() {
+        assertThatThrownBy(() -> trendingService.trending("week", 10)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void snapshot_includesEveryWindowWithRawCounts() {
+        record("owner-1", 3);
+
+        assertThat(trendingService.snapshot(5)).containsOnlyKeys("hour", "day")
+            .allSatisfy((window, entries) -> assertThat(entries).singleElement()
+                .satisfies(entry -> assertThat(entry.count()).isEqualTo(3)));
+    }
+
+    private void record(String userId, int views) {
+        for (int i = 0; i < views; i++) {
+            trendingService.record(userId);
+        }
+    }
+
+    private static PortfolioSummary summary(String userId) {
+        return new PortfolioSummary(userId, "Name " + userId, "Engineer", "Astana", List.of(), 0, 0);
+    }
+}
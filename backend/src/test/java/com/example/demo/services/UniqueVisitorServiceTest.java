@@ -0,0 +1,139 @@
+package com.example.demo.services;
+
+import com.example.demo.repositories.UniqueVisitorRepository;
+import com.example.demo.repositories.UniqueVisitorRepository.MonthKey;
+import com.example.demo.sketches.HyperLogLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.SortedMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueVisitorServiceTest {
+    @Mock
+    private UniqueVisitorRepository uniqueVisitorRepository;
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UniqueVisitorService service;
+    private final String month = YearMonth.now(ZoneOffset.UTC).toString();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new UniqueVisitorService(uniqueVisitorRepository, redisTemplateProvider, transactionManager, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void countThisMonth_includesBufferedVisitorsBeforeFlush() {
+        when(uniqueVisitorRepository.findUnion(anyString(), anyString(), anyString())).thenReturn(Optional.empty());
+
+        service.record("owner-1", "1.1.1.1|agent");
+        service.record("owner-1", "1.1.1.1|agent");
+        service.record("owner-1", "2.2.2.2|agent");
+
+        assertThat(service.countThisMonth("owner-1")).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_mergesBufferedSketchesAndClearsThem() {
+        service.record("owner-1", "1.1.1.1|agent");
+        service.record("owner-2", "1.1.1.1|agent");
+
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<SortedMap<MonthKey, HyperLogLog>> captor = ArgumentCaptor.forClass(SortedMap.class);
+        verify(uniqueVisitorRepository, times(1)).merge(captor.capture());
+        assertThat(captor.getValue()).containsOnlyKeys(new MonthKey("owner-1", month), new MonthKey("owner-2", month));
+    }
+
+    @Test
+    void flush_whenDatabaseFails_keepsSketchesForRetry() {
+        service.record("owner-1", "1.1.1.1|agent");
+        doThrow(new IllegalStateException("db down")).doNothing().when(uniqueVisitorRepository).merge(any());
+
+        service.flush();
+        service.flush();
+
+        verify(uniqueVisitorRepository, times(2)).merge(any());
+    }
+
+    @Test
+    void count_mergesStoredAndBufferedMonths() {
+        HyperLogLog stored = new HyperLogLog(12);
+        stored.offer("9.9.9.9|agent");
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        when(uniqueVisitorRepository.findUnion("owner-1", current.minusMonths(2).toString(), current.toString()))
+            .thenReturn(Optional.of(stored));
+
+        service.record("owner-1", "1.1.1.1|agent");
+
+        assertThat(service.count("owner-1", current.minusMonths(2), current)).isEqualTo(2);
+    }
+
+    @Test
+    void count_whenStoredSketchHasAnotherPrecision_foldsItDown() {
+        HyperLogLog stored = new HyperLogLog(14);
+        stored.offer("9.9.9.9|agent");
+        when(uniqueVisitorRepository.findUnion(anyString(), anyString(), anyString())).thenReturn(Optional.of(stored));
+
+        service.record("owner-1", "1.1.1.1|agent");
+
+        assertThat(service.countThisMonth("owner-1")).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void count_inRedisMode_addsVisitorsKeptInTheDatabase() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HyperLogLogOperations<String, String> hyperLogLog = mock(HyperLogLogOperations.class);
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hyperLogLog);
+        when(hyperLogLog.size(any(String[].class))).thenReturn(5L);
+        HyperLogLog stored = new HyperLogLog(12);
+        stored.offer("9.9.9.9|agent");
+        when(uniqueVisitorRepository.findUnion(anyString(), anyString(), anyString())).thenReturn(Optional.of(stored));
+        service = new UniqueVisitorService(uniqueVisitorRepository, redisTemplateProvider, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "redisEnabled", true);
+
+        assertThat(service.countThisMonth("owner-1")).isEqualTo(6);
+    }
+
+    @Test
+    void count_whenRangeReversed_throwsBadRequest() {
+        assertThatThrownBy(() -> service.count("owner-1", YearMonth.of(2026, 5), YearMonth.of(2026, 1)))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserAgentClassifierTest {
+    private static final String CHROME =
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/129.0.0.0 Safari/537.36";
+
+    @Test
+    void isBot_flagsCrawlersPreviewFetchersAndScriptedClients() {
+        UserAgentClassifier classifier = new UserAgentClassifier(new SimpleMeterRegistry(), "");
+
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)")).isTrue();
+        assertThat(classifier.isBot("facebookexternalhit/1.1")).isTrue();
+        assertThat(classifier.isBot("curl/8.4.0")).isTrue();
+        assertThat(classifier.isBot("Mozilla/5.0 HeadlessChrome/120.0")).isTrue();
+        assertThat(classifier.isBot(CHROME)).isFalse();
+    }
+
+    @Test
+    void isBot_matchesGenericWordsOnlyAsTokensOrNamedCrawlers() {
+        UserAgentClassifier classifier = new UserAgentClassifier(new SimpleMeterRegistry(), "");
+
+        assertThat(classifier.isBot("Slackbot-LinkExpanding 1.0 (+https://api.slack.com/robots)")).isTrue();
+        assertThat(classifier.isBot("TelegramBot (like TwitterBot)")).isTrue();
+        assertThat(classifier.isBot("Pinterestbot/1.0")).isTrue();
+        assertThat(classifier.isBot("Mozilla/5.0+(compatible; UptimeRobot/2.0; http://www.uptimerobot.com/)")).isTrue();
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; Bot)")).isTrue();
+
+        assertThat(classifier.isBot("Mozilla/5.0 (Linux; Android 10; CUBOT_X30 Build/QP1A.190711.020) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/118.0.0.0 Mobile Safari/537.36")).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (Linux; Android 12; SM-G991B; wv) AppleWebKit/537.36 (KHTML, like Gecko) "
+            + "Version/4.0 Chrome/110.0.0.0 Mobile Safari/537.36 [Pinterest/Android]")).isFalse();
+        assertThat(classifier.isBot("Telegram-Android/9.6.7 (Samsung SM-A515F; Android 13; SDK 33; AVERAGE)")).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) "
+            + "Chrome/129.0.0.0 Safari/537.36 MonitorControl")).isFalse();
+    }
+
+    @Test
+    void isBot_treatsMissingUserAgentAsBotAndHonoursExtraSignatures() {
+        UserAgentClassifier classifier = new UserAgentClassifier(new SimpleMeterRegistry(), " InternalProbe , ");
+
+        assertThat(classifier.isBot(null)).isTrue();
+        assertThat(classifier.isBot("  ")).isTrue();
+        assertThat(classifier.isBot("internalprobe/1.0")).isTrue();
+    }
+
+    @Test
+    void isBot_memoizesVerdictsAndCountsBots() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserAgentClassifier classifier = new UserAgentClassifier(registry, "");
+
+        classifier.isBot(CHROME);
+        classifier.isBot(CHROME);
+        classifier.isBot("bingbot/2.0");
+
+        assertThat(registry.get("analytics.bots.cache.hits").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("analytics.bots.filtered").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("analytics.bots.cache.size").gauge().value()).isEqualTo(2.0);
+    }
+}
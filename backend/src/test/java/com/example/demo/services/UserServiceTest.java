@@ -3,12 +3,14 @@ package com.example.demo.services;
 import com.example.demo.dto.PortfolioResponse;
 import com.example.demo.dto.user.UserSettingsResponse;
 import com.example.demo.enums.NotificationType;
+import com.example.demo.events.PortfolioChangedEvent;
 import com.example.demo.models.CV;
 import com.example.demo.models.Certificate;
 import com.example.demo.models.Project;
 import com.example.demo.models.User;
 import com.example.demo.repositories.CVRepository;
 import com.example.demo.repositories.CertificateRepository;
+import com.example.demo.repositories.PortfolioQueryRepository;
 import com.example.demo.repositories.ProjectRepository;
 import com.example.demo.repositories.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -16,11 +18,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -42,7 +47,17 @@ class UserServiceTest {
     @Mock
     private CertificateRepository certificateRepository;
     @Mock
+    private PortfolioQueryRepository portfolioQueryRepository;
+    @Mock
+    private PortfolioReadModelService portfolioReadModelService;
+    @Mock
     private NotificationService notificationService;
+    @Mock
+    private PortfolioCacheService portfolioCacheService;
+    @Mock
+    private PublicProfileNegativeCache negativeCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private UserService userService;
@@ -73,6 +88,7 @@ class UserServiceTest {
         assertThat(result.getEmail()).isEqualTo("new@example.com");
         assertThat(result.getFullName()).isEqualTo("John Doe");
         assertThat(result.isPublic()).isFalse();
+        verify(negativeCache).registerUser("clerk-2");
 
         verify(notificationService).createOnce(
             eq(result),
@@ -157,11 +173,9 @@ class UserServiceTest {
 
     @Test
     void getPublicPortfolio_whenProfileIsPrivate_throwsNotFound() {
-        User privateUser = new User();
-        privateUser.setId("private-user");
-        privateUser.setPublic(false);
-
-        when(userRepository.findById("private-user")).thenReturn(Optional.of(privateUser));
+        when(portfolioQueryRepository.findPortfolio("private-user", false))
+            .thenReturn(Optional.of(new PortfolioQueryRepository.LoadedPortfolio(false, null)));
+        loadThroughCache("private-user");
 
         assertThatThrownBy(() -> userService.getPublicPortfolio("private-user"))
             .isInstanceOf(ResponseStatusException.class)
@@ -172,18 +186,65 @@ class UserServiceTest {
             });
     }
 
+    @Test
+    void getPublicPortfolio_whenReadModelPresent_skipsNormalizedTables() {
+        PortfolioResponse stored = new PortfolioResponse();
+        stored.setFullName("Stored User");
+        stored.setEmail("stored@example.com");
+        when(portfolioReadModelService.find("stored-user", false))
+            .thenReturn(Optional.of(new PortfolioQueryRepository.LoadedPortfolio(true, stored)));
+        loadThroughCache("stored-user");
+
+        PortfolioResponse response = userService.getPublicPortfolio("stored-user");
+
+        assertThat(response.getFullName()).isEqualTo("Stored User");
+        assertThat(response.getEmail()).isNull();
+        verify(portfolioQueryRepository, never()).findPortfolio(any(), eq(false));
+    }
+
+    @Test
+    void getPublicPortfolio_whenUserMissing_throwsNotFound() {
+        when(portfolioQueryRepository.findPortfolio("ghost", false)).thenReturn(Optional.empty());
+        loadThroughCache("ghost");
+
+        assertThatThrownBy(() -> userService.getPublicPortfolio("ghost"))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void getPublicPortfolio_whenKnownAbsent_throwsWithoutLoading() {
+        when(negativeCache.isKnownAbsent("scraped-id")).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.getPublicPortfolio("scraped-id"))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        verify(portfolioCacheService, never()).getOrLoad(any(), any());
+    }
+
+    @Test
+    void getPublicPortfolio_whenProfilePrivate_remembersNegativeResult() {
+        when(negativeCache.generation()).thenReturn(4L);
+        when(portfolioQueryRepository.findPortfolio("private-user", false))
+            .thenReturn(Optional.of(new PortfolioQueryRepository.LoadedPortfolio(false, null)));
+        loadThroughCache("private-user");
+
+        assertThatThrownBy(() -> userService.getPublicPortfolio("private-user"))
+            .isInstanceOf(ResponseStatusException.class);
+        verify(negativeCache).rememberAbsent("private-user", 4L);
+    }
+
     @Test
     void getPublicPortfolio_whenProfileIsPublic_hidesEmail() {
-        User publicUser = new User();
-        publicUser.setId("public-user");
-        publicUser.setPublic(true);
-        publicUser.setFullName("Visible User");
-        publicUser.setEmail("visible@example.com");
+        PortfolioResponse loaded = new PortfolioResponse();
+        loaded.setFullName("Visible User");
+        loaded.setEmail("visible@example.com");
+        loaded.setProjects(List.of());
+        loaded.setCertificates(List.of());
 
-        when(userRepository.findById("public-user")).thenReturn(Optional.of(publicUser));
-        when(projectRepository.findByUser(publicUser)).thenReturn(List.of());
-        when(certificateRepository.findByUser(publicUser)).thenReturn(List.of());
-        when(cvRepository.findByUser(publicUser)).thenReturn(Optional.empty());
+        when(portfolioQueryRepository.findPortfolio("public-user", false))
+            .thenReturn(Optional.of(new PortfolioQueryRepository.LoadedPortfolio(true, loaded)));
+        loadThroughCache("public-user");
 
         PortfolioResponse response = userService.getPublicPortfolio("public-user");
 
@@ -204,5 +265,22 @@ class UserServiceTest {
         assertThat(user.isPublic()).isTrue();
         assertThat(response.getAccountVisibility()).isEqualTo("public");
         verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(new PortfolioChangedEvent("settings-user"));
+    }
+
+    @Test
+    void getPublicPortfolioSummaries_dropsKnownAbsentAndDuplicateIds() {
+        when(negativeCache.isKnownAbsent(any())).thenAnswer(invocation -> "ghost".equals(invocation.getArgument(0)));
+        when(portfolioQueryRepository.findPublicSummaries(List.of("u-1", "u-2"))).thenReturn(Map.of());
+
+        userService.getPublicPortfolioSummaries(List.of("u-1", "ghost", "u-1", " ", "u-2"));
+
+        verify(portfolioQueryRepository).findPublicSummaries(List.of("u-1", "u-2"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadThroughCache(String userId) {
+        when(portfolioCacheService.getOrLoad(eq(userId), any()))
+            .thenAnswer(invocation -> ((Supplier<PortfolioResponse>) invocation.getArgument(1)).get());
     }
 }
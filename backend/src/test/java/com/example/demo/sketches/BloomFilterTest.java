@@ -0,0 +1,47 @@
+package com.example.demo.sketches;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_neverReturnsFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user_" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user_" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_keepsFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user_" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain("other_" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 20_000.0).isLessThan(0.03);
+    }
+
+    @Test
+    void clear_removesAllEntries() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("a");
+
+        filter.clear();
+
+        assertThat(filter.mightContain("a")).isFalse();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.sketches;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_isExactEnoughForSmallCardinalities() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 100; i++) {
+            sketch.offer("viewer-" + i);
+            sketch.offer("viewer-" + i);
+        }
+
+        assertThat(sketch.estimate()).isBetween(97L, 103L);
+    }
+
+    @Test
+    void estimate_staysWithinFewPercentForLargeCardinalities() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 200_000; i++) {
+            sketch.offer("viewer-" + i);
+        }
+
+        assertThat(sketch.estimate()).isBetween(194_000L, 206_000L);
+    }
+
+    @Test
+    void merge_countsOverlappingVisitorsOnce() {
+        HyperLogLog january = new HyperLogLog(12);
+        HyperLogLog february = new HyperLogLog(12);
+        for (int i = 0; i < 5_000; i++) {
+            january.offer("viewer-" + i);
+            february.offer("viewer-" + (i + 2_500));
+        }
+
+        january.merge(february);
+
+        assertThat(january.estimate()).isBetween(7_250L, 7_750L);
+    }
+
+    @Test
+    void toBytes_roundTripsAndStaysCompact() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        sketch.offer("viewer-1");
+
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        assertThat(bytes).hasSize(4097);
+        assertThat(restored.estimate()).isEqualTo(1L);
+        assertThat(restored.offer("viewer-1")).isFalse();
+    }
+
+    @Test
+    void merge_rejectsDifferentPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(12).merge(new HyperLogLog(10)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reduceTo_matchesASketchBuiltAtTheLowerPrecision() {
+        HyperLogLog fine = new HyperLogLog(14);
+        HyperLogLog coarse = new HyperLogLog(10);
+        for (int i = 0; i < 20_000; i++) {
+            fine.offer("viewer-" + i);
+            coarse.offer("viewer-" + i);
+        }
+
+        assertThat(fine.reduceTo(10).toBytes()).isEqualTo(coarse.toBytes());
+    }
+
+    @Test
+    void union_acrossPrecisions_usesTheLowerOneAndCountsOverlapOnce() {
+        HyperLogLog stored = new HyperLogLog(14);
+        HyperLogLog buffered = new HyperLogLog(12);
+        for (int i = 0; i < 5_000; i++) {
+            stored.offer("viewer-" + i);
+            buffered.offer("viewer-" + (i + 2_500));
+        }
+
+        HyperLogLog union = stored.union(buffered);
+
+        assertThat(union.precision()).isEqualTo(12);
+        assertThat(union.estimate()).isBetween(7_250L, 7_750L);
+        assertThat(buffered.union(stored).toBytes()).isEqualTo(union.toBytes());
+    }
+}
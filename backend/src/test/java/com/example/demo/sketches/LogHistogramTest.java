@@ -0,0 +1,71 @@
+package com.example.demo.sketches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LogHistogramTest {
+
+    @Test
+    void representative_staysWithinRelativeAccuracyOfEveryValueInItsBucket() {
+        for (long value = 1; value < 5_000_000; value = value * 3 / 2 + 1) {
+            long estimate = LogHistogram.representative(LogHistogram.bucketOf(value));
+            assertThat((double) Math.abs(estimate - value) / value)
+                .isLessThanOrEqualTo(LogHistogram.RELATIVE_ACCURACY + 1.0 / value);
+        }
+    }
+
+    @Test
+    void bucketOf_keepsSmallCountsApart() {
+        for (long value = 1; value < 50; value++) {
+            assertThat(LogHistogram.bucketOf(value + 1)).isGreaterThan(LogHistogram.bucketOf(value));
+        }
+    }
+
+    @Test
+    void percentRank_placesValuesAmongTheRecordedPopulation() {
+        Map<Integer, Long> buckets = new HashMap<>();
+        for (long views = 1; views <= 100; views++) {
+            buckets.merge(LogHistogram.bucketOf(views), 1L, Long::sum);
+        }
+        LogHistogram histogram = new LogHistogram(buckets);
+
+        assertThat(histogram.total()).isEqualTo(100);
+        assertThat(histogram.percentRank(91)).isCloseTo(90.5, within(1.5));
+        assertThat(histogram.percentRank(10)).isCloseTo(9.5, within(1.5));
+        assertThat(histogram.percentRank(0)).isZero();
+        assertThat(histogram.percentRank(10_000)).isEqualTo(100);
+    }
+
+    @Test
+    void quantile_returnsValuesWithinRelativeAccuracy() {
+        Map<Integer, Long> buckets = new HashMap<>();
+        for (long views = 1; views <= 10_000; views++) {
+            buckets.merge(LogHistogram.bucketOf(views), 1L, Long::sum);
+        }
+        LogHistogram histogram = new LogHistogram(buckets);
+
+        assertThat(histogram.quantile(0.5)).isCloseTo(5_000L, within(100L));
+        assertThat(histogram.quantile(0.9)).isCloseTo(9_000L, within(180L));
+        assertThat(histogram.quantile(1.0)).isCloseTo(10_000L, within(200L));
+    }
+
+    @Test
+    void emptyOrNegativeBuckets_giveAnEmptySketch() {
+        LogHistogram histogram = new LogHistogram(Map.of(3, -1L, 7, 0L));
+
+        assertThat(histogram.total()).isZero();
+        assertThat(histogram.percentRank(5)).isNaN();
+        assertThat(histogram.quantile(0.5)).isZero();
+    }
+
+    @Test
+    void bucketOf_rejectsNonPositiveValues() {
+        assertThatThrownBy(() -> LogHistogram.bucketOf(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.sketches;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingBloomFilterTest {
+    private static final long WINDOW_MS = 60_000L;
+
+    @Test
+    void checkAndPut_reportsRepeatWithinWindow() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW_MS, 4, 1_000, 0.01);
+
+        assertThat(filter.checkAndPut("owner|viewer", 0L)).isFalse();
+        assertThat(filter.checkAndPut("owner|viewer", 30_000L)).isTrue();
+        assertThat(filter.checkAndPut("owner|viewer", 59_999L)).isTrue();
+        assertThat(filter.checkAndPut("owner|other", 59_999L)).isFalse();
+    }
+
+    @Test
+    void checkAndPut_forgetsValuesOnceTheirBucketRotatesOut() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW_MS, 4, 1_000, 0.01);
+
+        filter.checkAndPut("owner|viewer", 0L);
+
+        assertThat(filter.checkAndPut("owner|viewer", 80_000L)).isFalse();
+        assertThat(filter.rotations()).isEqualTo(2);
+    }
+
+    @Test
+    void checkAndPut_ignoresStaleBucketsAfterIdleGap() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW_MS, 4, 1_000, 0.01);
+
+        filter.checkAndPut("owner|viewer", 0L);
+
+        // slot 0 is reused for epoch 4 only after the gap; earlier slots still hold epoch 0 data
+        assertThat(filter.checkAndPut("owner|viewer", 100_000L)).isFalse();
+    }
+
+    @Test
+    void sizeInBytes_isFixedRegardlessOfTraffic() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW_MS, 4, 1_000, 0.01);
+        long before = filter.sizeInBytes();
+
+        for (int i = 0; i < 50_000; i++) {
+            filter.checkAndPut("viewer-" + i, i * 10L);
+        }
+
+        assertThat(filter.sizeInBytes()).isEqualTo(before);
+    }
+
+    @Test
+    void checkAndPut_keepsFalsePositiveRateNearTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW_MS, 4, 9_000, 0.01);
+        for (int i = 0; i < 9_000; i++) {
+            filter.checkAndPut("seen-" + i, i * 6L);
+        }
+
+        // a fresh bucket receives the probes while the three older ones are still consulted
+        int falsePositives = 0;
+        for (int i = 0; i < 3_000; i++) {
+            if (filter.checkAndPut("fresh-" + i, 60_000L)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 3_000.0).isLessThan(0.03);
+    }
+}
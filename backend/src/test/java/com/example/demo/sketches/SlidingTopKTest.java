@@ -0,0 +1,78 @@
+package com.example.demo.sketches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingTopKTest {
+    private static final long WINDOW_MS = 60_000L;
+
+    @Test
+    void top_sumsLiveSlices() {
+        SlidingTopK topK = new SlidingTopK(WINDOW_MS, 4, 16, 4);
+
+        topK.offer("a", 0L);
+        topK.offer("b", 25_000L);
+        topK.offer("a", 45_000L);
+
+        assertThat(topK.top(5, 50_000L)).containsExactly(
+            new SpaceSaving.Entry("a", 2, 0),
+            new SpaceSaving.Entry("b", 1, 0)
+        );
+    }
+
+    @Test
+    void top_dropsSlicesOlderThanTheWindow() {
+        SlidingTopK topK = new SlidingTopK(WINDOW_MS, 4, 16, 4);
+        topK.offer("old", 0L);
+        topK.offer("new", 70_000L);
+
+        assertThat(topK.top(5, 85_000L)).extracting(SpaceSaving.Entry::key).containsExactly("new");
+    }
+
+    @Test
+    void offer_reusesExpiredSlotAfterIdleGap() {
+        SlidingTopK topK = new SlidingTopK(WINDOW_MS, 4, 16, 4);
+        topK.offer("old", 0L);
+
+        // epoch 4 maps to the slot that held epoch 0
+        topK.offer("new", 80_000L);
+
+        assertThat(topK.top(5, 80_000L)).containsExactly(new SpaceSaving.Entry("new", 1, 0));
+        assertThat(topK.counters()).isEqualTo(64);
+    }
+
+    @Test
+    void offer_fromManyThreads_losesNoCountsAcrossStripes() throws InterruptedException {
+        SlidingTopK topK = new SlidingTopK(WINDOW_MS, 4, 64, 8);
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    topK.offer("key-" + (i % 4), 1_000L);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(topK.top(4, 1_000L))
+            .extracting(SpaceSaving.Entry::count)
+            .containsOnly((long) threads * perThread / 4);
+    }
+}
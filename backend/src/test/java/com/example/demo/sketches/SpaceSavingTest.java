@@ -0,0 +1,63 @@
+package com.example.demo.sketches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void top_whenUnderCapacity_countsExactly() {
+        SpaceSaving summary = new SpaceSaving(8);
+
+        summary.offer("a");
+        summary.offer("b", 3);
+        summary.offer("a");
+
+        assertThat(summary.top(2)).containsExactly(
+            new SpaceSaving.Entry("b", 3, 0),
+            new SpaceSaving.Entry("a", 2, 0)
+        );
+        assertThat(summary.total()).isEqualTo(5);
+    }
+
+    @Test
+    void offer_whenFull_evictsSmallestAndCarriesItsCountAsError() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.offer("a", 5);
+        summary.offer("b", 1);
+
+        summary.offer("c");
+
+        assertThat(summary.estimate("b")).isZero();
+        assertThat(summary.top(2)).containsExactly(
+            new SpaceSaving.Entry("a", 5, 0),
+            new SpaceSaving.Entry("c", 2, 1)
+        );
+    }
+
+    @Test
+    void top_findsHeavyHittersInLongTail() {
+        SpaceSaving summary = new SpaceSaving(64);
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            if (i % 10 == 0) {
+                summary.offer("hot-" + (i / 10 % 3));
+            } else {
+                summary.offer("tail-" + random.nextInt(20_000));
+            }
+        }
+
+        assertThat(summary.top(3)).extracting(SpaceSaving.Entry::key)
+            .containsExactlyInAnyOrder("hot-0", "hot-1", "hot-2");
+        assertThat(summary.size()).isEqualTo(64);
+        // never underestimated, and the overestimate stays within total / capacity
+        for (SpaceSaving.Entry entry : summary.top(3)) {
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(1667);
+            assertThat(entry.count()).isGreaterThanOrEqualTo(1666);
+            assertThat(entry.error()).isLessThanOrEqualTo(50_000 / 64);
+        }
+    }
+}
@@ -1,5 +1,109 @@
 import { apiClient, getAuthHeaders, type TokenGetter } from './client';
-import type { AnalyticsEventKey, AnalyticsSnapshot } from '../types/analytics';
+import type {
+  AnalyticsEventKey,
+  AnalyticsCountryBreakdown,
+  AnalyticsGranularity,
+  AnalyticsSeries,
+  AnalyticsSnapshot,
+  AnalyticsTargetCount,
+  AnalyticsTargetType,
+} from '../types/analytics';
+
+interface QueuedAnalyticsEvent {
+  type: AnalyticsEventKey;
+  targetId?: string;
+  clientTimestamp: number;
+}
+
+const BATCH_PATH = '/api/analytics/me/events:batch';
+const MAX_QUEUED_EVENTS = 20;
+const FLUSH_DELAY_MS = 5000;
+
+let queuedEvents: QueuedAnalyticsEvent[] = [];
+let flushTimer: ReturnType<typeof setTimeout> | null = null;
+// last token seen by trackMyEvent; page unload cannot await Clerk for a fresh one
+let cachedToken: string | null = null;
+// bumped on sign-out, so a batch that fails afterwards is not put back into the next user's queue
+let session = 0;
+// events that already went back on the queue after a failed timer flush; a second failure drops them
+const retriedEvents = new WeakSet<QueuedAnalyticsEvent>();
+
+const takeQueuedEvents = () => {
+  if (flushTimer) {
+    clearTimeout(flushTimer);
+    flushTimer = null;
+  }
+  const events = queuedEvents;
+  queuedEvents = [];
+  return events;
+};
+
+const scheduleFlush = () => {
+  if (!flushTimer) {
+    flushTimer = setTimeout(() => {
+      void flushQueuedEventsOnTimer();
+    }, FLUSH_DELAY_MS);
+  }
+};
+
+const flushQueuedEvents = async () => {
+  const events = takeQueuedEvents();
+  if (events.length === 0 || !cachedToken) {
+    return;
+  }
+  await apiClient.post(BATCH_PATH, { events }, {
+    headers: { Authorization: `Bearer ${cachedToken}` },
+  });
+};
+
+// nobody awaits a timer flush, so a failed batch goes back on the queue once before it is dropped
+const flushQueuedEventsOnTimer = async () => {
+  const flushSession = session;
+  const events = takeQueuedEvents();
+  if (events.length === 0 || !cachedToken) {
+    return;
+  }
+  try {
+    await apiClient.post(BATCH_PATH, { events }, {
+      headers: { Authorization: `Bearer ${cachedToken}` },
+    });
+  } catch {
+    if (flushSession !== session) {
+      return;
+    }
+    const retry = events.filter((event) => !retriedEvents.has(event));
+    if (retry.length === 0) {
+      return;
+    }
+    retry.forEach((event) => retriedEvents.add(event));
+    queuedEvents = [...retry, ...queuedEvents];
+    scheduleFlush();
+  }
+};
+
+// sendBeacon cannot carry an Authorization header, so unload flushes use a keepalive fetch
+const flushQueuedEventsOnUnload = () => {
+  const events = takeQueuedEvents();
+  if (events.length === 0 || !cachedToken) {
+    return;
+  }
+  const baseUrl = (apiClient.defaults.baseURL ?? '/').replace(/\/$/, '');
+  void fetch(`${baseUrl}${BATCH_PATH}`, {
+    method: 'POST',
+    keepalive: true,
+    headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${cachedToken}` },
+    body: JSON.stringify({ events }),
+  }).catch(() => undefined);
+};
+
+if (typeof window !== 'undefined') {
+  window.addEventListener('pagehide', flushQueuedEventsOnUnload);
+  document.addEventListener('visibilitychange', () => {
+    if (document.visibilityState === 'hidden') {
+      flushQueuedEventsOnUnload();
+    }
+  });
+}
 
 export const analyticsApi = {
   async getMine(getToken: TokenGetter) {
@@ -8,14 +112,51 @@ export const analyticsApi = {
     return response.data;
   },
 
-  async trackMyEvent(eventKey: AnalyticsEventKey, getToken: TokenGetter) {
+  async getMySeries(
+    getToken: TokenGetter,
+    params: { from?: string; to?: string; granularity?: AnalyticsGranularity } = {},
+  ) {
     const headers = await getAuthHeaders(getToken);
-    const response = await apiClient.post<AnalyticsSnapshot>(`/api/analytics/me/events/${eventKey}`, undefined, {
+    const response = await apiClient.get<AnalyticsSeries>('/api/analytics/me/series', { headers, params });
+    return response.data;
+  },
+
+  async getMyCountries(getToken: TokenGetter, month?: string) {
+    const headers = await getAuthHeaders(getToken);
+    const response = await apiClient.get<AnalyticsCountryBreakdown>('/api/analytics/me/countries', {
       headers,
+      params: month ? { month } : undefined,
     });
     return response.data;
   },
 
+  async getMyTopTargets(getToken: TokenGetter, params: { type?: AnalyticsTargetType; limit?: number } = {}) {
+    const headers = await getAuthHeaders(getToken);
+    const response = await apiClient.get<AnalyticsTargetCount[]>('/api/analytics/me/targets', { headers, params });
+    return response.data;
+  },
+
+  // events are queued and sent in one batch after a short delay, at 20 events, or when the page is hidden
+  async trackMyEvent(eventKey: AnalyticsEventKey, getToken: TokenGetter, targetId?: string) {
+    cachedToken = await getToken();
+    if (!cachedToken) {
+      throw new Error('Authentication token is missing. Please sign in again.');
+    }
+    queuedEvents.push({ type: eventKey, targetId, clientTimestamp: Date.now() });
+    if (queuedEvents.length >= MAX_QUEUED_EVENTS) {
+      await flushQueuedEvents();
+    } else {
+      scheduleFlush();
+    }
+  },
+
+  // call before signing out, so the next user neither sends nor inherits this user's queued events
+  resetQueuedEvents() {
+    takeQueuedEvents();
+    cachedToken = null;
+    session += 1;
+  },
+
   async trackPublicView(userId: string) {
     await apiClient.post(`/api/analytics/public-view/${userId}`);
   },
@@ -2,6 +2,7 @@ import { useAuth, useClerk, useUser } from '@clerk/clerk-react';
 import { Bell, Sparkles, ChevronDown, CheckCircle2, LoaderCircle, Search } from 'lucide-react';
 import { useCallback, useEffect, useMemo, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
+import { analyticsApi } from '../../api/analytics';
 import { notificationsApi } from '../../api/notifications';
 import logoImg from '../../assets/logo.png';
 import { searchIndex } from '../../constants/searchIndex';
@@ -304,6 +305,7 @@ const Navbar = () => {
               </div>
               <button
                 onClick={() => {
+                  analyticsApi.resetQueuedEvents();
                   void signOut({ redirectUrl: '/info' });
                 }}
                 className="w-full text-left px-3 py-2.5 text-[12px] text-red-500 hover:bg-red-50 rounded-[12px] transition-colors flex items-center justify-between"
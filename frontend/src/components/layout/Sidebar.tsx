@@ -1,6 +1,7 @@
 import { Sun, Moon, User, Award, FileText, Briefcase, Settings, Info, LogOut } from 'lucide-react';
 import { useClerk } from '@clerk/clerk-react';
 import { useLocation, useNavigate } from 'react-router-dom';
+import { analyticsApi } from '../../api/analytics';
 import { useTheme } from '../../hooks/useTheme';
 
 const Sidebar = () => {
@@ -80,6 +81,7 @@ const Sidebar = () => {
         <button
           type="button"
           onClick={() => {
+            analyticsApi.resetQueuedEvents();
             void signOut({ redirectUrl: '/info' });
           }}
           className="w-10 h-10 flex items-center justify-center rounded-[18px] text-[#EF4444] hover:bg-red-50 transition-all"
@@ -592,7 +592,7 @@ const CertificatesPage = () => {
                   rel="noreferrer"
                   onClick={() => {
                     if (user?.id) {
-                      void analyticsApi.trackMyEvent('certificateFileOpens', getToken).catch(() => undefined);
+                      void analyticsApi.trackMyEvent('certificateFileOpens', getToken, String(certificate.id)).catch(() => undefined);
                     }
                   }}
                   className="h-[38px] px-4 rounded-[12px] border border-app text-h5 text-main inline-flex items-center"
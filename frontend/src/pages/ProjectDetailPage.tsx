@@ -31,7 +31,7 @@ const ProjectDetailPage = () => {
 
   useEffect(() => {
     if (project && user?.id) {
-      void analyticsApi.trackMyEvent('projectDetailViews', getToken).catch(() => undefined);
+      void analyticsApi.trackMyEvent('projectDetailViews', getToken, String(project.id)).catch(() => undefined);
     }
   }, [getToken, project, user?.id]);
 
@@ -54,6 +54,7 @@ const SettingsPage = () => {
     try {
       await usersApi.deleteMe(getToken);
       setStatus('Account was deleted from backend. Signing out...');
+      analyticsApi.resetQueuedEvents();
       await signOut({ redirectUrl: '/info' });
     } catch (requestError) {
       setError(getApiErrorMessage(requestError, 'Failed to delete account.'));
@@ -1,12 +1,12 @@
 import { useAuth, useUser } from '@clerk/clerk-react';
-import { ArrowUpRight, BarChart3, Eye, FileDown, Link2, MonitorPlay, NotebookTabs } from 'lucide-react';
+import { ArrowUpRight, BarChart3, Eye, FileDown, Link2, MonitorPlay, NotebookTabs, Trophy, Users } from 'lucide-react';
 import { useEffect, useMemo, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { analyticsApi } from '../api/analytics';
 import { useCertificates } from '../hooks/useCertificates';
 import { useCvDocuments } from '../hooks/useCvDocuments';
 import { useProjects } from '../hooks/useProjects';
-import type { AnalyticsSnapshot } from '../types/analytics';
+import type { AnalyticsCountryBreakdown, AnalyticsSnapshot, AnalyticsTargetCount } from '../types/analytics';
 import { getPublicProfileLink } from '../utils/publicProfile';
 import { useAppSettings } from '../hooks/useAppSettings';
 
@@ -21,6 +21,14 @@ const buildRecentMonths = (count: number) => {
   });
 };
 
+// percent rank -> "Top 10%"; at least 1% so the leader does not read "Top 0%"
+const formatTopShare = (percentile?: number) => {
+  if (percentile === undefined) {
+    return '—';
+  }
+  return `Top ${Math.max(1, Math.ceil(100 - percentile))}%`;
+};
+
 const StatisticsPage = () => {
   const navigate = useNavigate();
   const { getToken } = useAuth();
@@ -32,6 +40,8 @@ const StatisticsPage = () => {
 
   const [analytics, setAnalytics] = useState<AnalyticsSnapshot | null>(null);
   const [analyticsError, setAnalyticsError] = useState<string | null>(null);
+  const [topTargets, setTopTargets] = useState<AnalyticsTargetCount[]>([]);
+  const [countries, setCountries] = useState<AnalyticsCountryBreakdown['countries']>([]);
 
   useEffect(() => {
     if (!user?.id) {
@@ -42,12 +52,18 @@ const StatisticsPage = () => {
 
     const loadAnalytics = async () => {
       try {
-        const snapshot = await analyticsApi.getMine(getToken);
+        const [snapshot, targets, breakdown] = await Promise.all([
+          analyticsApi.getMine(getToken),
+          analyticsApi.getMyTopTargets(getToken, { limit: 5 }).catch(() => []),
+          analyticsApi.getMyCountries(getToken).catch(() => null),
+        ]);
         if (!active) {
           return;
         }
 
         setAnalytics(snapshot);
+        setTopTargets(targets);
+        setCountries(breakdown?.countries.slice(0, 5) ?? []);
         setAnalyticsError(null);
       } catch {
         if (!active) {
@@ -88,6 +104,16 @@ const StatisticsPage = () => {
       value: analytics?.publicViews ?? 0,
       icon: Eye,
     },
+    {
+      title: 'Views rank this month',
+      value: formatTopShare(analytics?.percentilesThisMonth?.publicViews),
+      icon: Trophy,
+    },
+    {
+      title: 'Unique visitors this month',
+      value: analytics?.uniqueVisitorsThisMonth ?? 0,
+      icon: Users,
+    },
     {
       title: 'Shared links',
       value: analytics?.shareClicks ?? 0,
@@ -254,6 +280,37 @@ const StatisticsPage = () => {
           </section>
         </div>
 
+        {topTargets.length > 0 && (
+          <section className="mt-6 rounded-soft border border-app surface-soft p-5">
+            <h3 className="text-h4 text-main">Most Viewed</h3>
+            <ul className="mt-3 space-y-2">
+              {topTargets.map((target) => (
+                <li key={`${target.targetType}-${target.targetId}`} className="flex justify-between text-h5">
+                  <span className="text-main">
+                    {target.title || `#${target.targetId}`}
+                    <span className="text-muted ml-2">{target.targetType === 'project' ? 'Project' : 'Certificate'}</span>
+                  </span>
+                  <span className="text-main">{target.count}</span>
+                </li>
+              ))}
+            </ul>
+          </section>
+        )}
+
+        {countries.length > 0 && (
+          <section className="mt-6 rounded-soft border border-app surface-soft p-5">
+            <h3 className="text-h4 text-main">Top Countries (this month)</h3>
+            <ul className="mt-3 space-y-2">
+              {countries.map((country) => (
+                <li key={country.countryCode} className="flex justify-between text-h5">
+                  <span className="text-main">{country.countryCode === 'ZZ' ? 'Unknown' : country.countryCode}</span>
+                  <span className="text-main">{country.views}</span>
+                </li>
+              ))}
+            </ul>
+          </section>
+        )}
+
         <section className="mt-6 rounded-soft border border-app surface-soft p-5">
           <h3 className="text-h4 text-main">Achievement Badges</h3>
           <p className="text-h5 text-muted mt-1">Unlock badges by filling portfolio and increasing profile activity.</p>
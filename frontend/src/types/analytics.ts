@@ -4,6 +4,34 @@ export type AnalyticsEventKey =
   | 'certificateFileOpens'
   | 'cvDownloads';
 
+export type AnalyticsGranularity = 'hour' | 'day' | 'month';
+
+export interface AnalyticsSeriesPoint {
+  bucketStart: string;
+  counts: Record<'publicViews' | AnalyticsEventKey, number>;
+}
+
+export interface AnalyticsSeries {
+  granularity: AnalyticsGranularity;
+  from: string;
+  to: string;
+  points: AnalyticsSeriesPoint[];
+}
+
+export type AnalyticsTargetType = 'project' | 'certificate';
+
+export interface AnalyticsTargetCount {
+  targetType: AnalyticsTargetType;
+  targetId: number;
+  title: string | null;
+  count: number;
+}
+
+export interface AnalyticsCountryBreakdown {
+  month: string;
+  countries: { countryCode: string; views: number }[];
+}
+
 export interface AnalyticsSnapshot {
   publicViews: number;
   shareClicks: number;
@@ -12,4 +40,7 @@ export interface AnalyticsSnapshot {
   cvDownloads: number;
   lastUpdated?: string | null;
   monthlyActivity: Record<string, number>;
+  uniqueVisitorsThisMonth: number;
+  // event key -> share of active portfolios (0-100) with fewer such events this month
+  percentilesThisMonth?: Record<string, number>;
 }